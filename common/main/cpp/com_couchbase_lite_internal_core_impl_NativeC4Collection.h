@@ -90,6 +90,33 @@ JNIEXPORT void
 JNICALL Java_com_couchbase_lite_internal_core_impl_NativeC4Collection_purgeDoc
         (JNIEnv *, jclass, jlong, jstring);
 
+/*
+ * Class:     com_couchbase_lite_internal_core_impl_NativeC4Collection
+ * Method:    setDocsExpiration
+ * Signature: (J[Ljava/lang/String;[J)[Z
+ */
+JNIEXPORT jbooleanArray
+JNICALL Java_com_couchbase_lite_internal_core_impl_NativeC4Collection_setDocsExpiration
+        (JNIEnv *, jclass, jlong, jobjectArray, jlongArray);
+
+/*
+ * Class:     com_couchbase_lite_internal_core_impl_NativeC4Collection
+ * Method:    purgeDocs
+ * Signature: (J[Ljava/lang/String;)[Z
+ */
+JNIEXPORT jbooleanArray
+JNICALL Java_com_couchbase_lite_internal_core_impl_NativeC4Collection_purgeDocs
+        (JNIEnv *, jclass, jlong, jobjectArray);
+
+/*
+ * Class:     com_couchbase_lite_internal_core_impl_NativeC4Collection
+ * Method:    importJsonLines
+ * Signature: (J[B[I[ILjava/lang/String;)[Ljava/lang/String;
+ */
+JNIEXPORT jobjectArray
+JNICALL Java_com_couchbase_lite_internal_core_impl_NativeC4Collection_importJsonLines
+        (JNIEnv *, jclass, jlong, jbyteArray, jintArray, jintArray, jstring);
+
 /*
  * Class:     com_couchbase_lite_internal_core_impl_NativeC4Collection
  * Method:    getIndexesInfo
@@ -17,6 +17,15 @@ JNIEXPORT jlong
 JNICALL Java_com_couchbase_lite_internal_core_impl_NativeC4Document_getFromCollection
         (JNIEnv *, jclass, jlong, jstring, jboolean, jboolean);
 
+/*
+ * Class:     com_couchbase_lite_internal_core_impl_NativeC4Document
+ * Method:    getManyFromCollection
+ * Signature: (J[Ljava/lang/String;)[J
+ */
+JNIEXPORT jlongArray
+JNICALL Java_com_couchbase_lite_internal_core_impl_NativeC4Document_getManyFromCollection
+        (JNIEnv *, jclass, jlong, jobjectArray);
+
 /*
  * Class:     com_couchbase_lite_internal_core_impl_NativeC4Document
  * Method:    createFromSlice
@@ -161,6 +170,15 @@ JNIEXPORT jstring
 JNICALL Java_com_couchbase_lite_internal_core_impl_NativeC4Document_bodyAsJSON
         (JNIEnv *, jclass, jlong, jboolean);
 
+/*
+ * Class:     com_couchbase_lite_internal_core_impl_NativeC4Document
+ * Method:    applyPatch
+ * Signature: (JJJ)Lcom/couchbase/lite/internal/fleece/FLSliceResult;
+ */
+JNIEXPORT jobject
+JNICALL Java_com_couchbase_lite_internal_core_impl_NativeC4Document_applyPatch
+        (JNIEnv *, jclass, jlong, jlong, jlong);
+
 #ifdef __cplusplus
 }
 #endif
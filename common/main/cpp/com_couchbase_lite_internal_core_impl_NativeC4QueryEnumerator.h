@@ -17,6 +17,24 @@ JNIEXPORT jboolean
 JNICALL Java_com_couchbase_lite_internal_core_impl_NativeC4QueryEnumerator_next
         (JNIEnv *, jclass, jlong);
 
+/*
+ * Class:     com_couchbase_lite_internal_core_impl_NativeC4QueryEnumerator
+ * Method:    nextRows
+ * Signature: (JII[J)I
+ */
+JNIEXPORT jint
+JNICALL Java_com_couchbase_lite_internal_core_impl_NativeC4QueryEnumerator_nextRows
+        (JNIEnv * , jclass, jlong, jint, jint, jlongArray);
+
+/*
+ * Class:     com_couchbase_lite_internal_core_impl_NativeC4QueryEnumerator
+ * Method:    nextColumns
+ * Signature: (JII[B[J[Ljava/lang/String;)I
+ */
+JNIEXPORT jint
+JNICALL Java_com_couchbase_lite_internal_core_impl_NativeC4QueryEnumerator_nextColumns
+        (JNIEnv * , jclass, jlong, jint, jint, jbyteArray, jlongArray, jobjectArray);
+
 /*
  * Class:     com_couchbase_lite_internal_core_impl_NativeC4QueryEnumerator
  * Method:    free
@@ -37,57 +37,12 @@ JNICALL Java_com_couchbase_lite_internal_fleece_impl_NativeFLEncoder_reset
 
 /*
  * Class:     com_couchbase_lite_internal_fleece_impl_NativeFLEncoder
- * Method:    writeNull
- * Signature: (J)Z
+ * Method:    setSharedKeys
+ * Signature: (JJ)V
  */
-JNIEXPORT jboolean
-JNICALL Java_com_couchbase_lite_internal_fleece_impl_NativeFLEncoder_writeNull
-        (JNIEnv * , jclass, jlong);
-
-/*
- * Class:     com_couchbase_lite_internal_fleece_impl_NativeFLEncoder
- * Method:    writeBool
- * Signature: (JZ)Z
- */
-JNIEXPORT jboolean
-JNICALL Java_com_couchbase_lite_internal_fleece_impl_NativeFLEncoder_writeBool
-        (JNIEnv * , jclass, jlong, jboolean);
-
-/*
- * Class:     com_couchbase_lite_internal_fleece_impl_NativeFLEncoder
- * Method:    writeInt
- * Signature: (JJ)Z
- */
-JNIEXPORT jboolean
-JNICALL Java_com_couchbase_lite_internal_fleece_impl_NativeFLEncoder_writeInt
-        (JNIEnv * , jclass, jlong, jlong);
-
-/*
- * Class:     com_couchbase_lite_internal_fleece_impl_NativeFLEncoder
- * Method:    writeFloat
- * Signature: (JF)Z
- */
-JNIEXPORT jboolean
-JNICALL Java_com_couchbase_lite_internal_fleece_impl_NativeFLEncoder_writeFloat
-        (JNIEnv * , jclass, jlong, jfloat);
-
-/*
- * Class:     com_couchbase_lite_internal_fleece_impl_NativeFLEncoder
- * Method:    writeDouble
- * Signature: (JD)Z
- */
-JNIEXPORT jboolean
-JNICALL Java_com_couchbase_lite_internal_fleece_impl_NativeFLEncoder_writeDouble
-        (JNIEnv * , jclass, jlong, jdouble);
-
-/*
- * Class:     com_couchbase_lite_internal_fleece_impl_NativeFLEncoder
- * Method:    writeString
- * Signature: (JLjava/lang/String;)Z
- */
-JNIEXPORT jboolean
-JNICALL Java_com_couchbase_lite_internal_fleece_impl_NativeFLEncoder_writeString
-        (JNIEnv * , jclass, jlong, jstring);
+JNIEXPORT void
+JNICALL Java_com_couchbase_lite_internal_fleece_impl_NativeFLEncoder_setSharedKeys
+        (JNIEnv *, jclass, jlong, jlong);
 
 /*
  * Class:     com_couchbase_lite_internal_fleece_impl_NativeFLEncoder
@@ -100,66 +55,30 @@ JNICALL Java_com_couchbase_lite_internal_fleece_impl_NativeFLEncoder_writeString
 
 /*
  * Class:     com_couchbase_lite_internal_fleece_impl_NativeFLEncoder
- * Method:    writeData
- * Signature: (J[B)Z
- */
-JNIEXPORT jboolean
-JNICALL Java_com_couchbase_lite_internal_fleece_impl_NativeFLEncoder_writeData
-        (JNIEnv * , jclass, jlong, jbyteArray);
-
-/*
- * Class:     com_couchbase_lite_internal_fleece_impl_NativeFLEncoder
- * Method:    writeValue
- * Signature: (JJ)Z
- */
-JNIEXPORT jboolean
-JNICALL Java_com_couchbase_lite_internal_fleece_impl_NativeFLEncoder_writeValue
-        (JNIEnv * , jclass, jlong, jlong);
-
-/*
- * Class:     com_couchbase_lite_internal_fleece_impl_NativeFLEncoder
- * Method:    beginArray
- * Signature: (JJ)Z
+ * Method:    writeDictEntriesExcept
+ * Signature: (JJ[Ljava/lang/String;)Z
  */
 JNIEXPORT jboolean
-JNICALL Java_com_couchbase_lite_internal_fleece_impl_NativeFLEncoder_beginArray
-        (JNIEnv * , jclass, jlong, jlong);
+JNICALL Java_com_couchbase_lite_internal_fleece_impl_NativeFLEncoder_writeDictEntriesExcept
+        (JNIEnv * , jclass, jlong, jlong, jobjectArray);
 
 /*
  * Class:     com_couchbase_lite_internal_fleece_impl_NativeFLEncoder
- * Method:    endArray
- * Signature: (J)Z
+ * Method:    writeCommands
+ * Signature: (J[BI)Z
  */
 JNIEXPORT jboolean
-JNICALL Java_com_couchbase_lite_internal_fleece_impl_NativeFLEncoder_endArray
-        (JNIEnv * , jclass, jlong);
-
-/*
- * Class:     com_couchbase_lite_internal_fleece_impl_NativeFLEncoder
- * Method:    beginDict
- * Signature: (JJ)Z
- */
-JNIEXPORT jboolean
-JNICALL Java_com_couchbase_lite_internal_fleece_impl_NativeFLEncoder_beginDict
-        (JNIEnv * , jclass, jlong, jlong);
-
-/*
- * Class:     com_couchbase_lite_internal_fleece_impl_NativeFLEncoder
- * Method:    endDict
- * Signature: (J)Z
- */
-JNIEXPORT jboolean
-JNICALL Java_com_couchbase_lite_internal_fleece_impl_NativeFLEncoder_endDict
-        (JNIEnv * , jclass, jlong);
+JNICALL Java_com_couchbase_lite_internal_fleece_impl_NativeFLEncoder_writeCommands
+        (JNIEnv * , jclass, jlong, jbyteArray, jint);
 
 /*
  * Class:     com_couchbase_lite_internal_fleece_impl_NativeFLEncoder
- * Method:    writeKey
- * Signature: (JLjava/lang/String;)Z
+ * Method:    writeEncoded
+ * Signature: (JJJJ)Z
  */
 JNIEXPORT jboolean
-JNICALL Java_com_couchbase_lite_internal_fleece_impl_NativeFLEncoder_writeKey
-        (JNIEnv * , jclass, jlong, jstring);
+JNICALL Java_com_couchbase_lite_internal_fleece_impl_NativeFLEncoder_writeEncoded
+        (JNIEnv * , jclass, jlong, jlong, jlong, jlong);
 
 /*
  * Class:     com_couchbase_lite_internal_fleece_impl_NativeFLEncoder
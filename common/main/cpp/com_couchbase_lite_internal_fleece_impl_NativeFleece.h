@@ -95,6 +95,15 @@ JNIEXPORT jlong
 JNICALL Java_com_couchbase_lite_internal_fleece_impl_NativeFLDict_get
         (JNIEnv * , jclass, jlong, jbyteArray);
 
+/*
+ * Class:     com_couchbase_lite_internal_fleece_impl_NativeFLDict
+ * Method:    getWithKeySlice
+ * Signature: (JJJ)J
+ */
+JNIEXPORT jlong
+JNICALL Java_com_couchbase_lite_internal_fleece_impl_NativeFLDict_getWithKeySlice
+        (JNIEnv * , jclass, jlong, jlong, jlong);
+
 /*
  * Class:     com_couchbase_lite_internal_fleece_impl_NativeFLDict
  * Method:    init
@@ -131,6 +140,15 @@ JNIEXPORT jstring
 JNICALL Java_com_couchbase_lite_internal_fleece_impl_NativeFLDict_getKey
         (JNIEnv * , jclass, jlong);
 
+/*
+ * Class:     com_couchbase_lite_internal_fleece_impl_NativeFLDict
+ * Method:    getKeyOrId
+ * Signature: (J[I)Ljava/lang/String;
+ */
+JNIEXPORT jstring
+JNICALL Java_com_couchbase_lite_internal_fleece_impl_NativeFLDict_getKeyOrId
+        (JNIEnv * , jclass, jlong, jintArray);
+
 /*
  * Class:     com_couchbase_lite_internal_fleece_impl_NativeFLDict
  * Method:    getValue
@@ -149,6 +167,37 @@ JNIEXPORT void
 JNICALL Java_com_couchbase_lite_internal_fleece_impl_NativeFLDict_free
         (JNIEnv *, jclass, jlong);
 
+/*
+ * Class:     com_couchbase_lite_internal_fleece_impl_NativeFLDict
+ * Method:    usesSharedKeys
+ * Signature: (JJ)Z
+ */
+JNIEXPORT jboolean
+JNICALL Java_com_couchbase_lite_internal_fleece_impl_NativeFLDict_usesSharedKeys
+        (JNIEnv * , jclass, jlong, jlong);
+
+// ----------------------------------------------------------------------------
+// NativeFLSharedKeys
+// ----------------------------------------------------------------------------
+
+/*
+ * Class:     com_couchbase_lite_internal_fleece_impl_NativeFLSharedKeys
+ * Method:    decode
+ * Signature: (JI)Ljava/lang/String;
+ */
+JNIEXPORT jstring
+JNICALL Java_com_couchbase_lite_internal_fleece_impl_NativeFLSharedKeys_decode
+        (JNIEnv * , jclass, jlong, jint);
+
+/*
+ * Class:     com_couchbase_lite_internal_fleece_impl_NativeFLSharedKeys
+ * Method:    hasShareableStringKeys
+ * Signature: (JJ)Z
+ */
+JNIEXPORT jboolean
+JNICALL Java_com_couchbase_lite_internal_fleece_impl_NativeFLSharedKeys_hasShareableStringKeys
+        (JNIEnv * , jclass, jlong, jlong);
+
 // ----------------------------------------------------------------------------
 // FLValue
 // ----------------------------------------------------------------------------
@@ -323,6 +372,69 @@ JNIEXPORT jstring
 JNICALL Java_com_couchbase_lite_internal_fleece_impl_NativeFLValue_json5toJson
         (JNIEnv * , jclass, jstring);
 
+/*
+ * Class:     com_couchbase_lite_internal_fleece_impl_NativeFLValue
+ * Method:    encodeTrees
+ * Signature: ([JJ)[B
+ */
+JNIEXPORT jbyteArray
+JNICALL Java_com_couchbase_lite_internal_fleece_impl_NativeFLValue_encodeTrees
+        (JNIEnv * , jclass, jlongArray, jlong);
+
+/*
+ * Class:     com_couchbase_lite_internal_fleece_impl_NativeFLValue
+ * Method:    isEqual
+ * Signature: (JJ)I
+ */
+JNIEXPORT jint
+JNICALL Java_com_couchbase_lite_internal_fleece_impl_NativeFLValue_isEqual
+        (JNIEnv * , jclass, jlong, jlong);
+
+/*
+ * Class:     com_couchbase_lite_internal_fleece_impl_NativeFLValue
+ * Method:    contentHash
+ * Signature: (J)I
+ */
+JNIEXPORT jint
+JNICALL Java_com_couchbase_lite_internal_fleece_impl_NativeFLValue_contentHash
+        (JNIEnv * , jclass, jlong);
+
+/*
+ * Class:     com_couchbase_lite_internal_fleece_impl_NativeFLValue
+ * Method:    digest
+ * Signature: (J)Ljava/lang/String;
+ */
+JNIEXPORT jstring
+JNICALL Java_com_couchbase_lite_internal_fleece_impl_NativeFLValue_digest
+        (JNIEnv * , jclass, jlong);
+
+/*
+ * Class:     com_couchbase_lite_internal_fleece_impl_NativeFLValue
+ * Method:    createJSONDelta
+ * Signature: (JJ)Ljava/lang/String;
+ */
+JNIEXPORT jstring
+JNICALL Java_com_couchbase_lite_internal_fleece_impl_NativeFLValue_createJSONDelta
+        (JNIEnv * , jclass, jlong, jlong);
+
+/*
+ * Class:     com_couchbase_lite_internal_fleece_impl_NativeFLValue
+ * Method:    applyJSONDelta
+ * Signature: (JLjava/lang/String;)Lcom/couchbase/lite/internal/fleece/FLSliceResult;
+ */
+JNIEXPORT jobject
+JNICALL Java_com_couchbase_lite_internal_fleece_impl_NativeFLValue_applyJSONDelta
+        (JNIEnv * , jclass, jlong, jstring);
+
+/*
+ * Class:     com_couchbase_lite_internal_fleece_impl_NativeFLValue
+ * Method:    jsonToFleece
+ * Signature: (Ljava/lang/String;)Lcom/couchbase/lite/internal/fleece/FLSliceResult;
+ */
+JNIEXPORT jobject
+JNICALL Java_com_couchbase_lite_internal_fleece_impl_NativeFLValue_jsonToFleece
+        (JNIEnv * , jclass, jstring);
+
 // ----------------------------------------------------------------------------
 // NativeFLSliceResult
 // ----------------------------------------------------------------------------
@@ -345,6 +457,33 @@ JNIEXPORT void
 JNICALL Java_com_couchbase_lite_internal_fleece_impl_NativeFLSliceResult_release(
         JNIEnv *, jclass, jlong, jlong);
 
+/*
+ * Class:     com_couchbase_lite_internal_fleece_impl_NativeFLSliceResult
+ * Method:    copyOf
+ * Signature: ([B)Lcom/couchbase/lite/internal/fleece/FLSliceResult;
+ */
+JNIEXPORT jobject
+JNICALL Java_com_couchbase_lite_internal_fleece_impl_NativeFLSliceResult_copyOf
+        (JNIEnv * , jclass, jbyteArray);
+
+/*
+ * Class:     com_couchbase_lite_internal_fleece_impl_NativeFLSliceResult
+ * Method:    getByteBuffer
+ * Signature: (JJ)Ljava/nio/ByteBuffer;
+ */
+JNIEXPORT jobject
+JNICALL Java_com_couchbase_lite_internal_fleece_impl_NativeFLSliceResult_getByteBuffer
+        (JNIEnv * , jclass, jlong, jlong);
+
+/*
+ * Class:     com_couchbase_lite_internal_fleece_impl_NativeFLSliceResult
+ * Method:    copyOfBuffer
+ * Signature: (Ljava/nio/ByteBuffer;II)Lcom/couchbase/lite/internal/fleece/FLSliceResult;
+ */
+JNIEXPORT jobject
+JNICALL Java_com_couchbase_lite_internal_fleece_impl_NativeFLSliceResult_copyOfBuffer
+        (JNIEnv * , jclass, jobject, jint, jint);
+
 #ifdef __cplusplus
 }
 #endif
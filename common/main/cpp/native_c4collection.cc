@@ -13,6 +13,9 @@
 // See the License for the specific language governing permissions and
 // limitations under the License.
 //
+#include <algorithm>
+#include <string>
+#include <vector>
 #include "native_glue.hh"
 #include "c4DatabaseTypes.h"
 #include "com_couchbase_lite_internal_core_impl_NativeC4Collection.h"
@@ -231,6 +234,267 @@ Java_com_couchbase_lite_internal_core_impl_NativeC4Collection_purgeDoc(
         throwError(env, error);
 }
 
+/*
+ * Class:     com_couchbase_lite_internal_core_impl_NativeC4Collection
+ * Method:    setDocsExpiration
+ * Signature: (J[Ljava/lang/String;[J)[Z
+ */
+JNIEXPORT jbooleanArray JNICALL
+Java_com_couchbase_lite_internal_core_impl_NativeC4Collection_setDocsExpiration(
+        JNIEnv *env,
+        jclass ignore,
+        jlong coll,
+        jobjectArray jDocIds,
+        jlongArray jTimestamps) {
+    jsize n = env->GetArrayLength(jDocIds);
+    std::vector<jlong> timestamps(n);
+    env->GetLongArrayRegion(jTimestamps, 0, n, timestamps.data());
+
+    // results[i] is false if the i-th document does not exist
+    std::vector<jboolean> results(n, JNI_FALSE);
+    for (jsize i = 0; i < n; i++) {
+        auto jDocId = (jstring) env->GetObjectArrayElement(jDocIds, i);
+
+        C4Error error{};
+        bool ok;
+        {
+            jstringSlice docId(env, jDocId);
+            ok = c4coll_setDocExpiration((C4Collection *) coll, docId, timestamps[i], &error);
+        }
+        env->DeleteLocalRef(jDocId);
+
+        if (ok) {
+            results[i] = JNI_TRUE;
+            continue;
+        }
+
+        if ((error.code != 0) && !((error.domain == LiteCoreDomain) && (error.code == kC4ErrorNotFound))) {
+            throwError(env, error);
+            return nullptr;
+        }
+    }
+
+    jbooleanArray jResults = env->NewBooleanArray(n);
+    if (jResults == nullptr)
+        return nullptr;
+    env->SetBooleanArrayRegion(jResults, 0, n, results.data());
+    return jResults;
+}
+
+/*
+ * Class:     com_couchbase_lite_internal_core_impl_NativeC4Collection
+ * Method:    purgeDocs
+ * Signature: (J[Ljava/lang/String;)[Z
+ */
+JNIEXPORT jbooleanArray JNICALL
+Java_com_couchbase_lite_internal_core_impl_NativeC4Collection_purgeDocs(
+        JNIEnv *env,
+        jclass ignore,
+        jlong coll,
+        jobjectArray jDocIds) {
+    jsize n = env->GetArrayLength(jDocIds);
+
+    // results[i] is false if the i-th document does not exist
+    std::vector<jboolean> results(n, JNI_FALSE);
+    for (jsize i = 0; i < n; i++) {
+        auto jDocId = (jstring) env->GetObjectArrayElement(jDocIds, i);
+
+        C4Error error{};
+        bool ok;
+        {
+            jstringSlice docId(env, jDocId);
+            ok = c4coll_purgeDoc((C4Collection *) coll, docId, &error);
+        }
+        env->DeleteLocalRef(jDocId);
+
+        if (ok) {
+            results[i] = JNI_TRUE;
+            continue;
+        }
+
+        if ((error.code != 0) && !((error.domain == LiteCoreDomain) && (error.code == kC4ErrorNotFound))) {
+            throwError(env, error);
+            return nullptr;
+        }
+    }
+
+    jbooleanArray jResults = env->NewBooleanArray(n);
+    if (jResults == nullptr)
+        return nullptr;
+    env->SetBooleanArrayRegion(jResults, 0, n, results.data());
+    return jResults;
+}
+
+// Errors that are caused by the content of a single imported line, rather than by the database
+static bool isImportLineError(const C4Error &error) {
+    if (error.domain != LiteCoreDomain)
+        return false;
+    switch (error.code) {
+        case kC4ErrorConflict:
+        case kC4ErrorBadDocID:
+        case kC4ErrorInvalidParameter:
+        case kC4ErrorCorruptRevisionData:
+            return true;
+        default:
+            return false;
+    }
+}
+
+// Import a single line of JSON as a new document, whose id is the value of the id field.
+// The id field is not copied into the document body.
+// Returns true on success.  On failure, if the problem is with the line itself,
+// sets lineError to a description of the problem; otherwise sets outError.
+static bool importJsonLine(
+        C4Collection *coll,
+        FLEncoder enc,
+        FLSlice json,
+        FLSlice idField,
+        std::string &lineError,
+        C4Error *outError) {
+    FLError flError = kFLNoError;
+    FLDoc doc = FLDoc_FromJSON(json, &flError);
+    if (doc == nullptr) {
+        lineError = "Invalid JSON";
+        return false;
+    }
+
+    FLDict root = FLValue_AsDict(FLDoc_GetRoot(doc));
+    FLString docId = (root == nullptr) ? kFLSliceNull : FLValue_AsString(FLDict_Get(root, idField));
+    if ((docId.buf == nullptr) || (docId.size <= 0)) {
+        FLDoc_Release(doc);
+        lineError = (root == nullptr) ? "Not a JSON object" : "Missing document id";
+        return false;
+    }
+
+    bool ok = FLEncoder_BeginDict(enc, FLDict_Count(root));
+    FLDictIterator itr;
+    FLDictIterator_Begin(root, &itr);
+    FLValue value;
+    while (ok && ((value = FLDictIterator_GetValue(&itr)) != nullptr)) {
+        FLString key = FLDictIterator_GetKeyString(&itr);
+        if (!FLSlice_Equal(key, idField))
+            ok = FLEncoder_WriteKey(enc, key) && FLEncoder_WriteValue(enc, value);
+        FLDictIterator_Next(&itr);
+    }
+    FLDictIterator_End(&itr);
+    ok = ok && FLEncoder_EndDict(enc);
+
+    // Don't commit anything written by an encoder that has failed: reset it, for the next line
+    flError = FLEncoder_GetError(enc);
+    if (!ok || (flError != kFLNoError)) {
+        FLEncoder_Reset(enc);
+        FLDoc_Release(doc);
+        *outError = {FleeceDomain, (flError != kFLNoError) ? flError : kFLEncodeError};
+        return false;
+    }
+
+    FLSliceResult body = FLEncoder_Finish(enc, &flError);
+    if (body.buf == nullptr) {
+        FLEncoder_Reset(enc);
+        FLDoc_Release(doc);
+        *outError = {FleeceDomain, flError};
+        return false;
+    }
+
+    const C4RevisionFlags flags = c4doc_dictContainsBlobs(root) ? kRevHasAttachments : 0;
+
+    C4Error error{};
+    C4Document *c4doc = c4coll_createDoc(coll, docId, {body.buf, body.size}, flags, &error);
+    FLSliceResult_Release(body);
+    FLDoc_Release(doc);
+
+    if (c4doc != nullptr) {
+        c4doc_release(c4doc);
+        return true;
+    }
+
+    if (!isImportLineError(error)) {
+        *outError = error;
+        return false;
+    }
+
+    C4StringResult msg = c4error_getMessage(error);
+    lineError = std::string((const char *) msg.buf, msg.size);
+    c4slice_free(msg);
+    return false;
+}
+
+/*
+ * Class:     com_couchbase_lite_internal_core_impl_NativeC4Collection
+ * Method:    importJsonLines
+ * Signature: (J[B[I[ILjava/lang/String;)[Ljava/lang/String;
+ *
+ * Import each of the lines in the buffer, delimited by the start and end offsets, as a new document.
+ * The caller must hold a transaction.  Returns an array whose i-th element is null if the i-th
+ * line was imported, or a description of the problem if it was not.
+ */
+JNIEXPORT jobjectArray JNICALL
+Java_com_couchbase_lite_internal_core_impl_NativeC4Collection_importJsonLines(
+        JNIEnv *env,
+        jclass ignore,
+        jlong coll,
+        jbyteArray jBuf,
+        jintArray jStarts,
+        jintArray jEnds,
+        jstring jIdField) {
+    jsize n = env->GetArrayLength(jStarts);
+    std::vector<jint> starts(n);
+    std::vector<jint> ends(n);
+    env->GetIntArrayRegion(jStarts, 0, n, starts.data());
+    env->GetIntArrayRegion(jEnds, 0, n, ends.data());
+
+    // Copy only the part of the buffer that holds the lines: the buffer may be much larger.
+    // Critical access would block the GC for the whole batch of writes.
+    jint first = (n > 0) ? *std::min_element(starts.begin(), starts.end()) : 0;
+    jint last = (n > 0) ? *std::max_element(ends.begin(), ends.end()) : 0;
+    std::vector<uint8_t> lines((size_t) (last - first));
+    env->GetByteArrayRegion(jBuf, first, last - first, (jbyte *) lines.data());
+    if (env->ExceptionCheck())
+        return nullptr;
+
+    FLEncoder enc = c4db_createFleeceEncoder(c4coll_getDatabase((C4Collection *) coll));
+
+    std::vector<std::string> lineErrors(n);
+    std::vector<bool> failed(n, false);
+    C4Error error{};
+    {
+        jstringSlice idField(env, jIdField);
+        for (jsize i = 0; i < n; i++) {
+            FLSlice json{lines.data() + (starts[i] - first), (size_t) (ends[i] - starts[i])};
+            if (importJsonLine((C4Collection *) coll, enc, json, idField, lineErrors[i], &error))
+                continue;
+            if (error.code != 0)
+                break;
+            failed[i] = true;
+        }
+    }
+
+    FLEncoder_Free(enc);
+
+    if (error.code != 0) {
+        throwError(env, error);
+        return nullptr;
+    }
+
+    jclass stringClass = env->FindClass("java/lang/String");
+    if (stringClass == nullptr)
+        return nullptr;
+    jobjectArray jResults = env->NewObjectArray(n, stringClass, nullptr);
+    env->DeleteLocalRef(stringClass);
+    if (jResults == nullptr)
+        return nullptr;
+
+    for (jsize i = 0; i < n; i++) {
+        if (!failed[i])
+            continue;
+        jstring jMsg = toJString(env, C4Slice{lineErrors[i].data(), lineErrors[i].size()});
+        env->SetObjectArrayElement(jResults, i, jMsg);
+        env->DeleteLocalRef(jMsg);
+    }
+
+    return jResults;
+}
+
 /*
  * Class:     com_couchbase_lite_internal_core_impl_NativeC4Collection
  * Method:    getIndexesInfo
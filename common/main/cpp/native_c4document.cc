@@ -65,6 +65,58 @@ Java_com_couchbase_lite_internal_core_impl_NativeC4Document_getFromCollection(
     return (jlong) doc;
 }
 
+/*
+ * Class:     com_couchbase_lite_internal_core_impl_NativeC4Document
+ * Method:    getManyFromCollection
+ * Signature: (J[Ljava/lang/String;)[J
+ */
+JNIEXPORT jlongArray JNICALL
+Java_com_couchbase_lite_internal_core_impl_NativeC4Document_getManyFromCollection(
+        JNIEnv *env,
+        jclass ignore,
+        jlong coll,
+        jobjectArray jDocIds) {
+    jsize n = env->GetArrayLength(jDocIds);
+
+    // docs[i] is 0 if the i-th document does not exist
+    std::vector<jlong> docs(n, 0);
+    for (jsize i = 0; i < n; i++) {
+        auto jDocId = (jstring) env->GetObjectArrayElement(jDocIds, i);
+
+        C4Error error{};
+        C4Document *doc;
+        {
+            jstringSlice docId(env, jDocId);
+            doc = c4coll_getDoc((C4Collection *) coll, docId, true, kDocGetCurrentRev, &error);
+        }
+        env->DeleteLocalRef(jDocId);
+
+        // Ignore LiteCore's annoying "not found" error
+        if ((doc == nullptr)
+            && (error.code != 0)
+            && !((error.domain == LiteCoreDomain) && (error.code == kC4ErrorNotFound))) {
+            for (jsize j = 0; j < i; j++) {
+                if (docs[j] != 0) c4doc_release((C4Document *) docs[j]);
+            }
+            throwError(env, error);
+            return nullptr;
+        }
+
+        docs[i] = (jlong) doc;
+    }
+
+    jlongArray jDocs = env->NewLongArray(n);
+    if (jDocs == nullptr) {
+        for (jsize j = 0; j < n; j++) {
+            if (docs[j] != 0) c4doc_release((C4Document *) docs[j]);
+        }
+        return nullptr;
+    }
+
+    env->SetLongArrayRegion(jDocs, 0, n, docs.data());
+    return jDocs;
+}
+
 /*
  * Class:     com_couchbase_lite_internal_core_impl_NativeC4Document
  * Method:    createFromSLice
@@ -386,6 +438,195 @@ Java_com_couchbase_lite_internal_core_impl_NativeC4Document_bodyAsJSON(
     return jstr;
 }
 
+// - Partial update
+
+// Patch operations: these must match the constants in DocumentPatch.java
+static const int64_t kPatchSet = 0;
+static const int64_t kPatchRemove = 1;
+static const int64_t kPatchIncrement = 2;
+static const int64_t kPatchAppend = 3;
+
+// Find the dictionary that contains the last key in the path.
+// If create is true, missing intermediate dictionaries are created.
+// Returns nullptr if the path does not exist or passes through something that is not a dictionary.
+static FLMutableDict findPatchParent(FLMutableDict root, FLArray path, bool create) {
+    FLMutableDict dict = root;
+    const uint32_t n = FLArray_Count(path);
+    for (uint32_t i = 0; (i + 1) < n; i++) {
+        FLString key = FLValue_AsString(FLArray_Get(path, i));
+        FLMutableDict child = FLMutableDict_GetMutableDict(dict, key);
+        if (child == nullptr) {
+            if ((!create) || (FLDict_Get(dict, key) != nullptr))
+                return nullptr;
+
+            FLMutableDict newDict = FLMutableDict_New();
+            FLSlot_SetDict(FLMutableDict_Set(dict, key), newDict);
+            FLMutableDict_Release(newDict);
+            child = FLMutableDict_GetMutableDict(dict, key);
+        }
+        dict = child;
+    }
+    return dict;
+}
+
+// The sum of two integers: an int64_t if it fits, else a uint64_t.
+struct IntegerSum {
+    bool isUnsigned = false;
+    int64_t value = 0;
+    uint64_t uvalue = 0;
+};
+
+template<typename A, typename B>
+static bool addIntegers(A a, B b, IntegerSum &sum) {
+    if (!__builtin_add_overflow(a, b, &sum.value))
+        return true;
+    sum.isUnsigned = true;
+    return !__builtin_add_overflow(a, b, &sum.uvalue);
+}
+
+// Fleece stores an integer larger than INT64_MAX as unsigned: it cannot be read with FLValue_AsInt.
+// Returns false if the sum fits neither an int64_t nor a uint64_t.
+static bool addIntegers(FLValue a, FLValue b, IntegerSum &sum) {
+    const bool aUnsigned = FLValue_IsUnsigned(a);
+    const bool bUnsigned = FLValue_IsUnsigned(b);
+    if (aUnsigned && bUnsigned)
+        return addIntegers(FLValue_AsUnsigned(a), FLValue_AsUnsigned(b), sum);
+    if (aUnsigned)
+        return addIntegers(FLValue_AsUnsigned(a), FLValue_AsInt(b), sum);
+    if (bUnsigned)
+        return addIntegers(FLValue_AsInt(a), FLValue_AsUnsigned(b), sum);
+    return addIntegers(FLValue_AsInt(a), FLValue_AsInt(b), sum);
+}
+
+// Apply a single patch operation: [op, [key, ...], value]
+// Returns false if the operation cannot be applied to the document.
+static bool applyPatchOp(FLMutableDict root, FLArray op) {
+    const int64_t code = FLValue_AsInt(FLArray_Get(op, 0));
+    FLArray path = FLValue_AsArray(FLArray_Get(op, 1));
+    FLValue value = FLArray_Get(op, 2);
+
+    const uint32_t n = FLArray_Count(path);
+    if (n < 1)
+        return false;
+    FLString key = FLValue_AsString(FLArray_Get(path, n - 1));
+
+    FLMutableDict parent = findPatchParent(root, path, code != kPatchRemove);
+    // it is not an error to remove something that isn't there
+    if (parent == nullptr)
+        return code == kPatchRemove;
+
+    switch (code) {
+        case kPatchSet:
+            FLSlot_SetValue(FLMutableDict_Set(parent, key), value);
+            return true;
+
+        case kPatchRemove:
+            FLMutableDict_Remove(parent, key);
+            return true;
+
+        case kPatchIncrement: {
+            FLValue current = FLDict_Get(parent, key);
+            if (current == nullptr) {
+                FLSlot_SetValue(FLMutableDict_Set(parent, key), value);
+                return true;
+            }
+
+            if ((FLValue_GetType(current) != kFLNumber) || (FLValue_GetType(value) != kFLNumber))
+                return false;
+
+            // compute the new value before replacing the old one
+            if (FLValue_IsInteger(current) && FLValue_IsInteger(value)) {
+                // an integer sum that overflows fails the patch: it is not silently rounded
+                IntegerSum sum;
+                if (!addIntegers(current, value, sum))
+                    return false;
+                FLSlot slot = FLMutableDict_Set(parent, key);
+                if (sum.isUnsigned)
+                    FLSlot_SetUInt(slot, sum.uvalue);
+                else
+                    FLSlot_SetInt(slot, sum.value);
+            } else {
+                const double sum = FLValue_AsDouble(current) + FLValue_AsDouble(value);
+                FLSlot_SetDouble(FLMutableDict_Set(parent, key), sum);
+            }
+            return true;
+        }
+
+        case kPatchAppend: {
+            FLMutableArray array = FLMutableDict_GetMutableArray(parent, key);
+            if (array == nullptr) {
+                if (FLDict_Get(parent, key) != nullptr)
+                    return false;
+
+                FLMutableArray newArray = FLMutableArray_New();
+                FLSlot_SetArray(FLMutableDict_Set(parent, key), newArray);
+                FLMutableArray_Release(newArray);
+                array = FLMutableDict_GetMutableArray(parent, key);
+            }
+            FLSlot_SetValue(FLMutableArray_Append(array), value);
+            return true;
+        }
+
+        default:
+            return false;
+    }
+}
+
+/*
+ * Class:     com_couchbase_lite_internal_core_impl_NativeC4Document
+ * Method:    applyPatch
+ * Signature: (JJJ)Lcom/couchbase/lite/internal/fleece/FLSliceResult;
+ *
+ * Apply a patch to the properties of the document's selected revision and return the new body.
+ * Only the containers along the patched paths are copied: everything else in the new body is
+ * written by the encoder straight from the old one.
+ */
+JNIEXPORT jobject JNICALL
+Java_com_couchbase_lite_internal_core_impl_NativeC4Document_applyPatch(
+        JNIEnv *env,
+        jclass ignore,
+        jlong jdoc,
+        jlong jpatchPtr,
+        jlong jpatchSize) {
+    auto doc = (C4Document *) jdoc;
+    FLArray ops = FLValue_AsArray(FLValue_FromData({(const void *) jpatchPtr, (size_t) jpatchSize}, kFLTrusted));
+    if ((doc == nullptr) || (ops == nullptr)) {
+        throwError(env, {LiteCoreDomain, kC4ErrorInvalidParameter});
+        return nullptr;
+    }
+
+    FLDict props = c4doc_getProperties(doc);
+    FLMutableDict root = (props == nullptr) ? FLMutableDict_New() : FLDict_MutableCopy(props, kFLDefaultCopy);
+
+    const uint32_t n = FLArray_Count(ops);
+    for (uint32_t i = 0; i < n; i++) {
+        if (!applyPatchOp(root, FLValue_AsArray(FLArray_Get(ops, i)))) {
+            FLMutableDict_Release(root);
+            throwError(env, {LiteCoreDomain, kC4ErrorInvalidParameter}, "Patch does not apply to the document");
+            return nullptr;
+        }
+    }
+
+    // The new body must use the same shared keys as the old one
+    FLDoc fdoc = (props == nullptr) ? nullptr : FLValue_FindDoc((FLValue) props);
+    FLEncoder enc = FLEncoder_New();
+    if (fdoc != nullptr)
+        FLEncoder_SetSharedKeys(enc, FLDoc_GetSharedKeys(fdoc));
+
+    FLEncoder_WriteValue(enc, (FLValue) root);
+
+    FLError error = kFLNoError;
+    FLSliceResult body = FLEncoder_Finish(enc, &error);
+    if (error != kFLNoError)
+        throwError(env, {FleeceDomain, error}, FLEncoder_GetErrorMessage(enc));
+
+    FLEncoder_Free(enc);
+    FLDoc_Release(fdoc);
+    FLMutableDict_Release(root);
+
+    return (error != kFLNoError) ? nullptr : toJavaFLSliceResult(env, body);
+}
+
 // - Lifecycle
 
 /*
@@ -15,6 +15,11 @@
 // See the License for the specific language governing permissions and
 // limitations under the License.
 //
+#include <cstdint>
+#include <cstring>
+#include <mutex>
+#include <unordered_map>
+#include <vector>
 #include "c4Base.h"
 #include "native_glue.hh"
 #include "com_couchbase_lite_internal_core_impl_NativeC4QueryEnumerator.h"
@@ -22,8 +27,95 @@
 using namespace litecore;
 using namespace litecore::jni;
 
+// An error that ended a batch of rows after some rows had been read.  The rows are returned
+// first: the error is reported by the next call to the enumerator.
+static std::mutex sPendingErrorsLock;
+static std::unordered_map<C4QueryEnumerator *, C4Error> sPendingErrors;
+
+static void setPendingError(C4QueryEnumerator *e, C4Error error) {
+    std::lock_guard<std::mutex> lock(sPendingErrorsLock);
+    sPendingErrors[e] = error;
+}
+
+// Returns true, and throws the pending error, if there is one.
+static bool throwPendingError(JNIEnv *env, C4QueryEnumerator *e) {
+    C4Error error{};
+    {
+        std::lock_guard<std::mutex> lock(sPendingErrorsLock);
+        auto pending = sPendingErrors.find(e);
+        if (pending == sPendingErrors.end())
+            return false;
+        error = pending->second;
+        sPendingErrors.erase(pending);
+    }
+    throwError(env, error);
+    return true;
+}
+
+static void clearPendingError(C4QueryEnumerator *e) {
+    std::lock_guard<std::mutex> lock(sPendingErrorsLock);
+    sPendingErrors.erase(e);
+}
+
 extern "C" {
 
+// Column types: these must match the values in C4QueryEnumerator.java
+static const jbyte kColumnMissing = 0;
+static const jbyte kColumnNull = 1;
+static const jbyte kColumnBoolean = 2;
+static const jbyte kColumnInt = 3;
+static const jbyte kColumnDouble = 4;
+static const jbyte kColumnString = 5;
+static const jbyte kColumnOther = 6;
+
+static void putColumnDouble(double d, jbyte *type, jlong *value) {
+    *type = kColumnDouble;
+    memcpy(value, &d, sizeof(d));
+}
+
+// Convert a single column value.  Strings are stored in the passed Java array: everything else is
+// stored in value: the long itself, the bits of a double, or 0/1 for a boolean.
+static void putColumnValue(JNIEnv *env, FLValue val, jint idx, jbyte *type, jlong *value, jobjectArray jstrings) {
+    switch (FLValue_GetType(val)) {
+        case kFLUndefined:
+            *type = kColumnMissing;
+            break;
+        case kFLNull:
+            *type = kColumnNull;
+            break;
+        case kFLBoolean:
+            *type = kColumnBoolean;
+            *value = FLValue_AsBool(val) ? 1 : 0;
+            break;
+        case kFLNumber:
+            if (!FLValue_IsInteger(val)) {
+                putColumnDouble(FLValue_AsDouble(val), type, value);
+            } else if (!FLValue_IsUnsigned(val)) {
+                *type = kColumnInt;
+                *value = (jlong) FLValue_AsInt(val);
+            } else {
+                uint64_t u = FLValue_AsUnsigned(val);
+                if (u > (uint64_t) INT64_MAX) {
+                    putColumnDouble((double) u, type, value);
+                } else {
+                    *type = kColumnInt;
+                    *value = (jlong) u;
+                }
+            }
+            break;
+        case kFLString: {
+            *type = kColumnString;
+            jstring str = toJString(env, FLValue_AsString(val));
+            env->SetObjectArrayElement(jstrings, idx, str);
+            if (str != nullptr) env->DeleteLocalRef(str);
+            break;
+        }
+        default:
+            *type = kColumnOther;
+            break;
+    }
+}
+
 // ----------------------------------------------------------------------------
 // com_couchbase_lite_internal_core_impl_NativeC4QueryEnumerator
 // ----------------------------------------------------------------------------
@@ -42,6 +134,9 @@ Java_com_couchbase_lite_internal_core_impl_NativeC4QueryEnumerator_next(
     if (e == nullptr)
         return false;
 
+    if (throwPendingError(env, e))
+        return false;
+
     C4Error error{};
     bool ok = c4queryenum_next(e, &error);
     if (!ok && (error.code != 0)) {
@@ -52,6 +147,137 @@ Java_com_couchbase_lite_internal_core_impl_NativeC4QueryEnumerator_next(
     return ok ? JNI_TRUE : JNI_FALSE;
 }
 
+/*
+ * Class:     com_couchbase_lite_internal_core_impl_NativeC4QueryEnumerator
+ * Method:    nextRows
+ * Signature: (JII[J)I
+ *
+ * Advance the enumerator by as many as maxRows rows.  Each row is copied into the
+ * passed array as nCols + 1 longs: the missing columns bitmap followed by the columns' values.
+ * If an error ends the batch after some rows have been read, those rows are returned and
+ * the error is thrown by the next call.
+ */
+JNIEXPORT jint JNICALL
+Java_com_couchbase_lite_internal_core_impl_NativeC4QueryEnumerator_nextRows(
+        JNIEnv *env,
+        jclass ignore,
+        jlong peer,
+        jint maxRows,
+        jint nCols,
+        jlongArray jrows) {
+    auto e = (C4QueryEnumerator *) peer;
+    if ((e == nullptr) || (jrows == nullptr) || (maxRows <= 0) || (nCols < 0))
+        return 0;
+
+    if (throwPendingError(env, e))
+        return 0;
+
+    const jsize stride = nCols + 1;
+    const jsize capacity = env->GetArrayLength(jrows) / stride;
+    if (maxRows > capacity)
+        maxRows = capacity;
+
+    std::vector<jlong> rows((size_t) maxRows * stride);
+    jint n = 0;
+    C4Error error{};
+    while (n < maxRows) {
+        if (!c4queryenum_next(e, &error)) {
+            if (error.code != 0) {
+                // don't lose the rows that were read: report the error on the next call
+                if (n > 0) {
+                    setPendingError(e, error);
+                    break;
+                }
+                throwError(env, error);
+                return 0;
+            }
+            break;
+        }
+
+        jlong *row = &rows[(size_t) n * stride];
+        row[0] = (jlong) e->missingColumns;
+        for (jint i = 0; i < nCols; i++)
+            row[i + 1] = (jlong) FLArrayIterator_GetValueAt(&e->columns, (uint32_t) i);
+        n++;
+    }
+
+    if (n > 0)
+        env->SetLongArrayRegion(jrows, 0, n * stride, rows.data());
+
+    return n;
+}
+
+/*
+ * Class:     com_couchbase_lite_internal_core_impl_NativeC4QueryEnumerator
+ * Method:    nextColumns
+ * Signature: (JII[B[J[Ljava/lang/String;)I
+ *
+ * Advance the enumerator by as many as maxRows rows, converting each column value into a type
+ * and a primitive value.  The arrays are column-major: the value in row r of column c is at c * maxRows + r.
+ * Errors are reported as they are by nextRows.
+ */
+JNIEXPORT jint JNICALL
+Java_com_couchbase_lite_internal_core_impl_NativeC4QueryEnumerator_nextColumns(
+        JNIEnv *env,
+        jclass ignore,
+        jlong peer,
+        jint maxRows,
+        jint nCols,
+        jbyteArray jtypes,
+        jlongArray jvalues,
+        jobjectArray jstrings) {
+    auto e = (C4QueryEnumerator *) peer;
+    if ((e == nullptr) || (jtypes == nullptr) || (jvalues == nullptr) || (jstrings == nullptr)
+        || (maxRows <= 0) || (nCols < 0))
+        return 0;
+
+    const jsize size = maxRows * nCols;
+    if ((env->GetArrayLength(jtypes) < size)
+        || (env->GetArrayLength(jvalues) < size)
+        || (env->GetArrayLength(jstrings) < size))
+        return 0;
+
+    if (throwPendingError(env, e))
+        return 0;
+
+    std::vector<jbyte> types(size, kColumnMissing);
+    std::vector<jlong> values(size, 0L);
+    jint n = 0;
+    C4Error error{};
+    while (n < maxRows) {
+        if (!c4queryenum_next(e, &error)) {
+            if (error.code != 0) {
+                // don't lose the rows that were read: report the error on the next call
+                if (n > 0) {
+                    setPendingError(e, error);
+                    break;
+                }
+                throwError(env, error);
+                return 0;
+            }
+            break;
+        }
+
+        for (jint i = 0; i < nCols; i++) {
+            // the type of a missing column is already kColumnMissing
+            if ((i < 64) && ((e->missingColumns & (1ULL << i)) != 0))
+                continue;
+
+            const jint idx = (i * maxRows) + n;
+            FLValue val = FLArrayIterator_GetValueAt(&e->columns, (uint32_t) i);
+            putColumnValue(env, val, idx, &types[idx], &values[idx], jstrings);
+        }
+        n++;
+    }
+
+    if (n > 0) {
+        env->SetByteArrayRegion(jtypes, 0, size, types.data());
+        env->SetLongArrayRegion(jvalues, 0, size, values.data());
+    }
+
+    return n;
+}
+
 /*
  * Class:     com_couchbase_lite_internal_core_impl_NativeC4QueryEnumerator
  * Method:    free
@@ -66,6 +292,7 @@ Java_com_couchbase_lite_internal_core_impl_NativeC4QueryEnumerator_free(
     if (e == nullptr)
         return;
 
+    clearPendingError(e);
     c4queryenum_release(e);
 }
 
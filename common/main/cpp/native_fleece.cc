@@ -16,6 +16,10 @@
 // limitations under the License.
 //
 
+#include <cctype>
+#include <cmath>
+#include <cstring>
+#include <vector>
 #include "native_glue.hh"
 #include "com_couchbase_lite_internal_fleece_impl_NativeFleece.h"
 #include "com_couchbase_lite_internal_fleece_impl_NativeFLEncoder.h"
@@ -24,6 +28,20 @@ using namespace litecore;
 using namespace litecore::jni;
 
 extern "C" {
+
+// True if the value belongs to a document that was encoded with the passed shared keys.
+// Only then are the integer keys in the value's dictionaries that shared keys' IDs.
+static bool usesSharedKeys(FLValue value, FLSharedKeys sharedKeys) {
+    if ((value == nullptr) || (sharedKeys == nullptr))
+        return false;
+    FLDoc doc = FLValue_FindDoc(value);
+    if (doc == nullptr)
+        return false;
+    bool uses = FLDoc_GetSharedKeys(doc) == sharedKeys;
+    FLDoc_Release(doc);
+    return uses;
+}
+
 // ----------------------------------------------------------------------------
 // NativeFLArray
 // ----------------------------------------------------------------------------
@@ -155,6 +173,36 @@ Java_com_couchbase_lite_internal_fleece_impl_NativeFLDict_get(
     return (jlong) FLDict_Get((FLDict) jdict, (C4Slice) key);
 }
 
+/*
+ * Class:     com_couchbase_lite_internal_fleece_impl_NativeFLDict
+ * Method:    getWithKeySlice
+ * Signature: (JJJ)J
+ */
+JNIEXPORT jlong JNICALL
+Java_com_couchbase_lite_internal_fleece_impl_NativeFLDict_getWithKeySlice(
+        JNIEnv *env,
+        jclass ignore,
+        jlong jdict,
+        jlong keyBase,
+        jlong keySize) {
+    FLSlice key = {(const void *) keyBase, (size_t) keySize};
+    return (jlong) FLDict_Get((FLDict) jdict, key);
+}
+
+/*
+ * Class:     com_couchbase_lite_internal_fleece_impl_NativeFLDict
+ * Method:    usesSharedKeys
+ * Signature: (JJ)Z
+ */
+JNIEXPORT jboolean JNICALL
+Java_com_couchbase_lite_internal_fleece_impl_NativeFLDict_usesSharedKeys(
+        JNIEnv *env,
+        jclass ignore,
+        jlong jdict,
+        jlong jsharedKeys) {
+    return usesSharedKeys((FLValue) jdict, (FLSharedKeys) jsharedKeys) ? JNI_TRUE : JNI_FALSE;
+}
+
 // ----------------------------------------------------------------------------
 // FLDictIterator
 // ----------------------------------------------------------------------------
@@ -208,6 +256,41 @@ Java_com_couchbase_lite_internal_fleece_impl_NativeFLDict_getKey(JNIEnv *env, jc
     return toJString(env, s);
 }
 
+/*
+ * Class:     com_couchbase_lite_internal_fleece_impl_NativeFLDict
+ * Method:    getKeyOrId
+ * Signature: (J[I)Ljava/lang/String;
+ *
+ * A shared key is stored as its integer ID: store the ID in keyId[0] and return null.
+ * Any other key is returned as a String, and keyId[0] is set to -1.
+ * When the iterator is exhausted, return null and set keyId[0] to -2.
+ */
+JNIEXPORT jstring JNICALL
+Java_com_couchbase_lite_internal_fleece_impl_NativeFLDict_getKeyOrId(
+        JNIEnv *env,
+        jclass ignore,
+        jlong jitr,
+        jintArray jKeyId) {
+    // As above: don't call GetKey on an exhausted iterator.
+    jint keyId = -2;
+    bool ok = FLDictIterator_GetValue((FLDictIterator *) jitr);
+    if (!ok) {
+        env->SetIntArrayRegion(jKeyId, 0, 1, &keyId);
+        return nullptr;
+    }
+
+    FLValue key = FLDictIterator_GetKey((FLDictIterator *) jitr);
+    if (FLValue_GetType(key) == kFLNumber) {
+        keyId = (jint) FLValue_AsInt(key);
+        env->SetIntArrayRegion(jKeyId, 0, 1, &keyId);
+        return nullptr;
+    }
+
+    keyId = -1;
+    env->SetIntArrayRegion(jKeyId, 0, 1, &keyId);
+    return toJString(env, FLValue_AsString(key));
+}
+
 /*
  * Class:     com_couchbase_lite_internal_fleece_impl_NativeFLDict
  * Method:    getValue
@@ -228,6 +311,86 @@ Java_com_couchbase_lite_internal_fleece_impl_NativeFLDict_free(JNIEnv *env, jcla
     ::free((FLDictIterator *) jitr);
 }
 
+// ----------------------------------------------------------------------------
+// NativeFLSharedKeys
+// ----------------------------------------------------------------------------
+
+/*
+ * Class:     com_couchbase_lite_internal_fleece_impl_NativeFLSharedKeys
+ * Method:    decode
+ * Signature: (JI)Ljava/lang/String;
+ */
+JNIEXPORT jstring JNICALL
+Java_com_couchbase_lite_internal_fleece_impl_NativeFLSharedKeys_decode(
+        JNIEnv *env,
+        jclass ignore,
+        jlong jsharedKeys,
+        jint jkeyId) {
+    FLString key = FLSharedKeys_Decode((FLSharedKeys) jsharedKeys, (int) jkeyId);
+    if (!key.buf)
+        return nullptr;
+    return toJString(env, key);
+}
+
+// Fleece shares only short keys made of alphanumerics, '_' and '-'.
+static bool isShareableKey(FLString key) {
+    if ((key.size == 0) || (key.size > 16))
+        return false;
+    auto chars = (const unsigned char *) key.buf;
+    for (size_t i = 0; i < key.size; i++) {
+        const unsigned char c = chars[i];
+        if (!(isalnum(c) || (c == '_') || (c == '-')))
+            return false;
+    }
+    return true;
+}
+
+static bool hasShareableStringKeys(FLValue value) {
+    switch (FLValue_GetType(value)) {
+        case kFLArray: {
+            FLArrayIterator itr;
+            FLArrayIterator_Begin((FLArray) value, &itr);
+            for (FLValue item; (item = FLArrayIterator_GetValue(&itr)) != nullptr; FLArrayIterator_Next(&itr)) {
+                if (hasShareableStringKeys(item))
+                    return true;
+            }
+            return false;
+        }
+        case kFLDict: {
+            FLDictIterator itr;
+            FLDictIterator_Begin((FLDict) value, &itr);
+            for (FLValue key; (key = FLDictIterator_GetKey(&itr)) != nullptr; FLDictIterator_Next(&itr)) {
+                if ((FLValue_GetType(key) == kFLString) && isShareableKey(FLValue_AsString(key))) {
+                    FLDictIterator_End(&itr);
+                    return true;
+                }
+                if (hasShareableStringKeys(FLDictIterator_GetValue(&itr))) {
+                    FLDictIterator_End(&itr);
+                    return true;
+                }
+            }
+            return false;
+        }
+        default:
+            return false;
+    }
+}
+
+/*
+ * Class:     com_couchbase_lite_internal_fleece_impl_NativeFLSharedKeys
+ * Method:    hasShareableStringKeys
+ * Signature: (JJ)Z
+ */
+JNIEXPORT jboolean JNICALL
+Java_com_couchbase_lite_internal_fleece_impl_NativeFLSharedKeys_hasShareableStringKeys(
+        JNIEnv *env,
+        jclass ignore,
+        jlong jbody,
+        jlong jsize) {
+    FLValue root = FLValue_FromData({(const void *) jbody, (size_t) jsize}, kFLTrusted);
+    return ((root != nullptr) && hasShareableStringKeys(root)) ? JNI_TRUE : JNI_FALSE;
+}
+
 // ----------------------------------------------------------------------------
 // FLValue
 // ----------------------------------------------------------------------------
@@ -449,6 +612,156 @@ Java_com_couchbase_lite_internal_fleece_impl_NativeFLValue_json5toJson(
     FLSliceResult_Release(json);
     return res;
 }
+
+// Tags for the tree encoding: these must match the values in FLTreeDecoder.java
+static const uint8_t kTreeNull = 0;
+static const uint8_t kTreeFalse = 1;
+static const uint8_t kTreeTrue = 2;
+static const uint8_t kTreeLong = 3;
+static const uint8_t kTreeFloat = 4;
+static const uint8_t kTreeDouble = 5;
+static const uint8_t kTreeString = 6;
+static const uint8_t kTreeData = 7;
+static const uint8_t kTreeArray = 8;
+static const uint8_t kTreeDict = 9;
+
+// All multi-byte quantities are written little-endian
+static void writeTreeBytes(std::vector<uint8_t> &buf, uint64_t v, int n) {
+    for (int i = 0; i < n; i++) {
+        buf.push_back((uint8_t) (v & 0xFF));
+        v >>= 8;
+    }
+}
+
+static void writeTreeSlice(std::vector<uint8_t> &buf, uint8_t tag, FLSlice s) {
+    if (tag != 0) buf.push_back(tag);
+    writeTreeBytes(buf, (uint32_t) s.size, 4);
+    if (s.size > 0) buf.insert(buf.end(), (const uint8_t *) s.buf, (const uint8_t *) s.buf + s.size);
+}
+
+// A dictionary key that is a shared key is written as a negative length: -1 - its ID
+static void writeTreeKey(std::vector<uint8_t> &buf, FLDictIterator *itr, bool useKeyIds) {
+    if (useKeyIds) {
+        FLValue key = FLDictIterator_GetKey(itr);
+        if (FLValue_GetType(key) == kFLNumber) {
+            writeTreeBytes(buf, (uint32_t) (-1 - (int32_t) FLValue_AsInt(key)), 4);
+            return;
+        }
+    }
+    writeTreeSlice(buf, 0, FLDictIterator_GetKeyString(itr));
+}
+
+static void writeTree(std::vector<uint8_t> &buf, FLValue value, bool useKeyIds) {
+    switch (FLValue_GetType(value)) {
+        case kFLBoolean:
+            buf.push_back(FLValue_AsBool(value) ? kTreeTrue : kTreeFalse);
+            return;
+        case kFLNumber:
+            if (FLValue_IsInteger(value)) {
+                buf.push_back(kTreeLong);
+                writeTreeBytes(
+                        buf,
+                        FLValue_IsUnsigned(value) ? FLValue_AsUnsigned(value) : (uint64_t) FLValue_AsInt(value),
+                        8);
+            } else if (FLValue_IsDouble(value)) {
+                buf.push_back(kTreeDouble);
+                double d = FLValue_AsDouble(value);
+                uint64_t bits;
+                memcpy(&bits, &d, sizeof(bits));
+                writeTreeBytes(buf, bits, 8);
+            } else {
+                buf.push_back(kTreeFloat);
+                float f = FLValue_AsFloat(value);
+                uint32_t bits;
+                memcpy(&bits, &f, sizeof(bits));
+                writeTreeBytes(buf, bits, 4);
+            }
+            return;
+        case kFLString:
+            writeTreeSlice(buf, kTreeString, FLValue_AsString(value));
+            return;
+        case kFLData:
+            writeTreeSlice(buf, kTreeData, FLValue_AsData(value));
+            return;
+        case kFLArray: {
+            FLArray array = FLValue_AsArray(value);
+            buf.push_back(kTreeArray);
+            writeTreeBytes(buf, FLArray_Count(array), 4);
+            FLArrayIterator itr;
+            FLArrayIterator_Begin(array, &itr);
+            FLValue item;
+            while ((item = FLArrayIterator_GetValue(&itr)) != nullptr) {
+                writeTree(buf, item, useKeyIds);
+                FLArrayIterator_Next(&itr);
+            }
+            return;
+        }
+        case kFLDict: {
+            FLDict dict = FLValue_AsDict(value);
+            buf.push_back(kTreeDict);
+            writeTreeBytes(buf, FLDict_Count(dict), 4);
+            FLDictIterator itr;
+            FLDictIterator_Begin(dict, &itr);
+            FLValue item;
+            while ((item = FLDictIterator_GetValue(&itr)) != nullptr) {
+                writeTreeKey(buf, &itr, useKeyIds);
+                writeTree(buf, item, useKeyIds);
+                FLDictIterator_Next(&itr);
+            }
+            FLDictIterator_End(&itr);
+            return;
+        }
+        default:
+            buf.push_back(kTreeNull);
+    }
+}
+
+/*
+ * Class:     com_couchbase_lite_internal_fleece_impl_NativeFLValue
+ * Method:    encodeTrees
+ * Signature: ([JJ)[B
+ */
+JNIEXPORT jbyteArray JNICALL
+Java_com_couchbase_lite_internal_fleece_impl_NativeFLValue_encodeTrees(
+        JNIEnv *env,
+        jclass ignore,
+        jlongArray jvalues,
+        jlong jsharedKeys) {
+    jsize n = env->GetArrayLength(jvalues);
+    std::vector<jlong> values(n);
+    env->GetLongArrayRegion(jvalues, 0, n, values.data());
+
+    std::vector<uint8_t> buf;
+    buf.reserve(1024);
+    for (jlong value: values) {
+        auto val = (FLValue) value;
+        writeTree(buf, val, usesSharedKeys(val, (FLSharedKeys) jsharedKeys));
+    }
+
+    return toJByteArray(env, buf.data(), buf.size());
+}
+
+/*
+ * Class:     com_couchbase_lite_internal_fleece_impl_NativeFLValue
+ * Method:    jsonToFleece
+ * Signature: (Ljava/lang/String;)Lcom/couchbase/lite/internal/fleece/FLSliceResult;
+ */
+JNIEXPORT jobject JNICALL
+Java_com_couchbase_lite_internal_fleece_impl_NativeFLValue_jsonToFleece(
+        JNIEnv *env,
+        jclass ignore,
+        jstring jjson) {
+    jstringSlice json(env, jjson);
+    FLError error = kFLNoError;
+    FLSliceResult fleece = FLData_ConvertJSON(json, &error);
+    if (error != kFLNoError) {
+        FLSliceResult_Release(fleece);
+        throwError(env, {FleeceDomain, error});
+        return nullptr;
+    }
+    return toJavaFLSliceResult(env, fleece);
+}
+
 /*
  * Class:     com_couchbase_lite_internal_fleece_impl_NativeFLValue
  * Method:    toString
@@ -497,6 +810,297 @@ Java_com_couchbase_lite_internal_fleece_impl_NativeFLValue_toJSON5(
     return res;
 }
 
+// The content hash of a value must be the hash that Dictionary and Array compute
+// for the same content in Java: see AbstractJFleeceCollection.hashValue
+static const int32_t kBlobHash = 0x626c6f62;
+
+static int32_t hashLong(int64_t n) { return (int32_t) (n ^ (int64_t) (((uint64_t) n) >> 32)); }
+
+// Numbers with integral values hash as a long: otherwise as Double.hashCode
+static int32_t hashNumber(FLValue value) {
+    if (FLValue_IsInteger(value))
+        return hashLong(FLValue_IsUnsigned(value) ? (int64_t) FLValue_AsUnsigned(value) : FLValue_AsInt(value));
+
+    double d = FLValue_AsDouble(value);
+    if ((d == std::floor(d)) && (d >= -9.2233720368547758e18) && (d < 9.2233720368547758e18))
+        return hashLong((int64_t) d);
+
+    int64_t bits = 0x7ff8000000000000LL; // Java's canonical NaN
+    if (!std::isnan(d))
+        memcpy(&bits, &d, sizeof(bits));
+    return hashLong(bits);
+}
+
+// String.hashCode, computed from UTF-8
+static int32_t hashString(FLSlice s) {
+    auto p = (const uint8_t *) s.buf;
+    size_t n = s.size;
+    size_t i = 0;
+    uint32_t h = 0;
+    while (i < n) {
+        uint32_t c = p[i++];
+        int extra = 0;
+        if (c >= 0xF0) {
+            c &= 0x07;
+            extra = 3;
+        } else if (c >= 0xE0) {
+            c &= 0x0F;
+            extra = 2;
+        } else if (c >= 0xC0) {
+            c &= 0x1F;
+            extra = 1;
+        }
+        for (; (extra > 0) && (i < n); extra--) c = (c << 6) | (p[i++] & 0x3F);
+
+        if (c < 0x10000) {
+            h = (31 * h) + c;
+            continue;
+        }
+        c -= 0x10000;
+        h = (31 * h) + (0xD800 + (c >> 10));
+        h = (31 * h) + (0xDC00 + (c & 0x3FF));
+    }
+    return (int32_t) h;
+}
+
+// This must match Dictionary.isBlob and MValue.isOldAttachment
+static bool isBlob(FLDict dict) {
+    FLValue type = FLDict_Get(dict, FLSTR("@type"));
+    if (FLValue_GetType(type) == kFLString)
+        return FLSlice_Equal(FLValue_AsString(type), FLSTR("blob"));
+    return (FLDict_Get(dict, FLSTR("digest")) != nullptr)
+           && (FLDict_Get(dict, FLSTR("length")) != nullptr)
+           && (FLDict_Get(dict, FLSTR("stub")) != nullptr)
+           && (FLDict_Get(dict, FLSTR("revpos")) != nullptr);
+}
+
+static int32_t hashValue(FLValue value) {
+    switch (FLValue_GetType(value)) {
+        case kFLBoolean:
+            return FLValue_AsBool(value) ? 1231 : 1237;
+        case kFLNumber:
+            return hashNumber(value);
+        case kFLString:
+            return hashString(FLValue_AsString(value));
+        case kFLData:
+            // Java sees data as a Blob
+            return kBlobHash;
+        case kFLArray: {
+            uint32_t h = 1;
+            FLArrayIterator itr;
+            FLArrayIterator_Begin(FLValue_AsArray(value), &itr);
+            FLValue item;
+            while ((item = FLArrayIterator_GetValue(&itr)) != nullptr) {
+                h = (31 * h) + (uint32_t) hashValue(item);
+                FLArrayIterator_Next(&itr);
+            }
+            return (int32_t) h;
+        }
+        case kFLDict: {
+            FLDict dict = FLValue_AsDict(value);
+            if (isBlob(dict))
+                return kBlobHash;
+            uint32_t h = 0;
+            FLDictIterator itr;
+            FLDictIterator_Begin(dict, &itr);
+            FLValue item;
+            while ((item = FLDictIterator_GetValue(&itr)) != nullptr) {
+                h += (uint32_t) (hashString(FLDictIterator_GetKeyString(&itr)) ^ hashValue(item));
+                FLDictIterator_Next(&itr);
+            }
+            FLDictIterator_End(&itr);
+            return (int32_t) h;
+        }
+        default:
+            return 0;
+    }
+}
+
+// Java sees both data and blob dictionaries as Blobs
+static bool isBlobValue(FLValue value) {
+    FLValueType type = FLValue_GetType(value);
+    return (type == kFLData) || ((type == kFLDict) && isBlob(FLValue_AsDict(value)));
+}
+
+static FLString blobDigest(FLValue value) {
+    if (FLValue_GetType(value) != kFLDict)
+        return kFLSliceNull;
+    return FLValue_AsString(FLDict_Get(FLValue_AsDict(value), FLSTR("digest")));
+}
+
+// The results of compareValues
+static const jint kValuesDiffer = 0;
+static const jint kValuesEqual = 1;
+static const jint kValuesNeedJava = -1;
+
+// Compare two values exactly as Java compares them: see Dictionary.equals, Array.equals and Blob.equals.
+// Blobs are equal if their digests are equal, and data is compared by content.
+// A blob without a digest can be compared only by its content: that must be done in Java.
+static jint compareValues(FLValue v1, FLValue v2) {
+    bool blob1 = isBlobValue(v1);
+    bool blob2 = isBlobValue(v2);
+    if (blob1 || blob2) {
+        if (!(blob1 && blob2))
+            return kValuesDiffer;
+        if ((FLValue_GetType(v1) == kFLData) && (FLValue_GetType(v2) == kFLData))
+            return FLValue_IsEqual(v1, v2) ? kValuesEqual : kValuesDiffer;
+        FLString digest1 = blobDigest(v1);
+        FLString digest2 = blobDigest(v2);
+        if ((digest1.buf == nullptr) || (digest2.buf == nullptr))
+            return kValuesNeedJava;
+        return FLSlice_Equal(digest1, digest2) ? kValuesEqual : kValuesDiffer;
+    }
+
+    FLValueType type = FLValue_GetType(v1);
+    if (type != FLValue_GetType(v2))
+        return kValuesDiffer;
+
+    jint result = kValuesEqual;
+    switch (type) {
+        case kFLArray: {
+            FLArray a1 = FLValue_AsArray(v1);
+            FLArray a2 = FLValue_AsArray(v2);
+            uint32_t n = FLArray_Count(a1);
+            if (n != FLArray_Count(a2))
+                return kValuesDiffer;
+            for (uint32_t i = 0; i < n; i++) {
+                jint eq = compareValues(FLArray_Get(a1, i), FLArray_Get(a2, i));
+                if (eq == kValuesDiffer)
+                    return kValuesDiffer;
+                if (eq == kValuesNeedJava)
+                    result = kValuesNeedJava;
+            }
+            return result;
+        }
+        case kFLDict: {
+            FLDict d1 = FLValue_AsDict(v1);
+            FLDict d2 = FLValue_AsDict(v2);
+            if (FLDict_Count(d1) != FLDict_Count(d2))
+                return kValuesDiffer;
+            FLDictIterator itr;
+            FLDictIterator_Begin(d1, &itr);
+            FLValue item;
+            while ((item = FLDictIterator_GetValue(&itr)) != nullptr) {
+                FLValue other = FLDict_Get(d2, FLDictIterator_GetKeyString(&itr));
+                jint eq = (other == nullptr) ? kValuesDiffer : compareValues(item, other);
+                if (eq == kValuesDiffer) {
+                    result = kValuesDiffer;
+                    break;
+                }
+                if (eq == kValuesNeedJava)
+                    result = kValuesNeedJava;
+                FLDictIterator_Next(&itr);
+            }
+            FLDictIterator_End(&itr);
+            return result;
+        }
+        default:
+            return FLValue_IsEqual(v1, v2) ? kValuesEqual : kValuesDiffer;
+    }
+}
+
+/*
+ * Class:     com_couchbase_lite_internal_fleece_impl_NativeFLValue
+ * Method:    isEqual
+ * Signature: (JJ)I
+ *
+ * Returns 1 if the values are equal, 0 if they are not, and -1 if they must be compared in Java.
+ */
+JNIEXPORT jint JNICALL
+Java_com_couchbase_lite_internal_fleece_impl_NativeFLValue_isEqual(
+        JNIEnv *env,
+        jclass ignore,
+        jlong jvalue1,
+        jlong jvalue2) {
+    return compareValues((FLValue) jvalue1, (FLValue) jvalue2);
+}
+
+/*
+ * Class:     com_couchbase_lite_internal_fleece_impl_NativeFLValue
+ * Method:    contentHash
+ * Signature: (J)I
+ */
+JNIEXPORT jint JNICALL
+Java_com_couchbase_lite_internal_fleece_impl_NativeFLValue_contentHash(
+        JNIEnv *env,
+        jclass ignore,
+        jlong jvalue) {
+    return (jint) hashValue((FLValue) jvalue);
+}
+
+/*
+ * Class:     com_couchbase_lite_internal_fleece_impl_NativeFLValue
+ * Method:    digest
+ * Signature: (J)Ljava/lang/String;
+ */
+JNIEXPORT jstring JNICALL
+Java_com_couchbase_lite_internal_fleece_impl_NativeFLValue_digest(
+        JNIEnv *env,
+        jclass ignore,
+        jlong jvalue) {
+    // Re-encode without shared keys: the encoding depends only on the content.
+    // Fleece sorts dictionary keys, so this is the canonical form.
+    FLEncoder enc = FLEncoder_New();
+    FLEncoder_WriteValue(enc, (FLValue) jvalue);
+    FLError error = kFLNoError;
+    FLSliceResult fleece = FLEncoder_Finish(enc, &error);
+    FLEncoder_Free(enc);
+    if (error != kFLNoError) {
+        FLSliceResult_Release(fleece);
+        throwError(env, {FleeceDomain, error});
+        return nullptr;
+    }
+
+    C4BlobKey key = c4blob_computeKey({fleece.buf, fleece.size});
+    FLSliceResult_Release(fleece);
+
+    C4StringResult result = c4blob_keyToString(key);
+    jstring jstr = toJString(env, result);
+    c4slice_free(result);
+    return jstr;
+}
+
+/*
+ * Class:     com_couchbase_lite_internal_fleece_impl_NativeFLValue
+ * Method:    createJSONDelta
+ * Signature: (JJ)Ljava/lang/String;
+ */
+JNIEXPORT jstring JNICALL
+Java_com_couchbase_lite_internal_fleece_impl_NativeFLValue_createJSONDelta(
+        JNIEnv *env,
+        jclass ignore,
+        jlong jold,
+        jlong jnew) {
+    FLSliceResult delta = FLCreateJSONDelta((FLValue) jold, (FLValue) jnew);
+    // a null delta means that the values are equal
+    if (!delta.buf)
+        return nullptr;
+    jstring res = toJString(env, delta);
+    FLSliceResult_Release(delta);
+    return res;
+}
+
+/*
+ * Class:     com_couchbase_lite_internal_fleece_impl_NativeFLValue
+ * Method:    applyJSONDelta
+ * Signature: (JLjava/lang/String;)Lcom/couchbase/lite/internal/fleece/FLSliceResult;
+ */
+JNIEXPORT jobject JNICALL
+Java_com_couchbase_lite_internal_fleece_impl_NativeFLValue_applyJSONDelta(
+        JNIEnv *env,
+        jclass ignore,
+        jlong jold,
+        jstring jdelta) {
+    jstringSlice delta(env, jdelta);
+    FLError error = kFLNoError;
+    FLSliceResult fleece = FLApplyJSONDelta((FLValue) jold, delta, &error);
+    if (!fleece.buf) {
+        throwError(env, {FleeceDomain, (error != kFLNoError) ? error : kFLInvalidData});
+        return nullptr;
+    }
+    return toJavaFLSliceResult(env, fleece);
+}
+
 // ----------------------------------------------------------------------------
 // NativeFLSliceResult
 // ----------------------------------------------------------------------------
@@ -530,4 +1134,51 @@ Java_com_couchbase_lite_internal_fleece_impl_NativeFLSliceResult_release(
     FLSliceResult result = {(const void *) base, (size_t) size};
     FLSliceResult_Release(result);
 }
+
+/*
+ * Class:     com_couchbase_lite_internal_fleece_impl_NativeFLSliceResult
+ * Method:    copyOf
+ * Signature: ([B)Lcom/couchbase/lite/internal/fleece/FLSliceResult;
+ */
+JNIEXPORT jobject JNICALL
+Java_com_couchbase_lite_internal_fleece_impl_NativeFLSliceResult_copyOf(
+        JNIEnv *env,
+        jclass ignore,
+        jbyteArray jbytes) {
+    return toJavaFLSliceResult(env, jbyteArraySlice::copy(env, jbytes));
+}
+
+/*
+ * Class:     com_couchbase_lite_internal_fleece_impl_NativeFLSliceResult
+ * Method:    getByteBuffer
+ * Signature: (JJ)Ljava/nio/ByteBuffer;
+ */
+JNIEXPORT jobject JNICALL
+Java_com_couchbase_lite_internal_fleece_impl_NativeFLSliceResult_getByteBuffer(
+        JNIEnv *env,
+        jclass ignore,
+        jlong base,
+        jlong size) {
+    return env->NewDirectByteBuffer((void *) base, size);
+}
+
+/*
+ * Class:     com_couchbase_lite_internal_fleece_impl_NativeFLSliceResult
+ * Method:    copyOfBuffer
+ * Signature: (Ljava/nio/ByteBuffer;II)Lcom/couchbase/lite/internal/fleece/FLSliceResult;
+ */
+JNIEXPORT jobject JNICALL
+Java_com_couchbase_lite_internal_fleece_impl_NativeFLSliceResult_copyOfBuffer(
+        JNIEnv *env,
+        jclass ignore,
+        jobject jbuf,
+        jint offset,
+        jint length) {
+    auto base = (const uint8_t *) env->GetDirectBufferAddress(jbuf);
+    if (base == nullptr) {
+        throwError(env, {LiteCoreDomain, kC4ErrorInvalidParameter}, "Not a direct buffer");
+        return nullptr;
+    }
+    return toJavaFLSliceResult(env, FLSlice_Copy({base + offset, (size_t) length}));
+}
 }
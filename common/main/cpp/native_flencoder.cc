@@ -15,6 +15,9 @@
 // See the License for the specific language governing permissions and
 // limitations under the License.
 //
+#include <cstring>
+#include <string>
+#include <unordered_set>
 #include "native_glue.hh"
 #include "com_couchbase_lite_internal_fleece_impl_NativeFLEncoder.h"
 
@@ -48,191 +51,214 @@ Java_com_couchbase_lite_internal_fleece_impl_NativeFLEncoder_free(JNIEnv *env, j
 
 /*
  * Class:     com_couchbase_lite_internal_fleece_impl_NativeFLEncoder
- * Method:    writeNull
- * Signature: (J)Z
- */
-JNIEXPORT jboolean JNICALL
-Java_com_couchbase_lite_internal_fleece_impl_NativeFLEncoder_writeNull(JNIEnv *env, jclass ignore, jlong jenc) {
-    return FLEncoder_WriteNull((FLEncoder) jenc) ? JNI_TRUE : JNI_FALSE;
-}
-
-/*
- * Class:     com_couchbase_lite_internal_fleece_impl_NativeFLEncoder
- * Method:    writeBool
- * Signature: (JZ)Z
+ * Method:    writeStringChars
+ * Signature: (J[C)Z
  */
-JNIEXPORT jboolean JNICALL
-Java_com_couchbase_lite_internal_fleece_impl_NativeFLEncoder_writeBool(
+JNIEXPORT jboolean JNICALL Java_com_couchbase_lite_internal_fleece_impl_NativeFLEncoder_writeStringChars(
         JNIEnv *env,
         jclass ignore,
         jlong jenc,
-        jboolean jvalue) {
-    return FLEncoder_WriteBool((FLEncoder) jenc, (bool) jvalue) ? JNI_TRUE : JNI_FALSE;
+        jcharArray jvalue) {
+    jstringSlice value(env, jvalue);
+    return FLEncoder_WriteString((FLEncoder) jenc, value) ? JNI_TRUE : JNI_FALSE;
 }
 
 /*
  * Class:     com_couchbase_lite_internal_fleece_impl_NativeFLEncoder
- * Method:    writeInt
- * Signature: (JJ)Z
+ * Method:    writeDictEntriesExcept
+ * Signature: (JJ[Ljava/lang/String;)Z
+ *
+ * Write every entry in the dictionary whose key is not one of the excluded keys.
+ * The caller must already have begun the dictionary into which the entries are written.
  */
 JNIEXPORT jboolean JNICALL
-Java_com_couchbase_lite_internal_fleece_impl_NativeFLEncoder_writeInt(
+Java_com_couchbase_lite_internal_fleece_impl_NativeFLEncoder_writeDictEntriesExcept(
         JNIEnv *env,
         jclass ignore,
         jlong jenc,
-        jlong jvalue) {
-    return FLEncoder_WriteInt((FLEncoder) jenc, (int64_t) jvalue) ? JNI_TRUE : JNI_FALSE;
-}
+        jlong jdict,
+        jobjectArray jexcluded) {
+    auto enc = (FLEncoder) jenc;
 
-/*
- * Class:     com_couchbase_lite_internal_fleece_impl_NativeFLEncoder
- * Method:    writeFloat
- * Signature: (JF)Z
- */
-JNIEXPORT jboolean JNICALL
-Java_com_couchbase_lite_internal_fleece_impl_NativeFLEncoder_writeFloat(
-        JNIEnv *env,
-        jclass ignore,
-        jlong jenc,
-        jfloat jvalue) {
-    return FLEncoder_WriteFloat((FLEncoder) jenc, (float) jvalue) ? JNI_TRUE : JNI_FALSE;
-}
+    std::unordered_set<std::string> excluded;
+    const jsize n = (jexcluded == nullptr) ? 0 : env->GetArrayLength(jexcluded);
+    for (jsize i = 0; i < n; i++) {
+        auto jkey = (jstring) env->GetObjectArrayElement(jexcluded, i);
+        if (jkey == nullptr)
+            continue;
+        {
+            jstringSlice key(env, jkey);
+            FLSlice keySlice = key;
+            excluded.emplace((const char *) keySlice.buf, keySlice.size);
+        }
+        env->DeleteLocalRef(jkey);
+    }
 
-/*
- * Class:     com_couchbase_lite_internal_fleece_impl_NativeFLEncoder
- * Method:    writeDouble
- * Signature: (JD)Z
- */
-JNIEXPORT jboolean JNICALL
-Java_com_couchbase_lite_internal_fleece_impl_NativeFLEncoder_writeDouble(
-        JNIEnv *env,
-        jclass ignore,
-        jlong jenc,
-        jdouble jvalue) {
-    return FLEncoder_WriteDouble((FLEncoder) jenc, (double) jvalue) ? JNI_TRUE : JNI_FALSE;
-}
+    bool ok = true;
+    FLDictIterator itr;
+    FLDictIterator_Begin((FLDict) jdict, &itr);
+    FLValue value;
+    while (ok && ((value = FLDictIterator_GetValue(&itr)) != nullptr)) {
+        FLString key = FLDictIterator_GetKeyString(&itr);
+        if (excluded.find(std::string((const char *) key.buf, key.size)) == excluded.end())
+            ok = FLEncoder_WriteKey(enc, key) && FLEncoder_WriteValue(enc, value);
+        FLDictIterator_Next(&itr);
+    }
+    FLDictIterator_End(&itr);
 
-/*
- * Class:     com_couchbase_lite_internal_fleece_impl_NativeFLEncoder
- * Method:    writeString
- * Signature: (JLjava/lang/String;)Z
- */
-JNIEXPORT jboolean JNICALL
-Java_com_couchbase_lite_internal_fleece_impl_NativeFLEncoder_writeString(
-        JNIEnv *env,
-        jclass ignore,
-        jlong jenc,
-        jstring jvalue) {
-    jstringSlice value(env, jvalue);
-    return FLEncoder_WriteString((FLEncoder) jenc, value) ? JNI_TRUE : JNI_FALSE;
+    return ok ? JNI_TRUE : JNI_FALSE;
 }
 
-/*
- * Class:     com_couchbase_lite_internal_fleece_impl_NativeFLEncoder
- * Method:    writeStringChars
- * Signature: (J[C)Z
- */
-JNIEXPORT jboolean JNICALL Java_com_couchbase_lite_internal_fleece_impl_NativeFLEncoder_writeStringChars(
-        JNIEnv *env,
-        jclass ignore,
-        jlong jenc,
-        jcharArray jvalue) {
-    jstringSlice value(env, jvalue);
-    return FLEncoder_WriteString((FLEncoder) jenc, value) ? JNI_TRUE : JNI_FALSE;
+// Command opcodes: these must match the values in FLCommandBuffer.java
+static const uint8_t kCmdNull = 0;
+static const uint8_t kCmdFalse = 1;
+static const uint8_t kCmdTrue = 2;
+static const uint8_t kCmdInt = 3;
+static const uint8_t kCmdFloat = 4;
+static const uint8_t kCmdDouble = 5;
+static const uint8_t kCmdString = 6;
+static const uint8_t kCmdData = 7;
+static const uint8_t kCmdBeginArray = 8;
+static const uint8_t kCmdEndArray = 9;
+static const uint8_t kCmdBeginDict = 10;
+static const uint8_t kCmdEndDict = 11;
+static const uint8_t kCmdKey = 12;
+static const uint8_t kCmdValue = 13;
+
+// Read little-endian numbers from the command buffer.
+static uint32_t readCommandU32(const uint8_t *&p) {
+    uint32_t n = ((uint32_t) p[0]) | ((uint32_t) p[1] << 8) | ((uint32_t) p[2] << 16) | ((uint32_t) p[3] << 24);
+    p += 4;
+    return n;
 }
 
-/*
- * Class:     com_couchbase_lite_internal_fleece_impl_NativeFLEncoder
- * Method:    writeData
- * Signature: (J[B)Z
- */
-JNIEXPORT jboolean JNICALL
-Java_com_couchbase_lite_internal_fleece_impl_NativeFLEncoder_writeData(
-        JNIEnv *env,
-        jclass ignore,
-        jlong jenc,
-        jbyteArray jvalue) {
-    jbyteArraySlice value(env, jvalue);
-    return FLEncoder_WriteData((FLEncoder) jenc, value) ? JNI_TRUE : JNI_FALSE;
+static uint64_t readCommandU64(const uint8_t *&p) {
+    uint64_t lo = readCommandU32(p);
+    uint64_t hi = readCommandU32(p);
+    return lo | (hi << 32);
 }
 
-/*
- * Class:     com_couchbase_lite_internal_fleece_impl_NativeFLEncoder
- * Method:    writeValue
- * Signature: (JJ)Z
- */
-JNIEXPORT jboolean JNICALL
-Java_com_couchbase_lite_internal_fleece_impl_NativeFLEncoder_writeValue(
-        JNIEnv *env,
-        jclass ignore,
-        jlong jenc,
-        jlong jvalue) {
-    return FLEncoder_WriteValue((FLEncoder) jenc, (FLValue) jvalue) ? JNI_TRUE : JNI_FALSE;
+static float readCommandFloat(const uint8_t *&p) {
+    uint32_t bits = readCommandU32(p);
+    float f;
+    memcpy(&f, &bits, sizeof(f));
+    return f;
 }
 
-/*
- * Class:     com_couchbase_lite_internal_fleece_impl_NativeFLEncoder
- * Method:    beginArray
- * Signature: (JJ)Z
- */
-JNIEXPORT jboolean JNICALL
-Java_com_couchbase_lite_internal_fleece_impl_NativeFLEncoder_beginArray(
-        JNIEnv *env,
-        jclass ignore,
-        jlong jenc,
-        jlong jreserve) {
-    return FLEncoder_BeginArray((FLEncoder) jenc, (size_t) jreserve) ? JNI_TRUE : JNI_FALSE;
+static double readCommandDouble(const uint8_t *&p) {
+    uint64_t bits = readCommandU64(p);
+    double d;
+    memcpy(&d, &bits, sizeof(d));
+    return d;
 }
 
-/*
- * Class:     com_couchbase_lite_internal_fleece_impl_NativeFLEncoder
- * Method:    endArray
- * Signature: (J)Z
- */
-JNIEXPORT jboolean JNICALL
-Java_com_couchbase_lite_internal_fleece_impl_NativeFLEncoder_endArray(JNIEnv *env, jclass ignore, jlong jenc) {
-    return FLEncoder_EndArray((FLEncoder) jenc) ? JNI_TRUE : JNI_FALSE;
+static FLSlice readCommandSlice(const uint8_t *&p) {
+    uint32_t len = readCommandU32(p);
+    FLSlice slice = {p, len};
+    p += len;
+    return slice;
 }
 
 /*
  * Class:     com_couchbase_lite_internal_fleece_impl_NativeFLEncoder
- * Method:    beginDict
- * Signature: (JJ)Z
+ * Method:    writeCommands
+ * Signature: (J[BI)Z
+ *
+ * Replay a buffer of commands, recorded by FLCommandBuffer, into the encoder.
+ * Stops at the first command that fails: the encoder records the error.
+ * The replay makes no JNI calls, so it reads the buffer in place, with critical access.
  */
 JNIEXPORT jboolean JNICALL
-Java_com_couchbase_lite_internal_fleece_impl_NativeFLEncoder_beginDict(
+Java_com_couchbase_lite_internal_fleece_impl_NativeFLEncoder_writeCommands(
         JNIEnv *env,
         jclass ignore,
         jlong jenc,
-        jlong jreserve) {
-    return FLEncoder_BeginDict((FLEncoder) jenc, (size_t) jreserve) ? JNI_TRUE : JNI_FALSE;
-}
+        jbyteArray jcommands,
+        jint jlen) {
+    auto enc = (FLEncoder) jenc;
+    bool ok = true;
+    {
+        jbyteArraySlice commands(env, false, jcommands, (size_t) jlen, true);
+        FLSlice cmds = commands;
+        auto p = (const uint8_t *) cmds.buf;
+        const uint8_t *end = p + cmds.size;
 
-/*
- * Class:     com_couchbase_lite_internal_fleece_impl_NativeFLEncoder
- * Method:    endDict
- * Signature: (J)Z
- */
-JNIEXPORT jboolean JNICALL
-Java_com_couchbase_lite_internal_fleece_impl_NativeFLEncoder_endDict(JNIEnv *env, jclass ignore, jlong jenc) {
-    return FLEncoder_EndDict((FLEncoder) jenc) ? JNI_TRUE : JNI_FALSE;
+        while (ok && (p < end)) {
+            switch (*p++) {
+                case kCmdNull:
+                    ok = FLEncoder_WriteNull(enc);
+                    break;
+                case kCmdFalse:
+                    ok = FLEncoder_WriteBool(enc, false);
+                    break;
+                case kCmdTrue:
+                    ok = FLEncoder_WriteBool(enc, true);
+                    break;
+                case kCmdInt:
+                    ok = FLEncoder_WriteInt(enc, (int64_t) readCommandU64(p));
+                    break;
+                case kCmdFloat:
+                    ok = FLEncoder_WriteFloat(enc, readCommandFloat(p));
+                    break;
+                case kCmdDouble:
+                    ok = FLEncoder_WriteDouble(enc, readCommandDouble(p));
+                    break;
+                case kCmdString:
+                    ok = FLEncoder_WriteString(enc, readCommandSlice(p));
+                    break;
+                case kCmdData:
+                    ok = FLEncoder_WriteData(enc, readCommandSlice(p));
+                    break;
+                case kCmdBeginArray:
+                    ok = FLEncoder_BeginArray(enc, readCommandU32(p));
+                    break;
+                case kCmdEndArray:
+                    ok = FLEncoder_EndArray(enc);
+                    break;
+                case kCmdBeginDict:
+                    ok = FLEncoder_BeginDict(enc, readCommandU32(p));
+                    break;
+                case kCmdEndDict:
+                    ok = FLEncoder_EndDict(enc);
+                    break;
+                case kCmdKey:
+                    ok = FLEncoder_WriteKey(enc, readCommandSlice(p));
+                    break;
+                case kCmdValue:
+                    ok = FLEncoder_WriteValue(enc, (FLValue) readCommandU64(p));
+                    break;
+                default:
+                    ok = false;
+                    break;
+            }
+        }
+    }
+
+    // A write may have succeeded and still left an error in the encoder
+    return (ok && (FLEncoder_GetError(enc) == kFLNoError)) ? JNI_TRUE : JNI_FALSE;
 }
 
 /*
  * Class:     com_couchbase_lite_internal_fleece_impl_NativeFLEncoder
- * Method:    writeKey
- * Signature: (J[B)Z
+ * Method:    writeEncoded
+ * Signature: (JJJJ)Z
+ *
+ * Write the root of a Fleece document that was encoded with the passed shared keys.
+ * The document's integer keys can be read only with those keys.
  */
 JNIEXPORT jboolean JNICALL
-Java_com_couchbase_lite_internal_fleece_impl_NativeFLEncoder_writeKey(
+Java_com_couchbase_lite_internal_fleece_impl_NativeFLEncoder_writeEncoded(
         JNIEnv *env,
         jclass ignore,
         jlong jenc,
-        jstring jkey) {
-    if (jkey == nullptr)
-        return JNI_FALSE;
-    jstringSlice key(env, jkey);
-    return FLEncoder_WriteKey((FLEncoder) jenc, key) ? JNI_TRUE : JNI_FALSE;
+        jlong jbodyPtr,
+        jlong jbodySize,
+        jlong jsharedKeys) {
+    FLSliceResult body{(const void *) jbodyPtr, (size_t) jbodySize};
+    FLDoc doc = FLDoc_FromResultData(body, kFLTrusted, (FLSharedKeys) jsharedKeys, kFLSliceNull);
+    bool ok = FLEncoder_WriteValue((FLEncoder) jenc, FLDoc_GetRoot(doc));
+    FLDoc_Release(doc);
+    return ok ? JNI_TRUE : JNI_FALSE;
 }
 
 /*
@@ -284,6 +310,20 @@ Java_com_couchbase_lite_internal_fleece_impl_NativeFLEncoder_reset(
     FLEncoder_Reset((FLEncoder) jenc);
 }
 
+/*
+ * Class:     com_couchbase_lite_internal_fleece_impl_NativeFLEncoder
+ * Method:    setSharedKeys
+ * Signature: (JJ)V
+ */
+JNIEXPORT void JNICALL
+Java_com_couchbase_lite_internal_fleece_impl_NativeFLEncoder_setSharedKeys(
+        JNIEnv *env,
+        jclass ignore,
+        jlong jenc,
+        jlong jsharedKeys) {
+    FLEncoder_SetSharedKeys((FLEncoder) jenc, (FLSharedKeys) jsharedKeys);
+}
+
 // ----------------------------------------------------------------------------
 // JsonEncoder
 // ----------------------------------------------------------------------------
@@ -30,6 +30,7 @@ import java.util.Objects;
 import java.util.Set;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
 import com.couchbase.lite.internal.CouchbaseLiteInternal;
 import com.couchbase.lite.internal.ImmutableDatabaseConfiguration;
@@ -39,6 +40,7 @@ import com.couchbase.lite.internal.core.C4Constants;
 import com.couchbase.lite.internal.core.C4Database;
 import com.couchbase.lite.internal.core.C4Document;
 import com.couchbase.lite.internal.core.C4Query;
+import com.couchbase.lite.internal.core.C4ReadConnectionPool;
 import com.couchbase.lite.internal.core.C4Replicator;
 import com.couchbase.lite.internal.core.C4Socket;
 import com.couchbase.lite.internal.exec.ClientTask;
@@ -220,6 +222,26 @@ abstract class AbstractDatabase extends BaseDatabase
 
     private final FLSharedKeys sharedKeys;
 
+    // Encoders that can be used without holding the db lock.
+    private final FLEncoder.Pool encoderPool;
+
+    // Read-only connections for document reads: null unless the configuration asks for them.
+    @Nullable
+    private final C4ReadConnectionPool readPool;
+
+    // Compiled queries, shared by the Query objects for this database.
+    @NonNull
+    private final QueryCache queryCache = new QueryCache(0);
+
+    // Commits asynchronous writes, in groups.
+    @NonNull
+    private final GroupCommitWriter asyncWriter;
+
+    // Incremented when this database is closed or one of its collections is deleted.
+    // A DocumentCache serves documents only in the epoch in which it was started.
+    @NonNull
+    private final AtomicLong collectionEpoch = new AtomicLong();
+
     @GuardedBy("activeProcesses")
     private final Set<ActiveProcess<?>> activeProcesses;
 
@@ -266,6 +288,23 @@ abstract class AbstractDatabase extends BaseDatabase
 
         // Initialize a shared keys:
         this.sharedKeys = c4db.getFLSharedKeys();
+        this.encoderPool = FLEncoder.createPool(sharedKeys);
+
+        this.asyncWriter = new GroupCommitWriter(
+            this,
+            config.getAsyncWriteBatchSize(),
+            config.getAsyncWriteMaxDelay());
+
+        final int readConnections = config.getReadConnectionCount();
+        this.readPool = (readConnections <= 0)
+            ? null
+            : new C4ReadConnectionPool(
+                readConnections,
+                () -> C4Database.getReadOnlyDatabase(
+                    config.getDirectory(),
+                    name,
+                    getEncryptionAlgorithm(),
+                    getEncryptionKey()));
 
         // warn if logging has not been turned on
         LogSinksImpl.warnNoFileLogSink();
@@ -401,6 +440,7 @@ abstract class AbstractDatabase extends BaseDatabase
 
         synchronized (getDbLock()) {
             assertOpenChecked();
+            queryCache.invalidate();
             return Collection.createCollection(getDatabase(), scopeName, collectionName);
         }
     }
@@ -505,6 +545,10 @@ abstract class AbstractDatabase extends BaseDatabase
         synchronized (getDbLock()) {
             try { getC4DbOrThrowLocked().deleteCollection(scopeName, collectionName); }
             catch (LiteCoreException e) { throw CouchbaseLiteException.convertException(e); }
+            finally {
+                collectionEpoch.incrementAndGet();
+                queryCache.invalidate();
+            }
         }
     }
 
@@ -532,7 +576,11 @@ abstract class AbstractDatabase extends BaseDatabase
                     commit = true;
                 }
                 finally {
-                    db.endTransaction(commit);
+                    try { db.endTransaction(commit); }
+                    finally {
+                        // the IDs of keys added during the transaction may be reassigned
+                        if (!commit) { sharedKeys.clearKeys(); }
+                    }
                 }
             }
             catch (LiteCoreException e) {
@@ -557,6 +605,33 @@ abstract class AbstractDatabase extends BaseDatabase
         }
     }
 
+    /**
+     * Set the maximum number of compiled queries that this Database object will cache.
+     * Query objects with identical query text (or, for queries built with the QueryBuilder,
+     * identical JSON) share a single compiled query: creating a Query for a cached query does
+     * not require compiling it again.  The cache belongs to this Database object and is cleared
+     * whenever an index or a collection is created or deleted.
+     * Setting the size to 0 (the default) disables the cache.
+     *
+     * @param maxQueries the maximum number of cached queries: 0 to disable the cache
+     */
+    public void setQueryCacheSize(int maxQueries) { queryCache.setMaxQueries(maxQueries); }
+
+    /**
+     * The number of queries that were found in this Database's query cache, and did not need to be compiled.
+     */
+    public long getQueryCacheHits() { return queryCache.getHits(); }
+
+    /**
+     * The number of queries that were not found in this Database's query cache, and had to be compiled.
+     */
+    public long getQueryCacheMisses() { return queryCache.getMisses(); }
+
+    /**
+     * The total time, in nanoseconds, spent compiling queries for this Database object.
+     */
+    public long getQueryCompileTimeNs() { return queryCache.getCompileTimeNs(); }
+
     // - Blobs:
 
     /**
@@ -722,6 +797,8 @@ abstract class AbstractDatabase extends BaseDatabase
         synchronized (getDbLock()) { return getOpenC4DbLocked().getDefaultCollection(); }
     }
 
+    long getCollectionEpoch() { return collectionEpoch.get(); }
+
     // - Documents:
 
     @GuardedBy("getDbLock()")
@@ -734,6 +811,10 @@ abstract class AbstractDatabase extends BaseDatabase
     void endTransaction(boolean commit) throws CouchbaseLiteException {
         try { getOpenC4DbLocked().endTransaction(commit); }
         catch (LiteCoreException e) { throw CouchbaseLiteException.convertException(e); }
+        finally {
+            // the IDs of keys added during the transaction may be reassigned
+            if (!commit) { sharedKeys.clearKeys(); }
+        }
     }
 
     // - Replicators:
@@ -941,6 +1022,9 @@ abstract class AbstractDatabase extends BaseDatabase
 
     // - Queries:
 
+    @NonNull
+    QueryCache getQueryCache() { return queryCache; }
+
     @NonNull
     C4Query createJsonQuery(@NonNull String json) throws LiteCoreException {
         synchronized (getDbLock()) { return getOpenC4DbLocked().createJsonQuery(json); }
@@ -958,6 +1042,35 @@ abstract class AbstractDatabase extends BaseDatabase
         synchronized (getDbLock()) { return getOpenC4DbLocked().getSharedFleeceEncoder(); }
     }
 
+    // Unlike the shared encoder, a pooled encoder may be used without holding the db lock.
+    // It uses the shared keys: outside a transaction, a key that is not yet shared is encoded
+    // as a string.  Returns null if the database has been closed.
+    @Nullable
+    FLEncoder getPooledFleeceEncoder() { return encoderPool.getEncoder(); }
+
+    // Get a read-only connection, on which to read documents without holding the db lock.
+    // Returns null if the caller should just use the main connection: there is no read pool,
+    // all of the read connections are busy, the db is closed, or this thread holds the db lock.
+    // The last case is important: this thread may have an open transaction whose changes
+    // are visible only on the main connection.
+    // A connection obtained from this method must be returned with releaseReadConnection.
+    @Nullable
+    C4ReadConnectionPool.Connection getReadConnection() {
+        if ((readPool == null) || Thread.holdsLock(getDbLock())) { return null; }
+        try { return readPool.acquire(); }
+        catch (LiteCoreException e) {
+            Log.w(DOMAIN, "Failed opening read connection", e);
+            return null;
+        }
+    }
+
+    void releaseReadConnection(@NonNull C4ReadConnectionPool.Connection connection) {
+        if (readPool != null) { readPool.release(connection); }
+    }
+
+    // Queue a write, to be committed with any other writes that are waiting.
+    void submitAsyncWrite(@NonNull GroupCommitWriter.Write write) { asyncWriter.submit(write); }
+
     abstract int getEncryptionAlgorithm();
 
     @Nullable
@@ -1241,6 +1354,12 @@ abstract class AbstractDatabase extends BaseDatabase
             setC4DatabaseLocked(null);
             // mustBeOpen will now fail, which should prevent any new processes from being registered.
 
+            encoderPool.close();
+            if (readPool != null) { readPool.close(); }
+            asyncWriter.close();
+            collectionEpoch.incrementAndGet();
+            queryCache.invalidate();
+
             // ??? Need to shutdown observers?
 
             closeLatch = new CountDownLatch(1);
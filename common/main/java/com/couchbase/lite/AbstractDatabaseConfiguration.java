@@ -25,34 +25,65 @@ import com.couchbase.lite.internal.utils.Preconditions;
 
 
 abstract class AbstractDatabaseConfiguration {
+    private static final int DEFAULT_READ_CONNECTIONS
+        = BaseImmutableDatabaseConfiguration.DEFAULT_READ_CONNECTIONS;
+    private static final int DEFAULT_ASYNC_WRITE_BATCH_SIZE
+        = BaseImmutableDatabaseConfiguration.DEFAULT_ASYNC_WRITE_BATCH_SIZE;
+    private static final long DEFAULT_ASYNC_WRITE_MAX_DELAY_MS
+        = BaseImmutableDatabaseConfiguration.DEFAULT_ASYNC_WRITE_MAX_DELAY_MS;
+
     //---------------------------------------------
     // Data Members
     //---------------------------------------------
     private String dbDirectory;
     private boolean fullSync;
+    private int readConnections;
+    private int asyncWriteBatchSize;
+    private long asyncWriteMaxDelayMs;
 
     //---------------------------------------------
     // Constructors
     //---------------------------------------------
     protected AbstractDatabaseConfiguration() {
-        this(null, Defaults.Database.FULL_SYNC);
+        this(
+            null,
+            Defaults.Database.FULL_SYNC,
+            DEFAULT_READ_CONNECTIONS,
+            DEFAULT_ASYNC_WRITE_BATCH_SIZE,
+            DEFAULT_ASYNC_WRITE_MAX_DELAY_MS);
     }
 
     protected AbstractDatabaseConfiguration(@Nullable AbstractDatabaseConfiguration config) {
         this(
             (config == null) ? null : config.getDirectory(),
-            (config == null) ? Defaults.Database.FULL_SYNC : config.isFullSync()
+            (config == null) ? Defaults.Database.FULL_SYNC : config.isFullSync(),
+            (config == null) ? DEFAULT_READ_CONNECTIONS : config.getReadConnectionCount(),
+            (config == null) ? DEFAULT_ASYNC_WRITE_BATCH_SIZE : config.getAsyncWriteBatchSize(),
+            (config == null) ? DEFAULT_ASYNC_WRITE_MAX_DELAY_MS : config.getAsyncWriteMaxDelay()
         );
     }
 
     protected AbstractDatabaseConfiguration(@NonNull BaseImmutableDatabaseConfiguration config) {
-        this(config.getDirectory(), config.isFullSync());
+        this(
+            config.getDirectory(),
+            config.isFullSync(),
+            config.getReadConnectionCount(),
+            config.getAsyncWriteBatchSize(),
+            config.getAsyncWriteMaxDelay());
     }
 
-    private AbstractDatabaseConfiguration(@Nullable String dbDir, boolean fullSync) {
+    private AbstractDatabaseConfiguration(
+        @Nullable String dbDir,
+        boolean fullSync,
+        int readConnections,
+        int asyncWriteBatchSize,
+        long asyncWriteMaxDelayMs) {
         CouchbaseLiteInternal.requireInit("Cannot create database configuration");
         this.dbDirectory = (dbDir != null) ? dbDir : CouchbaseLiteInternal.getDefaultDbDirPath();
         this.fullSync = fullSync;
+        this.readConnections = readConnections;
+        this.asyncWriteBatchSize = asyncWriteBatchSize;
+        this.asyncWriteMaxDelayMs = asyncWriteMaxDelayMs;
     }
 
     //---------------------------------------------
@@ -111,6 +142,78 @@ abstract class AbstractDatabaseConfiguration {
 
     public boolean isFullSync() { return fullSync; }
 
+    /**
+     * Set the number of additional, read-only connections the database may open.  When this number is
+     * greater than zero, document reads (Collection.getDocument, Collection.getDocuments, Collection.getCount)
+     * use one of these connections, if one is free, and do not wait for writes in progress on other threads.
+     * Reading the properties of a document read from one of these connections does not wait for writes either.
+     * The document may be modified and saved normally.
+     * Query.execute and Query.explain also use one of these connections, if one is free: a long query
+     * blocks neither writers nor other queries.  A query is compiled once for each connection on which it runs.
+     * Live queries and prepared queries use the database's main connection, and wait for writes as before.
+     * The default is 0: all reads use the main connection.
+     *
+     * @param readConnections the maximum number of read-only connections: 0 to disable them.
+     * @return this
+     * @throws IllegalArgumentException if the number is negative
+     */
+    @NonNull
+    public DatabaseConfiguration setReadConnectionCount(int readConnections) {
+        this.readConnections = Preconditions.assertNotNegative(readConnections, "read connections");
+        return getDatabaseConfiguration();
+    }
+
+    /**
+     * Returns the maximum number of read-only connections the database may open.
+     *
+     * @return the number of read-only connections.
+     */
+    public int getReadConnectionCount() { return readConnections; }
+
+    /**
+     * Set the maximum number of asynchronous writes (Collection.saveAsync, Collection.deleteAsync)
+     * that may be committed together, in a single transaction.  The default is 100.
+     *
+     * @param batchSize the maximum number of writes in a transaction
+     * @return this
+     * @throws IllegalArgumentException if the size is not positive
+     */
+    @NonNull
+    public DatabaseConfiguration setAsyncWriteBatchSize(int batchSize) {
+        this.asyncWriteBatchSize = Preconditions.assertPositive(batchSize, "batch size");
+        return getDatabaseConfiguration();
+    }
+
+    /**
+     * Returns the maximum number of asynchronous writes that may be committed in a single transaction.
+     *
+     * @return the maximum number of writes in a transaction
+     */
+    public int getAsyncWriteBatchSize() { return asyncWriteBatchSize; }
+
+    /**
+     * Set the longest time, in milliseconds, that an asynchronous write may wait for other writes
+     * with which it can be committed.  Larger delays make for larger transactions and fewer
+     * commits, at the cost of latency.  The default is 0: a write is committed immediately,
+     * together with any other writes that arrived while the previous transaction was being committed.
+     *
+     * @param maxDelayMs the maximum delay, in milliseconds
+     * @return this
+     * @throws IllegalArgumentException if the delay is negative
+     */
+    @NonNull
+    public DatabaseConfiguration setAsyncWriteMaxDelay(long maxDelayMs) {
+        this.asyncWriteMaxDelayMs = Preconditions.assertNotNegative(maxDelayMs, "max delay");
+        return getDatabaseConfiguration();
+    }
+
+    /**
+     * Returns the longest time, in milliseconds, that an asynchronous write may wait to be committed.
+     *
+     * @return the maximum delay, in milliseconds
+     */
+    public long getAsyncWriteMaxDelay() { return asyncWriteMaxDelayMs; }
+
     //---------------------------------------------
     // Protected level access
     //---------------------------------------------
@@ -15,13 +15,16 @@
 //
 package com.couchbase.lite;
 
+import androidx.annotation.GuardedBy;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 
+import java.util.Arrays;
 import java.util.Objects;
 
 import com.couchbase.lite.internal.BaseJFleeceCollection;
 import com.couchbase.lite.internal.fleece.FLEncoder;
+import com.couchbase.lite.internal.fleece.FLSliceResult;
 import com.couchbase.lite.internal.fleece.FLValue;
 import com.couchbase.lite.internal.fleece.FleeceEncodable;
 import com.couchbase.lite.internal.fleece.JSONEncodable;
@@ -40,6 +43,36 @@ import com.couchbase.lite.internal.utils.Internal;
 public abstract class AbstractJFleeceCollection<T extends MCollection>
     extends BaseJFleeceCollection
     implements JFleeceCollectionInterface, JSONEncodable, FleeceEncodable {
+    // The hash of any blob, including a Fleece data value, which Java sees as a Blob: blobs are equal
+    // if their digests or their contents are equal, so there is no cheap hash that is consistent
+    // with equals.  This must match native_fleece.cc
+    protected static final int BLOB_HASH = 0x626c6f62;
+
+    // Hash a value, in a way that is consistent both with equals and with the native
+    // hash of the same content (see native_fleece.cc: hashValue).  Numbers with integral
+    // values hash as longs, whatever their type.
+    protected static int hashValue(@Nullable Object value) {
+        if (value == null) { return 0; }
+        if (value instanceof Blob) { return BLOB_HASH; }
+        if ((value instanceof Double) || (value instanceof Float)) {
+            return hashDouble(((Number) value).doubleValue());
+        }
+        if ((value instanceof Long) || (value instanceof Integer)
+            || (value instanceof Short) || (value instanceof Byte)) {
+            return hashLong(((Number) value).longValue());
+        }
+        if (value instanceof byte[]) { return Arrays.hashCode((byte[]) value); }
+        return value.hashCode();
+    }
+
+    private static int hashDouble(double d) {
+        if ((d == Math.floor(d)) && (d >= -0x1p63) && (d < 0x1p63)) { return hashLong((long) d); }
+        return hashLong(Double.doubleToLongBits(d));
+    }
+
+    private static int hashLong(long n) { return (int) (n ^ (n >>> 32)); }
+
+
     @NonNull
     protected final Object lock;
 
@@ -49,8 +82,10 @@ public abstract class AbstractJFleeceCollection<T extends MCollection>
     protected AbstractJFleeceCollection(@NonNull T collection) {
         contents = collection;
         final MContext context = collection.getContext();
+        final Object contextLock = (context == null) ? null : context.getLock();
         final BaseDatabase db = (context == null) ? null : context.getDatabase();
-        lock = (db == null) ? new Object() : db.getDbLock();
+        if (contextLock != null) { lock = contextLock; }
+        else { lock = (db == null) ? new Object() : db.getDbLock(); }
     }
 
     @NonNull
@@ -71,6 +106,39 @@ public abstract class AbstractJFleeceCollection<T extends MCollection>
     // !!! Should be synchronized??
     public void encodeTo(@NonNull FLEncoder enc) { contents.encodeTo(enc); }
 
+    /**
+     * Get a digest of the content of this collection.  The digest is the SHA-1 digest of the
+     * canonical Fleece encoding of the content, in the format of a blob digest.  It does not depend
+     * on the database from which the content came: collections with the same content have the same digest.
+     * Computing the digest never saves a blob: the digest of a collection that contains a blob that
+     * has not been saved is the digest that the collection will have once the blob is saved.
+     *
+     * @return the content digest
+     * @throws CouchbaseLiteException on encoder failure.
+     */
+    @NonNull
+    public String contentDigest() throws CouchbaseLiteException {
+        try {
+            synchronized (lock) {
+                final FLValue base = getUnmodifiedFLValue();
+                if (base != null) { return base.digest(); }
+
+                try (FLEncoder enc = FLEncoder.getManagedEncoder()) {
+                    enc.setArg(Blob.ENCODER_ARG_DIGEST, true);
+                    contents.encodeTo(enc);
+                    try (FLSliceResult fleece = enc.finish2()) {
+                        final FLValue root = FLValue.fromData(fleece);
+                        if (root == null) { throw new CouchbaseLiteError("Failed encoding collection: " + this); }
+                        return root.digest();
+                    }
+                }
+            }
+        }
+        catch (LiteCoreException e) {
+            throw CouchbaseLiteException.convertException(e, "Cannot compute digest: " + this);
+        }
+    }
+
     /**
      * Encode an Array as a JSON string
      *
@@ -89,6 +157,55 @@ public abstract class AbstractJFleeceCollection<T extends MCollection>
         }
     }
 
+    // Convert JSON directly to Fleece, in LiteCore.  The returned value owns the Fleece
+    // so that the values it contains remain valid for as long as something refers to them.
+    // Returns null if the JSON root is not of the expected type or if LiteCore cannot parse it:
+    // the org.json parser is more lenient, so the caller should fall back to it.
+    @Nullable
+    protected static MValue parseJSON(@NonNull String json, int type) {
+        final FLSliceResult fleece;
+        try { fleece = FLValue.fromJSON(json); }
+        catch (LiteCoreException e) { return null; }
+
+        final FLValue root = FLValue.fromData(fleece);
+        if ((root == null) || (root.getType() != type)) {
+            fleece.close();
+            return null;
+        }
+
+        return new MValue(root, new MValue.JSONBackingStore(fleece));
+    }
+
+    // The Fleece value that is exactly the content of this collection, if there is one:
+    // the collection has not been changed and its base came from the context.
+    @GuardedBy("lock")
+    @Nullable
+    protected abstract FLValue getUnmodifiedFLValue();
+
+    // If both collections are exactly Fleece values, compare them natively.
+    // Returns null if the comparison must be done in Java: see FLValue.isEqual.
+    @Nullable
+    protected final Boolean fleeceEquals(@NonNull AbstractJFleeceCollection<?> other) {
+        // Only for collections from the same database: taking two locks might deadlock.
+        if (lock != other.lock) { return null; }
+        synchronized (lock) {
+            final FLValue base = getUnmodifiedFLValue();
+            if (base == null) { return null; }
+            final FLValue otherBase = other.getUnmodifiedFLValue();
+            return (otherBase == null) ? null : base.isEqual(otherBase);
+        }
+    }
+
+    // If this collection is exactly a Fleece value, hash it natively.
+    // Returns null if the hash must be computed in Java.
+    @Nullable
+    protected final Integer fleeceHash() {
+        synchronized (lock) {
+            final FLValue base = getUnmodifiedFLValue();
+            return (base == null) ? null : base.contentHash();
+        }
+    }
+
     // Assume that array and dict values are always different to avoid expensive comparisons.
     protected boolean willMutate(Object newValue, @NonNull MValue oldValue, MCollection container) {
         final FLValue val = oldValue.getFLValue();
@@ -20,6 +20,7 @@ import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 import androidx.annotation.VisibleForTesting;
 
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Map;
@@ -27,9 +28,11 @@ import java.util.Set;
 import java.util.concurrent.Executor;
 
 import com.couchbase.lite.internal.CouchbaseLiteInternal;
+import com.couchbase.lite.internal.QueryLanguage;
 import com.couchbase.lite.internal.core.C4Query;
 import com.couchbase.lite.internal.core.C4QueryEnumerator;
 import com.couchbase.lite.internal.core.C4QueryObserver;
+import com.couchbase.lite.internal.core.C4ReadConnectionPool;
 import com.couchbase.lite.internal.fleece.FLSliceResult;
 import com.couchbase.lite.internal.listener.ChangeListenerToken;
 import com.couchbase.lite.internal.listener.Listenable;
@@ -40,6 +43,9 @@ import com.couchbase.lite.internal.utils.Preconditions;
 abstract class AbstractQuery implements Listenable<QueryChange, QueryChangeListener>, Query {
     protected static final LogDomain DOMAIN = LogDomain.QUERY;
 
+    // The cache generation of a C4Query that belongs to this Query alone.
+    private static final long PRIVATE_QUERY = -1L;
+
     // This class has two reasons for existence:
     // - put and remove execute the onFirst and onLast Runnables, respectively
     // - it prevents starting an observer that has been removed.
@@ -111,6 +117,15 @@ abstract class AbstractQuery implements Listenable<QueryChange, QueryChangeListe
     private Map<String, Integer> columnNames;
     @GuardedBy("lock")
     private C4Query c4query;
+    // The generation of the query cache from which c4query came, or PRIVATE_QUERY
+    @GuardedBy("lock")
+    private long queryGeneration = PRIVATE_QUERY;
+    // The query text and the key under which it is cached: a query is complete
+    // by the time it is first compiled, so these never change once they are set.
+    @GuardedBy("lock")
+    private String queryText;
+    @GuardedBy("lock")
+    private String queryKey;
 
     @Nullable
     private Parameters parameters;
@@ -137,7 +152,10 @@ abstract class AbstractQuery implements Listenable<QueryChange, QueryChangeListe
 
             if (parameters == null) { return; }
 
-            try (FLSliceResult params = parameters.encode()) { getC4QueryLocked().setParameters(params); }
+            // A shared compiled query is always run with explicit parameters: only a private one holds them.
+            try (FLSliceResult params = parameters.encode()) {
+                if ((c4query != null) && (queryGeneration == PRIVATE_QUERY)) { c4query.setParameters(params); }
+            }
             catch (LiteCoreException e) {
                 throw CouchbaseLiteException.convertException(e, "Failed encoding parameters");
             }
@@ -161,6 +179,16 @@ abstract class AbstractQuery implements Listenable<QueryChange, QueryChangeListe
     public ResultSet execute() throws CouchbaseLiteException {
         try {
             if (parameters == null) { parameters = new Parameters(); }
+
+            // Run the query on a read-only connection, if there is one:
+            // it neither waits for, nor blocks, writers or other queries.
+            final AbstractDatabase db = getDatabase();
+            final C4ReadConnectionPool.Connection reader = (db == null) ? null : db.getReadConnection();
+            if (reader != null) {
+                try { return executeOnReader(db, reader); }
+                finally { db.releaseReadConnection(reader); }
+            }
+
             final C4QueryEnumerator c4enum;
             final Map<String, Integer> colNames;
             try (FLSliceResult params = parameters.encode()) {
@@ -176,6 +204,37 @@ abstract class AbstractQuery implements Listenable<QueryChange, QueryChangeListe
         catch (LiteCoreException e) { throw CouchbaseLiteException.convertException(e); }
     }
 
+    /**
+     * Compile the query, for repeated execution with different parameter values.
+     * The compiled query may be shared with other Queries with the same text:
+     * it is always run with the parameter values from a Bindings object.
+     *
+     * @param parameterNames the names of the query's parameters, without the leading '$'.
+     * @return a PreparedQuery for the query.
+     * @throws CouchbaseLiteException if the query cannot be compiled.
+     * @throws IllegalArgumentException if a parameter name is null or appears more than once.
+     */
+    @NonNull
+    @Override
+    public PreparedQuery prepare(@NonNull String... parameterNames) throws CouchbaseLiteException {
+        Preconditions.assertNotNull(parameterNames, "parameter names");
+        final Set<String> names = new HashSet<>();
+        for (String name: parameterNames) {
+            Preconditions.assertNotNull(name, "parameter name");
+            if (!names.add(name)) { throw new IllegalArgumentException("Duplicate parameter name: " + name); }
+        }
+
+        final AbstractDatabase db = getDatabase();
+        if (db == null) { throw new CouchbaseLiteException("Attempt to prepare query with no database"); }
+
+        synchronized (db.getDbLock()) {
+            synchronized (lock) {
+                final C4Query c4Q = getC4QueryLocked();
+                return new PreparedQuery(db, c4Q, columnNames, Arrays.asList(parameterNames));
+            }
+        }
+    }
+
     /**
      * Returns a string describing the implementation of the compiled query.
      * This is intended to be read by a developer for purposes of optimizing the query, especially
@@ -195,6 +254,19 @@ abstract class AbstractQuery implements Listenable<QueryChange, QueryChangeListe
     @NonNull
     @Override
     public String explain() throws CouchbaseLiteException {
+        final AbstractDatabase db = getDatabase();
+        final C4ReadConnectionPool.Connection reader = (db == null) ? null : db.getReadConnection();
+        if (reader != null) {
+            try {
+                final C4Query c4Q = getReaderC4Query(db, reader);
+                final String exp;
+                synchronized (reader.getLock()) { exp = c4Q.explain(); }
+                if (exp == null) { throw new CouchbaseLiteException("Could not explain query"); }
+                return exp;
+            }
+            finally { db.releaseReadConnection(reader); }
+        }
+
         synchronized (getDbLock()) {
             synchronized (lock) {
                 final String exp = getC4QueryLocked().explain();
@@ -249,9 +321,13 @@ abstract class AbstractQuery implements Listenable<QueryChange, QueryChangeListe
     @Nullable
     protected abstract AbstractDatabase getDatabase();
 
+    @NonNull
+    protected abstract QueryLanguage getQueryLanguage();
+
+    // The text of the query, in its language.  Queries with the same language and text share a compiled query.
     @GuardedBy("lock")
     @NonNull
-    protected abstract C4Query prepQueryLocked(@NonNull AbstractDatabase db) throws CouchbaseLiteException;
+    protected abstract String getQueryTextLocked() throws CouchbaseLiteException;
 
     @VisibleForTesting
     boolean isLive(ListenerToken token) { return liveQueries.isLive(token); }
@@ -259,16 +335,124 @@ abstract class AbstractQuery implements Listenable<QueryChange, QueryChangeListe
     @VisibleForTesting
     int liveCount() { return liveQueries.liveCount(); }
 
+    // Get a compiled query that can be used to run or explain this query.  It may be shared with other Queries.
     @GuardedBy("lock")
     @NonNull
     private C4Query getC4QueryLocked() throws CouchbaseLiteException {
-        if (c4query != null) { return c4query; }
+        final AbstractDatabase db = getDatabase();
+        if ((c4query != null)
+            && ((queryGeneration == PRIVATE_QUERY) || (db == null) || db.getQueryCache().isCurrent(queryGeneration))) {
+            return c4query;
+        }
+
+        if (db == null) { throw new CouchbaseLiteException("Attempt to prep query with no database"); }
+
+        // If the cache is disabled, don't bother looking: this query's compiled query is its own.
+        final QueryCache cache = db.getQueryCache();
+        if (!cache.isEnabled()) {
+            setC4QueryLocked(compileLocked(db, getCachedQueryTextLocked()), PRIVATE_QUERY);
+            return c4query;
+        }
+
+        final long generation = cache.getGeneration();
+        final String text = getCachedQueryTextLocked();
+        if (queryKey == null) { queryKey = getQueryLanguage() + ":" + text; }
+
+        QueryCache.Entry entry = cache.get(queryKey);
+        if (entry == null) {
+            entry = compileLocked(db, text);
+            if (!cache.put(queryKey, entry, generation)) {
+                setC4QueryLocked(entry, PRIVATE_QUERY);
+                return c4query;
+            }
+        }
+
+        setC4QueryLocked(entry, generation);
+        return c4query;
+    }
+
+    // Run this query on one of the database's read-only connections.
+    // The query is compiled once for each connection, and always run with explicit parameters.
+    @NonNull
+    private ResultSet executeOnReader(@NonNull AbstractDatabase db, @NonNull C4ReadConnectionPool.Connection reader)
+        throws CouchbaseLiteException, LiteCoreException {
+        final C4Query c4Q = getReaderC4Query(db, reader);
+
+        final Map<String, Integer> colNames;
+        synchronized (lock) {
+            if (columnNames == null) { columnNames = getColumnNames(c4Q); }
+            colNames = columnNames;
+        }
+
+        final C4QueryEnumerator c4enum;
+        try (FLSliceResult params = Preconditions.assertNotNull(parameters, "parameters").encode()) {
+            synchronized (reader.getLock()) { c4enum = c4Q.run(params); }
+        }
+        return new ResultSet(db, c4enum, colNames, reader);
+    }
+
+    @NonNull
+    private C4Query getReaderC4Query(@NonNull AbstractDatabase db, @NonNull C4ReadConnectionPool.Connection reader)
+        throws CouchbaseLiteException {
+        final String text;
+        synchronized (lock) { text = getCachedQueryTextLocked(); }
+
+        try { return reader.getQuery(getQueryLanguage(), text, db.getQueryCache().getGeneration()); }
+        catch (LiteCoreException e) { throw CouchbaseLiteException.convertException(e); }
+    }
+
+    // Get a compiled query that belongs to this Query alone: one whose parameters can be set.
+    @GuardedBy("lock")
+    @NonNull
+    private C4Query getPrivateC4QueryLocked() throws CouchbaseLiteException {
+        if ((c4query != null) && (queryGeneration == PRIVATE_QUERY)) { return c4query; }
 
         final AbstractDatabase db = getDatabase();
         if (db == null) { throw new CouchbaseLiteException("Attempt to prep query with no database"); }
 
-        final C4Query c4Q = prepQueryLocked(db);
+        setC4QueryLocked(compileLocked(db, getCachedQueryTextLocked()), PRIVATE_QUERY);
+        return c4query;
+    }
 
+    @GuardedBy("lock")
+    @NonNull
+    private String getCachedQueryTextLocked() throws CouchbaseLiteException {
+        if (queryText == null) { queryText = getQueryTextLocked(); }
+        return queryText;
+    }
+
+    // A private compiled query gets this Query's parameters, for use by live queries.
+    @GuardedBy("lock")
+    private void setC4QueryLocked(@NonNull QueryCache.Entry entry, long generation) throws CouchbaseLiteException {
+        if ((generation == PRIVATE_QUERY) && (parameters != null)) {
+            try (FLSliceResult params = parameters.encode()) { entry.c4query.setParameters(params); }
+            catch (LiteCoreException e) {
+                throw CouchbaseLiteException.convertException(e, "Failed encoding parameters");
+            }
+        }
+
+        columnNames = entry.columnNames;
+        c4query = entry.c4query;
+        queryGeneration = generation;
+    }
+
+    @GuardedBy("lock")
+    @NonNull
+    private QueryCache.Entry compileLocked(@NonNull AbstractDatabase db, @NonNull String text)
+        throws CouchbaseLiteException {
+        final long start = System.nanoTime();
+        final C4Query c4Q;
+        try {
+            c4Q = (getQueryLanguage() == QueryLanguage.N1QL) ? db.createN1qlQuery(text) : db.createJsonQuery(text);
+        }
+        catch (LiteCoreException e) { throw CouchbaseLiteException.convertException(e); }
+        finally { db.getQueryCache().recordCompileTime(System.nanoTime() - start); }
+
+        return new QueryCache.Entry(c4Q, getColumnNames(c4Q));
+    }
+
+    @NonNull
+    private Map<String, Integer> getColumnNames(@NonNull C4Query c4Q) throws CouchbaseLiteException {
         final int nCols = c4Q.getColumnCount();
         final Map<String, Integer> colNames = new HashMap<>();
         for (int i = 0; i < nCols; i++) {
@@ -285,10 +469,7 @@ abstract class AbstractQuery implements Listenable<QueryChange, QueryChangeListe
             colNames.put(colName, i);
         }
 
-        columnNames = colNames;
-
-        c4query = c4Q;
-        return c4query;
+        return colNames;
     }
 
     private void registerLiveQuery() {
@@ -313,7 +494,9 @@ abstract class AbstractQuery implements Listenable<QueryChange, QueryChangeListe
     @NonNull
     private C4QueryObserver getObserver(@NonNull ChangeListenerToken<QueryChange> token) {
         synchronized (lock) {
-            try { return C4QueryObserver.create(getC4QueryLocked(), (r, err) -> onQueryChanged(token, r, err)); }
+            try {
+                return C4QueryObserver.create(getPrivateC4QueryLocked(), (r, err) -> onQueryChanged(token, r, err));
+            }
             catch (CouchbaseLiteException e) { throw new CouchbaseLiteError("Failed creating query listener", e); }
         }
     }
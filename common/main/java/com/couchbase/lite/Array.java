@@ -15,6 +15,7 @@
 //
 package com.couchbase.lite;
 
+import androidx.annotation.GuardedBy;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 
@@ -25,6 +26,8 @@ import java.util.Iterator;
 import java.util.List;
 import java.util.Objects;
 
+import com.couchbase.lite.internal.fleece.FLArray;
+import com.couchbase.lite.internal.fleece.FLValue;
 import com.couchbase.lite.internal.fleece.MArray;
 import com.couchbase.lite.internal.fleece.MCollection;
 import com.couchbase.lite.internal.fleece.MValue;
@@ -278,6 +281,10 @@ public class Array extends AbstractJFleeceCollection<MArray> implements ArrayInt
         if (!(o instanceof Array)) { return false; }
 
         final Array a = (Array) o;
+
+        final Boolean eq = fleeceEquals(a);
+        if (eq != null) { return eq; }
+
         final Iterator<Object> itr1 = iterator();
         final Iterator<Object> itr2 = a.iterator();
         while (itr1.hasNext() && itr2.hasNext()) {
@@ -290,8 +297,11 @@ public class Array extends AbstractJFleeceCollection<MArray> implements ArrayInt
 
     @Override
     public int hashCode() {
+        final Integer hash = fleeceHash();
+        if (hash != null) { return hash; }
+
         int h = 1;
-        for (Object o: this) { h = 31 * h + (o == null ? 0 : o.hashCode()); }
+        for (Object o: this) { h = 31 * h + hashValue(o); }
         return h;
     }
 
@@ -309,6 +319,18 @@ public class Array extends AbstractJFleeceCollection<MArray> implements ArrayInt
         return buf.append('}').toString();
     }
 
+    //-------------------------------------------------------------------------
+    // Protected
+    //-------------------------------------------------------------------------
+
+    @GuardedBy("lock")
+    @Nullable
+    @Override
+    protected FLValue getUnmodifiedFLValue() {
+        final FLArray base = contents.getUnmodifiedBase();
+        return (base == null) ? null : base.toFLValue();
+    }
+
     //-------------------------------------------------------------------------
     // Private
     //-------------------------------------------------------------------------
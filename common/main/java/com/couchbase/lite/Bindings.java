@@ -0,0 +1,223 @@
+//
+// Copyright (c) 2020 Couchbase, Inc.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+package com.couchbase.lite;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.util.List;
+
+import com.couchbase.lite.internal.fleece.FLEncoder;
+import com.couchbase.lite.internal.fleece.FLSliceResult;
+import com.couchbase.lite.internal.utils.Preconditions;
+
+
+/**
+ * The parameter values for a single execution of a PreparedQuery.
+ * <p>
+ * Each of the parameters named when the query was prepared is a numbered slot.  Values are
+ * stored as primitives: binding a value does not allocate.  The parameters are encoded for
+ * LiteCore only when the query is executed, and the encoding is kept: executing the query again,
+ * with the same bindings, does not encode them again.  A slot that is never bound is MISSING.
+ * <p>
+ * Unlike a PreparedQuery, Bindings are not thread safe: each thread should use its own.
+ * Closing a Bindings frees its encoded parameters immediately.
+ */
+public final class Bindings implements AutoCloseable {
+    private static final byte UNBOUND = 0;
+    private static final byte NULL = 1;
+    private static final byte BOOLEAN = 2;
+    private static final byte LONG = 3;
+    private static final byte DOUBLE = 4;
+    private static final byte STRING = 5;
+
+    @NonNull
+    private final PreparedQuery query;
+    @NonNull
+    private final List<String> names;
+
+    @NonNull
+    private final byte[] types;
+    // the value of a long, the bits of a double, or 0/1 for a boolean
+    @NonNull
+    private final long[] values;
+    @NonNull
+    private final String[] strings;
+
+    // The most recent encoding of the parameters: null if a binding has changed since.
+    @Nullable
+    private FLSliceResult encoded;
+
+    Bindings(@NonNull PreparedQuery query, @NonNull List<String> names) {
+        this.query = query;
+        this.names = names;
+        final int n = names.size();
+        types = new byte[n];
+        values = new long[n];
+        strings = new String[n];
+    }
+
+    /**
+     * Bind an integer value to a parameter slot.
+     *
+     * @param slot  the index of the parameter, in the list of names passed to Query.prepare
+     * @param value the value
+     * @return this
+     * @throws IndexOutOfBoundsException if there is no such slot
+     */
+    @NonNull
+    public Bindings bind(int slot, long value) { return set(slot, LONG, value, null); }
+
+    /**
+     * Bind a floating point value to a parameter slot.
+     *
+     * @param slot  the index of the parameter, in the list of names passed to Query.prepare
+     * @param value the value
+     * @return this
+     * @throws IndexOutOfBoundsException if there is no such slot
+     */
+    @NonNull
+    public Bindings bind(int slot, double value) { return set(slot, DOUBLE, Double.doubleToLongBits(value), null); }
+
+    /**
+     * Bind a boolean value to a parameter slot.
+     *
+     * @param slot  the index of the parameter, in the list of names passed to Query.prepare
+     * @param value the value
+     * @return this
+     * @throws IndexOutOfBoundsException if there is no such slot
+     */
+    @NonNull
+    public Bindings bind(int slot, boolean value) { return set(slot, BOOLEAN, value ? 1L : 0L, null); }
+
+    /**
+     * Bind a String value to a parameter slot.  Binding null binds a JSON null.
+     *
+     * @param slot  the index of the parameter, in the list of names passed to Query.prepare
+     * @param value the value
+     * @return this
+     * @throws IndexOutOfBoundsException if there is no such slot
+     */
+    @NonNull
+    public Bindings bind(int slot, @Nullable String value) {
+        return (value == null) ? bindNull(slot) : set(slot, STRING, 0L, value);
+    }
+
+    /**
+     * Bind a JSON null to a parameter slot.
+     *
+     * @param slot the index of the parameter, in the list of names passed to Query.prepare
+     * @return this
+     * @throws IndexOutOfBoundsException if there is no such slot
+     */
+    @NonNull
+    public Bindings bindNull(int slot) { return set(slot, NULL, 0L, null); }
+
+    /**
+     * Unbind all parameters: all slots become MISSING.
+     *
+     * @return this
+     */
+    @NonNull
+    public Bindings clear() {
+        for (int i = 0; i < types.length; i++) { set(i, UNBOUND, 0L, null); }
+        return this;
+    }
+
+    @Override
+    public void close() { invalidate(); }
+
+    @NonNull
+    @Override
+    public String toString() { return "Bindings{" + names + "}"; }
+
+    //---------------------------------------------
+    // Package level access
+    //---------------------------------------------
+
+    boolean isFor(@NonNull PreparedQuery preparedQuery) { return query == preparedQuery; }
+
+    // The slice belongs to this object: the caller must not close it.
+    @NonNull
+    FLSliceResult getEncodedParameters() throws LiteCoreException {
+        FLSliceResult params = encoded;
+        if (params == null) {
+            params = encode();
+            encoded = params;
+        }
+        return params;
+    }
+
+    //---------------------------------------------
+    // Private methods
+    //---------------------------------------------
+
+    // Rebinding a slot to its current value does not invalidate the encoded parameters.
+    @NonNull
+    private Bindings set(int slot, byte type, long value, @Nullable String str) {
+        if ((slot < 0) || (slot >= types.length)) {
+            throw new IndexOutOfBoundsException("No parameter slot " + slot + " in " + names);
+        }
+
+        if ((types[slot] == type) && (values[slot] == value) && ((str == null) || str.equals(strings[slot]))) {
+            return this;
+        }
+
+        types[slot] = type;
+        values[slot] = value;
+        strings[slot] = str;
+        invalidate();
+        return this;
+    }
+
+    @NonNull
+    private FLSliceResult encode() throws LiteCoreException {
+        try (FLEncoder encoder = FLEncoder.getManagedEncoder()) {
+            encoder.beginDict(types.length);
+            for (int i = 0; i < types.length; i++) {
+                final byte type = types[i];
+                if (type == UNBOUND) { continue; }
+
+                encoder.writeKey(names.get(i));
+                switch (type) {
+                    case BOOLEAN:
+                        encoder.writeBool(values[i] != 0L);
+                        break;
+                    case LONG:
+                        encoder.writeInt(values[i]);
+                        break;
+                    case DOUBLE:
+                        encoder.writeDouble(Double.longBitsToDouble(values[i]));
+                        break;
+                    case STRING:
+                        encoder.writeString(Preconditions.assertNotNull(strings[i], "bound string"));
+                        break;
+                    default:
+                        encoder.writeNull();
+                        break;
+                }
+            }
+            encoder.endDict();
+            return encoder.finish2();
+        }
+    }
+
+    private void invalidate() {
+        final FLSliceResult params = encoded;
+        encoded = null;
+        if (params != null) { params.close(); }
+    }
+}
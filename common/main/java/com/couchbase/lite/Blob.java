@@ -23,6 +23,8 @@ import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.net.URL;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.Arrays;
 import java.util.HashMap;
 import java.util.Map;
@@ -40,6 +42,7 @@ import com.couchbase.lite.internal.fleece.JSONEncodable;
 import com.couchbase.lite.internal.logging.Log;
 import com.couchbase.lite.internal.utils.ClassUtils;
 import com.couchbase.lite.internal.utils.JSONUtils;
+import com.couchbase.lite.internal.utils.PlatformUtils;
 import com.couchbase.lite.internal.utils.Preconditions;
 import com.couchbase.lite.internal.utils.Volatile;
 
@@ -64,6 +67,8 @@ public final class Blob implements FleeceEncodable, JSONEncodable {
 
     public static final String ENCODER_ARG_DB = "BLOB.db";
     public static final String ENCODER_ARG_QUERY_PARAM = "BLOB.queryParam";
+    // Encode the blob as it will be saved, without saving it: compute its digest if necessary.
+    public static final String ENCODER_ARG_DIGEST = "BLOB.digest";
 
     // The sub-document property that identifies it as a special type of object.
     // For example, a blob is represented as `{"@type":"blob", "digest":"xxxx", ...}`
@@ -465,8 +470,11 @@ public final class Blob implements FleeceEncodable, JSONEncodable {
     @Override
     public void encodeTo(@NonNull FLEncoder encoder) {
         final boolean isQueryParam = encoder.getArg(ENCODER_ARG_QUERY_PARAM) != null;
+        final boolean isDigest = encoder.getArg(ENCODER_ARG_DIGEST) != null;
 
-        if (!isQueryParam) { installInDatabase(encoder.getArg(ENCODER_ARG_DB)); }
+        if (!(isQueryParam || isDigest)) { installInDatabase(encoder.getArg(ENCODER_ARG_DB)); }
+
+        final String digest = ((blobDigest != null) || !isDigest) ? blobDigest : computeDigest();
 
         encoder.beginDict(4);
 
@@ -479,9 +487,9 @@ public final class Blob implements FleeceEncodable, JSONEncodable {
         encoder.writeKey(PROP_CONTENT_TYPE);
         encoder.writeValue(contentType);
 
-        if (blobDigest != null) {
+        if (digest != null) {
             encoder.writeKey(PROP_DIGEST);
-            encoder.writeValue(blobDigest);
+            encoder.writeValue(digest);
         }
 
         // ??? all of content in memory, again...
@@ -621,6 +629,18 @@ public final class Blob implements FleeceEncodable, JSONEncodable {
         installInDatabase((Database) dbArg);
     }
 
+    // The digest that the blob will have once it is saved: "sha1-" + the base64 SHA-1 of the content.
+    @Nullable
+    private String computeDigest() {
+        final byte[] content = getContent();
+        if (content == null) { return null; }
+        try {
+            return "sha1-"
+                + PlatformUtils.getEncoder().encodeToString(MessageDigest.getInstance("SHA-1").digest(content));
+        }
+        catch (NoSuchAlgorithmException e) { throw new CouchbaseLiteError("Cannot compute blob digest", e); }
+    }
+
     @Nullable
     private byte[] getContentFromDatabase() {
         final byte[] newContent;
@@ -26,7 +26,7 @@ import java.util.Map;
 
 import org.json.JSONException;
 
-import com.couchbase.lite.internal.core.C4Query;
+import com.couchbase.lite.internal.QueryLanguage;
 import com.couchbase.lite.internal.logging.Log;
 import com.couchbase.lite.internal.utils.ClassUtils;
 import com.couchbase.lite.internal.utils.JSONUtils;
@@ -75,16 +75,18 @@ abstract class BuilderQuery extends AbstractQuery {
     @Override
     protected final AbstractDatabase getDatabase() { return from.getDatabase(); }
 
+    @NonNull
+    @Override
+    protected final QueryLanguage getQueryLanguage() { return QueryLanguage.JSON; }
+
     @GuardedBy("lock")
     @NonNull
     @Override
-    protected final C4Query prepQueryLocked(@NonNull AbstractDatabase db) throws CouchbaseLiteException {
+    protected final String getQueryTextLocked() throws CouchbaseLiteException {
         final String json = marshalAsJSONSafely();
         Log.d(DOMAIN, "JSON query: %s", json);
         if (json == null) { throw new CouchbaseLiteException("Failed to generate JSON query."); }
-
-        try { return db.createJsonQuery(json); }
-        catch (LiteCoreException e) { throw CouchbaseLiteException.convertException(e); }
+        return json;
     }
 
     //---------------------------------------------
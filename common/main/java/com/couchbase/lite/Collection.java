@@ -16,7 +16,9 @@ import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 import androidx.annotation.VisibleForTesting;
 
+import java.io.InputStream;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.HashSet;
@@ -25,6 +27,7 @@ import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
 import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
 
 import com.couchbase.lite.internal.BaseCollection;
 import com.couchbase.lite.internal.CouchbaseLiteInternal;
@@ -34,8 +37,11 @@ import com.couchbase.lite.internal.core.C4Constants;
 import com.couchbase.lite.internal.core.C4Document;
 import com.couchbase.lite.internal.core.C4DocumentObserver;
 import com.couchbase.lite.internal.core.C4Index;
+import com.couchbase.lite.internal.core.C4ReadConnectionPool;
 import com.couchbase.lite.internal.exec.ExecutionService;
 import com.couchbase.lite.internal.fleece.FLDict;
+import com.couchbase.lite.internal.fleece.FLEncoder;
+import com.couchbase.lite.internal.fleece.FLSharedKeys;
 import com.couchbase.lite.internal.fleece.FLSliceResult;
 import com.couchbase.lite.internal.fleece.FLValue;
 import com.couchbase.lite.internal.listener.ChangeListenerToken;
@@ -86,6 +92,11 @@ public final class Collection extends BaseCollection
     // A random but absurdly large number.
     static final int MAX_CONFLICT_RESOLUTION_RETRIES = 13;
 
+    // The number of document ids passed to native code in a single call, by the batch operations.
+    // Big enough to amortize the cost of the call, small enough not to need huge native buffers.
+    @VisibleForTesting
+    static final int BATCH_CHUNK_SIZE = 1000;
+
     @VisibleForTesting
     static final String INDEX_KEY_NAME = "name";
     @VisibleForTesting
@@ -96,6 +107,102 @@ public final class Collection extends BaseCollection
     static final String INDEX_KEY_TYPE = "type";
 
 
+    //-------------------------------------------------------------------------
+    // Types
+    //-------------------------------------------------------------------------
+
+    // Applies a batch operation to the documents whose ids are in the range [start, end).
+    // Returns an array of (end - start) elements: false for each document that does not exist.
+    @FunctionalInterface
+    private interface ChunkOperation {
+        @NonNull
+        boolean[] apply(int start, int end) throws LiteCoreException;
+    }
+
+    // A document body, encoded before taking the db lock, so that encoding does not hold up other writers.
+    // The body is encoded with the database's shared keys but, outside a transaction, keys cannot
+    // be added to them: a key that is not yet shared is encoded as a string.  Only a body that
+    // contains such a key must be re-encoded, in the transaction, before it is saved.  Once a
+    // database's common keys are shared, most bodies are saved exactly as they were encoded.
+    static final class PreEncodedBody implements AutoCloseable {
+        // Returns null if there is nothing to encode or the database is closed.
+        @Nullable
+        static PreEncodedBody encode(@NonNull Document document) throws CouchbaseLiteException {
+            if (document.isEmpty()) { return null; }
+
+            final Database db = document.getDatabase();
+            if (db == null) { throw new CouchbaseLiteError("Encode called with null database"); }
+            final FLSharedKeys sharedKeys = db.getSharedKeys();
+
+            // Get the generation before encoding: if the keys are cleared during the encode,
+            // the body may refer to keys that no longer exist.
+            final long generation = sharedKeys.getGeneration();
+            try {
+                final FLSliceResult body = document.encodeUnlocked();
+                return (body == null)
+                    ? null
+                    : new PreEncodedBody(body, sharedKeys, generation, sharedKeys.hasShareableStringKeys(body));
+            }
+            catch (LiteCoreException e) { throw CouchbaseLiteException.convertException(e); }
+        }
+
+        // A single native call copies the whole body, replacing its keys with the encoder's shared keys.
+        @NonNull
+        static FLSliceResult reencode(@NonNull FLEncoder encoder, @NonNull FLSliceResult body)
+            throws LiteCoreException {
+            encoder.writeValue(Preconditions.assertNotNull(FLValue.fromData(body), "document body"));
+            return encoder.finish2();
+        }
+
+        @NonNull
+        private final FLSharedKeys sharedKeys;
+        private final long generation;
+
+        @GuardedBy("db.getDbLock()")
+        @NonNull
+        private FLSliceResult body;
+        @GuardedBy("db.getDbLock()")
+        private boolean hasStringKeys;
+
+        private PreEncodedBody(
+            @NonNull FLSliceResult body,
+            @NonNull FLSharedKeys sharedKeys,
+            long generation,
+            boolean hasStringKeys) {
+            this.body = body;
+            this.sharedKeys = sharedKeys;
+            this.generation = generation;
+            this.hasStringKeys = hasStringKeys;
+        }
+
+        // Get the body, encoded with the database's shared keys.  The returned slice belongs to this
+        // object: the caller must not close it.  Returns null if the shared keys have been cleared,
+        // by an aborted transaction, since the body was encoded: the document must be encoded again.
+        // Re-encoding the body may add keys to the shared keys: call this only in a transaction.
+        @GuardedBy("db.getDbLock()")
+        @Nullable
+        FLSliceResult getBody(@NonNull Database db) throws LiteCoreException {
+            if (sharedKeys.getGeneration() != generation) { return null; }
+
+            if (hasStringKeys) {
+                final FLSliceResult encoded;
+                try (FLEncoder encoder = db.getSharedFleeceEncoder()) {
+                    encoder.writeEncoded(body, sharedKeys);
+                    encoded = encoder.finish2();
+                }
+                body.close();
+                body = encoded;
+                hasStringKeys = false;
+            }
+
+            return body;
+        }
+
+        @Override
+        public void close() { body.close(); }
+    }
+
+
     //-------------------------------------------------------------------------
     // Factory methods
     //-------------------------------------------------------------------------
@@ -151,6 +258,10 @@ public final class Collection extends BaseCollection
     // Executor for changes.
     private final ExecutionService.CloseableExecutor postExecutor;
 
+    // Written only while holding the db lock; read without it.  Null if the cache is disabled.
+    @Nullable
+    private volatile DocumentCache documentCache;
+
     //-------------------------------------------------------------------------
     // Constructor
     //-------------------------------------------------------------------------
@@ -192,6 +303,18 @@ public final class Collection extends BaseCollection
      * The number of documents in the collection.
      */
     public long getCount() {
+        final C4ReadConnectionPool.Connection reader = db.getReadConnection();
+        if (reader != null) {
+            try {
+                final C4Collection c4Coll = reader.getCollection(c4Collection.getScope(), c4Collection.getName());
+                return (c4Coll == null) ? 0L : c4Coll.getDocumentCount();
+            }
+            catch (LiteCoreException e) {
+                Log.w(LogDomain.DATABASE, "Failed counting documents on read connection", e);
+            }
+            finally { db.releaseReadConnection(reader); }
+        }
+
         return Preconditions.assertNotNull(
             withLock(() -> (!db.isOpenLocked()) ? 0L : c4Collection.getDocumentCount()),
             "token");
@@ -208,7 +331,109 @@ public final class Collection extends BaseCollection
      */
     @Nullable
     public Document getDocument(@NonNull String id) throws CouchbaseLiteException {
-        return withLockAndOpenDb(() -> Document.getDocumentOrNull(this, id));
+        // A thread that holds the db lock may be in a transaction that has not been committed:
+        // changes made in it through other Collection objects are not yet visible to the cache.
+        final DocumentCache cache = documentCache;
+        if ((cache == null) || Thread.holdsLock(getDbLock())) { return readDocument(id); }
+
+        Preconditions.assertNotEmpty(id, "id");
+        final Document cachedDoc = cache.get(id);
+        if (cachedDoc != null) { return cachedDoc; }
+
+        final long generation = cache.getGeneration();
+        final Document doc = readDocument(id);
+        if (doc != null) { cache.put(doc, generation); }
+        return doc;
+    }
+
+    /**
+     * Gets an immutable snapshot of the document with the given ID, or null if the document
+     * does not exist.  The snapshot's properties are Java objects: it holds no reference to
+     * the native document.  See FrozenDocument.
+     *
+     * @param id the document id
+     * @return the FrozenDocument or null
+     * @throws CouchbaseLiteException if the database is closed, the collection has been deleted, etc.
+     */
+    @Nullable
+    public FrozenDocument getFrozenDocument(@NonNull String id) throws CouchbaseLiteException {
+        final Document doc = getDocument(id);
+        return (doc == null) ? null : doc.freeze();
+    }
+
+    /**
+     * Set the maximum number of documents that this Collection object will cache.
+     * The cache holds the revisions read by getDocument: it is a cache hit only if the
+     * document's current revision is in the cache, so it never returns a document that is out of date.
+     * Every call to getDocument returns a new Document object, even when it is a cache hit.
+     * Its hit rate may, however, be poor for documents that are changed often.
+     * The cache belongs to this Collection object: a different object for the same collection
+     * has its own cache.  Setting the size to 0 (the default) disables the cache.
+     *
+     * @param maxDocuments the maximum number of cached documents: 0 to disable the cache
+     * @throws CouchbaseLiteException if the database is closed, the collection has been deleted, etc.
+     */
+    public void setDocumentCacheSize(int maxDocuments) throws CouchbaseLiteException {
+        Preconditions.assertNotNegative(maxDocuments, "maxDocuments");
+        withLockAndOpenDb(() -> {
+            final DocumentCache oldCache = documentCache;
+            documentCache = null;
+            if (oldCache != null) { oldCache.close(); }
+
+            if (maxDocuments > 0) {
+                final DocumentCache cache = new DocumentCache(this, maxDocuments);
+                cache.start();
+                documentCache = cache;
+            }
+            return null;
+        });
+    }
+
+    /**
+     * The number of calls to getDocument that were served from this Collection's document cache.
+     */
+    public long getDocumentCacheHits() {
+        final DocumentCache cache = documentCache;
+        return (cache == null) ? 0L : cache.getHits();
+    }
+
+    /**
+     * The number of calls to getDocument that could not be served from this Collection's document cache.
+     */
+    public long getDocumentCacheMisses() {
+        final DocumentCache cache = documentCache;
+        return (cache == null) ? 0L : cache.getMisses();
+    }
+
+    /**
+     * Gets several documents, by id, in a single operation. The returned list contains one entry for
+     * each id, in order: the Document object, or null if the document with that id doesn't exist in
+     * the collection.
+     *
+     * @param ids the document ids
+     * @return the Document objects, in the order of their ids
+     * @throws CouchbaseLiteException if the database is closed, the collection has been deleted, etc.
+     */
+    @NonNull
+    public List<Document> getDocuments(@NonNull List<String> ids) throws CouchbaseLiteException {
+        final String[] docIds = toIdArray(ids);
+        for (String id: docIds) { Preconditions.assertNotEmpty(id, "id"); }
+
+        final List<C4Document> c4Docs;
+        final C4ReadConnectionPool.Connection reader = db.getReadConnection();
+        if (reader == null) {
+            c4Docs = Preconditions.assertNotNull(withLockAndOpenDb(() -> getC4Documents(null, docIds)), "docs");
+        }
+        else {
+            try { c4Docs = getC4Documents(reader, docIds); }
+            finally { db.releaseReadConnection(reader); }
+        }
+
+        final List<Document> docs = new ArrayList<>(docIds.length);
+        for (int i = 0; i < docIds.length; i++) {
+            docs.add(Document.getDocumentOrNull(this, docIds[i], c4Docs.get(i)));
+        }
+        return docs;
     }
 
     /**
@@ -235,10 +460,12 @@ public final class Collection extends BaseCollection
         throws CouchbaseLiteException {
         try {
             prepareDocument(document);
-            withLockAndOpenDb(() -> {
-                saveLocked(document, null, false, concurrencyControl);
-                return null;
-            });
+            try (PreEncodedBody body = PreEncodedBody.encode(document)) {
+                withLockAndOpenDb(() -> {
+                    saveLocked(document, body, null, false, concurrencyControl);
+                    return null;
+                });
+            }
             return true;
         }
         catch (CouchbaseLiteException e) {
@@ -292,7 +519,7 @@ public final class Collection extends BaseCollection
         try {
             prepareDocument(document);
             withLockAndOpenDb(() -> {
-                saveLocked(document, null, true, concurrencyControl);
+                saveLocked(document, null, null, true, concurrencyControl);
                 return null;
             });
             return true;
@@ -303,6 +530,151 @@ public final class Collection extends BaseCollection
         return false;
     }
 
+    /**
+     * Save several documents into the collection, in a single transaction, with a specified concurrency control.
+     * The returned list contains one entry for each document, in iteration order: true if the document was saved,
+     * false if the concurrency control was failOnConflict and saving the document caused a conflict.
+     * A conflict does not affect the other documents in the batch. Any other failure aborts the
+     * transaction and none of the documents are saved.
+     * <p>
+     * When saving a document that already belongs to a collection, the collection instance of the
+     * document and this collection instance must be the same, otherwise, the InvalidParameter
+     * error will be thrown.
+     */
+    @NonNull
+    public List<Boolean> saveAll(
+        @NonNull Iterable<MutableDocument> documents,
+        @NonNull ConcurrencyControl concurrencyControl)
+        throws CouchbaseLiteException {
+        return writeAll(documents, false, concurrencyControl);
+    }
+
+    /**
+     * Delete several documents from the collection, in a single transaction, with a specified concurrency control.
+     * The returned list contains one entry for each document, in iteration order: true if the document was
+     * deleted, false if the concurrency control was failOnConflict and deleting the document caused a conflict.
+     * A conflict does not affect the other documents in the batch. Any other failure aborts the
+     * transaction and none of the documents are deleted. If any of the documents does not exist in the
+     * collection, the NotFound error will be thrown, before anything is deleted.
+     * <p>
+     * When deleting a document, the collection instance of the document and this collection instance
+     * must be the same, otherwise, the InvalidParameter error will be thrown.
+     */
+    @NonNull
+    public List<Boolean> deleteAll(
+        @NonNull Iterable<? extends Document> documents,
+        @NonNull ConcurrencyControl concurrencyControl)
+        throws CouchbaseLiteException {
+        return writeAll(documents, true, concurrencyControl);
+    }
+
+    /**
+     * Save a document into the collection, asynchronously.  The default concurrency control,
+     * lastWriteWins, will be used when there is conflict during save.
+     * See saveAsync(MutableDocument, ConcurrencyControl).
+     */
+    @NonNull
+    public Future<Boolean> saveAsync(@NonNull MutableDocument document) {
+        return saveAsync(document, ConcurrencyControl.LAST_WRITE_WINS);
+    }
+
+    /**
+     * Save a document into the collection, asynchronously, with a specified concurrency control.
+     * Asynchronous writes submitted concurrently, from any number of threads, are committed together
+     * in as few transactions as possible, so that many small writes share the cost of a commit.
+     * The returned future completes after the transaction containing the save has been committed.
+     * Its value is true if the document was saved, false if the concurrency control was failOnConflict
+     * and the save caused a conflict. If the save fails for any other reason, the future's get method
+     * throws an ExecutionException whose cause is a CouchbaseLiteException.  A failed write does not
+     * affect the other writes with which it is grouped.  Cancelling the future abandons the save,
+     * if the save has not yet been taken into a transaction.
+     * <p>
+     * The document must not be modified until the future has completed.  Do not wait for the future
+     * while holding the database's lock, e.g., from within inBatch: the save cannot be committed
+     * until the lock is released, so the future's get method throws an IllegalStateException.
+     * When saving a document that already belongs to a collection, the collection instance of the
+     * document and this collection instance must be the same, otherwise, the save will fail with
+     * the InvalidParameter error.
+     */
+    @NonNull
+    public Future<Boolean> saveAsync(
+        @NonNull MutableDocument document,
+        @NonNull ConcurrencyControl concurrencyControl) {
+        return writeAsync(document, false, concurrencyControl);
+    }
+
+    /**
+     * Delete a document from the collection, asynchronously.  The default concurrency control,
+     * lastWriteWins, will be used when there is conflict during delete.
+     * See deleteAsync(Document, ConcurrencyControl).
+     */
+    @NonNull
+    public Future<Boolean> deleteAsync(@NonNull Document document) {
+        return deleteAsync(document, ConcurrencyControl.LAST_WRITE_WINS);
+    }
+
+    /**
+     * Delete a document from the collection, asynchronously, with a specified concurrency control.
+     * Asynchronous deletes are committed exactly as are asynchronous saves: see
+     * saveAsync(MutableDocument, ConcurrencyControl).  If the document doesn't exist in the collection,
+     * the delete will fail with the NotFound error.
+     */
+    @NonNull
+    public Future<Boolean> deleteAsync(@NonNull Document document, @NonNull ConcurrencyControl concurrencyControl) {
+        return writeAsync(document, true, concurrencyControl);
+    }
+
+    /**
+     * Save a document whose properties were written with a DocumentWriter.  If a document
+     * with the id already exists, its properties are replaced: the concurrency control is lastWriteWins.
+     * The properties are never converted into Java objects.  After the save, even one that
+     * fails, the writer is empty and may be reused.
+     *
+     * @param id     the id of the document
+     * @param writer a writer containing the document's properties
+     * @throws CouchbaseLiteException if the writer does not contain a complete document, the database is closed, etc.
+     */
+    public void save(@NonNull String id, @NonNull DocumentWriter writer) throws CouchbaseLiteException {
+        Preconditions.assertNotEmpty(id, "id");
+        Preconditions.assertNotNull(writer, "writer");
+
+        try (FLSliceResult body = writer.finish()) {
+            withLockAndOpenDb(() -> {
+                saveWrittenLocked(id, body);
+                return null;
+            });
+        }
+    }
+
+    /**
+     * Apply a patch to the properties of an existing document, creating a new revision.
+     * The patch is applied, natively, to the stored document: the document is never
+     * copied into Java objects.  This is much cheaper than reading, modifying and saving
+     * the document, for small changes to large documents.
+     * The current revision is read, patched and saved in a single transaction: the patch is always
+     * applied to the current revision, so an update never conflicts.
+     *
+     * @param id    the id of the document to update
+     * @param patch the changes to apply
+     * @return the updated document
+     * @throws CouchbaseLiteException if the document does not exist, the patch does not apply to it, etc.
+     */
+    @NonNull
+    public Document update(@NonNull String id, @NonNull DocumentPatch patch) throws CouchbaseLiteException {
+        Preconditions.assertNotEmpty(id, "id");
+        Preconditions.assertNotNull(patch, "patch");
+
+        // Encode the patch before taking the lock
+        try (FLSliceResult patchData = patch.encode()) {
+            return Preconditions.assertNotNull(
+                withLockAndOpenDb(() -> updateInTransaction(id, patchData)),
+                "document");
+        }
+        catch (LiteCoreException e) {
+            throw CouchbaseLiteException.convertException(e, "Failed encoding patch");
+        }
+    }
+
     /**
      * When purging a document, the collection instance of the document and this collection instance
      * must be the same, otherwise, the InvalidParameter error will be thrown.
@@ -340,6 +712,66 @@ public final class Collection extends BaseCollection
         });
     }
 
+    /**
+     * Purge several documents, by id, from the collection, in a single transaction.
+     * Unlike purge(String), it is not an error if some of the documents do not exist:
+     * their ids are returned.  If the purge fails for any other reason, the transaction
+     * is rolled back and none of the documents are purged.
+     *
+     * @param ids the ids of the documents to purge
+     * @return the ids of documents that were not found, in iteration order
+     * @throws CouchbaseLiteException if the database is closed, the collection has been deleted, etc.
+     */
+    @NonNull
+    public List<String> purge(@NonNull java.util.Collection<String> ids) throws CouchbaseLiteException {
+        final String[] docIds = toIdArray(ids);
+        return applyInChunks(
+            docIds,
+            (start, end) -> {
+                for (int i = start; i < end; i++) { invalidateCachedDocument(docIds[i]); }
+                return c4Collection.purgeDocuments(Arrays.copyOfRange(docIds, start, end));
+            });
+    }
+
+    // - Import
+
+    /**
+     * Import documents from a stream of newline-delimited JSON (NDJSON): one JSON object per line.
+     * Each object becomes a new document whose id is the value of the object's "_id" property.
+     * See {@link #importJson(InputStream, ImportOptions)}.
+     *
+     * @param in a stream of UTF-8 encoded JSON objects, one per line
+     * @return a description of the results of the import
+     * @throws CouchbaseLiteException if the stream cannot be read, the database is closed, etc.
+     */
+    @NonNull
+    public ImportResult importJson(@NonNull InputStream in) throws CouchbaseLiteException {
+        return importJson(in, null);
+    }
+
+    /**
+     * Import documents from a stream of newline-delimited JSON (NDJSON): one JSON object per line.
+     * Each object becomes a new document whose id is the value of the object's id property.
+     * The JSON is converted to the stored document format natively: it is never parsed into Java objects.
+     * Documents are imported in batches, each in its own transaction.
+     * <p>
+     * A line that cannot be imported (it is not valid JSON, has no id, or a document with its id
+     * already exists, etc.) does not stop the import: it is reported in the result.  Any other
+     * failure stops the import.  The documents in batches that have already been committed
+     * remain in the collection. The stream is not closed.
+     *
+     * @param in      a stream of UTF-8 encoded JSON objects, one per line
+     * @param options import options: the name of the id property, the batch size, etc.
+     * @return a description of the results of the import
+     * @throws CouchbaseLiteException if the stream cannot be read, the database is closed, etc.
+     */
+    @NonNull
+    public ImportResult importJson(@NonNull InputStream in, @Nullable ImportOptions options)
+        throws CouchbaseLiteException {
+        Preconditions.assertNotNull(in, "in");
+        return new JsonImporter(this, (options == null) ? new ImportOptions() : options).importFrom(in);
+    }
+
     // - Documents Expiry
 
     /**
@@ -354,6 +786,35 @@ public final class Collection extends BaseCollection
         });
     }
 
+    /**
+     * Set expiration dates for several documents, in a single transaction.
+     * Setting a null date will clear the document's expiration.  It is not an error if some of
+     * the documents do not exist: their ids are returned.  If setting the expirations fails for
+     * any other reason, the transaction is rolled back and none of the expirations are changed.
+     *
+     * @param expirations a map of document ids to expiration dates
+     * @return the ids of documents that were not found, in iteration order
+     * @throws CouchbaseLiteException if the database is closed, the collection has been deleted, etc.
+     */
+    @NonNull
+    public List<String> setDocumentExpiration(@NonNull Map<String, Date> expirations)
+        throws CouchbaseLiteException {
+        Preconditions.assertNotNull(expirations, "expirations");
+
+        final String[] docIds = toIdArray(expirations.keySet());
+        final long[] timestamps = new long[docIds.length];
+        for (int i = 0; i < docIds.length; i++) {
+            final Date expiration = expirations.get(docIds[i]);
+            timestamps[i] = (expiration == null) ? 0 : expiration.getTime();
+        }
+
+        return applyInChunks(
+            docIds,
+            (start, end) -> c4Collection.setDocumentsExpiration(
+                Arrays.copyOfRange(docIds, start, end),
+                Arrays.copyOfRange(timestamps, start, end)));
+    }
+
     /**
      * Get the expiration date set to the document of the given id.
      */
@@ -495,6 +956,7 @@ public final class Collection extends BaseCollection
     public void deleteIndex(@NonNull String name) throws CouchbaseLiteException {
         try { c4Collection.deleteIndex(name); }
         catch (LiteCoreException e) { throw CouchbaseLiteException.convertException(e); }
+        finally { db.getQueryCache().invalidate(); }
     }
 
     // - AutoCloseable
@@ -502,6 +964,9 @@ public final class Collection extends BaseCollection
     @Override
     public void close() {
         synchronized (getDbLock()) {
+            final DocumentCache cache = documentCache;
+            documentCache = null;
+            if (cache != null) { cache.close(); }
             closeCollectionChangeNotifierLocked();
             for (DocumentChangeNotifier notifier: docChangeNotifiers.values()) { notifier.close(); }
             docChangeNotifiers.clear();
@@ -595,6 +1060,50 @@ public final class Collection extends BaseCollection
         }
     }
 
+    // Read a document on one of the db's read-only connections.
+    // The returned C4Document cannot be updated: see getWritableC4Document
+    @Nullable
+    C4Document getC4Document(@NonNull C4ReadConnectionPool.Connection reader, @NonNull String docId)
+        throws CouchbaseLiteException {
+        try { return getReadOnlyC4Collection(reader).getDocument(docId); }
+        catch (LiteCoreException e) {
+            throw CouchbaseLiteException.convertException(e, "Failed retrieving document: " + docId);
+        }
+    }
+
+    // Import a batch of JSON lines, in a single transaction.
+    // Returns an array whose i-th element is null if the i-th line was imported, or the reason it was not.
+    @NonNull
+    String[] importJsonLines(@NonNull byte[] buf, @NonNull int[] starts, @NonNull int[] ends, @NonNull String idField)
+        throws CouchbaseLiteException {
+        return Preconditions.assertNotNull(
+            withLockAndOpenDb(() -> {
+                boolean commit = false;
+                db.beginTransaction();
+                try {
+                    final String[] results = c4Collection.importJsonLines(buf, starts, ends, idField);
+                    commit = true;
+                    return results;
+                }
+                catch (LiteCoreException e) { throw CouchbaseLiteException.convertException(e, "Import failed"); }
+                finally { db.endTransaction(commit); }
+            }),
+            "import results");
+    }
+
+    // Returns a list whose i-th element is null if the i-th document does not exist.
+    @NonNull
+    List<C4Document> getC4Documents(@Nullable C4ReadConnectionPool.Connection reader, @NonNull String[] docIds)
+        throws CouchbaseLiteException {
+        try {
+            if (reader != null) { return getReadOnlyC4Collection(reader).getDocuments(docIds); }
+            synchronized (getDbLock()) { return c4Collection.getDocuments(docIds); }
+        }
+        catch (LiteCoreException e) {
+            throw CouchbaseLiteException.convertException(e, "Failed retrieving documents");
+        }
+    }
+
     @Nullable
     C4Document getC4DocumentWithRevs(@NonNull String docId) throws CouchbaseLiteException {
         try {
@@ -617,18 +1126,21 @@ public final class Collection extends BaseCollection
                     CBLError.Code.UNEXPECTED_ERROR);
             }
 
-            synchronized (getDbLock()) {
-                assertOpen();
-                try {
-                    saveLocked(document, oldDoc, false, ConcurrencyControl.FAIL_ON_CONFLICT);
-                    return true;
-                }
-                catch (CouchbaseLiteException e) {
-                    if (!CouchbaseLiteException.isConflict(e)) { throw e; }
+            // The handler may have changed the document: encode it again on each attempt.
+            try (PreEncodedBody body = PreEncodedBody.encode(document)) {
+                synchronized (getDbLock()) {
+                    assertOpen();
+                    try {
+                        saveLocked(document, body, oldDoc, false, ConcurrencyControl.FAIL_ON_CONFLICT);
+                        return true;
+                    }
+                    catch (CouchbaseLiteException e) {
+                        if (!CouchbaseLiteException.isConflict(e)) { throw e; }
+                    }
+
+                    // Conflict
+                    oldDoc = Document.getDocumentWithDeleted(this, document.getId());
                 }
-
-                // Conflict
-                oldDoc = Document.getDocumentWithDeleted(this, document.getId());
             }
 
             try {
@@ -650,9 +1162,11 @@ public final class Collection extends BaseCollection
     //     Called holding the db lock,
     //     Database must be open
     //     document must have a valid collection (see: prepareDocument)
+    //     body, if not null, is the document, encoded before the lock was taken
     @GuardedBy("getDbLock()")
     void saveLocked(
         @NonNull Document document,
+        @Nullable PreEncodedBody body,
         @Nullable Document baseDoc,
         boolean deleting,
         @NonNull ConcurrencyControl concurrencyControl)
@@ -670,27 +1184,12 @@ public final class Collection extends BaseCollection
         boolean commit = false;
         db.beginTransaction();
         try {
-            try {
-                saveInTransaction(document, (baseDoc == null) ? null : baseDoc.getC4doc(), deleting);
-                commit = true;
-                return;
-            }
-            catch (CouchbaseLiteException e) {
-                if (!CouchbaseLiteException.isConflict(e)) { throw e; }
-            }
-
-            // Conflict
-            switch (concurrencyControl) {
-                case FAIL_ON_CONFLICT:
-                    throw new CouchbaseLiteException("Conflict", CBLError.Domain.CBLITE, CBLError.Code.CONFLICT);
-
-                case LAST_WRITE_WINS:
-                    commit = saveConflicted(document, deleting);
-                    break;
-
-                default:
-                    throw new CouchbaseLiteException("Unrecognized concurrency control: " + concurrencyControl);
-            }
+            commit = writeInTransaction(
+                document,
+                body,
+                (baseDoc == null) ? null : baseDoc.getC4doc(),
+                deleting,
+                concurrencyControl);
         }
         finally {
             db.endTransaction(commit);
@@ -786,6 +1285,7 @@ public final class Collection extends BaseCollection
             catch (LiteCoreException e) {
                 throw CouchbaseLiteException.convertException(e);
             }
+            finally { db.getQueryCache().invalidate(); }
         }
     }
 
@@ -890,14 +1390,277 @@ public final class Collection extends BaseCollection
         }
     }
 
+    // Read the current revision, apply the patch and save the result, all in one transaction.
+    @GuardedBy("getDbLock()")
+    @NonNull
+    private Document updateInTransaction(@NonNull String id, @NonNull FLSliceResult patchData)
+        throws CouchbaseLiteException {
+        boolean commit = false;
+        db.beginTransaction();
+        try {
+            final C4Document c4Doc = getC4Document(id);
+            if ((c4Doc == null) || c4Doc.isDocDeleted()) {
+                throw new CouchbaseLiteException("DocumentNotFound", CBLError.Domain.CBLITE, CBLError.Code.NOT_FOUND);
+            }
+
+            final C4Document newDoc;
+            try (FLSliceResult body = c4Doc.applyPatch(patchData)) {
+                final int revFlags = (c4Collection.docContainsBlobs(body, db.getSharedKeys()))
+                    ? C4Constants.RevisionFlags.HAS_ATTACHMENTS
+                    : 0;
+                newDoc = c4Doc.update(body, revFlags);
+            }
+            if (newDoc == null) { throw new CouchbaseLiteError("Failed updating document: " + id); }
+
+            invalidateCachedDocument(id);
+            commit = true;
+            return new Document(this, id, newDoc, false);
+        }
+        catch (LiteCoreException e) {
+            throw CouchbaseLiteException.convertException(e);
+        }
+        finally {
+            db.endTransaction(commit);
+        }
+    }
+
+    // Create the document or, if it exists, replace the current revision.
+    // The body was written without the shared keys: it is re-encoded with them in the transaction.
+    @GuardedBy("getDbLock()")
+    private void saveWrittenLocked(@NonNull String id, @NonNull FLSliceResult writtenBody)
+        throws CouchbaseLiteException {
+        boolean commit = false;
+        db.beginTransaction();
+        try {
+            final C4Document newDoc;
+            try (FLEncoder encoder = db.getSharedFleeceEncoder();
+                 FLSliceResult body = PreEncodedBody.reencode(encoder, writtenBody)) {
+                final int revFlags = (c4Collection.docContainsBlobs(body, db.getSharedKeys()))
+                    ? C4Constants.RevisionFlags.HAS_ATTACHMENTS
+                    : 0;
+
+                final C4Document c4Doc = getC4Document(id);
+                newDoc = (c4Doc == null)
+                    ? c4Collection.createDocument(id, body, revFlags)
+                    : c4Doc.update(body, revFlags);
+            }
+            if (newDoc == null) { throw new CouchbaseLiteError("Failed saving document: " + id); }
+
+            invalidateCachedDocument(id);
+            commit = true;
+        }
+        catch (LiteCoreException e) {
+            throw CouchbaseLiteException.convertException(e);
+        }
+        finally {
+            db.endTransaction(commit);
+        }
+    }
+
     @GuardedBy("getDbLock()")
     private void purgeLocked(@NonNull String id) throws CouchbaseLiteException {
+        invalidateCachedDocument(id);
         try { c4Collection.purgeDocument(id); }
         catch (LiteCoreException e) { throw CouchbaseLiteException.convertException(e, "Purge failed"); }
     }
 
+    @NonNull
+    private static String[] toIdArray(@NonNull java.util.Collection<String> ids) {
+        Preconditions.assertNotNull(ids, "ids");
+        final String[] docIds = ids.toArray(new String[0]);
+        for (String id: docIds) { Preconditions.assertNotNull(id, "id"); }
+        return docIds;
+    }
+
+    // Apply a batch operation, a chunk at a time, in a single transaction.
+    // Returns the ids of the documents that do not exist.
+    @NonNull
+    private List<String> applyInChunks(@NonNull String[] docIds, @NonNull ChunkOperation op)
+        throws CouchbaseLiteException {
+        final List<String> notFound = new ArrayList<>();
+        if (docIds.length <= 0) { return notFound; }
+
+        withLockAndOpenDb(() -> {
+            boolean commit = false;
+            db.beginTransaction();
+            try {
+                for (int start = 0; start < docIds.length; start += BATCH_CHUNK_SIZE) {
+                    final int end = Math.min(start + BATCH_CHUNK_SIZE, docIds.length);
+                    final boolean[] found = op.apply(start, end);
+                    for (int i = 0; i < found.length; i++) {
+                        if (!found[i]) { notFound.add(docIds[start + i]); }
+                    }
+                }
+                commit = true;
+            }
+            catch (LiteCoreException e) { throw CouchbaseLiteException.convertException(e); }
+            finally { db.endTransaction(commit); }
+            return null;
+        });
+
+        return notFound;
+    }
+
+    // Save or delete several documents in a single transaction.
+    // A conflict affects only the document that caused it: any other failure rolls back the entire batch.
+    @NonNull
+    private List<Boolean> writeAll(
+        @NonNull Iterable<? extends Document> documents,
+        boolean deleting,
+        @NonNull ConcurrencyControl concurrencyControl)
+        throws CouchbaseLiteException {
+        Preconditions.assertNotNull(documents, "documents");
+        Preconditions.assertNotNull(concurrencyControl, "concurrencyControl");
+
+        final List<Document> docs = new ArrayList<>();
+        for (Document document: documents) {
+            Preconditions.assertNotNull(document, "document");
+            prepareDocument(document);
+            if (deleting && (!document.exists())) {
+                throw new CouchbaseLiteException(
+                    "DeleteDocFailedNotSaved",
+                    CBLError.Domain.CBLITE,
+                    CBLError.Code.NOT_FOUND);
+            }
+            docs.add(document);
+        }
+
+        final List<Boolean> results = new ArrayList<>(docs.size());
+        if (docs.isEmpty()) { return results; }
+
+        final List<PreEncodedBody> bodies = new ArrayList<>(docs.size());
+        try {
+            if (!deleting) {
+                for (Document document: docs) { bodies.add(PreEncodedBody.encode(document)); }
+            }
+
+            // If the transaction is rolled back, the documents that were written
+            // must not be left pointing at revisions that were never committed.
+            final List<C4Document> originals = new ArrayList<>(docs.size());
+            withLockAndOpenDb(() -> {
+                boolean commit = false;
+                db.beginTransaction();
+                try {
+                    for (int i = 0; i < docs.size(); i++) {
+                        final Document document = docs.get(i);
+                        final PreEncodedBody body = (deleting) ? null : bodies.get(i);
+                        originals.add(document.getC4doc());
+                        boolean written;
+                        try { written = writeInTransaction(document, body, null, deleting, concurrencyControl); }
+                        catch (CouchbaseLiteException e) {
+                            if (!CouchbaseLiteException.isConflict(e)) { throw e; }
+                            written = false;
+                        }
+                        results.add(written);
+                    }
+                    commit = true;
+                }
+                finally {
+                    try { db.endTransaction(commit); }
+                    finally {
+                        if (!commit) {
+                            for (int i = 0; i < originals.size(); i++) {
+                                docs.get(i).replaceC4Document(originals.get(i));
+                            }
+                        }
+                    }
+                }
+                return null;
+            });
+        }
+        finally {
+            for (PreEncodedBody body: bodies) {
+                if (body != null) { body.close(); }
+            }
+        }
+
+        return results;
+    }
+
+    // Save or delete a document for the db's group-commit writer, which holds the db lock
+    // and has already opened a transaction.
+    // Returns false if the concurrency control was failOnConflict and the write caused a conflict.
+    @GuardedBy("getDbLock()")
+    boolean writeGrouped(
+        @NonNull Document document,
+        @Nullable PreEncodedBody body,
+        boolean deleting,
+        @NonNull ConcurrencyControl concurrencyControl)
+        throws CouchbaseLiteException {
+        try { return writeInTransaction(document, body, null, deleting, concurrencyControl); }
+        catch (CouchbaseLiteException e) {
+            if (!CouchbaseLiteException.isConflict(e)) { throw e; }
+            return false;
+        }
+    }
+
+    // Prepare (and, if possible, encode) a document on the calling thread and hand it
+    // to the db's group-commit writer.  Errors are reported through the returned future.
+    @NonNull
+    private Future<Boolean> writeAsync(
+        @NonNull Document document,
+        boolean deleting,
+        @NonNull ConcurrencyControl concurrencyControl) {
+        Preconditions.assertNotNull(document, "document");
+        Preconditions.assertNotNull(concurrencyControl, "concurrencyControl");
+
+        final PreEncodedBody body;
+        try {
+            prepareDocument(document);
+            if (deleting && (!document.exists())) {
+                throw new CouchbaseLiteException(
+                    "DeleteDocFailedNotSaved",
+                    CBLError.Domain.CBLITE,
+                    CBLError.Code.NOT_FOUND);
+            }
+            body = (deleting) ? null : PreEncodedBody.encode(document);
+        }
+        catch (CouchbaseLiteException e) {
+            final GroupCommitWriter.WriteFuture future = new GroupCommitWriter.WriteFuture(getDbLock());
+            future.fail(e);
+            return future;
+        }
+
+        final GroupCommitWriter.Write write
+            = new GroupCommitWriter.Write(this, document, body, deleting, concurrencyControl);
+        db.submitAsyncWrite(write);
+        return write.future;
+    }
+
+    // Save or delete a single document in an open transaction, resolving any conflict
+    // according to the concurrency control. Returns false if nothing was written.
+    @GuardedBy("getDbLock()")
+    private boolean writeInTransaction(
+        @NonNull Document document,
+        @Nullable PreEncodedBody body,
+        @Nullable C4Document base,
+        boolean deleting,
+        @NonNull ConcurrencyControl concurrencyControl)
+        throws CouchbaseLiteException {
+        try {
+            saveInTransaction(document, body, base, deleting);
+            return true;
+        }
+        catch (CouchbaseLiteException e) {
+            if (!CouchbaseLiteException.isConflict(e)) { throw e; }
+        }
+
+        // Conflict
+        switch (concurrencyControl) {
+            case FAIL_ON_CONFLICT:
+                throw new CouchbaseLiteException("Conflict", CBLError.Domain.CBLITE, CBLError.Code.CONFLICT);
+
+            case LAST_WRITE_WINS:
+                return saveConflicted(document, body, deleting);
+
+            default:
+                throw new CouchbaseLiteException("Unrecognized concurrency control: " + concurrencyControl);
+        }
+    }
+
     @GuardedBy("getDbLock()")
-    private boolean saveConflicted(@NonNull Document document, boolean deleting) throws CouchbaseLiteException {
+    private boolean saveConflicted(@NonNull Document document, @Nullable PreEncodedBody body, boolean deleting)
+        throws CouchbaseLiteException {
         final C4Document curDoc;
 
         curDoc = getC4Document(document.getId());
@@ -910,22 +1673,31 @@ public final class Collection extends BaseCollection
         }
 
         // Save changes on the current branch:
-        saveInTransaction(document, curDoc, deleting);
+        saveInTransaction(document, body, curDoc, deleting);
 
         return true;
     }
 
     // Low-level save method
     @GuardedBy("getDbLock()")
-    private void saveInTransaction(@NonNull Document document, @Nullable C4Document base, boolean deleting)
+    private void saveInTransaction(
+        @NonNull Document document,
+        @Nullable PreEncodedBody preEncodedBody,
+        @Nullable C4Document base,
+        boolean deleting)
         throws CouchbaseLiteException {
-        FLSliceResult body = null;
+        FLSliceResult encodedBody = null;
         try {
             int revFlags = 0;
+            FLSliceResult body = null;
             if (deleting) { revFlags = C4Constants.RevisionFlags.DELETED; }
             else if (!document.isEmpty()) {
                 // Encode properties to Fleece data:
-                body = document.encode();
+                if (preEncodedBody != null) { body = preEncodedBody.getBody(db); }
+                if (body == null) {
+                    encodedBody = document.encode();
+                    body = encodedBody;
+                }
                 if (c4Collection.docContainsBlobs(body, db.getSharedKeys())) {
                     revFlags |= C4Constants.RevisionFlags.HAS_ATTACHMENTS;
                 }
@@ -933,6 +1705,7 @@ public final class Collection extends BaseCollection
 
             // Save to database:
             C4Document c4Doc = (base != null) ? base : document.getC4doc();
+            if ((c4Doc != null) && c4Doc.isReadOnly()) { c4Doc = getWritableC4Document(document.getId(), c4Doc); }
 
             if (c4Doc != null) { c4Doc = c4Doc.update(body, revFlags); }
             else {
@@ -944,13 +1717,57 @@ public final class Collection extends BaseCollection
             }
 
             document.replaceC4Document(c4Doc);
+            invalidateCachedDocument(document.getId());
         }
         catch (LiteCoreException e) {
             throw CouchbaseLiteException.convertException(e);
         }
         finally {
-            if (body != null) { body.close(); }
+            if (encodedBody != null) { encodedBody.close(); }
+        }
+    }
+
+    @Nullable
+    private Document readDocument(@NonNull String id) throws CouchbaseLiteException {
+        final C4ReadConnectionPool.Connection reader = db.getReadConnection();
+        if (reader == null) { return withLockAndOpenDb(() -> Document.getDocumentOrNull(this, id)); }
+
+        Preconditions.assertNotEmpty(id, "id");
+        try { return Document.getDocumentOrNull(this, id, getC4Document(reader, id)); }
+        finally { db.releaseReadConnection(reader); }
+    }
+
+    // Documents changed through this Collection are dropped from the cache immediately, even before commit.
+    private void invalidateCachedDocument(@NonNull String id) {
+        final DocumentCache cache = documentCache;
+        if (cache != null) { cache.invalidate(id); }
+    }
+
+    @NonNull
+    private C4Collection getReadOnlyC4Collection(@NonNull C4ReadConnectionPool.Connection reader)
+        throws CouchbaseLiteException, LiteCoreException {
+        final C4Collection c4Coll = reader.getCollection(c4Collection.getScope(), c4Collection.getName());
+        if (c4Coll == null) {
+            throw new CouchbaseLiteException(
+                Log.lookupStandardMessage("DBClosedOrCollectionDeleted"),
+                CBLError.Domain.CBLITE,
+                CBLError.Code.NOT_OPEN);
+        }
+        return c4Coll;
+    }
+
+    // A document read on a read-only connection cannot be updated.  Use the main connection's
+    // copy of the document instead, as long as it is still the same revision.  If it isn't,
+    // this is a conflict, exactly as if the read-only copy were a stale copy from this connection.
+    @GuardedBy("getDbLock()")
+    @NonNull
+    private C4Document getWritableC4Document(@NonNull String docId, @NonNull C4Document readOnlyDoc)
+        throws CouchbaseLiteException {
+        final C4Document c4Doc = getC4Document(docId);
+        if ((c4Doc == null) || !Objects.equals(c4Doc.getRevID(), readOnlyDoc.getRevID())) {
+            throw new CouchbaseLiteException("Conflict", CBLError.Domain.CBLITE, CBLError.Code.CONFLICT);
         }
+        return c4Doc;
     }
 
     private void closeCollectionChangeNotifierLocked() {
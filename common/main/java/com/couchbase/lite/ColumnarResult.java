@@ -0,0 +1,350 @@
+//
+// Copyright (c) 2020 Couchbase, Inc.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+package com.couchbase.lite;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.List;
+
+import com.couchbase.lite.internal.core.C4QueryEnumerator;
+
+
+/**
+ * The results of a query, as columns of primitive values.
+ * <p>
+ * A ColumnarResult is created by ResultSet.toColumns, which reads rows directly from the
+ * query enumerator, in blocks, without creating a Result for each row.  It is intended for
+ * queries that return large numbers of numeric rows, for analytics or charting, for instance.
+ * <p>
+ * A ColumnarResult holds no reference to native memory: it may be used after the ResultSet
+ * from which it was created has been closed, and may be shared by any number of threads.
+ * <p>
+ * The values in a column are converted exactly as they would be by the corresponding Result getter:
+ * getLongs returns the same values as Result.getLong, getDoubles the same values as Result.getDouble,
+ * and so on.  A MISSING value, a JSON null, and a value that is neither a scalar nor a string
+ * (an array, a dictionary, or a blob) are converted to 0, false or null.
+ */
+public final class ColumnarResult {
+    //---------------------------------------------
+    // Types
+    //---------------------------------------------
+
+    // Accumulates column values, as they are read from the enumerator.
+    static final class Builder {
+        private static final int INITIAL_ROWS = 256;
+
+        @NonNull
+        private final List<String> columnNames;
+        @NonNull
+        private final byte[][] types;
+        @NonNull
+        private final long[][] values;
+        @NonNull
+        private final String[][] strings;
+        private int rows;
+
+        Builder(@NonNull List<String> columnNames) {
+            this.columnNames = columnNames;
+            final int nCols = columnNames.size();
+            types = new byte[nCols][INITIAL_ROWS];
+            values = new long[nCols][INITIAL_ROWS];
+            strings = new String[nCols][];
+        }
+
+        // Add a block of rows read by C4QueryEnumerator.nextColumns.
+        void appendBlock(
+            int nRows,
+            int blockSize,
+            @NonNull byte[] blockTypes,
+            @NonNull long[] blockValues,
+            @NonNull String[] blockStrings) {
+            ensureCapacity(rows + nRows);
+            for (int col = 0; col < types.length; col++) {
+                final int src = col * blockSize;
+                System.arraycopy(blockTypes, src, types[col], rows, nRows);
+                System.arraycopy(blockValues, src, values[col], rows, nRows);
+                for (int i = 0; i < nRows; i++) {
+                    if (blockTypes[src + i] == C4QueryEnumerator.COLUMN_STRING) {
+                        setString(col, rows + i, blockStrings[src + i]);
+                    }
+                }
+            }
+            rows += nRows;
+        }
+
+        // Add a single row that has already been read from the enumerator.
+        void appendRow(@NonNull Result result) {
+            ensureCapacity(rows + 1);
+            for (int col = 0; col < types.length; col++) {
+                final boolean missing = result.isMissing(col);
+                final Object value = (missing) ? null : result.getValue(col);
+                final byte type;
+                long bits = 0L;
+                if (missing) { type = C4QueryEnumerator.COLUMN_MISSING; }
+                else if (value == null) { type = C4QueryEnumerator.COLUMN_NULL; }
+                else if (value instanceof Boolean) {
+                    type = C4QueryEnumerator.COLUMN_BOOLEAN;
+                    bits = ((Boolean) value) ? 1L : 0L;
+                }
+                else if ((value instanceof Double) || (value instanceof Float)) {
+                    type = C4QueryEnumerator.COLUMN_DOUBLE;
+                    bits = Double.doubleToRawLongBits(((Number) value).doubleValue());
+                }
+                else if (value instanceof Number) {
+                    type = C4QueryEnumerator.COLUMN_INT;
+                    bits = ((Number) value).longValue();
+                }
+                else if (value instanceof String) {
+                    type = C4QueryEnumerator.COLUMN_STRING;
+                    setString(col, rows, (String) value);
+                }
+                else { type = C4QueryEnumerator.COLUMN_OTHER; }
+
+                types[col][rows] = type;
+                values[col][rows] = bits;
+            }
+            rows++;
+        }
+
+        @NonNull
+        ColumnarResult build() {
+            final int nCols = types.length;
+            for (int col = 0; col < nCols; col++) {
+                types[col] = Arrays.copyOf(types[col], rows);
+                values[col] = Arrays.copyOf(values[col], rows);
+                if (strings[col] != null) { strings[col] = Arrays.copyOf(strings[col], rows); }
+            }
+            return new ColumnarResult(columnNames, rows, types, values, strings);
+        }
+
+        // Most columns never contain a string: allocate the array only when it is needed.
+        private void setString(int col, int row, @Nullable String str) {
+            if (strings[col] == null) { strings[col] = new String[types[col].length]; }
+            strings[col][row] = str;
+        }
+
+        private void ensureCapacity(int required) {
+            if ((types.length <= 0) || (required <= types[0].length)) { return; }
+            final int capacity = Math.max(required, types[0].length * 2);
+            for (int col = 0; col < types.length; col++) {
+                types[col] = Arrays.copyOf(types[col], capacity);
+                values[col] = Arrays.copyOf(values[col], capacity);
+                if (strings[col] != null) { strings[col] = Arrays.copyOf(strings[col], capacity); }
+            }
+        }
+    }
+
+
+    //---------------------------------------------
+    // member variables
+    //---------------------------------------------
+
+    @NonNull
+    private final List<String> columnNames;
+    private final int rowCount;
+    @NonNull
+    private final byte[][] types;
+    @NonNull
+    private final long[][] values;
+    @NonNull
+    private final String[][] strings;
+
+    //---------------------------------------------
+    // constructors
+    //---------------------------------------------
+
+    private ColumnarResult(
+        @NonNull List<String> columnNames,
+        int rowCount,
+        @NonNull byte[][] types,
+        @NonNull long[][] values,
+        @NonNull String[][] strings) {
+        this.columnNames = Collections.unmodifiableList(new ArrayList<>(columnNames));
+        this.rowCount = rowCount;
+        this.types = types;
+        this.values = values;
+        this.strings = strings;
+    }
+
+    //---------------------------------------------
+    // API - public methods
+    //---------------------------------------------
+
+    /**
+     * @return the number of rows in the result.
+     */
+    public int getRowCount() { return rowCount; }
+
+    /**
+     * @return the number of columns in the result.
+     */
+    public int getColumnCount() { return columnNames.size(); }
+
+    /**
+     * @return the names of the columns, in the order in which they appear in the query.
+     */
+    @NonNull
+    public List<String> getColumnNames() { return columnNames; }
+
+    /**
+     * Get the index of the named column.
+     *
+     * @param name the name of the column.
+     * @return the index of the column, or -1 if there is no column with the name.
+     */
+    public int getColumnIndex(@NonNull String name) { return columnNames.indexOf(name); }
+
+    /**
+     * Get the values in a column as longs.  See Result.getLong.
+     *
+     * @param column the index of the column.
+     * @return a new array containing the column's values, one per row.
+     */
+    @NonNull
+    public long[] getLongs(int column) {
+        final byte[] colTypes = types[column];
+        final long[] colValues = values[column];
+        final long[] longs = new long[rowCount];
+        for (int i = 0; i < rowCount; i++) {
+            switch (colTypes[i]) {
+                case C4QueryEnumerator.COLUMN_BOOLEAN:
+                case C4QueryEnumerator.COLUMN_INT:
+                    longs[i] = colValues[i];
+                    break;
+                case C4QueryEnumerator.COLUMN_DOUBLE:
+                    longs[i] = (long) Double.longBitsToDouble(colValues[i]);
+                    break;
+                default:
+                    break;
+            }
+        }
+        return longs;
+    }
+
+    /**
+     * Get the values in a column as doubles.  See Result.getDouble.
+     *
+     * @param column the index of the column.
+     * @return a new array containing the column's values, one per row.
+     */
+    @NonNull
+    public double[] getDoubles(int column) {
+        final byte[] colTypes = types[column];
+        final long[] colValues = values[column];
+        final double[] doubles = new double[rowCount];
+        for (int i = 0; i < rowCount; i++) {
+            switch (colTypes[i]) {
+                case C4QueryEnumerator.COLUMN_BOOLEAN:
+                case C4QueryEnumerator.COLUMN_INT:
+                    doubles[i] = colValues[i];
+                    break;
+                case C4QueryEnumerator.COLUMN_DOUBLE:
+                    doubles[i] = Double.longBitsToDouble(colValues[i]);
+                    break;
+                default:
+                    break;
+            }
+        }
+        return doubles;
+    }
+
+    /**
+     * Get the values in a column as booleans.  See Result.getBoolean.
+     *
+     * @param column the index of the column.
+     * @return a new array containing the column's values, one per row.
+     */
+    @NonNull
+    public boolean[] getBooleans(int column) {
+        final byte[] colTypes = types[column];
+        final long[] colValues = values[column];
+        final boolean[] booleans = new boolean[rowCount];
+        for (int i = 0; i < rowCount; i++) {
+            switch (colTypes[i]) {
+                case C4QueryEnumerator.COLUMN_MISSING:
+                case C4QueryEnumerator.COLUMN_NULL:
+                    break;
+                case C4QueryEnumerator.COLUMN_BOOLEAN:
+                case C4QueryEnumerator.COLUMN_INT:
+                    booleans[i] = ((int) colValues[i]) != 0;
+                    break;
+                case C4QueryEnumerator.COLUMN_DOUBLE:
+                    booleans[i] = ((int) Double.longBitsToDouble(colValues[i])) != 0;
+                    break;
+                default:
+                    booleans[i] = true;
+                    break;
+            }
+        }
+        return booleans;
+    }
+
+    /**
+     * Get the values in a column as Strings.  See Result.getString.
+     *
+     * @param column the index of the column.
+     * @return a new array containing the column's values, one per row: null for a value that is not a string.
+     */
+    @NonNull
+    public String[] getStrings(int column) {
+        final String[] colStrings = strings[column];
+        return (colStrings == null) ? new String[rowCount] : Arrays.copyOf(colStrings, rowCount);
+    }
+
+    /**
+     * Get the rows in which the value of a column is MISSING: the query produced no value at all.
+     *
+     * @param column the index of the column.
+     * @return a new BitSet in which the bit for each row with a missing value is set.
+     */
+    @NonNull
+    public BitSet getMissing(int column) { return getRowsOfType(column, C4QueryEnumerator.COLUMN_MISSING, -1); }
+
+    /**
+     * Get the rows in which the value of a column is either MISSING or JSON null.
+     *
+     * @param column the index of the column.
+     * @return a new BitSet in which the bit for each row with a missing or null value is set.
+     */
+    @NonNull
+    public BitSet getNulls(int column) {
+        return getRowsOfType(column, C4QueryEnumerator.COLUMN_MISSING, C4QueryEnumerator.COLUMN_NULL);
+    }
+
+    @NonNull
+    @Override
+    public String toString() { return "ColumnarResult{" + columnNames + " x " + rowCount + "}"; }
+
+    //---------------------------------------------
+    // private access
+    //---------------------------------------------
+
+    @NonNull
+    private BitSet getRowsOfType(int column, int type1, int type2) {
+        final byte[] colTypes = types[column];
+        final BitSet rows = new BitSet(rowCount);
+        for (int i = 0; i < rowCount; i++) {
+            final int type = colTypes[i];
+            if ((type == type1) || (type == type2)) { rows.set(i); }
+        }
+        return rows;
+    }
+}
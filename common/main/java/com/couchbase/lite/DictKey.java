@@ -0,0 +1,76 @@
+//
+// Copyright (c) 2020 Couchbase, Inc.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+package com.couchbase.lite;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.nio.charset.StandardCharsets;
+
+import com.couchbase.lite.internal.fleece.FLSliceResult;
+import com.couchbase.lite.internal.utils.Preconditions;
+
+
+/**
+ * A pre-resolved property name, for fast, repeated lookup of the same property in many
+ * Documents or Dictionaries.
+ * <p>
+ * Looking up a property by String requires encoding the name as UTF-8 and copying it to
+ * native code, on every lookup.  A DictKey does that once, when it is created.  Create a DictKey
+ * once, for each property name that is used frequently, and then use it with the Document and
+ * Dictionary getters that accept one.  A DictKey is immutable: it may be shared across threads
+ * and used with documents from any database.
+ */
+public final class DictKey {
+    @NonNull
+    private final String name;
+
+    // The UTF-8 encoding of the name, in native memory
+    @NonNull
+    private final FLSliceResult encodedName;
+
+    /**
+     * Create a key for the named property.
+     *
+     * @param name the property name
+     */
+    public DictKey(@NonNull String name) {
+        this.name = Preconditions.assertNotNull(name, "name");
+        this.encodedName = FLSliceResult.copyOf(name.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @return the property name
+     */
+    @NonNull
+    public String getName() { return name; }
+
+    @NonNull
+    @Override
+    public String toString() { return "DictKey{" + name + "}"; }
+
+    @Override
+    public boolean equals(@Nullable Object o) {
+        if (this == o) { return true; }
+        return (o instanceof DictKey) && name.equals(((DictKey) o).name);
+    }
+
+    @Override
+    public int hashCode() { return name.hashCode(); }
+
+    @NonNull
+    FLSliceResult getEncodedName() { return encodedName; }
+}
@@ -15,6 +15,7 @@
 //
 package com.couchbase.lite;
 
+import androidx.annotation.GuardedBy;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 
@@ -25,7 +26,10 @@ import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 
+import com.couchbase.lite.internal.fleece.FLDict;
+import com.couchbase.lite.internal.fleece.FLValue;
 import com.couchbase.lite.internal.fleece.MCollection;
+import com.couchbase.lite.internal.fleece.MContext;
 import com.couchbase.lite.internal.fleece.MDict;
 import com.couchbase.lite.internal.fleece.MValue;
 import com.couchbase.lite.internal.utils.JSONUtils;
@@ -253,6 +257,120 @@ public class Dictionary extends AbstractJFleeceCollection<MDict> implements Dict
     @Nullable
     public <T> T getValue(@NonNull Class<T> klass, @NonNull String key) { return asValue(klass, getValue(key)); }
 
+    //---------------------------------------------
+    // DictKey getters
+    //---------------------------------------------
+    /**
+     * Tests whether a property exists or not.
+     *
+     * @param key a pre-resolved property name
+     * @return true if the property exists
+     */
+    public boolean contains(@NonNull DictKey key) { return !getMValueAt(key).isEmpty(); }
+
+    /**
+     * Gets a property's value as a boolean: see getBoolean(String).
+     *
+     * @param key a pre-resolved property name
+     * @return the boolean value
+     */
+    public boolean getBoolean(@NonNull DictKey key) { return asBoolean(getJFleeceAt(key)); }
+
+    /**
+     * Gets a property's value as an int: see getInt(String).
+     *
+     * @param key a pre-resolved property name
+     * @return the int value
+     */
+    public int getInt(@NonNull DictKey key) { return toInteger(getMValueAt(key), contents); }
+
+    /**
+     * Gets a property's value as a long: see getLong(String).
+     *
+     * @param key a pre-resolved property name
+     * @return the long value
+     */
+    public long getLong(@NonNull DictKey key) { return toLong(getMValueAt(key), contents); }
+
+    /**
+     * Gets a property's value as a float: see getFloat(String).
+     *
+     * @param key a pre-resolved property name
+     * @return the float value
+     */
+    public float getFloat(@NonNull DictKey key) { return toFloat(getMValueAt(key), contents); }
+
+    /**
+     * Gets a property's value as a double: see getDouble(String).
+     *
+     * @param key a pre-resolved property name
+     * @return the double value
+     */
+    public double getDouble(@NonNull DictKey key) { return toDouble(getMValueAt(key), contents); }
+
+    /**
+     * Gets a property's value as a Number: see getNumber(String).
+     *
+     * @param key a pre-resolved property name
+     * @return the Number or null
+     */
+    @Nullable
+    public Number getNumber(@NonNull DictKey key) { return asNumber(getJFleeceAt(key)); }
+
+    /**
+     * Gets a property's value as a String: see getString(String).
+     *
+     * @param key a pre-resolved property name
+     * @return the String or null
+     */
+    @Nullable
+    public String getString(@NonNull DictKey key) { return asString(getJFleeceAt(key)); }
+
+    /**
+     * Gets a property's value as a Date: see getDate(String).
+     *
+     * @param key a pre-resolved property name
+     * @return the Date or null
+     */
+    @Nullable
+    public Date getDate(@NonNull DictKey key) { return JSONUtils.toDate(getString(key)); }
+
+    /**
+     * Gets a property's value as a Blob: see getBlob(String).
+     *
+     * @param key a pre-resolved property name
+     * @return the Blob or null
+     */
+    @Nullable
+    public Blob getBlob(@NonNull DictKey key) { return asBlob(getJFleeceAt(key)); }
+
+    /**
+     * Gets a property's value as an Array: see getArray(String).
+     *
+     * @param key a pre-resolved property name
+     * @return the Array or null
+     */
+    @Nullable
+    public Array getArray(@NonNull DictKey key) { return asArray(getJFleeceAt(key)); }
+
+    /**
+     * Gets a property's value as a Dictionary: see getDictionary(String).
+     *
+     * @param key a pre-resolved property name
+     * @return the Dictionary or null
+     */
+    @Nullable
+    public Dictionary getDictionary(@NonNull DictKey key) { return asDictionary(getJFleeceAt(key)); }
+
+    /**
+     * Gets a property's value as an object: see getValue(String).
+     *
+     * @param key a pre-resolved property name
+     * @return the object value or null
+     */
+    @Nullable
+    public Object getValue(@NonNull DictKey key) { return getJFleeceAt(key); }
+
     /**
      * Gets content of the current object as an Map. The values contained in the returned
      * Map object are all JSON based values.
@@ -264,6 +382,17 @@ public class Dictionary extends AbstractJFleeceCollection<MDict> implements Dict
     public Map<String, Object> toMap() {
         final Map<String, Object> map = new HashMap<>();
         synchronized (lock) {
+            // If this dictionary is exactly its Fleece base, convert the whole thing in a single JNI call
+            final FLDict base = contents.getUnmodifiedBase();
+            final MContext context = contents.getContext();
+            final BaseDatabase db = (context == null) ? null : context.getDatabase();
+            if ((base != null) && (db != null)) {
+                for (Map.Entry<String, Object> entry: base.asMap(context.getSharedKeys()).entrySet()) {
+                    map.put(entry.getKey(), resolveBlobs(entry.getValue(), db));
+                }
+                return map;
+            }
+
             for (String key: contents.getKeys()) {
                 Object obj = contents.get(key).toJFleece(contents);
                 if (obj instanceof AbstractJFleeceCollection<?>) {
@@ -302,6 +431,9 @@ public class Dictionary extends AbstractJFleeceCollection<MDict> implements Dict
 
         final Dictionary m = (Dictionary) o;
 
+        final Boolean eq = fleeceEquals(m);
+        if (eq != null) { return eq; }
+
         if (m.count() != count()) { return false; }
         for (String key: this) {
             final Object value = getValue(key);
@@ -317,11 +449,13 @@ public class Dictionary extends AbstractJFleeceCollection<MDict> implements Dict
 
     @Override
     public int hashCode() {
+        final Integer hash = fleeceHash();
+        if (hash != null) { return hash; }
+
+        if (isBlobDictionary()) { return BLOB_HASH; }
+
         int h = 0;
-        for (String key: this) {
-            final Object value = getValue(key);
-            h += key.hashCode() ^ ((value == null) ? 0 : value.hashCode());
-        }
+        for (String key: this) { h += key.hashCode() ^ hashValue(getValue(key)); }
         return h;
     }
 
@@ -344,6 +478,18 @@ public class Dictionary extends AbstractJFleeceCollection<MDict> implements Dict
         return buf.append('}').toString();
     }
 
+    //-------------------------------------------------------------------------
+    // Protected
+    //-------------------------------------------------------------------------
+
+    @GuardedBy("lock")
+    @Nullable
+    @Override
+    protected FLValue getUnmodifiedFLValue() {
+        final FLDict base = contents.getUnmodifiedBase();
+        return (base == null) ? null : base.toFLValue();
+    }
+
     //-------------------------------------------------------------------------
     // Private
     //-------------------------------------------------------------------------
@@ -356,4 +502,60 @@ public class Dictionary extends AbstractJFleeceCollection<MDict> implements Dict
         Preconditions.assertNotNull(key, "key");
         synchronized (lock) { return contents.get(key); }
     }
+
+    @Nullable
+    private Object getJFleeceAt(@NonNull DictKey key) { return getMValueAt(key).toJFleece(contents); }
+
+    @NonNull
+    private MValue getMValueAt(@NonNull DictKey key) {
+        Preconditions.assertNotNull(key, "key");
+        synchronized (lock) { return contents.get(key.getName(), key.getEncodedName()); }
+    }
+
+    // Replace the blob dictionaries and data, in a tree of values converted directly from Fleece,
+    // with Blobs: the result is what MValue.toJFleece would have produced.
+    @Nullable
+    @SuppressWarnings("unchecked")
+    private static Object resolveBlobs(@Nullable Object value, @NonNull BaseDatabase db) {
+        if (value instanceof byte[]) { return new Blob("application/octet-stream", (byte[]) value); }
+
+        if (value instanceof Map) {
+            final Map<String, Object> map = (Map<String, Object>) value;
+            if (isBlob(map)) { return new Blob(db, map); }
+            for (Map.Entry<String, Object> entry: map.entrySet()) {
+                entry.setValue(resolveBlobs(entry.getValue(), db));
+            }
+            return map;
+        }
+
+        if (value instanceof List) {
+            final List<Object> list = (List<Object>) value;
+            final int n = list.size();
+            for (int i = 0; i < n; i++) { list.set(i, resolveBlobs(list.get(i), db)); }
+            return list;
+        }
+
+        return value;
+    }
+
+    // This must match isBlob in native_fleece.cc
+    private boolean isBlobDictionary() {
+        final Object type = getValue(Blob.META_PROP_TYPE);
+        if (type instanceof String) { return Blob.TYPE_BLOB.equals(type); }
+        return contains(Blob.PROP_DIGEST)
+            && contains(Blob.PROP_LENGTH)
+            && contains(Blob.PROP_STUB)
+            && contains(Blob.PROP_REVPOS);
+    }
+
+    // This must match MValue.toDictionary
+    private static boolean isBlob(@NonNull Map<String, Object> map) {
+        final Object type = map.get(Blob.META_PROP_TYPE);
+        if (Blob.TYPE_BLOB.equals(type)) { return true; }
+        return (!(type instanceof String))
+            && map.containsKey(Blob.PROP_DIGEST)
+            && map.containsKey(Blob.PROP_LENGTH)
+            && map.containsKey(Blob.PROP_STUB)
+            && map.containsKey(Blob.PROP_REVPOS);
+    }
 }
@@ -18,16 +18,36 @@ package com.couchbase.lite;
 import androidx.annotation.Nullable;
 
 import com.couchbase.lite.internal.DbContext;
+import com.couchbase.lite.internal.core.C4Database;
 import com.couchbase.lite.internal.core.C4Document;
+import com.couchbase.lite.internal.fleece.FLSharedKeys;
 
 
 class DocContext extends DbContext {
     @Nullable
     private final C4Document c4Document;
+    @Nullable
+    private final FLSharedKeys sharedKeys;
 
+    // A document read from one of the database's read-only connections uses that connection's
+    // shared keys and is guarded by that connection's lock: reading it never takes the database lock.
     DocContext(@Nullable Database db, @Nullable C4Document c4Doc) {
         super(db);
         this.c4Document = c4Doc;
+        final C4Database readConnection = (c4Doc == null) ? null : c4Doc.getReadConnection();
+        this.sharedKeys = (readConnection != null)
+            ? readConnection.getFLSharedKeys()
+            : ((db == null) ? null : db.getSharedKeys());
+    }
+
+    @Override
+    @Nullable
+    public FLSharedKeys getSharedKeys() { return sharedKeys; }
+
+    @Override
+    @Nullable
+    public Object getLock() {
+        return ((c4Document == null) || !c4Document.isReadOnly()) ? null : c4Document.getDbLock();
     }
 
     @Nullable
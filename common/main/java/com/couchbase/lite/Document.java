@@ -54,11 +54,23 @@ public class Document implements DictionaryInterface, JSONEncodable, Iterable<St
         throws CouchbaseLiteException {
         Preconditions.assertNotNull(collection, "collection");
         Preconditions.assertNotEmpty(id, "id");
-        final C4Document c4Doc = collection.getC4Document(id);
+        return getDocumentOrNull(collection, id, collection.getC4Document(id));
+    }
+
+    // The C4Document may have been read from one of the db's read-only connections
+    @Nullable
+    static Document getDocumentOrNull(@NonNull Collection collection, @NonNull String id, @Nullable C4Document c4Doc) {
         if ((c4Doc == null) || (c4Doc.isDocDeleted())) { return null; }
         return new Document(collection, id, c4Doc, false);
     }
 
+    // A new Document that shares the immutable content of the passed one: see DocumentCache
+    @NonNull
+    static Document copyOf(@NonNull Document doc) {
+        if (doc.isMutable()) { throw new CouchbaseLiteError("Attempt to copy a mutable document: " + doc); }
+        return new Document(doc);
+    }
+
     @NonNull
     static Document getDocumentWithDeleted(@NonNull Collection collection, @NonNull String id)
         throws CouchbaseLiteException {
@@ -158,6 +170,20 @@ public class Document implements DictionaryInterface, JSONEncodable, Iterable<St
         setC4Document(c4doc, mutable);
     }
 
+    // This constructor copies a Document without touching the native document
+    private Document(@NonNull Document doc) {
+        this.id = doc.id;
+        this.mutable = false;
+        synchronized (doc.lock) {
+            collection = doc.collection;
+            c4Document = doc.c4Document;
+            data = doc.data;
+            root = doc.root;
+            internalDict = doc.internalDict;
+            revId = doc.revId;
+        }
+    }
+
     // This constructor is used in replicator filters, to hack together a doc from its Fleece representation
     Document(@NonNull Collection collection, @NonNull String id, @Nullable String revId, @NonNull FLDict body) {
         this(collection, id, null, false);
@@ -241,6 +267,26 @@ public class Document implements DictionaryInterface, JSONEncodable, Iterable<St
         return new MutableDocument(this);
     }
 
+    /**
+     * Create an immutable snapshot of this document.  The snapshot's properties are Java objects:
+     * it holds no reference to native memory and may be shared freely among threads.
+     * See FrozenDocument.
+     *
+     * @return an immutable, thread-safe copy of this document
+     */
+    @NonNull
+    public FrozenDocument freeze() {
+        final String revisionId;
+        final long sequence;
+        final long timestamp;
+        synchronized (lock) {
+            revisionId = (c4Document == null) ? revId : c4Document.getSelectedRevID();
+            sequence = (c4Document == null) ? 0 : c4Document.getSelectedSequence();
+            timestamp = (c4Document == null) ? 0 : c4Document.getTimestamp();
+        }
+        return new FrozenDocument(id, revisionId, sequence, timestamp, toMap());
+    }
+
     /**
      * Gets the number of the entries in the document.
      *
@@ -412,6 +458,120 @@ public class Document implements DictionaryInterface, JSONEncodable, Iterable<St
     @Nullable
     public <T> T getValue(@NonNull Class<T> klass, @NonNull String key) { return getContent().getValue(klass, key); }
 
+    //---------------------------------------------
+    // DictKey getters
+    //---------------------------------------------
+    /**
+     * Tests whether a property exists or not.
+     *
+     * @param key a pre-resolved property name
+     * @return true if the property exists
+     */
+    public boolean contains(@NonNull DictKey key) { return getContent().contains(key); }
+
+    /**
+     * Gets a property's value as a boolean: see getBoolean(String).
+     *
+     * @param key a pre-resolved property name
+     * @return the boolean value
+     */
+    public boolean getBoolean(@NonNull DictKey key) { return getContent().getBoolean(key); }
+
+    /**
+     * Gets a property's value as an int: see getInt(String).
+     *
+     * @param key a pre-resolved property name
+     * @return the int value
+     */
+    public int getInt(@NonNull DictKey key) { return getContent().getInt(key); }
+
+    /**
+     * Gets a property's value as a long: see getLong(String).
+     *
+     * @param key a pre-resolved property name
+     * @return the long value
+     */
+    public long getLong(@NonNull DictKey key) { return getContent().getLong(key); }
+
+    /**
+     * Gets a property's value as a float: see getFloat(String).
+     *
+     * @param key a pre-resolved property name
+     * @return the float value
+     */
+    public float getFloat(@NonNull DictKey key) { return getContent().getFloat(key); }
+
+    /**
+     * Gets a property's value as a double: see getDouble(String).
+     *
+     * @param key a pre-resolved property name
+     * @return the double value
+     */
+    public double getDouble(@NonNull DictKey key) { return getContent().getDouble(key); }
+
+    /**
+     * Gets a property's value as a Number: see getNumber(String).
+     *
+     * @param key a pre-resolved property name
+     * @return the Number or null
+     */
+    @Nullable
+    public Number getNumber(@NonNull DictKey key) { return getContent().getNumber(key); }
+
+    /**
+     * Gets a property's value as a String: see getString(String).
+     *
+     * @param key a pre-resolved property name
+     * @return the String or null
+     */
+    @Nullable
+    public String getString(@NonNull DictKey key) { return getContent().getString(key); }
+
+    /**
+     * Gets a property's value as a Date: see getDate(String).
+     *
+     * @param key a pre-resolved property name
+     * @return the Date or null
+     */
+    @Nullable
+    public Date getDate(@NonNull DictKey key) { return getContent().getDate(key); }
+
+    /**
+     * Gets a property's value as a Blob: see getBlob(String).
+     *
+     * @param key a pre-resolved property name
+     * @return the Blob or null
+     */
+    @Nullable
+    public Blob getBlob(@NonNull DictKey key) { return getContent().getBlob(key); }
+
+    /**
+     * Gets a property's value as an Array: see getArray(String).
+     *
+     * @param key a pre-resolved property name
+     * @return the Array or null
+     */
+    @Nullable
+    public Array getArray(@NonNull DictKey key) { return getContent().getArray(key); }
+
+    /**
+     * Gets a property's value as a Dictionary: see getDictionary(String).
+     *
+     * @param key a pre-resolved property name
+     * @return the Dictionary or null
+     */
+    @Nullable
+    public Dictionary getDictionary(@NonNull DictKey key) { return getContent().getDictionary(key); }
+
+    /**
+     * Gets a property's value as an object: see getValue(String).
+     *
+     * @param key a pre-resolved property name
+     * @return the object value or null
+     */
+    @Nullable
+    public Object getValue(@NonNull DictKey key) { return getContent().getValue(key); }
+
     /**
      * Gets content of the current object as a Map. The values contained in the returned
      * Map object are all JSON based values.
@@ -422,6 +582,50 @@ public class Document implements DictionaryInterface, JSONEncodable, Iterable<St
     @Override
     public Map<String, Object> toMap() { return getContent().toMap(); }
 
+    /**
+     * Create a JSON delta that describes the changes from another document, usually an earlier revision
+     * of this one, to this document.  MutableDocument.applyDelta applies the delta to the base document's
+     * content, to produce this document's content.  The delta is computed natively, from the Fleece content
+     * of the two documents: this is much less expensive than comparing the documents' maps.
+     *
+     * @param base the document from which the changes are computed
+     * @return the JSON delta, or null if the two documents have the same content
+     * @throws CouchbaseLiteException on encoder failure.
+     */
+    @Nullable
+    public String createDelta(@NonNull Document base) throws CouchbaseLiteException {
+        Preconditions.assertNotNull(base, "base");
+        final Dictionary content = getContent();
+        final Dictionary baseContent = base.getContent();
+        try {
+            // If both are unmodified revisions from the same database, compare their Fleece in place.
+            if (content.lock == baseContent.lock) {
+                synchronized (content.lock) {
+                    final FLValue value = content.getUnmodifiedFLValue();
+                    final FLValue baseValue = baseContent.getUnmodifiedFLValue();
+                    if ((value != null) && (baseValue != null)) { return baseValue.createJSONDelta(value); }
+                }
+            }
+
+            try (FLSliceResult fleece = encodeContent(); FLSliceResult baseFleece = base.encodeContent()) {
+                return getRoot(baseFleece).createJSONDelta(getRoot(fleece));
+            }
+        }
+        catch (LiteCoreException e) { throw CouchbaseLiteException.convertException(e, "Cannot create delta"); }
+    }
+
+    /**
+     * Get a digest of the content of this document: the SHA-1 digest of the canonical Fleece
+     * encoding of its properties, in the format of a blob digest.  Documents with the same properties
+     * have the same digest, whatever their IDs, revisions or databases.
+     * This can be much less expensive than comparing the content of two documents.
+     *
+     * @return the content digest
+     * @throws CouchbaseLiteException on encoder failure.
+     */
+    @NonNull
+    public String contentDigest() throws CouchbaseLiteException { return getContent().contentDigest(); }
+
     @NonNull
     @Override
     public String toJSON() throws CouchbaseLiteException {
@@ -612,17 +816,53 @@ public class Document implements DictionaryInterface, JSONEncodable, Iterable<St
         final Database db = getDatabase();
         if (db == null) { throw new CouchbaseLiteError("Encode called with null database"); }
 
-        try (FLEncoder encoder = db.getSharedFleeceEncoder()) {
-            encoder.setArg(Blob.ENCODER_ARG_DB, getDatabase());
-            getContent().encodeTo(encoder);
+        try (FLEncoder encoder = db.getSharedFleeceEncoder()) { return encodeWith(encoder, db); }
+    }
+
+    // Encode the document using one of the database's pooled encoders.  Outside a transaction,
+    // keys that are not yet shared are encoded as strings.
+    // The caller need not hold the db lock. Returns null if the database is closed.
+    @Nullable
+    final FLSliceResult encodeUnlocked() throws LiteCoreException {
+        final Database db = getDatabase();
+        if (db == null) { throw new CouchbaseLiteError("Encode called with null database"); }
+
+        final FLEncoder pooledEncoder = db.getPooledFleeceEncoder();
+        if (pooledEncoder == null) { return null; }
+
+        try (FLEncoder encoder = pooledEncoder) { return encodeWith(encoder, db); }
+    }
+
+    // Encode the content of this document, for use outside the db lock.
+    // Blobs are encoded as they will be saved but are not saved: this does not touch the database.
+    @NonNull
+    final FLSliceResult encodeContent() throws LiteCoreException {
+        final Dictionary content = getContent();
+        try (FLEncoder encoder = FLEncoder.getManagedEncoder()) {
+            encoder.setArg(Blob.ENCODER_ARG_DIGEST, true);
+            synchronized (content.lock) { content.encodeTo(encoder); }
             return encoder.finish2();
         }
     }
 
+    @NonNull
+    static FLValue getRoot(@NonNull FLSliceResult fleece) {
+        final FLValue root = FLValue.fromData(fleece);
+        if (root == null) { throw new CouchbaseLiteError("Failed parsing fleece data"); }
+        return root;
+    }
+
     //---------------------------------------------
     // Private access
     //---------------------------------------------
 
+    @NonNull
+    private FLSliceResult encodeWith(@NonNull FLEncoder encoder, @NonNull Database db) throws LiteCoreException {
+        encoder.setArg(Blob.ENCODER_ARG_DB, db);
+        getContent().encodeTo(encoder);
+        return encoder.finish2();
+    }
+
     // Sets c4doc and updates the root dictionary
     private void setC4Document(@Nullable C4Document c4doc, boolean mutable) {
         synchronized (lock) {
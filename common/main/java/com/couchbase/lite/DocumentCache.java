@@ -0,0 +1,193 @@
+//
+// Copyright (c) 2020 Couchbase, Inc.
+// Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file
+// except in compliance with the License. You may obtain a copy of the License at
+// http://www.apache.org/licenses/LICENSE-2.0
+// Unless required by applicable law or agreed to in writing, software distributed under the
+// License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+// either express or implied. See the License for the specific language governing permissions
+// and limitations under the License.
+//
+package com.couchbase.lite;
+
+import androidx.annotation.GuardedBy;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.couchbase.lite.internal.CouchbaseLiteInternal;
+import com.couchbase.lite.internal.core.C4CollectionObserver;
+import com.couchbase.lite.internal.core.C4DocumentChange;
+import com.couchbase.lite.internal.utils.Preconditions;
+
+
+/**
+ * An LRU cache of the revisions of documents read through a single Collection object.
+ * The cache holds Documents that are never handed out: each caller gets a copy of its own, which
+ * shares the cached Document's immutable content, so that one caller's save or delete cannot change
+ * another caller's Document.  A lookup takes no db lock and makes no call into LiteCore.
+ * <p>
+ * Writes made through the owning Collection invalidate the documents they touch, immediately.
+ * All other changes (other Collection objects, other Database objects, replication) are picked up
+ * from a collection observer.  An entry is invalidated only by a change with a sequence later
+ * than that of the cached revision.  LiteCore notifies the observer as part of a commit but the
+ * changes are processed asynchronously: until they have been, the cache is bypassed, so that it never
+ * serves a stale revision.  The cache is also bypassed once the database has been closed or one
+ * of its collections deleted.
+ */
+final class DocumentCache implements AutoCloseable {
+    private static final int REQUESTED_CHANGES = 100;
+
+    private static final class Entry {
+        @NonNull
+        final Document doc;
+        final long sequence;
+
+        Entry(@NonNull Document doc, long sequence) {
+            this.doc = doc;
+            this.sequence = sequence;
+        }
+    }
+
+
+    @NonNull
+    private final Collection collection;
+
+    @NonNull
+    private final Executor executor;
+
+    // The database's collection epoch when this cache was created
+    private final long epoch;
+
+    @GuardedBy("entries")
+    @NonNull
+    private final LinkedHashMap<String, Entry> entries;
+
+    // Incremented by every invalidation.  A document that was read before
+    // an invalidation may be out of date: it must not be cached.
+    @GuardedBy("entries")
+    private long generation;
+
+    // Observer notifications not yet processed.  While there are any, the cache is bypassed.
+    @NonNull
+    private final AtomicInteger pendingChanges = new AtomicInteger();
+
+    @NonNull
+    private final AtomicLong hits = new AtomicLong();
+    @NonNull
+    private final AtomicLong misses = new AtomicLong();
+
+    @GuardedBy("collection.getDbLock()")
+    @Nullable
+    private C4CollectionObserver observer;
+
+    DocumentCache(@NonNull Collection collection, int maxDocuments) {
+        this.collection = Preconditions.assertNotNull(collection, "collection");
+        Preconditions.assertPositive(maxDocuments, "max documents");
+        this.executor = CouchbaseLiteInternal.getExecutionService().getSerialExecutor();
+        this.epoch = collection.getDatabase().getCollectionEpoch();
+        this.entries = new LinkedHashMap<String, Entry>(16, 0.75F, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) { return size() > maxDocuments; }
+        };
+    }
+
+    @GuardedBy("collection.getDbLock()")
+    void start() throws CouchbaseLiteException {
+        observer = collection.createCollectionObserver(this::collectionChanged);
+    }
+
+    @Override
+    public void close() {
+        synchronized (collection.getDbLock()) {
+            if (observer != null) { observer.close(); }
+            observer = null;
+        }
+
+        synchronized (entries) {
+            generation++;
+            entries.clear();
+        }
+    }
+
+    // Returns a new copy of the cached document, or null if the document is not in the cache
+    // or if there are changes that the cache has not yet seen.
+    @Nullable
+    Document get(@NonNull String id) {
+        Entry entry = null;
+        if ((pendingChanges.get() <= 0) && (epoch == collection.getDatabase().getCollectionEpoch())) {
+            synchronized (entries) { entry = entries.get(id); }
+        }
+
+        if (entry == null) {
+            misses.incrementAndGet();
+            return null;
+        }
+
+        hits.incrementAndGet();
+        return Document.copyOf(entry.doc);
+    }
+
+    // Call this before reading a document that is to be cached: pass the result to put()
+    long getGeneration() {
+        synchronized (entries) { return generation; }
+    }
+
+    // Cache a copy of a document, unless something has been invalidated since the generation was read.
+    void put(@NonNull Document doc, long readGeneration) {
+        final Entry entry = new Entry(Document.copyOf(doc), doc.getSequence());
+        synchronized (entries) {
+            if (generation != readGeneration) { return; }
+            entries.put(doc.getId(), entry);
+        }
+    }
+
+    void invalidate(@NonNull String id) { invalidate(id, Long.MAX_VALUE); }
+
+    long getHits() { return hits.get(); }
+
+    long getMisses() { return misses.get(); }
+
+    private void invalidate(@NonNull String id, long sequence) {
+        synchronized (entries) {
+            generation++;
+            final Entry entry = entries.get(id);
+            if ((entry != null) && (entry.sequence < sequence)) { entries.remove(id); }
+        }
+    }
+
+    // Called by LiteCore, possibly while a committing thread holds the db lock: don't try to get it here.
+    private void collectionChanged() {
+        pendingChanges.incrementAndGet();
+        try { executor.execute(this::processChanges); }
+        catch (RuntimeException e) {
+            pendingChanges.decrementAndGet();
+            throw e;
+        }
+    }
+
+    private void processChanges() {
+        try {
+            synchronized (collection.getDbLock()) {
+                final C4CollectionObserver c4Observer = observer;
+                if ((c4Observer == null) || !collection.isOpenLocked()) { return; }
+
+                while (true) {
+                    final List<C4DocumentChange> changes = c4Observer.getChanges(REQUESTED_CHANGES);
+                    if (changes == null) { return; }
+                    for (C4DocumentChange change: changes) {
+                        if (change == null) { continue; }
+                        invalidate(change.getDocID(), change.getSequence());
+                    }
+                }
+            }
+        }
+        finally { pendingChanges.decrementAndGet(); }
+    }
+}
@@ -0,0 +1,196 @@
+//
+// Copyright (c) 2020 Couchbase, Inc.
+// Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file
+// except in compliance with the License. You may obtain a copy of the License at
+// http://www.apache.org/licenses/LICENSE-2.0
+// Unless required by applicable law or agreed to in writing, software distributed under the
+// License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+// either express or implied. See the License for the specific language governing permissions
+// and limitations under the License.
+//
+package com.couchbase.lite;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.couchbase.lite.internal.fleece.FLEncoder;
+import com.couchbase.lite.internal.fleece.FLSliceResult;
+import com.couchbase.lite.internal.utils.JSONUtils;
+import com.couchbase.lite.internal.utils.Preconditions;
+
+
+/**
+ * A list of changes to be applied to the properties of a stored document, with Collection.update.
+ * <p>
+ * Each operation applies to a path: a sequence of property names separated by '.'.  For example,
+ * the path "address.city" names the "city" property of the dictionary that is the value of
+ * the document's "address" property.  Set, increment and append create any missing dictionaries
+ * along the path.  Operations are applied in the order in which they were added to the patch.
+ * <p>
+ * Values may be null, Boolean, Number, String, Date (stored as an ISO-8601 string), byte[], or
+ * Maps and Lists of those.  A patch cannot add a Blob to a document.
+ */
+public final class DocumentPatch {
+    // Operation codes: these must match the values in native_c4document.cc
+    private static final int OP_SET = 0;
+    private static final int OP_REMOVE = 1;
+    private static final int OP_INCREMENT = 2;
+    private static final int OP_APPEND = 3;
+
+    private static final class Operation {
+        final int op;
+        @NonNull
+        final String[] path;
+        @Nullable
+        final Object value;
+
+        Operation(int op, @NonNull String[] path, @Nullable Object value) {
+            this.op = op;
+            this.path = path;
+            this.value = value;
+        }
+    }
+
+    @NonNull
+    private final List<Operation> operations = new ArrayList<>();
+
+    /**
+     * Set the value at the path, replacing any value that is there.
+     *
+     * @param path  the path to the property
+     * @param value the new value
+     * @return this patch
+     */
+    @NonNull
+    public DocumentPatch set(@NonNull String path, @Nullable Object value) {
+        return add(OP_SET, path, toPatchValue(value));
+    }
+
+    /**
+     * Remove the value at the path.  It is not an error if there is no value at the path.
+     *
+     * @param path the path to the property
+     * @return this patch
+     */
+    @NonNull
+    public DocumentPatch remove(@NonNull String path) { return add(OP_REMOVE, path, null); }
+
+    /**
+     * Add a number to the number at the path.  If there is no value at the path, the value becomes
+     * the delta.  It is an error if the value at the path is not a number, or if both are integers
+     * and their sum is too large to be stored as an integer.
+     *
+     * @param path  the path to the property
+     * @param delta the number to add
+     * @return this patch
+     */
+    @NonNull
+    public DocumentPatch increment(@NonNull String path, @NonNull Number delta) {
+        return add(OP_INCREMENT, path, toPatchNumber(Preconditions.assertNotNull(delta, "delta")));
+    }
+
+    /**
+     * Append a value to the array at the path.  If there is no value at the path, it becomes
+     * an array containing only the value.  It is an error if the value at the path is not an array.
+     *
+     * @param path  the path to the property
+     * @param value the value to append
+     * @return this patch
+     */
+    @NonNull
+    public DocumentPatch append(@NonNull String path, @Nullable Object value) {
+        return add(OP_APPEND, path, toPatchValue(value));
+    }
+
+    /**
+     * @return true if the patch contains no operations
+     */
+    public boolean isEmpty() { return operations.isEmpty(); }
+
+    // Encode the patch as a Fleece array of operations: [[op, [key, ...], value], ...]
+    @NonNull
+    FLSliceResult encode() throws LiteCoreException {
+        try (FLEncoder enc = FLEncoder.getManagedEncoder()) {
+            enc.beginArray(operations.size());
+            for (Operation operation: operations) {
+                enc.beginArray(3);
+                enc.writeValue(operation.op);
+                enc.beginArray(operation.path.length);
+                for (String key: operation.path) { enc.writeString(key); }
+                enc.endArray();
+                enc.writeValue(operation.value);
+                enc.endArray();
+            }
+            enc.endArray();
+            return enc.finish2();
+        }
+    }
+
+    @NonNull
+    private DocumentPatch add(int op, @NonNull String path, @Nullable Object value) {
+        Preconditions.assertNotEmpty(path, "path");
+        final String[] keys = path.split("\\.", -1);
+        for (String key: keys) {
+            if (key.isEmpty()) { throw new IllegalArgumentException("Path contains an empty property name: " + path); }
+        }
+        operations.add(new Operation(op, keys, value));
+        return this;
+    }
+
+    // Convert a value to something that the encoder can write without a database.
+    @Nullable
+    private static Object toPatchValue(@Nullable Object value) {
+        if ((value == null) || (value instanceof Boolean) || (value instanceof String) || (value instanceof byte[])) {
+            return value;
+        }
+
+        if (value instanceof Number) { return toPatchNumber((Number) value); }
+
+        if (value instanceof Date) { return JSONUtils.toJSONString((Date) value); }
+
+        if (value instanceof Dictionary) { return toPatchValue(((Dictionary) value).toMap()); }
+        if (value instanceof Array) { return toPatchValue(((Array) value).toList()); }
+
+        if (value instanceof Map) {
+            final Map<String, Object> map = new HashMap<>();
+            for (Map.Entry<?, ?> entry: ((Map<?, ?>) value).entrySet()) {
+                final Object key = entry.getKey();
+                if (!(key instanceof String)) {
+                    throw new IllegalArgumentException("Map keys must be Strings: " + key);
+                }
+                map.put((String) key, toPatchValue(entry.getValue()));
+            }
+            return map;
+        }
+
+        if (value instanceof List) {
+            final List<Object> list = new ArrayList<>();
+            for (Object item: (List<?>) value) { list.add(toPatchValue(item)); }
+            return list;
+        }
+
+        throw new IllegalArgumentException(value.getClass().getSimpleName() + " is not a valid patch value");
+    }
+
+    // The encoder can write only these kinds of numbers.
+    @NonNull
+    private static Number toPatchNumber(@NonNull Number value) {
+        if ((value instanceof Integer)
+            || (value instanceof Long)
+            || (value instanceof Short)
+            || (value instanceof Double)
+            || (value instanceof Float)) {
+            return value;
+        }
+
+        if (value instanceof Byte) { return value.longValue(); }
+
+        return value.doubleValue();
+    }
+}
@@ -0,0 +1,218 @@
+//
+// Copyright (c) 2020 Couchbase, Inc.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+package com.couchbase.lite;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.couchbase.lite.internal.fleece.FLEncoder;
+import com.couchbase.lite.internal.fleece.FLSliceResult;
+import com.couchbase.lite.internal.utils.Preconditions;
+
+
+/**
+ * Writes the properties of a new document directly into native storage, without creating
+ * a MutableDocument.  Values are passed straight to a native encoder: there is no tree of
+ * Java objects and no boxing of primitives.
+ * <p>
+ * Write exactly one dictionary, the document's properties, and then save it with
+ * Collection.save(String, DocumentWriter).  After the save, even one that fails, the writer is
+ * empty and may be reused for another document.  A writer is not thread safe: use a separate writer on
+ * each thread.  Close the writer to release its native resources.
+ * <pre>
+ * try (DocumentWriter writer = new DocumentWriter()) {
+ *     writer.beginDict().key("sensor").value("t-101").key("reading").value(21.5).endDict();
+ *     collection.save("reading-42", writer);
+ * }
+ * </pre>
+ */
+public final class DocumentWriter implements AutoCloseable {
+    @NonNull
+    private final FLEncoder encoder = FLEncoder.getManagedEncoder();
+
+    // the number of open collections
+    private int depth;
+    private boolean done;
+
+    /**
+     * Begin a dictionary: the document itself, or a dictionary value.
+     *
+     * @return this writer
+     */
+    @NonNull
+    public DocumentWriter beginDict() {
+        startValue();
+        depth++;
+        encoder.beginDict(0);
+        return this;
+    }
+
+    /**
+     * End the current dictionary.
+     *
+     * @return this writer
+     */
+    @NonNull
+    public DocumentWriter endDict() {
+        endCollection();
+        encoder.endDict();
+        return this;
+    }
+
+    /**
+     * Begin an array value.
+     *
+     * @return this writer
+     */
+    @NonNull
+    public DocumentWriter beginArray() {
+        if (depth <= 0) { throw new IllegalStateException("A document must be a dictionary"); }
+        startValue();
+        depth++;
+        encoder.beginArray(0);
+        return this;
+    }
+
+    /**
+     * End the current array.
+     *
+     * @return this writer
+     */
+    @NonNull
+    public DocumentWriter endArray() {
+        endCollection();
+        encoder.endArray();
+        return this;
+    }
+
+    /**
+     * Write the key for the next value in the current dictionary.
+     *
+     * @param key the key
+     * @return this writer
+     */
+    @NonNull
+    public DocumentWriter key(@NonNull String key) {
+        if (depth <= 0) { throw new IllegalStateException("Key written outside a dictionary"); }
+        encoder.writeKey(Preconditions.assertNotNull(key, "key"));
+        return this;
+    }
+
+    /**
+     * Write a long value.
+     *
+     * @param value the value
+     * @return this writer
+     */
+    @NonNull
+    public DocumentWriter value(long value) {
+        startScalar();
+        encoder.writeInt(value);
+        return this;
+    }
+
+    /**
+     * Write a double value.
+     *
+     * @param value the value
+     * @return this writer
+     */
+    @NonNull
+    public DocumentWriter value(double value) {
+        startScalar();
+        encoder.writeDouble(value);
+        return this;
+    }
+
+    /**
+     * Write a boolean value.
+     *
+     * @param value the value
+     * @return this writer
+     */
+    @NonNull
+    public DocumentWriter value(boolean value) {
+        startScalar();
+        encoder.writeBool(value);
+        return this;
+    }
+
+    /**
+     * Write a String value.  A null value is written as a JSON null.
+     *
+     * @param value the value
+     * @return this writer
+     */
+    @NonNull
+    public DocumentWriter value(@Nullable String value) {
+        startScalar();
+        if (value == null) { encoder.writeNull(); }
+        else { encoder.writeString(value); }
+        return this;
+    }
+
+    /**
+     * Write a null value.
+     *
+     * @return this writer
+     */
+    @NonNull
+    public DocumentWriter nullValue() {
+        startScalar();
+        encoder.writeNull();
+        return this;
+    }
+
+    @Override
+    public void close() { encoder.close(); }
+
+    // Get the encoded document and reset the writer for reuse.  The writer is reset
+    // even if this method fails: a document that cannot be finished is discarded.
+    // The caller is responsible for closing the returned slice.
+    @NonNull
+    FLSliceResult finish() throws CouchbaseLiteException {
+        final boolean complete = done && (depth == 0);
+        done = false;
+        depth = 0;
+
+        if (!complete) {
+            encoder.reset();
+            throw new CouchbaseLiteException(
+                "Document is incomplete",
+                CBLError.Domain.CBLITE,
+                CBLError.Code.INVALID_PARAMETER);
+        }
+
+        try { return encoder.finish2(); }
+        catch (LiteCoreException e) {
+            encoder.reset();
+            throw CouchbaseLiteException.convertException(e, "Failed encoding document");
+        }
+    }
+
+    private void startScalar() {
+        if (depth <= 0) { throw new IllegalStateException("A document must be a dictionary"); }
+    }
+
+    private void startValue() {
+        if ((depth == 0) && done) { throw new IllegalStateException("The document has already been written"); }
+    }
+
+    private void endCollection() {
+        if (depth <= 0) { throw new IllegalStateException("No collection to end"); }
+        if (--depth == 0) { done = true; }
+    }
+}
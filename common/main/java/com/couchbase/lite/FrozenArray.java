@@ -0,0 +1,230 @@
+//
+// Copyright (c) 2020 Couchbase, Inc.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+package com.couchbase.lite;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.Iterator;
+import java.util.List;
+
+import com.couchbase.lite.internal.BaseJFleeceCollection;
+import com.couchbase.lite.internal.utils.JSONUtils;
+
+
+/**
+ * An immutable array, part of a FrozenDocument.
+ * <p>
+ * Unlike an Array, a FrozenArray holds only Java objects: it has no reference to native
+ * memory and takes no locks.  It may be shared, without synchronization, by any number of threads.
+ * Its values are null, Boolean, Number, String, Blob, FrozenArray and FrozenDictionary.
+ */
+public final class FrozenArray extends BaseJFleeceCollection implements ArrayInterface, Iterable<Object> {
+    @NonNull
+    private final List<Object> contents;
+
+    FrozenArray(@NonNull List<Object> list) {
+        final List<Object> frozen = new ArrayList<>(list.size());
+        for (Object value: list) { frozen.add(FrozenDictionary.freeze(value)); }
+        contents = Collections.unmodifiableList(frozen);
+    }
+
+    @Override
+    public int count() { return contents.size(); }
+
+    @Override
+    public boolean isEmpty() { return contents.isEmpty(); }
+
+    /**
+     * Gets the value at the index as a boolean. Returns true if the value exists, and is either `true`
+     * or a nonzero number.
+     *
+     * @param index the index. This value must not exceed the bounds of the array.
+     * @return the boolean value.
+     */
+    @Override
+    public boolean getBoolean(int index) { return asBoolean(contents.get(index)); }
+
+    /**
+     * Gets the value at the index as an int.
+     * Returns 0 if the value does not have a numeric value.
+     *
+     * @param index the index. This value must not exceed the bounds of the array.
+     * @return the int value.
+     */
+    @Override
+    public int getInt(int index) {
+        final Number num = getNumber(index);
+        return (num == null) ? 0 : num.intValue();
+    }
+
+    /**
+     * Gets the value at the index as a long.
+     * Returns 0 if the value does not have a numeric value.
+     *
+     * @param index the index. This value must not exceed the bounds of the array.
+     * @return the long value.
+     */
+    @Override
+    public long getLong(int index) {
+        final Number num = getNumber(index);
+        return (num == null) ? 0L : num.longValue();
+    }
+
+    /**
+     * Gets the value at the index as a float.
+     * Returns 0.0 if the value does not have a numeric value.
+     *
+     * @param index the index. This value must not exceed the bounds of the array.
+     * @return the float value.
+     */
+    @Override
+    public float getFloat(int index) {
+        final Number num = getNumber(index);
+        return (num == null) ? 0.0F : num.floatValue();
+    }
+
+    /**
+     * Gets the value at the index as a double.
+     * Returns 0.0 if the value does not have a numeric value.
+     *
+     * @param index the index. This value must not exceed the bounds of the array.
+     * @return the double value.
+     */
+    @Override
+    public double getDouble(int index) {
+        final Number num = getNumber(index);
+        return (num == null) ? 0.0 : num.doubleValue();
+    }
+
+    /**
+     * Gets the value at the index as a Number. Returns null if the value is not a Number.
+     *
+     * @param index the index. This value must not exceed the bounds of the array.
+     * @return the Number or null.
+     */
+    @Nullable
+    @Override
+    public Number getNumber(int index) { return asNumber(contents.get(index)); }
+
+    /**
+     * Gets the value at the index as a String. Returns null if the value is not a String.
+     *
+     * @param index the index. This value must not exceed the bounds of the array.
+     * @return the String or null.
+     */
+    @Nullable
+    @Override
+    public String getString(int index) { return asString(contents.get(index)); }
+
+    /**
+     * Gets the value at the index as a Date: see Array.getDate(int).
+     *
+     * @param index the index. This value must not exceed the bounds of the array.
+     * @return the Date value or null.
+     */
+    @Nullable
+    @Override
+    public Date getDate(int index) { return JSONUtils.toDate(getString(index)); }
+
+    /**
+     * Gets the value at the index as a Blob. Returns null if the value is not a Blob.
+     *
+     * @param index the index. This value must not exceed the bounds of the array.
+     * @return the Blob or null.
+     */
+    @Nullable
+    @Override
+    public Blob getBlob(int index) { return asBlob(contents.get(index)); }
+
+    /**
+     * Gets the value at the index as a FrozenArray. Returns null if the value is not an array.
+     *
+     * @param index the index. This value must not exceed the bounds of the array.
+     * @return the FrozenArray or null.
+     */
+    @Nullable
+    @Override
+    public FrozenArray getArray(int index) { return asValue(FrozenArray.class, contents.get(index)); }
+
+    /**
+     * Gets the value at the index as a FrozenDictionary. Returns null if the value is not a dictionary.
+     *
+     * @param index the index. This value must not exceed the bounds of the array.
+     * @return the FrozenDictionary or null.
+     */
+    @Nullable
+    @Override
+    public FrozenDictionary getDictionary(int index) { return asValue(FrozenDictionary.class, contents.get(index)); }
+
+    /**
+     * Gets the value at the index. The value types are Blob, FrozenArray, FrozenDictionary, Number,
+     * Boolean or String; or null if the value is null.
+     *
+     * @param index the index. This value must not exceed the bounds of the array.
+     * @return the value or null.
+     */
+    @Nullable
+    @Override
+    public Object getValue(int index) { return contents.get(index); }
+
+    /**
+     * Gets the value at the index, if it is an instance of the passed class.
+     *
+     * @param klass the class of the object.
+     * @param index the index. This value must not exceed the bounds of the array.
+     * @param <T>   the type of the object.
+     * @return the value or null.
+     */
+    @Nullable
+    @Override
+    public <T> T getValue(@NonNull Class<T> klass, int index) { return asValue(klass, contents.get(index)); }
+
+    /**
+     * Gets the content of the array as a new, mutable List.
+     * Nested arrays and dictionaries are converted to Lists and Maps.
+     *
+     * @return a List containing the array's values.
+     */
+    @NonNull
+    @Override
+    public List<Object> toList() {
+        final List<Object> list = new ArrayList<>(contents.size());
+        for (Object value: contents) { list.add(FrozenDictionary.thaw(value)); }
+        return list;
+    }
+
+    @NonNull
+    @Override
+    public Iterator<Object> iterator() { return contents.iterator(); }
+
+    @Override
+    public boolean equals(@Nullable Object o) {
+        if (this == o) { return true; }
+        if (!(o instanceof FrozenArray)) { return false; }
+        return contents.equals(((FrozenArray) o).contents);
+    }
+
+    @Override
+    public int hashCode() { return contents.hashCode(); }
+
+    @NonNull
+    @Override
+    public String toString() { return "FrozenArray" + contents; }
+}
@@ -0,0 +1,262 @@
+//
+// Copyright (c) 2020 Couchbase, Inc.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+package com.couchbase.lite;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+import com.couchbase.lite.internal.BaseJFleeceCollection;
+import com.couchbase.lite.internal.utils.JSONUtils;
+
+
+/**
+ * An immutable dictionary, part of a FrozenDocument.
+ * <p>
+ * Unlike a Dictionary, a FrozenDictionary holds only Java objects: it has no reference to native
+ * memory and takes no locks.  It may be shared, without synchronization, by any number of threads.
+ * Its values are null, Boolean, Number, String, Blob, FrozenArray and FrozenDictionary.
+ */
+public class FrozenDictionary extends BaseJFleeceCollection implements DictionaryInterface, Iterable<String> {
+
+    // Convert a value from Dictionary.toMap or Array.toList to its frozen form.
+    @SuppressWarnings("unchecked")
+    @Nullable
+    static Object freeze(@Nullable Object value) {
+        if (value instanceof Map) { return new FrozenDictionary((Map<String, Object>) value); }
+        if (value instanceof List) { return new FrozenArray((List<Object>) value); }
+        return value;
+    }
+
+    // Convert a frozen value back to the form returned by Dictionary.toMap or Array.toList.
+    @Nullable
+    static Object thaw(@Nullable Object value) {
+        if (value instanceof FrozenDictionary) { return ((FrozenDictionary) value).toMap(); }
+        if (value instanceof FrozenArray) { return ((FrozenArray) value).toList(); }
+        return value;
+    }
+
+
+    @NonNull
+    private final Map<String, Object> contents;
+
+    FrozenDictionary(@NonNull Map<String, Object> map) {
+        final Map<String, Object> frozen = new HashMap<>(map.size());
+        for (Map.Entry<String, Object> entry: map.entrySet()) { frozen.put(entry.getKey(), freeze(entry.getValue())); }
+        contents = Collections.unmodifiableMap(frozen);
+    }
+
+    @Override
+    public int count() { return contents.size(); }
+
+    @Override
+    public boolean isEmpty() { return contents.isEmpty(); }
+
+    @Override
+    public boolean contains(@NonNull String key) { return contents.containsKey(key); }
+
+    @NonNull
+    @Override
+    public List<String> getKeys() { return new ArrayList<>(contents.keySet()); }
+
+    /**
+     * Gets a property's value as a boolean. Returns true if the value exists, and is either `true`
+     * or a nonzero number.
+     *
+     * @param key the key
+     * @return the boolean value.
+     */
+    @Override
+    public boolean getBoolean(@NonNull String key) { return asBoolean(contents.get(key)); }
+
+    /**
+     * Gets a property's value as an int.
+     * Returns 0 if the value doesn't exist or does not have a numeric value.
+     *
+     * @param key the key
+     * @return the int value.
+     */
+    @Override
+    public int getInt(@NonNull String key) {
+        final Number num = getNumber(key);
+        return (num == null) ? 0 : num.intValue();
+    }
+
+    /**
+     * Gets a property's value as a long.
+     * Returns 0 if the value doesn't exist or does not have a numeric value.
+     *
+     * @param key the key
+     * @return the long value.
+     */
+    @Override
+    public long getLong(@NonNull String key) {
+        final Number num = getNumber(key);
+        return (num == null) ? 0L : num.longValue();
+    }
+
+    /**
+     * Gets a property's value as a float.
+     * Returns 0.0 if the value doesn't exist or does not have a numeric value.
+     *
+     * @param key the key
+     * @return the float value.
+     */
+    @Override
+    public float getFloat(@NonNull String key) {
+        final Number num = getNumber(key);
+        return (num == null) ? 0.0F : num.floatValue();
+    }
+
+    /**
+     * Gets a property's value as a double.
+     * Returns 0.0 if the value doesn't exist or does not have a numeric value.
+     *
+     * @param key the key
+     * @return the double value.
+     */
+    @Override
+    public double getDouble(@NonNull String key) {
+        final Number num = getNumber(key);
+        return (num == null) ? 0.0 : num.doubleValue();
+    }
+
+    /**
+     * Gets a property's value as a Number. Returns null if the value doesn't exist, or its value is not a Number.
+     *
+     * @param key the key
+     * @return the Number or null.
+     */
+    @Nullable
+    @Override
+    public Number getNumber(@NonNull String key) { return asNumber(contents.get(key)); }
+
+    /**
+     * Gets a property's value as a String. Returns null if the value doesn't exist, or its value is not a String.
+     *
+     * @param key the key
+     * @return the String or null.
+     */
+    @Nullable
+    @Override
+    public String getString(@NonNull String key) { return asString(contents.get(key)); }
+
+    /**
+     * Gets a property's value as a Date: see Dictionary.getDate(String).
+     *
+     * @param key the key
+     * @return the Date value or null.
+     */
+    @Nullable
+    @Override
+    public Date getDate(@NonNull String key) { return JSONUtils.toDate(getString(key)); }
+
+    /**
+     * Gets a property's value as a Blob. Returns null if the value doesn't exist, or its value is not a Blob.
+     *
+     * @param key the key
+     * @return the Blob value or null.
+     */
+    @Nullable
+    @Override
+    public Blob getBlob(@NonNull String key) { return asBlob(contents.get(key)); }
+
+    /**
+     * Gets a property's value as a FrozenArray.
+     * Returns null if the value doesn't exist, or its value is not an array.
+     *
+     * @param key the key
+     * @return the FrozenArray or null.
+     */
+    @Nullable
+    @Override
+    public FrozenArray getArray(@NonNull String key) { return asValue(FrozenArray.class, contents.get(key)); }
+
+    /**
+     * Gets a property's value as a FrozenDictionary.
+     * Returns null if the value doesn't exist, or its value is not a dictionary.
+     *
+     * @param key the key
+     * @return the FrozenDictionary or null.
+     */
+    @Nullable
+    @Override
+    public FrozenDictionary getDictionary(@NonNull String key) {
+        return asValue(FrozenDictionary.class, contents.get(key));
+    }
+
+    /**
+     * Gets a property's value. The value types are Blob, FrozenArray, FrozenDictionary, Number,
+     * Boolean or String; or null if the property value is null or the property doesn't exist.
+     *
+     * @param key the key
+     * @return the value or null.
+     */
+    @Nullable
+    @Override
+    public Object getValue(@NonNull String key) { return contents.get(key); }
+
+    /**
+     * Gets a property's value, if it is an instance of the passed class.
+     *
+     * @param klass the class of the object.
+     * @param key   the key
+     * @param <T>   the type of the object.
+     * @return the value or null.
+     */
+    @Nullable
+    @Override
+    public <T> T getValue(@NonNull Class<T> klass, @NonNull String key) { return asValue(klass, contents.get(key)); }
+
+    /**
+     * Gets the content of the dictionary as a new, mutable Map.
+     * Nested arrays and dictionaries are converted to Lists and Maps.
+     *
+     * @return a Map containing the dictionary's properties.
+     */
+    @NonNull
+    @Override
+    public Map<String, Object> toMap() {
+        final Map<String, Object> map = new HashMap<>(contents.size());
+        for (Map.Entry<String, Object> entry: contents.entrySet()) { map.put(entry.getKey(), thaw(entry.getValue())); }
+        return map;
+    }
+
+    @NonNull
+    @Override
+    public Iterator<String> iterator() { return contents.keySet().iterator(); }
+
+    @Override
+    public boolean equals(@Nullable Object o) {
+        if (this == o) { return true; }
+        if ((o == null) || (getClass() != o.getClass())) { return false; }
+        return contents.equals(((FrozenDictionary) o).contents);
+    }
+
+    @Override
+    public int hashCode() { return contents.hashCode(); }
+
+    @NonNull
+    @Override
+    public String toString() { return "FrozenDictionary" + contents; }
+}
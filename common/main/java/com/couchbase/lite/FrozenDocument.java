@@ -0,0 +1,94 @@
+//
+// Copyright (c) 2020 Couchbase, Inc.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+package com.couchbase.lite;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.util.Map;
+import java.util.Objects;
+
+
+/**
+ * An immutable snapshot of a revision of a document, created by Document.freeze or
+ * Collection.getFrozenDocument.
+ * <p>
+ * The document's properties are converted, once, into Java objects.  A FrozenDocument holds no
+ * reference to the native document: it adds nothing to native memory use, takes no locks and may
+ * be shared, without synchronization, by any number of threads.  It is a good choice for
+ * documents that are kept in application caches.
+ * <p>
+ * Blobs in a frozen document still refer to their database: their content can be read only
+ * while the database is open.
+ */
+public final class FrozenDocument extends FrozenDictionary {
+    @NonNull
+    private final String id;
+    @Nullable
+    private final String revId;
+    private final long sequence;
+    private final long timestamp;
+
+    FrozenDocument(
+        @NonNull String id,
+        @Nullable String revId,
+        long sequence,
+        long timestamp,
+        @NonNull Map<String, Object> properties) {
+        super(properties);
+        this.id = id;
+        this.revId = revId;
+        this.sequence = sequence;
+        this.timestamp = timestamp;
+    }
+
+    /**
+     * @return the document's ID
+     */
+    @NonNull
+    public String getId() { return id; }
+
+    /**
+     * @return the revision id of the document, at the time it was frozen.
+     */
+    @Nullable
+    public String getRevisionID() { return revId; }
+
+    /**
+     * @return the sequence number of the document, at the time it was frozen.
+     */
+    public long getSequence() { return sequence; }
+
+    /**
+     * @return the timestamp of the document, at the time it was frozen.
+     */
+    public long getTimestamp() { return timestamp; }
+
+    @Override
+    public boolean equals(@Nullable Object o) {
+        if (this == o) { return true; }
+        if (!(o instanceof FrozenDocument)) { return false; }
+        final FrozenDocument doc = (FrozenDocument) o;
+        return id.equals(doc.id) && Objects.equals(revId, doc.revId) && super.equals(o);
+    }
+
+    @Override
+    public int hashCode() { return (31 * id.hashCode()) + super.hashCode(); }
+
+    @NonNull
+    @Override
+    public String toString() { return "FrozenDocument{" + id + "@" + revId + ": " + super.toString() + "}"; }
+}
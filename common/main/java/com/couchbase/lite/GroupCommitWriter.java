@@ -0,0 +1,340 @@
+//
+// Copyright (c) 2020 Couchbase, Inc.
+// Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file
+// except in compliance with the License. You may obtain a copy of the License at
+// http://www.apache.org/licenses/LICENSE-2.0
+// Unless required by applicable law or agreed to in writing, software distributed under the
+// License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+// either express or implied. See the License for the specific language governing permissions
+// and limitations under the License.
+//
+package com.couchbase.lite;
+
+import androidx.annotation.GuardedBy;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import com.couchbase.lite.internal.CouchbaseLiteInternal;
+import com.couchbase.lite.internal.core.C4Document;
+import com.couchbase.lite.internal.logging.Log;
+import com.couchbase.lite.internal.utils.Preconditions;
+
+
+/**
+ * Merges asynchronous writes, submitted concurrently by any number of threads, into as few
+ * transactions as possible.  Each transaction is a single commit (and, with full sync, a single
+ * fsync) for the entire group.  A write's future is completed only after the transaction that
+ * contains it has been committed, so each caller gets exactly the durability guarantee that
+ * it would have gotten from a synchronous save.
+ * <p>
+ * A group is flushed as soon as it contains the maximum number of writes, or when the oldest write
+ * in it has waited for the maximum delay.  Writes submitted while a group is being committed
+ * simply join the next group.
+ */
+final class GroupCommitWriter implements AutoCloseable {
+    private static final LogDomain DOMAIN = LogDomain.DATABASE;
+
+    // A future that is completed by the writer.
+    // A write can be cancelled until the writer takes it from the queue, to commit it.
+    // Waiting for a write while holding the db lock (e.g., from within inBatch) would deadlock:
+    // the writer cannot commit it until the lock is released.  Instead, get throws.
+    static final class WriteFuture implements Future<Boolean> {
+        private enum State {PENDING, COMMITTING, DONE, CANCELLED}
+
+        @NonNull
+        private final Object dbLock;
+        @NonNull
+        private final CountDownLatch completed = new CountDownLatch(1);
+
+        @GuardedBy("this")
+        @NonNull
+        private State state = State.PENDING;
+        @GuardedBy("this")
+        private boolean result;
+        @GuardedBy("this")
+        @Nullable
+        private Exception error;
+
+        WriteFuture(@NonNull Object dbLock) { this.dbLock = Preconditions.assertNotNull(dbLock, "db lock"); }
+
+        @Override
+        public boolean cancel(boolean mayInterruptIfRunning) {
+            synchronized (this) {
+                if (state != State.PENDING) { return false; }
+                state = State.CANCELLED;
+            }
+            completed.countDown();
+            return true;
+        }
+
+        @Override
+        public synchronized boolean isCancelled() { return state == State.CANCELLED; }
+
+        @Override
+        public synchronized boolean isDone() { return (state == State.DONE) || (state == State.CANCELLED); }
+
+        @NonNull
+        @Override
+        public Boolean get() throws InterruptedException, ExecutionException {
+            assertNotHoldingDbLock();
+            completed.await();
+            return getResult();
+        }
+
+        @NonNull
+        @Override
+        public Boolean get(long timeout, @NonNull TimeUnit unit)
+            throws InterruptedException, ExecutionException, TimeoutException {
+            assertNotHoldingDbLock();
+            if (!completed.await(timeout, unit)) { throw new TimeoutException("Write not committed: " + this); }
+            return getResult();
+        }
+
+        // Claim the write for a commit.  Returns false if it has already been cancelled.
+        synchronized boolean start() {
+            if (state != State.PENDING) { return false; }
+            state = State.COMMITTING;
+            return true;
+        }
+
+        void succeed(boolean res) { complete(res, null); }
+
+        void fail(@NonNull Exception err) { complete(false, err); }
+
+        private void complete(boolean res, @Nullable Exception err) {
+            synchronized (this) {
+                if ((state == State.DONE) || (state == State.CANCELLED)) { return; }
+                state = State.DONE;
+                result = res;
+                error = err;
+            }
+            completed.countDown();
+        }
+
+        private synchronized boolean getResult() throws ExecutionException {
+            if (state == State.CANCELLED) { throw new CancellationException("Write cancelled"); }
+            if (error != null) { throw new ExecutionException(error); }
+            return result;
+        }
+
+        private void assertNotHoldingDbLock() {
+            if (Thread.holdsLock(dbLock) && !isDone()) {
+                throw new IllegalStateException(
+                    "Cannot wait for an asynchronous write while holding the database lock");
+            }
+        }
+    }
+
+    // A single save or delete.  The document has already been prepared and, if possible, encoded.
+    static final class Write {
+        @NonNull
+        final Collection collection;
+        @NonNull
+        final Document document;
+        @Nullable
+        final Collection.PreEncodedBody body;
+        final boolean deleting;
+        @NonNull
+        final ConcurrencyControl concurrencyControl;
+        @NonNull
+        final WriteFuture future;
+
+        Write(
+            @NonNull Collection collection,
+            @NonNull Document document,
+            @Nullable Collection.PreEncodedBody body,
+            boolean deleting,
+            @NonNull ConcurrencyControl concurrencyControl) {
+            this.collection = collection;
+            this.document = document;
+            this.body = body;
+            this.deleting = deleting;
+            this.concurrencyControl = concurrencyControl;
+            this.future = new WriteFuture(collection.getDbLock());
+        }
+
+        void succeed(boolean result) {
+            closeBody();
+            future.succeed(result);
+        }
+
+        void fail(@NonNull Exception err) {
+            closeBody();
+            future.fail(err);
+        }
+
+        // Claim the write for a commit.  If it has been cancelled, release its body and return false.
+        boolean start() {
+            if (future.start()) { return true; }
+            closeBody();
+            return false;
+        }
+
+        private void closeBody() {
+            if (body != null) { body.close(); }
+        }
+    }
+
+
+    @NonNull
+    private final AbstractDatabase db;
+
+    @NonNull
+    private final Executor executor;
+
+    private final int maxBatchSize;
+    private final long maxDelayMs;
+
+    @GuardedBy("queue")
+    @NonNull
+    private final Deque<Write> queue = new ArrayDeque<>();
+
+    @GuardedBy("queue")
+    private boolean flushScheduled;
+
+    @GuardedBy("queue")
+    private boolean closed;
+
+    GroupCommitWriter(@NonNull AbstractDatabase db, int maxBatchSize, long maxDelayMs) {
+        this.db = Preconditions.assertNotNull(db, "db");
+        this.maxBatchSize = Preconditions.assertPositive(maxBatchSize, "max batch size");
+        this.maxDelayMs = Preconditions.assertNotNegative(maxDelayMs, "max delay");
+        this.executor = CouchbaseLiteInternal.getExecutionService().getSerialExecutor();
+    }
+
+    // Queue a write.  Its future will be completed when it has been committed, or has failed.
+    void submit(@NonNull Write write) {
+        boolean rejected = false;
+        long delayMs = -1;
+        synchronized (queue) {
+            if (closed) { rejected = true; }
+            else {
+                queue.add(write);
+                if (!flushScheduled) {
+                    flushScheduled = true;
+                    delayMs = (queue.size() >= maxBatchSize) ? 0 : maxDelayMs;
+                }
+                // a delayed flush is pending but the group is already full: don't wait for it
+                else if (queue.size() == maxBatchSize) { delayMs = 0; }
+            }
+        }
+
+        if (rejected) {
+            write.fail(dbClosed());
+            return;
+        }
+
+        if (delayMs < 0) { return; }
+
+        if (delayMs == 0) { executor.execute(this::flush); }
+        else { CouchbaseLiteInternal.getExecutionService().postDelayedOnExecutor(delayMs, executor, this::flush); }
+    }
+
+    // Fail any writes that have not yet been committed.
+    // Must be called after the database has been marked closed, so that no group is committed later.
+    @Override
+    public void close() {
+        final List<Write> abandoned;
+        synchronized (queue) {
+            closed = true;
+            abandoned = new ArrayList<>(queue);
+            queue.clear();
+        }
+
+        for (Write write: abandoned) { write.fail(dbClosed()); }
+    }
+
+    private void flush() {
+        while (true) {
+            final List<Write> batch = new ArrayList<>();
+            synchronized (queue) {
+                while ((batch.size() < maxBatchSize) && (!queue.isEmpty())) {
+                    final Write write = queue.poll();
+                    if (write.start()) { batch.add(write); }
+                }
+                if (batch.isEmpty()) {
+                    flushScheduled = false;
+                    return;
+                }
+            }
+
+            commit(batch);
+        }
+    }
+
+    // Commit a group of writes in a single transaction.
+    // A conflict affects only the write that caused it.  If some write fails for any other reason,
+    // the transaction is rolled back and each of the writes is retried in a transaction of its own,
+    // so that one bad write cannot cause the others to fail.
+    private void commit(@NonNull List<Write> batch) {
+        final List<Boolean> results = new ArrayList<>(batch.size());
+        // If the transaction is rolled back, the documents that were written
+        // must not be left pointing at revisions that were never committed.
+        final List<C4Document> originals = new ArrayList<>(batch.size());
+        try {
+            synchronized (db.getDbLock()) {
+                if (!db.isOpenLocked()) { throw dbClosed(); }
+
+                boolean commit = false;
+                db.beginTransaction();
+                try {
+                    for (Write write: batch) {
+                        originals.add(write.document.getC4doc());
+                        results.add(write.collection.writeGrouped(
+                            write.document,
+                            write.body,
+                            write.deleting,
+                            write.concurrencyControl));
+                    }
+                    commit = true;
+                }
+                finally {
+                    try { db.endTransaction(commit); }
+                    finally {
+                        if (!commit) {
+                            for (int i = 0; i < originals.size(); i++) {
+                                batch.get(i).document.replaceC4Document(originals.get(i));
+                            }
+                        }
+                    }
+                }
+            }
+        }
+        catch (CouchbaseLiteException | RuntimeException e) {
+            if (batch.size() <= 1) {
+                for (Write write: batch) { write.fail(e); }
+                return;
+            }
+
+            Log.d(DOMAIN, "Group commit of %d writes failed: retrying individually", e, batch.size());
+            for (Write write: batch) {
+                final List<Write> single = new ArrayList<>(1);
+                single.add(write);
+                commit(single);
+            }
+            return;
+        }
+
+        for (int i = 0; i < batch.size(); i++) { batch.get(i).succeed(results.get(i)); }
+    }
+
+    @NonNull
+    private CouchbaseLiteException dbClosed() {
+        return new CouchbaseLiteException(
+            Log.lookupStandardMessage("DBClosedOrCollectionDeleted"),
+            CBLError.Domain.CBLITE,
+            CBLError.Code.NOT_OPEN);
+    }
+}
@@ -0,0 +1,80 @@
+//
+// Copyright (c) 2020 Couchbase, Inc.
+// Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file
+// except in compliance with the License. You may obtain a copy of the License at
+// http://www.apache.org/licenses/LICENSE-2.0
+// Unless required by applicable law or agreed to in writing, software distributed under the
+// License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+// either express or implied. See the License for the specific language governing permissions
+// and limitations under the License.
+//
+package com.couchbase.lite;
+
+import androidx.annotation.NonNull;
+
+import com.couchbase.lite.internal.utils.Preconditions;
+
+
+/**
+ * Options for Collection.importJson.
+ */
+public final class ImportOptions {
+    /**
+     * The default name of the property that contains a document's id.
+     */
+    public static final String DEFAULT_ID_FIELD = "_id";
+
+    /**
+     * The default maximum number of documents imported in a single transaction.
+     */
+    public static final int DEFAULT_BATCH_SIZE = 1000;
+
+    @NonNull
+    private String idField = DEFAULT_ID_FIELD;
+    private int batchSize = DEFAULT_BATCH_SIZE;
+
+    public ImportOptions() { }
+
+    public ImportOptions(@NonNull ImportOptions options) {
+        Preconditions.assertNotNull(options, "options");
+        this.idField = options.idField;
+        this.batchSize = options.batchSize;
+    }
+
+    /**
+     * Set the name of the top-level property whose value is the id of the document.
+     * The property must be a non-empty string. It is not copied into the document's properties.
+     *
+     * @param idField the name of the property that contains the document id
+     * @return this
+     */
+    @NonNull
+    public ImportOptions setIdField(@NonNull String idField) {
+        this.idField = Preconditions.assertNotEmpty(idField, "idField");
+        return this;
+    }
+
+    /**
+     * Set the maximum number of documents imported in a single transaction.
+     * Larger batches make the import faster but hold the database lock for longer.
+     *
+     * @param batchSize the maximum number of documents in a transaction
+     * @return this
+     */
+    @NonNull
+    public ImportOptions setBatchSize(int batchSize) {
+        this.batchSize = Preconditions.assertPositive(batchSize, "batchSize");
+        return this;
+    }
+
+    /**
+     * @return the name of the property that contains the document id
+     */
+    @NonNull
+    public String getIdField() { return idField; }
+
+    /**
+     * @return the maximum number of documents imported in a single transaction
+     */
+    public int getBatchSize() { return batchSize; }
+}
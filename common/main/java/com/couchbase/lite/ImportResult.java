@@ -0,0 +1,111 @@
+//
+// Copyright (c) 2020 Couchbase, Inc.
+// Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file
+// except in compliance with the License. You may obtain a copy of the License at
+// http://www.apache.org/licenses/LICENSE-2.0
+// Unless required by applicable law or agreed to in writing, software distributed under the
+// License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+// either express or implied. See the License for the specific language governing permissions
+// and limitations under the License.
+//
+package com.couchbase.lite;
+
+import androidx.annotation.NonNull;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+
+/**
+ * The outcome of a call to Collection.importJson.
+ */
+public final class ImportResult {
+    /**
+     * A line that could not be imported.
+     */
+    public static final class LineError {
+        private final long line;
+        @NonNull
+        private final String message;
+
+        LineError(long line, @NonNull String message) {
+            this.line = line;
+            this.message = message;
+        }
+
+        /**
+         * @return the line number, counting from 1
+         */
+        public long getLine() { return line; }
+
+        /**
+         * @return a description of the problem with the line
+         */
+        @NonNull
+        public String getMessage() { return message; }
+
+        @NonNull
+        @Override
+        public String toString() { return "line " + line + ": " + message; }
+    }
+
+
+    private final long lineCount;
+    private final long importedCount;
+    private final long errorCount;
+    @NonNull
+    private final List<LineError> errors;
+    private final long elapsedMs;
+
+    ImportResult(long lineCount, long importedCount, long errorCount, @NonNull List<LineError> errors, long elapsedMs) {
+        this.lineCount = lineCount;
+        this.importedCount = importedCount;
+        this.errorCount = errorCount;
+        this.errors = Collections.unmodifiableList(new ArrayList<>(errors));
+        this.elapsedMs = elapsedMs;
+    }
+
+    /**
+     * @return the number of non-blank lines read
+     */
+    public long getLineCount() { return lineCount; }
+
+    /**
+     * @return the number of documents imported
+     */
+    public long getImportedCount() { return importedCount; }
+
+    /**
+     * @return the number of lines that could not be imported
+     */
+    public long getErrorCount() { return errorCount; }
+
+    /**
+     * The lines that could not be imported.  To limit memory use, only the first
+     * few errors are kept: this list may be shorter than the error count.
+     *
+     * @return the first of the lines that could not be imported
+     */
+    @NonNull
+    public List<LineError> getErrors() { return errors; }
+
+    /**
+     * @return the duration of the import, in milliseconds
+     */
+    public long getElapsedMs() { return elapsedMs; }
+
+    /**
+     * @return the number of documents imported per second
+     */
+    public double getDocumentsPerSecond() {
+        return (elapsedMs <= 0) ? 0.0 : (importedCount * 1000.0) / elapsedMs;
+    }
+
+    @NonNull
+    @Override
+    public String toString() {
+        return "ImportResult{" + importedCount + "/" + lineCount + " lines, " + errorCount + " errors, "
+            + elapsedMs + "ms}";
+    }
+}
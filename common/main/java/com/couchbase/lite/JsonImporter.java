@@ -0,0 +1,179 @@
+//
+// Copyright (c) 2020 Couchbase, Inc.
+// Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file
+// except in compliance with the License. You may obtain a copy of the License at
+// http://www.apache.org/licenses/LICENSE-2.0
+// Unless required by applicable law or agreed to in writing, software distributed under the
+// License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+// either express or implied. See the License for the specific language governing permissions
+// and limitations under the License.
+//
+package com.couchbase.lite;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.VisibleForTesting;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import com.couchbase.lite.internal.logging.Log;
+import com.couchbase.lite.internal.utils.Preconditions;
+
+
+/**
+ * Imports a stream of newline-delimited JSON objects into a collection.
+ * <p>
+ * The stream is read, as raw bytes, into a buffer.  Each complete line in the buffer is passed,
+ * as a pair of offsets into the buffer, to LiteCore, which converts the JSON directly to Fleece.
+ * No Java String, Map or List is ever created for a document.  A batch of lines is imported in
+ * a single transaction; it is flushed when it reaches the batch size or when the buffer is full.
+ */
+final class JsonImporter {
+    private static final LogDomain DOMAIN = LogDomain.DATABASE;
+
+    @VisibleForTesting
+    static final int BUFFER_SIZE = 4 * 1024 * 1024;
+
+    @VisibleForTesting
+    static final int MAX_REPORTED_ERRORS = 1000;
+
+    private static final byte[] UTF8_BOM = {(byte) 0xEF, (byte) 0xBB, (byte) 0xBF};
+
+    @NonNull
+    private final Collection collection;
+    @NonNull
+    private final String idField;
+    private final int batchSize;
+
+    // The current batch: the offsets, in buf, of its lines, and their line numbers
+    @NonNull
+    private final int[] starts;
+    @NonNull
+    private final int[] ends;
+    @NonNull
+    private final long[] lineNumbers;
+    private int batchCount;
+
+    @NonNull
+    private final List<ImportResult.LineError> errors = new ArrayList<>();
+    private long lineCount;
+    private long importedCount;
+    private long errorCount;
+
+    @NonNull
+    private byte[] buf = new byte[BUFFER_SIZE];
+
+    JsonImporter(@NonNull Collection collection, @NonNull ImportOptions options) {
+        this.collection = Preconditions.assertNotNull(collection, "collection");
+        this.idField = options.getIdField();
+        this.batchSize = options.getBatchSize();
+        this.starts = new int[batchSize];
+        this.ends = new int[batchSize];
+        this.lineNumbers = new long[batchSize];
+    }
+
+    @NonNull
+    ImportResult importFrom(@NonNull InputStream in) throws CouchbaseLiteException {
+        final long startMs = System.currentTimeMillis();
+
+        // buf[0..len) contains valid data: buf[lineStart..len) is an incomplete line
+        int len = 0;
+        int lineStart = 0;
+        long lineNumber = 0;
+        boolean firstRead = true;
+        while (true) {
+            if (len >= buf.length) {
+                if (lineStart > 0) {
+                    // the lines before lineStart are no longer needed
+                    flush();
+                    System.arraycopy(buf, lineStart, buf, 0, len - lineStart);
+                    len -= lineStart;
+                    lineStart = 0;
+                }
+                // a single line is bigger than the buffer
+                else { buf = Arrays.copyOf(buf, buf.length * 2); }
+            }
+
+            final int n = read(in, len);
+            if (n < 0) { break; }
+
+            final int end = len + n;
+            if (firstRead) {
+                firstRead = false;
+                if (startsWithBom(end)) { lineStart = UTF8_BOM.length; }
+            }
+
+            for (int i = len; i < end; i++) {
+                if (buf[i] != '\n') { continue; }
+                addLine(lineStart, i, ++lineNumber);
+                lineStart = i + 1;
+            }
+            len = end;
+        }
+
+        // the last line need not end with a newline
+        if (lineStart < len) { addLine(lineStart, len, ++lineNumber); }
+        flush();
+
+        final ImportResult result
+            = new ImportResult(lineCount, importedCount, errorCount, errors, System.currentTimeMillis() - startMs);
+        Log.d(DOMAIN, "Imported JSON into %s: %s", collection, result);
+        return result;
+    }
+
+    private int read(@NonNull InputStream in, int offset) throws CouchbaseLiteException {
+        try { return in.read(buf, offset, buf.length - offset); }
+        catch (IOException e) {
+            throw new CouchbaseLiteException("Failed reading JSON", e, CBLError.Domain.CBLITE, CBLError.Code.IO_ERROR);
+        }
+    }
+
+    private boolean startsWithBom(int len) {
+        if (len < UTF8_BOM.length) { return false; }
+        for (int i = 0; i < UTF8_BOM.length; i++) {
+            if (buf[i] != UTF8_BOM[i]) { return false; }
+        }
+        return true;
+    }
+
+    // Add the line buf[start..end) to the batch, unless it is blank
+    private void addLine(int start, int end, long lineNumber) throws CouchbaseLiteException {
+        while ((end > start) && isWhitespace(buf[end - 1])) { end--; }
+        while ((start < end) && isWhitespace(buf[start])) { start++; }
+        if (start >= end) { return; }
+
+        lineCount++;
+        starts[batchCount] = start;
+        ends[batchCount] = end;
+        lineNumbers[batchCount] = lineNumber;
+        if (++batchCount >= batchSize) { flush(); }
+    }
+
+    private void flush() throws CouchbaseLiteException {
+        if (batchCount <= 0) { return; }
+
+        final String[] results = collection.importJsonLines(
+            buf,
+            Arrays.copyOf(starts, batchCount),
+            Arrays.copyOf(ends, batchCount),
+            idField);
+
+        for (int i = 0; i < batchCount; i++) {
+            final String err = results[i];
+            if (err == null) {
+                importedCount++;
+                continue;
+            }
+
+            errorCount++;
+            if (errors.size() < MAX_REPORTED_ERRORS) { errors.add(new ImportResult.LineError(lineNumbers[i], err)); }
+        }
+
+        batchCount = 0;
+    }
+
+    private static boolean isWhitespace(byte b) { return (b == ' ') || (b == '\t') || (b == '\r') || (b == '\n'); }
+}
@@ -25,10 +25,13 @@ import java.util.List;
 import org.json.JSONArray;
 import org.json.JSONException;
 
+import com.couchbase.lite.internal.fleece.FLArray;
+import com.couchbase.lite.internal.fleece.FLValue;
 import com.couchbase.lite.internal.fleece.MArray;
 import com.couchbase.lite.internal.fleece.MCollection;
 import com.couchbase.lite.internal.fleece.MValue;
 import com.couchbase.lite.internal.utils.JSONUtils;
+import com.couchbase.lite.internal.utils.Preconditions;
 
 
 /**
@@ -101,10 +104,22 @@ public final class MutableArray extends Array implements MutableArrayInterface {
      * @param json the dictionary object.
      * @return this Document instance
      */
-    // ??? This is a ridiculously expensive way to do this...
     @NonNull
     @Override
     public MutableArray setJSON(@NonNull String json) {
+        // The values are left as Fleece: they are converted to Java objects only if they are read.
+        final MValue root = parseJSON(json, FLValue.ARRAY);
+        if (root != null) {
+            final FLArray array = Preconditions.assertNotNull(root.getFLValue(), "root").asFLArray();
+            final Object backingStore = root.getBackingStore();
+            final long n = array.count();
+            synchronized (lock) {
+                contents.clear();
+                for (long i = 0; i < n; i++) { contents.appendMValue(new MValue(array.get(i), backingStore)); }
+            }
+            return this;
+        }
+
         synchronized (lock) {
             try { setData(JSONUtils.fromJSON(new JSONArray(json))); }
             catch (JSONException e) { throw new IllegalArgumentException("Failed parsing JSON", e); }
@@ -25,6 +25,9 @@ import java.util.Map;
 import org.json.JSONException;
 import org.json.JSONObject;
 
+import com.couchbase.lite.internal.fleece.FLDict;
+import com.couchbase.lite.internal.fleece.FLDictIterator;
+import com.couchbase.lite.internal.fleece.FLValue;
 import com.couchbase.lite.internal.fleece.MCollection;
 import com.couchbase.lite.internal.fleece.MDict;
 import com.couchbase.lite.internal.fleece.MValue;
@@ -103,10 +106,15 @@ public final class MutableDictionary extends Dictionary implements MutableDictio
      * @param json the dictionary object.
      * @return this Document instance
      */
-    // ??? This is a ridiculously expensive way to do this...
     @NonNull
     @Override
     public MutableDictionary setJSON(@NonNull String json) {
+        final MValue root = parseJSON(json, FLValue.DICT);
+        if (root != null) {
+            setFleece(root);
+            return this;
+        }
+
         synchronized (lock) {
             try { setData(JSONUtils.fromJSON(new JSONObject(json))); }
             catch (JSONException e) { throw new IllegalArgumentException("Failed parsing JSON", e); }
@@ -303,4 +311,21 @@ public final class MutableDictionary extends Dictionary implements MutableDictio
     boolean isChanged() {
         synchronized (lock) { return contents.isMutated(); }
     }
+
+    // Replace the content of this dictionary with that of a Fleece dictionary.
+    // The values are left as Fleece: they are converted to Java objects only if they are read.
+    void setFleece(@NonNull MValue root) {
+        final FLDict dict = Preconditions.assertNotNull(root.getFLValue(), "root").asFLDict();
+        final Object backingStore = root.getBackingStore();
+        synchronized (lock) {
+            contents.clear();
+            try (FLDictIterator itr = dict.iterator()) {
+                String key;
+                while ((key = itr.getKey()) != null) {
+                    contents.set(key, new MValue(itr.getValue(), backingStore));
+                    itr.next();
+                }
+            }
+        }
+    }
 }
@@ -24,6 +24,10 @@ import java.util.Map;
 import java.util.UUID;
 
 import com.couchbase.lite.internal.core.C4Document;
+import com.couchbase.lite.internal.fleece.FLSliceResult;
+import com.couchbase.lite.internal.fleece.FLValue;
+import com.couchbase.lite.internal.fleece.MValue;
+import com.couchbase.lite.internal.utils.Preconditions;
 
 
 /**
@@ -341,6 +345,35 @@ public final class MutableDocument extends Document implements MutableDictionary
     @Override
     public MutableDictionary getDictionary(@NonNull String key) { return getMutableContent().getDictionary(key); }
 
+    /**
+     * Apply a JSON delta, created by Document.createDelta, to the content of this document.
+     * The delta is applied natively, to the document's Fleece content.
+     * Blobs in the result are loaded from this document's database: a blob that
+     * has not yet been saved loses its content.
+     *
+     * @param delta the JSON delta
+     * @return this MutableDocument instance
+     * @throws IllegalArgumentException if the delta is invalid or cannot be applied to this document.
+     */
+    @NonNull
+    public MutableDocument applyDelta(@NonNull String delta) {
+        Preconditions.assertNotNull(delta, "delta");
+
+        final FLSliceResult fleece;
+        try { fleece = applyDeltaToContent(delta); }
+        catch (LiteCoreException e) { throw new IllegalArgumentException("Failed applying delta", e); }
+
+        final FLValue root = FLValue.fromData(fleece);
+        if ((root == null) || (root.getType() != FLValue.DICT)) {
+            fleece.close();
+            throw new IllegalArgumentException("Delta does not produce a dictionary");
+        }
+
+        // the new content is backed by the slice
+        getMutableContent().setFleece(new MValue(root, fleece));
+        return this;
+    }
+
     /**
      * Unimplemented: Mutable objects may not be encoded as JSON
      *
@@ -357,4 +390,16 @@ public final class MutableDocument extends Document implements MutableDictionary
 
     @NonNull
     private MutableDictionary getMutableContent() { return (MutableDictionary) getContent(); }
+
+    // If the content is unchanged, apply the delta to its Fleece in place.
+    @NonNull
+    private FLSliceResult applyDeltaToContent(@NonNull String delta) throws LiteCoreException {
+        final Dictionary content = getContent();
+        synchronized (content.lock) {
+            final FLValue value = content.getUnmodifiedFLValue();
+            if (value != null) { return value.applyJSONDelta(delta); }
+        }
+
+        try (FLSliceResult fleece = encodeContent()) { return getRoot(fleece).applyJSONDelta(delta); }
+    }
 }
@@ -18,7 +18,7 @@ package com.couchbase.lite;
 import androidx.annotation.GuardedBy;
 import androidx.annotation.NonNull;
 
-import com.couchbase.lite.internal.core.C4Query;
+import com.couchbase.lite.internal.QueryLanguage;
 import com.couchbase.lite.internal.logging.Log;
 import com.couchbase.lite.internal.utils.ClassUtils;
 import com.couchbase.lite.internal.utils.Preconditions;
@@ -44,13 +44,17 @@ final class N1qlQuery extends AbstractQuery {
     @Override
     protected AbstractDatabase getDatabase() { return db; }
 
+    @NonNull
+    @Override
+    protected QueryLanguage getQueryLanguage() { return QueryLanguage.N1QL; }
+
     @GuardedBy("AbstractQuery.lock")
     @NonNull
     @Override
-    protected C4Query prepQueryLocked(@NonNull AbstractDatabase db) throws CouchbaseLiteException {
+    protected String getQueryTextLocked() throws CouchbaseLiteException {
         Log.d(DOMAIN, "N1QL query: %s", n1ql);
         if (StringUtils.isEmpty(n1ql)) { throw new CouchbaseLiteException("Query is null or empty."); }
-        try { return db.createN1qlQuery(n1ql); }
-        catch (LiteCoreException e) { throw CouchbaseLiteException.convertException(e); }
+        // Leading and trailing whitespace is not significant: ignore it, when looking for a cached query
+        return n1ql.trim();
     }
 }
@@ -0,0 +1,135 @@
+//
+// Copyright (c) 2020 Couchbase, Inc.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+package com.couchbase.lite;
+
+import androidx.annotation.NonNull;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.couchbase.lite.internal.core.C4Query;
+import com.couchbase.lite.internal.core.C4QueryEnumerator;
+import com.couchbase.lite.internal.utils.Preconditions;
+
+
+/**
+ * A compiled query, with a fixed list of named parameters, created by Query.prepare.
+ * <p>
+ * A PreparedQuery is immutable: it may be executed by any number of threads, concurrently.
+ * Each execution gets its parameter values from a Bindings object, created by newBindings.
+ * A PreparedQuery holds no parameter values of its own, and it is not affected by
+ * Query.setParameters.
+ * <p>
+ * A PreparedQuery is compiled for the state of the database when it was prepared.  If an index is
+ * created or deleted afterwards, prepare the query again to take advantage of the change.
+ */
+public final class PreparedQuery {
+    //---------------------------------------------
+    // member variables
+    //---------------------------------------------
+
+    @NonNull
+    private final AbstractDatabase db;
+    @NonNull
+    private final C4Query c4query;
+    @NonNull
+    private final Map<String, Integer> columnNames;
+    @NonNull
+    private final List<String> parameterNames;
+
+    //---------------------------------------------
+    // constructors
+    //---------------------------------------------
+
+    PreparedQuery(
+        @NonNull AbstractDatabase db,
+        @NonNull C4Query c4query,
+        @NonNull Map<String, Integer> columnNames,
+        @NonNull List<String> parameterNames) {
+        this.db = Preconditions.assertNotNull(db, "database");
+        this.c4query = Preconditions.assertNotNull(c4query, "query");
+        this.columnNames = Collections.unmodifiableMap(new HashMap<>(columnNames));
+        this.parameterNames = Collections.unmodifiableList(new ArrayList<>(parameterNames));
+    }
+
+    //---------------------------------------------
+    // API - public methods
+    //---------------------------------------------
+
+    /**
+     * @return the names of the query's parameters, in slot order.
+     */
+    @NonNull
+    public List<String> getParameterNames() { return parameterNames; }
+
+    /**
+     * Get the slot for the named parameter.
+     *
+     * @param name the name of the parameter, without the leading '$'.
+     * @return the index of the parameter's slot, or -1 if the query has no parameter with the name.
+     */
+    public int getSlot(@NonNull String name) { return parameterNames.indexOf(name); }
+
+    /**
+     * Create a new, empty, set of parameter values for this query.
+     *
+     * @return new Bindings, in which all slots are unbound.
+     */
+    @NonNull
+    public Bindings newBindings() { return new Bindings(this, parameterNames); }
+
+    /**
+     * Execute the query with no parameter values.
+     *
+     * @return the ResultSet for the query result.
+     * @throws CouchbaseLiteException if there is an error when running the query.
+     */
+    @NonNull
+    public ResultSet execute() throws CouchbaseLiteException {
+        try (Bindings bindings = newBindings()) { return execute(bindings); }
+    }
+
+    /**
+     * Execute the query with the given parameter values.
+     * The bindings may be changed, or used again, as soon as this method returns.
+     *
+     * @param bindings the parameter values: they must have been created by this query's newBindings method.
+     * @return the ResultSet for the query result.
+     * @throws CouchbaseLiteException if there is an error when running the query.
+     */
+    @NonNull
+    public ResultSet execute(@NonNull Bindings bindings) throws CouchbaseLiteException {
+        Preconditions.assertNotNull(bindings, "bindings");
+        if (!bindings.isFor(this)) {
+            throw new IllegalArgumentException("Bindings were not created by this query: " + bindings);
+        }
+
+        final C4QueryEnumerator c4enum;
+        try {
+            synchronized (db.getDbLock()) { c4enum = c4query.run(bindings.getEncodedParameters()); }
+        }
+        catch (LiteCoreException e) { throw CouchbaseLiteException.convertException(e); }
+
+        return new ResultSet(db, c4enum, columnNames);
+    }
+
+    @NonNull
+    @Override
+    public String toString() { return "PreparedQuery{" + parameterNames + "}"; }
+}
@@ -58,6 +58,22 @@ public interface Query {
     @NonNull
     ResultSet execute() throws CouchbaseLiteException;
 
+    /**
+     * Compile the query, for repeated execution with different parameter values.
+     * The returned PreparedQuery is immutable and may be shared by any number of threads:
+     * each execution gets its parameter values from a Bindings object.
+     *
+     * @param parameterNames the names of the query's parameters, without the leading '$'.
+     *                       The index of a name in this list is its slot in the query's Bindings.
+     * @return a PreparedQuery for the query.
+     * @throws CouchbaseLiteException if the query cannot be compiled.
+     * @throws UnsupportedOperationException if this query cannot be prepared.
+     */
+    @NonNull
+    default PreparedQuery prepare(@NonNull String... parameterNames) throws CouchbaseLiteException {
+        throw new UnsupportedOperationException("This query cannot be prepared: " + this);
+    }
+
     /**
      * Returns a string describing the implementation of the compiled query.
      * This is intended to be read by a developer for purposes of optimizing the query, especially
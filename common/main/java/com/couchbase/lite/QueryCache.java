@@ -0,0 +1,152 @@
+//
+// Copyright (c) 2020 Couchbase, Inc.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+package com.couchbase.lite;
+
+import androidx.annotation.GuardedBy;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.couchbase.lite.internal.core.C4Query;
+import com.couchbase.lite.internal.utils.Preconditions;
+
+
+/**
+ * An LRU cache of compiled queries, shared by all of the Query objects for a single Database object.
+ * <p>
+ * Queries are keyed by their language and text: two Query objects with the same key share a single
+ * C4Query.  Since it is shared, a cached C4Query is used only to run and explain its query:
+ * a Query that must set parameters on its C4Query (e.g., a live query) compiles a private copy.
+ * Evicting a query only drops the cache's reference to it: the C4Query is freed, as usual,
+ * when it is no longer reachable from any Query.
+ * <p>
+ * Creating or deleting an index or a collection may change the way a query is compiled.
+ * Those operations invalidate the entire cache.
+ */
+final class QueryCache {
+    static final class Entry {
+        @NonNull
+        final C4Query c4query;
+        @NonNull
+        final Map<String, Integer> columnNames;
+
+        Entry(@NonNull C4Query c4query, @NonNull Map<String, Integer> columnNames) {
+            this.c4query = c4query;
+            this.columnNames = Collections.unmodifiableMap(new HashMap<>(columnNames));
+        }
+    }
+
+
+    @GuardedBy("entries")
+    @NonNull
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(16, 0.75F, true);
+
+    @GuardedBy("entries")
+    private int maxQueries;
+
+    // Incremented by every invalidation.  A query compiled before an
+    // invalidation may be out of date: it must not be cached.
+    @GuardedBy("entries")
+    private long generation;
+
+    @NonNull
+    private final AtomicLong hits = new AtomicLong();
+    @NonNull
+    private final AtomicLong misses = new AtomicLong();
+    @NonNull
+    private final AtomicLong compileTimeNs = new AtomicLong();
+
+    QueryCache(int maxQueries) { this.maxQueries = Preconditions.assertNotNegative(maxQueries, "max queries"); }
+
+    void setMaxQueries(int maxQueries) {
+        Preconditions.assertNotNegative(maxQueries, "max queries");
+        synchronized (entries) {
+            this.maxQueries = maxQueries;
+            trimLocked();
+        }
+    }
+
+    // A Query need not look in a disabled cache.
+    boolean isEnabled() {
+        synchronized (entries) { return maxQueries > 0; }
+    }
+
+    // Returns null if the query is not in the cache.
+    @Nullable
+    Entry get(@NonNull String key) {
+        final Entry entry;
+        synchronized (entries) { entry = entries.get(key); }
+
+        if (entry == null) {
+            misses.incrementAndGet();
+            return null;
+        }
+
+        hits.incrementAndGet();
+        return entry;
+    }
+
+    // Call this before compiling a query that is to be cached: pass the result to put()
+    long getGeneration() {
+        synchronized (entries) { return generation; }
+    }
+
+    // True if nothing has been invalidated since the generation was read.
+    boolean isCurrent(long readGeneration) {
+        synchronized (entries) { return generation == readGeneration; }
+    }
+
+    // Cache a compiled query, unless the cache is disabled or something has been invalidated
+    // since the generation was read.  Returns true if the query was cached.
+    boolean put(@NonNull String key, @NonNull Entry entry, long readGeneration) {
+        synchronized (entries) {
+            if ((maxQueries <= 0) || (generation != readGeneration)) { return false; }
+            entries.put(key, entry);
+            trimLocked();
+            return true;
+        }
+    }
+
+    void invalidate() {
+        synchronized (entries) {
+            generation++;
+            entries.clear();
+        }
+    }
+
+    void recordCompileTime(long nanos) { compileTimeNs.addAndGet(nanos); }
+
+    long getHits() { return hits.get(); }
+
+    long getMisses() { return misses.get(); }
+
+    long getCompileTimeNs() { return compileTimeNs.get(); }
+
+    @GuardedBy("entries")
+    private void trimLocked() {
+        final Iterator<Entry> lru = entries.values().iterator();
+        while ((entries.size() > maxQueries) && lru.hasNext()) {
+            lru.next();
+            lru.remove();
+        }
+    }
+}
@@ -27,8 +27,6 @@ import java.util.List;
 import java.util.Map;
 
 import com.couchbase.lite.internal.BaseJFleeceCollection;
-import com.couchbase.lite.internal.core.C4QueryEnumerator;
-import com.couchbase.lite.internal.fleece.FLArrayIterator;
 import com.couchbase.lite.internal.fleece.FLEncoder;
 import com.couchbase.lite.internal.fleece.FLValue;
 import com.couchbase.lite.internal.fleece.JSONEncodable;
@@ -61,10 +59,12 @@ public final class Result
     //---------------------------------------------
     // constructors
     //---------------------------------------------
-    Result(@NonNull ResultContext context, @NonNull C4QueryEnumerator c4enum) {
+    // Create a result from a row read by C4QueryEnumerator.nextRows.
+    // The row begins at offset: its missing columns bitmap followed by a handle for each of its columns.
+    Result(@NonNull ResultContext context, @NonNull long[] rows, int offset) {
         this.context = context;
-        this.values = extractColumns(c4enum.getColumns());
-        this.missingColumns = c4enum.getMissingColumns();
+        this.missingColumns = rows[offset];
+        this.values = extractColumns(rows, offset + 1);
     }
 
     //---------------------------------------------
@@ -467,15 +467,13 @@ public final class Result
     public Map<String, Object> toMap() {
         assertOpen();
         final int n = values.size();
+        // Convert all the columns with a single JNI call
+        final List<Object> javaValues = FLValue.toJava(values, context.getSharedKeys());
         final Map<String, Object> map = new HashMap<>(n);
         for (String key: getColumnNames()) {
             final int i = getIndexForKey(key);
             if ((i < 0) || (i >= n)) { continue; }
-            Object obj = values.get(i).toJava();
-            if (obj instanceof AbstractJFleeceCollection<?>) {
-                obj = toJFleeceCollection((AbstractJFleeceCollection<?>) obj);
-            }
-            map.put(key, obj);
+            map.put(key, javaValues.get(i));
         }
         return map;
     }
@@ -532,6 +530,8 @@ public final class Result
     @NonNull
     List<String> getColumnNames() { return context.getResultSet().getColumnNames(); }
 
+    boolean isMissing(int index) { return (index < 64) && ((missingColumns & (1L << index)) != 0); }
+
     int getIndexForKey(String key) {
         final int index = context.getResultSet().getColumnIndex(Preconditions.assertNotNull(key, "key"));
         if (index < 0) { return -1; }
@@ -549,7 +549,8 @@ public final class Result
     private Object getFleeceAt(int index) {
         final FLValue value = getFLValueAt(index);
         if (value == null) { return null; }
-        synchronized (Preconditions.assertNotNull(context.getDatabase(), "db").getDbLock()) {
+        final Object lock = context.getLock();
+        synchronized ((lock != null) ? lock : Preconditions.assertNotNull(context.getDatabase(), "db").getDbLock()) {
             return new MRoot(context, value, false).toJFleece();
         }
     }
@@ -561,10 +562,13 @@ public final class Result
     }
 
     @NonNull
-    private List<FLValue> extractColumns(@NonNull FLArrayIterator columns) {
+    private List<FLValue> extractColumns(@NonNull long[] rows, int offset) {
         final int n = getColumnCount();
         final List<FLValue> values = new ArrayList<>(n);
-        for (int i = 0; i < n; i++) { values.add(columns.getValueAt(i)); }
+        for (int i = 0; i < n; i++) {
+            final long hdl = rows[offset + i];
+            values.add((hdl == 0L) ? null : FLValue.getFLValue(hdl));
+        }
         return values;
     }
 
@@ -19,6 +19,7 @@ import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 
 import com.couchbase.lite.internal.DbContext;
+import com.couchbase.lite.internal.fleece.FLSharedKeys;
 import com.couchbase.lite.internal.utils.Internal;
 
 
@@ -26,10 +27,26 @@ import com.couchbase.lite.internal.utils.Internal;
 public class ResultContext extends DbContext {
     @NonNull
     private final ResultSet rs;
+    @Nullable
+    private final FLSharedKeys sharedKeys;
+    @Nullable
+    private final Object lock;
 
     public ResultContext(@Nullable AbstractDatabase db, @NonNull ResultSet rs) {
+        this(db, rs, (db == null) ? null : db.getSharedKeys(), null);
+    }
+
+    // Results from a query that ran on a read-only connection use that connection's
+    // shared keys and are guarded by that connection's lock, not the database lock.
+    public ResultContext(
+        @Nullable AbstractDatabase db,
+        @NonNull ResultSet rs,
+        @Nullable FLSharedKeys sharedKeys,
+        @Nullable Object lock) {
         super(db);
         this.rs = rs;
+        this.sharedKeys = sharedKeys;
+        this.lock = lock;
     }
 
     @Override
@@ -39,6 +56,14 @@ public class ResultContext extends DbContext {
     @Override
     public boolean isClosed() { return rs.isClosed(); }
 
+    @Override
+    @Nullable
+    public FLSharedKeys getSharedKeys() { return sharedKeys; }
+
+    @Override
+    @Nullable
+    public Object getLock() { return lock; }
+
     @NonNull
     public ResultSet getResultSet() { return rs; }
 }
@@ -19,15 +19,23 @@ package com.couchbase.lite;
 import androidx.annotation.GuardedBy;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
+import androidx.annotation.RequiresApi;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 import com.couchbase.lite.internal.core.C4QueryEnumerator;
+import com.couchbase.lite.internal.core.C4ReadConnectionPool;
 import com.couchbase.lite.internal.logging.Log;
 import com.couchbase.lite.internal.utils.Preconditions;
 
@@ -52,11 +60,43 @@ import com.couchbase.lite.internal.utils.Preconditions;
  * </code>
  */
 public class ResultSet implements Iterable<Result>, AutoCloseable {
+    //---------------------------------------------
+    // Types
+    //---------------------------------------------
+
+    // An iterator that pulls rows from the enumerator as they are needed.
+    private final class ResultIterator implements Iterator<Result> {
+        @Nullable
+        private Result nextResult;
+        private boolean done;
+
+        @Override
+        public boolean hasNext() {
+            if ((nextResult == null) && (!done)) {
+                nextResult = ResultSet.this.next();
+                done = nextResult == null;
+            }
+            return nextResult != null;
+        }
+
+        @NonNull
+        @Override
+        public Result next() {
+            if (!hasNext()) { throw new NoSuchElementException("No more results"); }
+            final Result result = nextResult;
+            nextResult = null;
+            return result;
+        }
+    }
+
     //---------------------------------------------
     // static variables
     //---------------------------------------------
     private static final LogDomain DOMAIN = LogDomain.QUERY;
 
+    // The default number of rows fetched from LiteCore with each native call.
+    static final int DEFAULT_PREFETCH_ROWS = 256;
+
     //---------------------------------------------
     // member variables
     //---------------------------------------------
@@ -68,6 +108,9 @@ public class ResultSet implements Iterable<Result>, AutoCloseable {
     private final Map<String, Integer> columnNames;
     @NonNull
     private final ResultContext context;
+    // The lock that guards the connection on which the query ran, if it was not the database's main connection
+    @Nullable
+    private final Object readConnectionLock;
 
     @GuardedBy("lock")
     @Nullable
@@ -76,6 +119,18 @@ public class ResultSet implements Iterable<Result>, AutoCloseable {
     @GuardedBy("lock")
     private boolean isAllEnumerated;
 
+    // Rows are fetched from the enumerator in blocks, to amortize the cost of the JNI calls.
+    // See C4QueryEnumerator.nextRows for the layout of the buffer.
+    @GuardedBy("lock")
+    private int prefetchRows = DEFAULT_PREFETCH_ROWS;
+    @GuardedBy("lock")
+    @NonNull
+    private long[] rowBuffer = new long[0];
+    @GuardedBy("lock")
+    private int bufferedRows;
+    @GuardedBy("lock")
+    private int nextRow;
+
     //---------------------------------------------
     // constructors
     //---------------------------------------------
@@ -87,6 +142,20 @@ public class ResultSet implements Iterable<Result>, AutoCloseable {
         @NonNull Map<String, Integer> cols) {
         this.columnNames = Collections.unmodifiableMap(new HashMap<>(Preconditions.assertNotNull(cols, "columns")));
         this.context = new ResultContext(database, this);
+        this.readConnectionLock = null;
+        this.c4enum = c4enum;
+    }
+
+    // The results of a query that ran on one of the database's read-only connections.
+    // The connection may be in use by another thread: the enumerator is closed holding its lock.
+    ResultSet(
+        @NonNull AbstractDatabase database,
+        @Nullable C4QueryEnumerator c4enum,
+        @NonNull Map<String, Integer> cols,
+        @NonNull C4ReadConnectionPool.Connection reader) {
+        this.columnNames = Collections.unmodifiableMap(new HashMap<>(Preconditions.assertNotNull(cols, "columns")));
+        this.readConnectionLock = reader.getLock();
+        this.context = new ResultContext(database, this, reader.getSharedKeys(), readConnectionLock);
         this.c4enum = c4enum;
     }
 
@@ -110,13 +179,19 @@ public class ResultSet implements Iterable<Result>, AutoCloseable {
         synchronized (lock) {
             if ((c4enum == null) || (isAllEnumerated)) { return null; }
 
+            final int stride = getColumnCount() + 1;
             try {
-                if (!c4enum.next()) {
-                    isAllEnumerated = true;
-                    return null;
+                if (nextRow >= bufferedRows) {
+                    if (rowBuffer.length < prefetchRows * stride) { rowBuffer = new long[prefetchRows * stride]; }
+                    bufferedRows = c4enum.nextRows(prefetchRows, getColumnCount(), rowBuffer);
+                    nextRow = 0;
+                    if (bufferedRows <= 0) {
+                        isAllEnumerated = true;
+                        return null;
+                    }
                 }
 
-                return new Result(context, c4enum);
+                return new Result(context, rowBuffer, stride * nextRow++);
             }
             catch (LiteCoreException e) { err = e; }
         }
@@ -143,6 +218,8 @@ public class ResultSet implements Iterable<Result>, AutoCloseable {
 
     /**
      * Return Iterator of Results.
+     * The iterator fetches each row only when it is needed: iterating over a very large result set
+     * does not require memory for all of its rows.
      * <p>Caution:  {@link ResultSet#next}, {@link ResultSet#allResults} and {@link ResultSet#iterator}
      * method share same data structure. They cannot be used together.</p>
      *
@@ -150,7 +227,61 @@ public class ResultSet implements Iterable<Result>, AutoCloseable {
      */
     @NonNull
     @Override
-    public Iterator<Result> iterator() { return allResults().iterator(); }
+    public Iterator<Result> iterator() { return new ResultIterator(); }
+
+    /**
+     * Return a sequential Stream of Results.  Like the iterator, the stream fetches each row only
+     * when it is needed.  Closing the stream closes this ResultSet.
+     * <p>Caution:  {@link ResultSet#next}, {@link ResultSet#allResults}, {@link ResultSet#iterator}
+     * and {@link ResultSet#stream} method share same data structure. They cannot be used together.</p>
+     *
+     * @return a stream of the Results in this ResultSet
+     */
+    @RequiresApi(24)
+    @NonNull
+    public Stream<Result> stream() {
+        final Spliterator<Result> results
+            = Spliterators.spliteratorUnknownSize(iterator(), Spliterator.ORDERED | Spliterator.NONNULL);
+        return StreamSupport.stream(results, false).onClose(this::close);
+    }
+
+    /**
+     * Read all of the remaining rows in this ResultSet into columns of primitive values.
+     * The rows are read from LiteCore in blocks, without creating a Result for each row: this is
+     * much more efficient than calling, e.g., Result.getDouble for each row of a large result set.
+     * <p>Caution:  {@link ResultSet#next}, {@link ResultSet#allResults}, {@link ResultSet#iterator}
+     * and {@link ResultSet#toColumns} method share same data structure. They cannot be used together.</p>
+     *
+     * @return the remaining rows of this ResultSet, as columns
+     * @throws CouchbaseLiteException if reading the rows fails: no partial result is returned.
+     */
+    @NonNull
+    public ColumnarResult toColumns() throws CouchbaseLiteException {
+        final int nCols = getColumnCount();
+        final ColumnarResult.Builder columns = new ColumnarResult.Builder(getOrderedColumnNames());
+        synchronized (lock) {
+            if ((c4enum == null) || (isAllEnumerated)) { return columns.build(); }
+
+            // rows that were prefetched by next()
+            while (nextRow < bufferedRows) {
+                columns.appendRow(new Result(context, rowBuffer, (nCols + 1) * nextRow++));
+            }
+
+            final int blockSize = prefetchRows;
+            final byte[] types = new byte[blockSize * nCols];
+            final long[] values = new long[blockSize * nCols];
+            final String[] strings = new String[blockSize * nCols];
+            try {
+                int n;
+                while ((n = c4enum.nextColumns(blockSize, nCols, types, values, strings)) > 0) {
+                    columns.appendBlock(n, blockSize, types, values, strings);
+                }
+                isAllEnumerated = true;
+                return columns.build();
+            }
+            catch (LiteCoreException e) { throw CouchbaseLiteException.convertException(e); }
+        }
+    }
 
     public boolean isClosed() {
         synchronized (lock) { return c4enum == null; }
@@ -165,6 +296,11 @@ public class ResultSet implements Iterable<Result>, AutoCloseable {
         }
         if (qEnum == null) { return; }
 
+        if (readConnectionLock != null) {
+            synchronized (readConnectionLock) { qEnum.close(); }
+            return;
+        }
+
         final AbstractDatabase db = context.getDatabase();
         if (db == null) { throw new CouchbaseLiteError("Could not obtain db lock"); }
 
@@ -196,9 +332,24 @@ public class ResultSet implements Iterable<Result>, AutoCloseable {
 
     int getColumnCount() { return columnNames.size(); }
 
+    // Set the number of rows fetched from LiteCore with each native call.
+    // Larger blocks mean fewer JNI calls, at the cost of a larger buffer.
+    void setPrefetchRows(int rows) {
+        Preconditions.assertPositive(rows, "prefetch rows");
+        synchronized (lock) { prefetchRows = rows; }
+    }
+
     @NonNull
     List<String> getColumnNames() { return new ArrayList<>(columnNames.keySet()); }
 
+    // The column names, in the order in which they appear in the results
+    @NonNull
+    List<String> getOrderedColumnNames() {
+        final String[] names = new String[columnNames.size()];
+        for (Map.Entry<String, Integer> col: columnNames.entrySet()) { names[col.getValue()] = col.getKey(); }
+        return Arrays.asList(names);
+    }
+
     int getColumnIndex(@NonNull String name) {
         final Integer idx = columnNames.get(name);
         return (idx == null) ? -1 : idx;
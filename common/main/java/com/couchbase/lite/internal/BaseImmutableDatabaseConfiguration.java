@@ -27,12 +27,21 @@ import com.couchbase.lite.Defaults;
  * <a href="https://docs.google.com/document/d/16XmIOw7aZ_NcFc6Dy6fc1jV7sc994r6iv5qm9_J7qKo/edit#heading=h.kt1n12mtpzx4">spec</a>
  */
 public class BaseImmutableDatabaseConfiguration {
+    // By default, all reads use the database's single connection
+    public static final int DEFAULT_READ_CONNECTIONS = 0;
+    // By default, asynchronous writes are grouped only while the previous group is being committed
+    public static final int DEFAULT_ASYNC_WRITE_BATCH_SIZE = 100;
+    public static final long DEFAULT_ASYNC_WRITE_MAX_DELAY_MS = 0L;
+
     //-------------------------------------------------------------------------
     // Data members
     //-------------------------------------------------------------------------
     @NonNull
     private final String dbDir;
     private final boolean fullSync;
+    private final int readConnections;
+    private final int asyncWriteBatchSize;
+    private final long asyncWriteMaxDelayMs;
 
     //-------------------------------------------------------------------------
     // Constructors
@@ -41,6 +50,13 @@ public class BaseImmutableDatabaseConfiguration {
         final String dbDirectory = (config == null) ? null : config.getDirectory();
         this.dbDir = (dbDirectory != null) ? dbDirectory : CouchbaseLiteInternal.getDefaultDbDirPath();
         this.fullSync = (config == null) ? Defaults.Database.FULL_SYNC : config.isFullSync();
+        this.readConnections = (config == null) ? DEFAULT_READ_CONNECTIONS : config.getReadConnectionCount();
+        this.asyncWriteBatchSize = (config == null)
+            ? DEFAULT_ASYNC_WRITE_BATCH_SIZE
+            : config.getAsyncWriteBatchSize();
+        this.asyncWriteMaxDelayMs = (config == null)
+            ? DEFAULT_ASYNC_WRITE_MAX_DELAY_MS
+            : config.getAsyncWriteMaxDelay();
     }
 
     //-------------------------------------------------------------------------
@@ -50,4 +66,10 @@ public class BaseImmutableDatabaseConfiguration {
     public final String getDirectory() { return dbDir; }
 
     public final boolean isFullSync() { return fullSync; }
+
+    public final int getReadConnectionCount() { return readConnections; }
+
+    public final int getAsyncWriteBatchSize() { return asyncWriteBatchSize; }
+
+    public final long getAsyncWriteMaxDelay() { return asyncWriteMaxDelayMs; }
 }
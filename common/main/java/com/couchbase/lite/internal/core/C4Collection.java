@@ -16,6 +16,8 @@ import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 import androidx.annotation.VisibleForTesting;
 
+import java.util.List;
+
 import com.couchbase.lite.Collection;
 import com.couchbase.lite.LiteCoreException;
 import com.couchbase.lite.Scope;
@@ -50,6 +52,22 @@ public final class C4Collection extends C4Peer {
         void nSetDocExpiration(long peer, @NonNull String docID, long timestamp) throws LiteCoreException;
         @GuardedBy("dbLock")
         void nPurgeDoc(long peer, @NonNull String docID) throws LiteCoreException;
+        @GuardedBy("dbLock")
+        @NonNull
+        boolean[] nSetDocsExpiration(long peer, @NonNull String[] docIDs, @NonNull long[] timestamps)
+            throws LiteCoreException;
+        @GuardedBy("dbLock")
+        @NonNull
+        boolean[] nPurgeDocs(long peer, @NonNull String[] docIDs) throws LiteCoreException;
+        @GuardedBy("dbLock")
+        @NonNull
+        String[] nImportJsonLines(
+            long peer,
+            @NonNull byte[] buf,
+            @NonNull int[] starts,
+            @NonNull int[] ends,
+            @NonNull String idField)
+            throws LiteCoreException;
 
         // Indexes
         @GuardedBy("dbLock")
@@ -236,6 +254,12 @@ public final class C4Collection extends C4Peer {
         return C4Document.get(this, Preconditions.assertNotNull(docId, "doc ID"));
     }
 
+    // Returns a list whose i-th element is null if the i-th document does not exist.
+    @NonNull
+    public List<C4Document> getDocuments(@NonNull String[] docIds) throws LiteCoreException {
+        return C4Document.getMany(this, Preconditions.assertNotNull(docIds, "doc IDs"));
+    }
+
     @Nullable
     public C4Document getDocumentWithRevs(@NonNull String docId) throws LiteCoreException {
         return C4Document.getWithRevs(this, Preconditions.assertNotNull(docId, "doc ID"));
@@ -265,6 +289,38 @@ public final class C4Collection extends C4Peer {
         });
     }
 
+    // Returns an array whose i-th element is false if the i-th document does not exist.
+    @NonNull
+    public boolean[] setDocumentsExpiration(@NonNull String[] docIDs, @NonNull long[] timestamps)
+        throws LiteCoreException {
+        Preconditions.assertThat(timestamps.length == docIDs.length, "mismatched IDs and timestamps");
+        return withPeerOrThrow(peer -> {
+            synchronized (dbLock) { return impl.nSetDocsExpiration(peer, docIDs, timestamps); }
+        });
+    }
+
+    // Returns an array whose i-th element is false if the i-th document does not exist.
+    @NonNull
+    public boolean[] purgeDocuments(@NonNull String[] docIDs) throws LiteCoreException {
+        return withPeerOrThrow(peer -> {
+            synchronized (dbLock) { return impl.nPurgeDocs(peer, docIDs); }
+        });
+    }
+
+    // Import each line of JSON, buf[starts[i]..ends[i]), as a new document. Must be called in a transaction.
+    // Returns an array whose i-th element is null if the i-th line was imported, or the reason it was not.
+    @NonNull
+    public String[] importJsonLines(
+        @NonNull byte[] buf,
+        @NonNull int[] starts,
+        @NonNull int[] ends,
+        @NonNull String idField)
+        throws LiteCoreException {
+        return withPeerOrThrow(peer -> {
+            synchronized (dbLock) { return impl.nImportJsonLines(peer, buf, starts, ends, idField); }
+        });
+    }
+
     public boolean docContainsBlobs(FLSliceResult body, FLSharedKeys keys) { return db.docContainsBlobs(body, keys); }
 
     // - Observers
@@ -75,7 +75,6 @@ public final class C4Constants {
         private DatabaseFlags() { }
         // @formatter:off
         static final long CREATE = 0x01;                 // Create the file if it doesn't exist
-        @VisibleForTesting
         static final long READ_ONLY = 0x02;              // Open file read-only
         private static final long AUTO_COMPACT = 0x04;   // Enable auto-compaction [UNIMPLEMENTED]
         static final long VERSION_VECTORS = 0x08;        // Upgrade DB to version vectors instead of rev trees [EXPERIMENTAL]
@@ -153,18 +153,24 @@ public abstract class C4Database extends C4Peer {
     // unmanaged: the native code will free it
     static final class UnmanagedC4Database extends C4Database {
         UnmanagedC4Database(@NonNull NativeImpl impl, long peer) {
-            super(impl, peer, LockManager.INSTANCE.getLock(peer), "shell", null);
+            super(impl, peer, LockManager.INSTANCE.getLock(peer), "shell", false, null);
         }
     }
 
     // managed: Java code is responsible for freeing it
     static final class ManagedC4Database extends C4Database {
-        ManagedC4Database(@NonNull NativeImpl impl, long peer, @NonNull Object lock, @NonNull String name) {
+        ManagedC4Database(
+            @NonNull NativeImpl impl,
+            long peer,
+            @NonNull Object lock,
+            @NonNull String name,
+            boolean readOnly) {
             super(
                 impl,
                 peer,
                 lock,
                 name,
+                readOnly,
                 unused -> {
                     synchronized (lock) { impl.nFree(peer); }
                 });
@@ -211,6 +217,24 @@ public abstract class C4Database extends C4Peer {
         return getDatabase(NATIVE_IMPL, parentDirPath, name, dbFlags, algorithm, encryptionKey);
     }
 
+    // managed, read-only: an additional connection to a database that is already open.
+    // It can be used only to read documents, but it does not share the writer's lock.
+    @NonNull
+    public static C4Database getReadOnlyDatabase(
+        @NonNull String parentDirPath,
+        @NonNull String name,
+        int algorithm,
+        @Nullable byte[] encryptionKey)
+        throws LiteCoreException {
+        return getDatabase(
+            NATIVE_IMPL,
+            parentDirPath,
+            name,
+            C4Constants.DatabaseFlags.READ_ONLY,
+            algorithm,
+            encryptionKey);
+    }
+
     @VisibleForTesting
     @NonNull
     static C4Database getDatabase(@NonNull String parentDirPath, @NonNull String name, long flags)
@@ -255,7 +279,12 @@ public abstract class C4Database extends C4Peer {
             algorithm,
             encryptionKey);
 
-        return new ManagedC4Database(impl, peer, LockManager.INSTANCE.getLock(peer), name);
+        return new ManagedC4Database(
+            impl,
+            peer,
+            LockManager.INSTANCE.getLock(peer),
+            name,
+            (flags & C4Constants.DatabaseFlags.READ_ONLY) != 0);
     }
 
     //-------------------------------------------------------------------------
@@ -325,9 +354,14 @@ public abstract class C4Database extends C4Peer {
     @NonNull
     private final Object lock;
 
+    private final boolean readOnly;
+
     @NonNull
     private final AtomicReference<File> dbFile = new AtomicReference<>();
 
+    @NonNull
+    private final AtomicReference<FLSharedKeys> sharedKeys = new AtomicReference<>();
+
     //-------------------------------------------------------------------------
     // Constructor
     //-------------------------------------------------------------------------
@@ -336,11 +370,13 @@ public abstract class C4Database extends C4Peer {
         long peer,
         @NonNull Object lock,
         @NonNull String name,
+        boolean readOnly,
         @Nullable PeerCleaner cleaner) {
         super(peer, cleaner);
         this.name = name;
         this.impl = impl;
         this.lock = lock;
+        this.readOnly = readOnly;
     }
 
     //-------------------------------------------------------------------------
@@ -350,6 +386,8 @@ public abstract class C4Database extends C4Peer {
     @NonNull
     public Object getLock() { return lock; }
 
+    public boolean isReadOnly() { return readOnly; }
+
     @NonNull
     @Override
     public String toString() { return name + "@" + super.toString(); }
@@ -493,11 +531,16 @@ public abstract class C4Database extends C4Peer {
         }));
     }
 
+    // Every caller gets the same object, so that they all share its interned keys.
     @NonNull
     public FLSharedKeys getFLSharedKeys() {
-        return new FLSharedKeys(withPeerOrThrow(peer -> {
+        final FLSharedKeys keys = sharedKeys.get();
+        if (keys != null) { return keys; }
+
+        final FLSharedKeys newKeys = new FLSharedKeys(withPeerOrThrow(peer -> {
             synchronized (lock) { return impl.nGetFLSharedKeys(peer); }
         }));
+        return (sharedKeys.compareAndSet(null, newKeys)) ? newKeys : sharedKeys.get();
     }
 
     // - Scopes and Collections
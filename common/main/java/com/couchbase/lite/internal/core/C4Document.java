@@ -21,6 +21,7 @@ import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 import androidx.annotation.VisibleForTesting;
 
+import java.util.ArrayList;
 import java.util.List;
 
 import com.couchbase.lite.LiteCoreException;
@@ -39,6 +40,8 @@ public final class C4Document extends C4Peer {
         long nGetFromCollection(long coll, String docID, boolean mustExist, boolean getAllRevs)
             throws LiteCoreException;
         @GuardedBy("dbLock")
+        long[] nGetManyFromCollection(long coll, String[] docIDs) throws LiteCoreException;
+        @GuardedBy("dbLock")
         long nCreateFromSlice(long coll, String docID, long bodyPtr, long bodySize, int flags)
             throws LiteCoreException;
         //// Properties
@@ -77,6 +80,9 @@ public final class C4Document extends C4Peer {
         @GuardedBy("dbLock")
         @NonNull
         String nBodyAsJSON(long doc, boolean canonical) throws LiteCoreException;
+        @GuardedBy("dbLock")
+        @NonNull
+        FLSliceResult nApplyPatch(long doc, long patchPtr, long patchSize) throws LiteCoreException;
         //// Lifecycle
         void nFree(long doc);
     }
@@ -114,7 +120,24 @@ public final class C4Document extends C4Peer {
         final long peer = coll.withPeerOrThrow(collPeer -> {
             synchronized (lock) { return NATIVE_IMPL.nGetFromCollection(collPeer, docID, true, false); }
         });
-        return (peer == 0) ? null : new C4Document(NATIVE_IMPL, peer, lock);
+        return (peer == 0) ? null : new C4Document(NATIVE_IMPL, peer, lock, getReadConnection(coll));
+    }
+
+    // Returns a list whose i-th element is null if the i-th document does not exist.
+    @NonNull
+    static List<C4Document> getMany(@NonNull C4Collection coll, @NonNull String[] docIDs)
+        throws LiteCoreException {
+        final Object lock = coll.getDbLock();
+        final long[] peers = coll.withPeerOrThrow(collPeer -> {
+            synchronized (lock) { return NATIVE_IMPL.nGetManyFromCollection(collPeer, docIDs); }
+        });
+
+        final C4Database readConnection = getReadConnection(coll);
+        final List<C4Document> docs = new ArrayList<>(peers.length);
+        for (long peer: peers) {
+            docs.add((peer == 0) ? null : new C4Document(NATIVE_IMPL, peer, lock, readConnection));
+        }
+        return docs;
     }
 
     @Nullable
@@ -124,7 +147,7 @@ public final class C4Document extends C4Peer {
         final long peer = coll.withPeerOrThrow(collPeer -> {
             synchronized (lock) { return NATIVE_IMPL.nGetFromCollection(collPeer, docID, true, true); }
         });
-        return (peer == 0) ? null : new C4Document(NATIVE_IMPL, peer, lock);
+        return (peer == 0) ? null : new C4Document(NATIVE_IMPL, peer, lock, getReadConnection(coll));
     }
 
     @VisibleForTesting
@@ -150,6 +173,13 @@ public final class C4Document extends C4Peer {
     }
 
 
+    @Nullable
+    private static C4Database getReadConnection(@NonNull C4Collection coll) {
+        final C4Database db = coll.getDb();
+        return (db.isReadOnly()) ? db : null;
+    }
+
+
     //-------------------------------------------------------------------------
     // Fields
     //-------------------------------------------------------------------------
@@ -160,15 +190,28 @@ public final class C4Document extends C4Peer {
     @NonNull
     private final Object dbLock;
 
+    // The read-only connection from which this document was read, or null if it was read from the
+    // main connection.  A read-only document cannot be updated.  The reference keeps the connection,
+    // whose lock guards this document, reachable for as long as the document is.
+    @Nullable
+    private final C4Database readConnection;
+
     //-------------------------------------------------------------------------
     // Constructor
     //-------------------------------------------------------------------------
 
-    private C4Document(@NonNull NativeImpl impl, long peer, @NonNull Object lock) {
+    private C4Document(@NonNull NativeImpl impl, long peer, @NonNull Object lock) { this(impl, peer, lock, null); }
+
+    private C4Document(
+        @NonNull NativeImpl impl,
+        long peer,
+        @NonNull Object lock,
+        @Nullable C4Database readConnection) {
         // C4Documents cannot be explicitly closed so don't gripe when they aren't
         super(peer, impl::nFree, true);
         this.impl = impl;
         this.dbLock = lock;
+        this.readConnection = readConnection;
     }
 
     @VisibleForTesting
@@ -257,8 +300,26 @@ public final class C4Document extends C4Peer {
         });
     }
 
+    // Returns a new body: the body of this document with the (Fleece encoded) patch applied.
+    @NonNull
+    public FLSliceResult applyPatch(@NonNull FLSliceResult patch) throws LiteCoreException {
+        return withPeerOrThrow(peer -> {
+            synchronized (dbLock) { return impl.nApplyPatch(peer, patch.getBase(), patch.getSize()); }
+        });
+    }
+
     // - Helper methods
 
+    public boolean isReadOnly() { return readConnection != null; }
+
+    // The read-only connection from which this document was read: null if it was read from the main connection.
+    @Nullable
+    public C4Database getReadConnection() { return readConnection; }
+
+    // The lock that guards this document: the lock of the connection from which it was read.
+    @NonNull
+    public Object getDbLock() { return dbLock; }
+
     public boolean docExists() { return C4Constants.hasFlags(getFlags(), C4Constants.DocumentFlags.EXISTS); }
 
     public boolean isDocDeleted() { return C4Constants.hasFlags(getFlags(), C4Constants.DocumentFlags.DELETED); }
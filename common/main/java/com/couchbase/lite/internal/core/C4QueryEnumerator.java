@@ -37,11 +37,29 @@ import com.couchbase.lite.internal.utils.Preconditions;
 public final class C4QueryEnumerator extends C4NativePeer {
     public interface NativeImpl {
         boolean nNext(long peer) throws LiteCoreException;
+        int nNextRows(long peer, int maxRows, int nCols, @NonNull long[] rows) throws LiteCoreException;
+        int nNextColumns(
+            long peer,
+            int maxRows,
+            int nCols,
+            @NonNull byte[] types,
+            @NonNull long[] values,
+            @NonNull String[] strings)
+            throws LiteCoreException;
         void nFree(long peer);
         long nGetColumns(long peer);
         long nGetMissingColumns(long peer);
     }
 
+    // Column types, for nextColumns: these must match the values in native_c4queryenumerator.cc
+    public static final byte COLUMN_MISSING = 0;
+    public static final byte COLUMN_NULL = 1;
+    public static final byte COLUMN_BOOLEAN = 2;
+    public static final byte COLUMN_INT = 3;
+    public static final byte COLUMN_DOUBLE = 4;
+    public static final byte COLUMN_STRING = 5;
+    public static final byte COLUMN_OTHER = 6;
+
     @NonNull
     private static final NativeImpl NATIVE_IMPL = new NativeC4QueryEnumerator();
 
@@ -79,6 +97,46 @@ public final class C4QueryEnumerator extends C4NativePeer {
 
     public boolean next() throws LiteCoreException { return withPeerOrThrow(impl::nNext); }
 
+    /**
+     * Advance the enumerator by as many as maxRows rows, in a single call to native code.
+     * Each row is copied into the rows array as nCols + 1 longs: the row's missing columns bitmap
+     * (see getMissingColumns), followed by a handle for the FLValue of each column (0 if there is none).
+     * Like the values returned by getColumns, the handles are valid until the enumerator is freed.
+     * After this call, the enumerator's current row is the last row copied.
+     *
+     * @param maxRows the maximum number of rows to read: at most rows.length / (nCols + 1) will be read.
+     * @param nCols   the number of columns in each row.
+     * @param rows    the buffer into which the rows are copied.
+     * @return the number of rows copied: 0 if there are no more rows.
+     */
+    public int nextRows(int maxRows, int nCols, @NonNull long[] rows) throws LiteCoreException {
+        return withPeerOrThrow(peer -> impl.nNextRows(peer, maxRows, nCols, rows));
+    }
+
+    /**
+     * Advance the enumerator by as many as maxRows rows, in a single call to native code,
+     * converting the value of each column to one of the COLUMN_ types and a primitive value.
+     * The arrays are column-major: the value in row r of column c is at index (c * maxRows) + r.
+     * A COLUMN_INT value is in values; a COLUMN_DOUBLE value is in values, as the bits of the double;
+     * a COLUMN_BOOLEAN is 1 or 0 in values; a COLUMN_STRING value is in strings.
+     *
+     * @param maxRows the maximum number of rows to read.
+     * @param nCols   the number of columns in each row.
+     * @param types   the column types: at least maxRows * nCols long.
+     * @param values  the column values: at least maxRows * nCols long.
+     * @param strings the column string values: at least maxRows * nCols long.
+     * @return the number of rows read: 0 if there are no more rows.
+     */
+    public int nextColumns(
+        int maxRows,
+        int nCols,
+        @NonNull byte[] types,
+        @NonNull long[] values,
+        @NonNull String[] strings)
+        throws LiteCoreException {
+        return withPeerOrThrow(peer -> impl.nNextColumns(peer, maxRows, nCols, types, values, strings));
+    }
+
     /**
      * FLArrayIterator columns
      * The columns of this result, in the same order as in the query's `WHAT` clause.
@@ -0,0 +1,218 @@
+//
+// Copyright (c) 2020 Couchbase, Inc.
+// Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file
+// except in compliance with the License. You may obtain a copy of the License at
+// http://www.apache.org/licenses/LICENSE-2.0
+// Unless required by applicable law or agreed to in writing, software distributed under the
+// License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+// either express or implied. See the License for the specific language governing permissions
+// and limitations under the License.
+//
+
+package com.couchbase.lite.internal.core;
+
+import androidx.annotation.GuardedBy;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import com.couchbase.lite.LiteCoreException;
+import com.couchbase.lite.LogDomain;
+import com.couchbase.lite.internal.QueryLanguage;
+import com.couchbase.lite.internal.fleece.FLSharedKeys;
+import com.couchbase.lite.internal.logging.Log;
+import com.couchbase.lite.internal.utils.Fn;
+import com.couchbase.lite.internal.utils.Preconditions;
+
+
+/**
+ * A small pool of read-only connections to a database that is already open.
+ * <p>
+ * The database file is in WAL mode, so a read on one of these connections sees the most
+ * recently committed state of the database and neither waits for, nor blocks, the writer.
+ * Connections are opened lazily, up to the pool's limit.  A connection is used by only
+ * one thread at a time: if there is no idle connection and the pool is at its limit,
+ * acquire returns null and the caller should just use the writer connection.
+ * <p>
+ * Queries can run on these connections too.  A compiled query belongs to a single connection,
+ * so each connection keeps a small LRU cache of the queries that have been compiled on it.
+ * The enumerator for a query's results does not need the connection once the query has run:
+ * it can be used, and must be closed holding the connection's lock, after the connection is released.
+ */
+public final class C4ReadConnectionPool implements AutoCloseable {
+    private static final LogDomain DOMAIN = LogDomain.DATABASE;
+
+    public static final class Connection {
+        private static final int MAX_QUERIES = 32;
+
+        @NonNull
+        private final C4Database c4db;
+
+        // Collections are expensive to look up: cache them, for the life of the connection
+        @NonNull
+        private final Map<String, C4Collection> collections = new HashMap<>();
+
+        // Queries compiled on this connection, keyed by their language and text.
+        @NonNull
+        private final LinkedHashMap<String, C4Query> queries = new LinkedHashMap<>(16, 0.75F, true);
+
+        // The generation of the database's query cache when the queries were compiled.
+        private long queryGeneration;
+
+        Connection(@NonNull C4Database c4db) { this.c4db = c4db; }
+
+        // The lock that guards this connection's native objects,
+        // including query enumerators that outlive its use by the current thread
+        @NonNull
+        public Object getLock() { return c4db.getLock(); }
+
+        @NonNull
+        public FLSharedKeys getSharedKeys() { return c4db.getFLSharedKeys(); }
+
+        // Get a query compiled on this connection.  The generation is that of the database's query cache:
+        // if it has changed (e.g., because an index was created) all of the queries are compiled again.
+        @NonNull
+        public C4Query getQuery(@NonNull QueryLanguage language, @NonNull String text, long generation)
+            throws LiteCoreException {
+            final String key = language + ":" + text;
+            synchronized (getLock()) {
+                if (generation != queryGeneration) {
+                    closeQueriesLocked(queries.size());
+                    queryGeneration = generation;
+                }
+
+                C4Query c4Query = queries.get(key);
+                if (c4Query != null) { return c4Query; }
+
+                c4Query = (language == QueryLanguage.N1QL)
+                    ? c4db.createN1qlQuery(text)
+                    : c4db.createJsonQuery(text);
+                queries.put(key, c4Query);
+                closeQueriesLocked(queries.size() - MAX_QUERIES);
+
+                return c4Query;
+            }
+        }
+
+        // Returns null if the collection does not exist.
+        @Nullable
+        public C4Collection getCollection(@NonNull String scopeName, @NonNull String collectionName)
+            throws LiteCoreException {
+            final String key = scopeName + "." + collectionName;
+
+            C4Collection c4Coll = collections.get(key);
+            if ((c4Coll != null) && c4Coll.isValid()) { return c4Coll; }
+            if (c4Coll != null) { c4Coll.close(); }
+
+            c4Coll = c4db.getCollection(scopeName, collectionName);
+            if (c4Coll == null) { collections.remove(key); }
+            else { collections.put(key, c4Coll); }
+
+            return c4Coll;
+        }
+
+        void close() {
+            synchronized (getLock()) { closeQueriesLocked(queries.size()); }
+
+            for (C4Collection c4Coll: collections.values()) { c4Coll.close(); }
+            collections.clear();
+
+            try { c4db.closeDb(); }
+            catch (LiteCoreException e) {
+                Log.w(DOMAIN, "Failed closing read connection", e);
+                c4db.close();
+            }
+        }
+
+        // Close the n least recently used queries.
+        // An enumerator for a closed query's results is still valid: LiteCore retains the query.
+        @GuardedBy("getLock()")
+        private void closeQueriesLocked(int n) {
+            final Iterator<C4Query> lru = queries.values().iterator();
+            while ((n-- > 0) && lru.hasNext()) {
+                lru.next().close();
+                lru.remove();
+            }
+        }
+    }
+
+
+    private final int maxConnections;
+
+    @NonNull
+    private final Fn.ProviderThrows<C4Database, LiteCoreException> opener;
+
+    @GuardedBy("idle")
+    @NonNull
+    private final Deque<Connection> idle = new ArrayDeque<>();
+
+    @GuardedBy("idle")
+    private int openConnections;
+
+    @GuardedBy("idle")
+    private boolean closed;
+
+    public C4ReadConnectionPool(int maxConnections, @NonNull Fn.ProviderThrows<C4Database, LiteCoreException> opener) {
+        this.maxConnections = Preconditions.assertPositive(maxConnections, "maxConnections");
+        this.opener = Preconditions.assertNotNull(opener, "opener");
+    }
+
+    // Returns null if the pool is closed or all of its connections are in use.
+    // A connection returned by this method must be returned to the pool, with release().
+    @Nullable
+    public Connection acquire() throws LiteCoreException {
+        synchronized (idle) {
+            if (closed) { return null; }
+
+            final Connection connection = idle.poll();
+            if (connection != null) { return connection; }
+
+            if (openConnections >= maxConnections) { return null; }
+            openConnections++;
+        }
+
+        // Don't hold the pool lock while opening the database: it may take a while.
+        final C4Database c4db;
+        try { c4db = Preconditions.assertNotNull(opener.get(), "read connection"); }
+        catch (LiteCoreException | RuntimeException e) {
+            synchronized (idle) { openConnections--; }
+            throw e;
+        }
+
+        return new Connection(c4db);
+    }
+
+    public void release(@NonNull Connection connection) {
+        synchronized (idle) {
+            if (!closed) {
+                idle.push(connection);
+                return;
+            }
+            openConnections--;
+        }
+
+        connection.close();
+    }
+
+    // Connections that are in use when the pool is closed are closed when they are released.
+    @Override
+    public void close() {
+        final Deque<Connection> connections;
+        synchronized (idle) {
+            if (closed) { return; }
+            closed = true;
+
+            connections = new ArrayDeque<>(idle);
+            openConnections -= idle.size();
+            idle.clear();
+        }
+
+        for (Connection connection: connections) { connection.close(); }
+    }
+}
@@ -74,6 +74,34 @@ public final class NativeC4Collection implements C4Collection.NativeImpl {
     @Override
     public void nPurgeDoc(long peer, @NonNull String docID) throws LiteCoreException { purgeDoc(peer, docID); }
 
+    @GuardedBy("dbLock")
+    @NonNull
+    @Override
+    public boolean[] nSetDocsExpiration(long peer, @NonNull String[] docIDs, @NonNull long[] timestamps)
+        throws LiteCoreException {
+        return setDocsExpiration(peer, docIDs, timestamps);
+    }
+
+    @GuardedBy("dbLock")
+    @NonNull
+    @Override
+    public boolean[] nPurgeDocs(long peer, @NonNull String[] docIDs) throws LiteCoreException {
+        return purgeDocs(peer, docIDs);
+    }
+
+    @GuardedBy("dbLock")
+    @NonNull
+    @Override
+    public String[] nImportJsonLines(
+        long peer,
+        @NonNull byte[] buf,
+        @NonNull int[] starts,
+        @NonNull int[] ends,
+        @NonNull String idField)
+        throws LiteCoreException {
+        return importJsonLines(peer, buf, starts, ends, idField);
+    }
+
     // Indexes
 
     @GuardedBy("dbLock")
@@ -207,6 +235,26 @@ public final class NativeC4Collection implements C4Collection.NativeImpl {
     private static native void purgeDoc(long peer, @NonNull String docID)
         throws LiteCoreException;
 
+    @GuardedBy("dbLock")
+    @NonNull
+    private static native boolean[] setDocsExpiration(long peer, @NonNull String[] docIDs, @NonNull long[] timestamps)
+        throws LiteCoreException;
+
+    @GuardedBy("dbLock")
+    @NonNull
+    private static native boolean[] purgeDocs(long peer, @NonNull String[] docIDs)
+        throws LiteCoreException;
+
+    @GuardedBy("dbLock")
+    @NonNull
+    private static native String[] importJsonLines(
+        long peer,
+        @NonNull byte[] buf,
+        @NonNull int[] starts,
+        @NonNull int[] ends,
+        @NonNull String idField)
+        throws LiteCoreException;
+
     // Indexes
 
     @GuardedBy("dbLock")
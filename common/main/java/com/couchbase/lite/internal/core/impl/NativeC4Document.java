@@ -21,6 +21,7 @@ import androidx.annotation.Nullable;
 
 import com.couchbase.lite.LiteCoreException;
 import com.couchbase.lite.internal.core.C4Document;
+import com.couchbase.lite.internal.fleece.FLSliceResult;
 
 
 @SuppressWarnings("PMD.TooManyMethods")
@@ -33,6 +34,12 @@ public final class NativeC4Document implements C4Document.NativeImpl {
         return getFromCollection(coll, docID, mustExist, getAllRevs);
     }
 
+    @GuardedBy("dbLock")
+    @Override
+    public long[] nGetManyFromCollection(long coll, String[] docIDs) throws LiteCoreException {
+        return getManyFromCollection(coll, docIDs);
+    }
+
     @GuardedBy("dbLock")
     @Override
     public long nCreateFromSlice(long coll, String docID, long bodyPtr, long bodySize, int flags)
@@ -114,6 +121,13 @@ public final class NativeC4Document implements C4Document.NativeImpl {
         return bodyAsJSON(doc, canonical);
     }
 
+    @GuardedBy("dbLock")
+    @Override
+    @NonNull
+    public FLSliceResult nApplyPatch(long doc, long patchPtr, long patchSize) throws LiteCoreException {
+        return applyPatch(doc, patchPtr, patchSize);
+    }
+
     //// Lifecycle
     @Override
     public void nFree(long doc) { free(doc); }
@@ -132,6 +146,9 @@ public final class NativeC4Document implements C4Document.NativeImpl {
     private static native long getFromCollection(long peer, String docID, boolean mustExist, boolean getAllRevs)
         throws LiteCoreException;
 
+    @GuardedBy("dbLock")
+    private static native long[] getManyFromCollection(long peer, String[] docIDs) throws LiteCoreException;
+
     @GuardedBy("dbLock")
     private static native long createFromSlice(long peer, String docID, long bodyPtr, long bodySize, int flags)
         throws LiteCoreException;
@@ -186,6 +203,10 @@ public final class NativeC4Document implements C4Document.NativeImpl {
     @NonNull
     private static native String bodyAsJSON(long peer, boolean canonical) throws LiteCoreException;
 
+    @GuardedBy("dbLock")
+    @NonNull
+    private static native FLSliceResult applyPatch(long peer, long patchPtr, long patchSize) throws LiteCoreException;
+
     //// Lifecycle
     private static native void free(long peer);
 }
@@ -15,6 +15,8 @@
 //
 package com.couchbase.lite.internal.core.impl;
 
+import androidx.annotation.NonNull;
+
 import com.couchbase.lite.LiteCoreException;
 import com.couchbase.lite.internal.core.C4QueryEnumerator;
 
@@ -24,6 +26,23 @@ public final class NativeC4QueryEnumerator implements C4QueryEnumerator.NativeIm
     @Override
     public boolean nNext(long peer) throws LiteCoreException { return next(peer); }
 
+    @Override
+    public int nNextRows(long peer, int maxRows, int nCols, @NonNull long[] rows) throws LiteCoreException {
+        return nextRows(peer, maxRows, nCols, rows);
+    }
+
+    @Override
+    public int nNextColumns(
+        long peer,
+        int maxRows,
+        int nCols,
+        @NonNull byte[] types,
+        @NonNull long[] values,
+        @NonNull String[] strings)
+        throws LiteCoreException {
+        return nextColumns(peer, maxRows, nCols, types, values, strings);
+    }
+
     @Override
     public void nFree(long peer) { free(peer); }
 
@@ -43,6 +62,18 @@ public final class NativeC4QueryEnumerator implements C4QueryEnumerator.NativeIm
 
     private static native boolean next(long peer) throws LiteCoreException;
 
+    private static native int nextRows(long peer, int maxRows, int nCols, @NonNull long[] rows)
+        throws LiteCoreException;
+
+    private static native int nextColumns(
+        long peer,
+        int maxRows,
+        int nCols,
+        @NonNull byte[] types,
+        @NonNull long[] values,
+        @NonNull String[] strings)
+        throws LiteCoreException;
+
     private static native long getColumns(long peer);
 
     private static native long getMissingColumns(long peer);
@@ -76,6 +76,9 @@ public final class FLArray {
     // public methods
     //-------------------------------------------------------------------------
 
+    @NonNull
+    public FLValue toFLValue() { return FLValue.getFLValue(peer); }
+
     /**
      * Returns the number of items in an array; 0 if peer is null.
      *
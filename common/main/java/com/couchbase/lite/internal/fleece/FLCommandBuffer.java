@@ -0,0 +1,283 @@
+//
+// Copyright (c) 2026 Couchbase, Inc.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+package com.couchbase.lite.internal.fleece;
+
+import androidx.annotation.NonNull;
+
+import java.util.Arrays;
+
+
+/**
+ * A buffer of encoder commands.
+ * <p>
+ * Each command is a one byte opcode followed by its argument, if any.  Numbers are little-endian.
+ * Strings are UTF-8 and, like data, are preceded by their 4 byte length.  The buffer is replayed
+ * into a native encoder, in a single JNI call, by NativeFLEncoder.writeCommands.
+ * <p>
+ * The buffer tracks the structure of what has been written, so that a command that is out of place
+ * (a value in a dictionary that is expecting a key, a key outside a dictionary, or an end that does
+ * not match the innermost open container) is refused when it is written, rather than when the buffer
+ * is replayed.
+ * <p>
+ * This class is not thread safe: its encoder must synchronize access to it.
+ */
+final class FLCommandBuffer {
+    // Opcodes: these must match the values in native_flencoder.cc
+    static final byte OP_NULL = 0;
+    static final byte OP_FALSE = 1;
+    static final byte OP_TRUE = 2;
+    static final byte OP_INT = 3;
+    static final byte OP_FLOAT = 4;
+    static final byte OP_DOUBLE = 5;
+    static final byte OP_STRING = 6;
+    static final byte OP_DATA = 7;
+    static final byte OP_BEGIN_ARRAY = 8;
+    static final byte OP_END_ARRAY = 9;
+    static final byte OP_BEGIN_DICT = 10;
+    static final byte OP_END_DICT = 11;
+    static final byte OP_KEY = 12;
+    static final byte OP_VALUE = 13;
+
+    // A buffer this big should be sent to native, even though the encoding is not finished.
+    static final int FLUSH_SIZE = 64 * 1024;
+
+    private static final int INITIAL_SIZE = 1024;
+
+    // The states of an open container
+    private static final byte IN_ARRAY = 0;
+    private static final byte IN_DICT_EXPECTING_KEY = 1;
+    private static final byte IN_DICT_EXPECTING_VALUE = 2;
+
+    @NonNull
+    private byte[] buf = new byte[INITIAL_SIZE];
+    private int len;
+
+    // The open containers, innermost last.
+    // Unlike the commands, this survives replaying the buffer: it describes the whole encoding.
+    @NonNull
+    private byte[] containers = new byte[16];
+    private int depth;
+
+    @NonNull
+    byte[] getBytes() { return buf; }
+
+    int size() { return len; }
+
+    boolean isEmpty() { return len <= 0; }
+
+    boolean isFull() { return len >= FLUSH_SIZE; }
+
+    // Discard the commands and the structure: start a new encoding.
+    void clear() {
+        clearCommands();
+        depth = 0;
+    }
+
+    // Discard the commands, after they have been replayed.
+    void clearCommands() {
+        len = 0;
+        // don't hang on to the memory used by a very large document
+        if (buf.length > FLUSH_SIZE * 2) { buf = new byte[INITIAL_SIZE]; }
+    }
+
+    // Each write returns false, and writes nothing, if the command is out of place.
+
+    boolean writeNull() {
+        if (!startValue()) { return false; }
+        op(OP_NULL, 0);
+        return true;
+    }
+
+    boolean writeBool(boolean value) {
+        if (!startValue()) { return false; }
+        op(value ? OP_TRUE : OP_FALSE, 0);
+        return true;
+    }
+
+    boolean writeInt(long value) {
+        if (!startValue()) { return false; }
+        op(OP_INT, 8);
+        putLong(value);
+        return true;
+    }
+
+    boolean writeFloat(float value) {
+        if (!startValue()) { return false; }
+        op(OP_FLOAT, 4);
+        putInt(Float.floatToRawIntBits(value));
+        return true;
+    }
+
+    boolean writeDouble(double value) {
+        if (!startValue()) { return false; }
+        op(OP_DOUBLE, 8);
+        putLong(Double.doubleToRawLongBits(value));
+        return true;
+    }
+
+    boolean writeString(@NonNull String value) {
+        if (!startValue()) { return false; }
+        putString(OP_STRING, value);
+        return true;
+    }
+
+    boolean writeData(@NonNull byte[] value) {
+        if (!startValue()) { return false; }
+        op(OP_DATA, 4 + value.length);
+        putInt(value.length);
+        System.arraycopy(value, 0, buf, len, value.length);
+        len += value.length;
+        return true;
+    }
+
+    boolean beginArray(long reserve) {
+        if (!startValue()) { return false; }
+        push(IN_ARRAY);
+        op(OP_BEGIN_ARRAY, 4);
+        putInt(toReserve(reserve));
+        return true;
+    }
+
+    boolean endArray() {
+        if (!pop(IN_ARRAY)) { return false; }
+        op(OP_END_ARRAY, 0);
+        return true;
+    }
+
+    boolean beginDict(long reserve) {
+        if (!startValue()) { return false; }
+        push(IN_DICT_EXPECTING_KEY);
+        op(OP_BEGIN_DICT, 4);
+        putInt(toReserve(reserve));
+        return true;
+    }
+
+    boolean endDict() {
+        if (!pop(IN_DICT_EXPECTING_KEY)) { return false; }
+        op(OP_END_DICT, 0);
+        return true;
+    }
+
+    boolean writeKey(@NonNull String key) {
+        if (!isExpectingKey()) { return false; }
+        containers[depth - 1] = IN_DICT_EXPECTING_VALUE;
+        putString(OP_KEY, key);
+        return true;
+    }
+
+    // The value must remain valid until the buffer is replayed.
+    boolean writeValue(long hdl) {
+        if (!startValue()) { return false; }
+        op(OP_VALUE, 8);
+        putLong(hdl);
+        return true;
+    }
+
+    // Note that a value is about to be written, by the buffer or directly to the native encoder.
+    // Returns false if the innermost open container is a dictionary that is expecting a key.
+    boolean startValue() {
+        if (depth <= 0) { return true; }
+        switch (containers[depth - 1]) {
+            case IN_DICT_EXPECTING_KEY:
+                return false;
+            case IN_DICT_EXPECTING_VALUE:
+                containers[depth - 1] = IN_DICT_EXPECTING_KEY;
+                return true;
+            default:
+                return true;
+        }
+    }
+
+    // True if the innermost open container is a dictionary that is expecting a key.
+    boolean isExpectingKey() { return (depth > 0) && (containers[depth - 1] == IN_DICT_EXPECTING_KEY); }
+
+    private void push(byte container) {
+        if (depth >= containers.length) { containers = Arrays.copyOf(containers, containers.length * 2); }
+        containers[depth++] = container;
+    }
+
+    private boolean pop(byte container) {
+        if ((depth <= 0) || (containers[depth - 1] != container)) { return false; }
+        depth--;
+        return true;
+    }
+
+    private void op(byte op, int argSize) {
+        ensureCapacity(1 + argSize);
+        buf[len++] = op;
+    }
+
+    // Strings are encoded here, rather than with String.getBytes, to avoid allocating
+    // a byte array for each string.  Unpaired surrogates are replaced with U+FFFD.
+    private void putString(byte op, @NonNull String str) {
+        final int n = str.length();
+        // a UTF-16 char never needs more than 3 bytes of UTF-8
+        op(op, 4 + (3 * n));
+        final int lenPos = len;
+        len += 4;
+
+        int i = 0;
+        while (i < n) {
+            final char c = str.charAt(i++);
+            if (c < 0x80) { buf[len++] = (byte) c; }
+            else if (c < 0x800) {
+                buf[len++] = (byte) (0xC0 | (c >> 6));
+                buf[len++] = (byte) (0x80 | (c & 0x3F));
+            }
+            else if (!Character.isSurrogate(c)) { put3(c); }
+            else if (Character.isHighSurrogate(c) && (i < n) && Character.isLowSurrogate(str.charAt(i))) {
+                final int cp = Character.toCodePoint(c, str.charAt(i++));
+                buf[len++] = (byte) (0xF0 | (cp >> 18));
+                buf[len++] = (byte) (0x80 | ((cp >> 12) & 0x3F));
+                buf[len++] = (byte) (0x80 | ((cp >> 6) & 0x3F));
+                buf[len++] = (byte) (0x80 | (cp & 0x3F));
+            }
+            else { put3('\uFFFD'); }
+        }
+
+        final int strLen = len - (lenPos + 4);
+        buf[lenPos] = (byte) strLen;
+        buf[lenPos + 1] = (byte) (strLen >> 8);
+        buf[lenPos + 2] = (byte) (strLen >> 16);
+        buf[lenPos + 3] = (byte) (strLen >> 24);
+    }
+
+    private void put3(char c) {
+        buf[len++] = (byte) (0xE0 | (c >> 12));
+        buf[len++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+        buf[len++] = (byte) (0x80 | (c & 0x3F));
+    }
+
+    private void putInt(int n) {
+        buf[len++] = (byte) n;
+        buf[len++] = (byte) (n >> 8);
+        buf[len++] = (byte) (n >> 16);
+        buf[len++] = (byte) (n >> 24);
+    }
+
+    private void putLong(long n) {
+        putInt((int) n);
+        putInt((int) (n >> 32));
+    }
+
+    private void ensureCapacity(int needed) {
+        final int required = len + needed;
+        if (required <= buf.length) { return; }
+        buf = Arrays.copyOf(buf, Math.max(required, buf.length * 2));
+    }
+
+    private static int toReserve(long reserve) { return (int) Math.min(Math.max(reserve, 0), Integer.MAX_VALUE); }
+}
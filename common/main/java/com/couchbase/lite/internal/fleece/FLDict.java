@@ -15,6 +15,7 @@
 //
 package com.couchbase.lite.internal.fleece;
 
+import androidx.annotation.GuardedBy;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 
@@ -31,6 +32,8 @@ public class FLDict {
     public interface NativeImpl {
         long nCount(long dict);
         long nGet(long dict, @NonNull byte[] keyString);
+        long nGetWithKeySlice(long dict, long keyBase, long keySize);
+        boolean nUsesSharedKeys(long dict, long sharedKeys);
 
         // Iterator
         long nInit(long dict);
@@ -38,6 +41,8 @@ public class FLDict {
         boolean nNext(long itr);
         @Nullable
         String nGetKey(long itr);
+        @Nullable
+        String nGetKeyOrId(long itr, @NonNull int[] keyId);
         long nGetValue(long itr);
         void nFree(long itr);
     }
@@ -55,6 +60,14 @@ public class FLDict {
     private final NativeImpl impl;
     private final long peer; // hold pointer to FLDict
 
+    // The shared keys last passed to usesSharedKeys, and the answer.
+    // Finding a value's document takes Fleece's global lock: do it only once per dictionary.
+    @GuardedBy("this")
+    @Nullable
+    private FLSharedKeys checkedSharedKeys;
+    @GuardedBy("this")
+    private boolean usesCheckedSharedKeys;
+
     //-------------------------------------------------------------------------
     // Constructor
     //-------------------------------------------------------------------------
@@ -73,6 +86,15 @@ public class FLDict {
 
     public long count() { return impl.nCount(peer); }
 
+    // True if this dictionary belongs to a document that was encoded with the passed shared keys.
+    public synchronized boolean usesSharedKeys(@NonNull FLSharedKeys sharedKeys) {
+        if (sharedKeys != checkedSharedKeys) {
+            usesCheckedSharedKeys = impl.nUsesSharedKeys(peer, sharedKeys.getPeer());
+            checkedSharedKeys = sharedKeys;
+        }
+        return usesCheckedSharedKeys;
+    }
+
     @Nullable
     public FLValue get(@Nullable String key) {
         if (key == null) { return null; }
@@ -82,6 +104,13 @@ public class FLDict {
         return hValue == 0L ? null : FLValue.getFLValue(hValue);
     }
 
+    // Look up a key that is already UTF-8 encoded, in native memory
+    @Nullable
+    public FLValue get(@NonNull FLSliceResult key) {
+        final long hValue = impl.nGetWithKeySlice(peer, key.getBase(), key.getSize());
+        return hValue == 0L ? null : FLValue.getFLValue(hValue);
+    }
+
     @NonNull
     public <K, V> Map<K, V> asMap(@NonNull Class<K> keyClass, @NonNull Class<V> valueClass) {
         final Map<K, V> results = new HashMap<>();
@@ -95,8 +124,27 @@ public class FLDict {
         return results;
     }
 
+    // Convert the entire dictionary, with a single JNI call
+    @NonNull
+    public Map<String, Object> asMap() { return asMap(null); }
+
+    // Convert the entire dictionary, with a single JNI call, using interned shared keys
+    @SuppressWarnings("unchecked")
     @NonNull
-    public FLDictIterator iterator() { return new FLDictIterator(impl, this); }
+    public Map<String, Object> asMap(@Nullable FLSharedKeys sharedKeys) {
+        final Object map = toFLValue().toJava(sharedKeys);
+        return (map instanceof Map) ? (Map<String, Object>) map : new HashMap<>();
+    }
+
+    @NonNull
+    public FLDictIterator iterator() { return new FLDictIterator(impl, this, null); }
+
+    // An iterator that gets keys from the passed shared keys' intern table,
+    // if this dictionary was encoded with them.
+    @NonNull
+    public FLDictIterator iterator(@Nullable FLSharedKeys sharedKeys) {
+        return new FLDictIterator(impl, this, ((sharedKeys != null) && usesSharedKeys(sharedKeys)) ? sharedKeys : null);
+    }
 
     //-------------------------------------------------------------------------
     // protected methods
@@ -23,20 +23,32 @@ import com.couchbase.lite.internal.core.C4NativePeer;
 
 
 public final class FLDictIterator extends C4NativePeer {
+    // The key ID returned by nGetKeyOrId for a key that is not shared.  This must match native_fleece.cc
+    private static final int KEY_ID_NOT_SHARED = -1;
+
     private final FLDict.NativeImpl impl;
 
     // Hold a reference to the object over which we iterate.
     @SuppressWarnings({"PMD.SingularField", "PMD.UnusedPrivateField", "FieldCanBeLocal", "unused"})
     private final FLDict dict;
 
+    // Non-null only if the dictionary was encoded with these shared keys: FLDict checks.
+    @Nullable
+    private final FLSharedKeys sharedKeys;
+
+    // Receives the ID of a shared key from nGetKeyOrId.  An iterator is used by a single thread.
+    @NonNull
+    private final int[] keyId = new int[1];
+
     //-------------------------------------------------------------------------
     // Constructor
     //-------------------------------------------------------------------------
 
-    FLDictIterator(@NonNull FLDict.NativeImpl impl, @NonNull FLDict dict) {
+    FLDictIterator(@NonNull FLDict.NativeImpl impl, @NonNull FLDict dict, @Nullable FLSharedKeys sharedKeys) {
         super(dict.withContent(impl::nInit));
         this.impl = impl;
         this.dict = dict;
+        this.sharedKeys = sharedKeys;
     }
 
     //-------------------------------------------------------------------------
@@ -53,7 +65,18 @@ public final class FLDictIterator extends C4NativePeer {
     public void next() { withPeerOrThrow(impl::nNext); }
 
     @Nullable
-    public String getKey() { return withPeerOrNull(impl::nGetKey); }
+    public String getKey() {
+        return withPeerOrNull(peer -> {
+            if (sharedKeys == null) { return impl.nGetKey(peer); }
+
+            // A key that is not shared comes back as a String, in the same call.
+            // A shared key comes back as its ID: it is interned, so there is no need to create a new String for it.
+            final String key = impl.nGetKeyOrId(peer, keyId);
+            if ((key != null) || (keyId[0] <= KEY_ID_NOT_SHARED)) { return key; }
+            final String sharedKey = sharedKeys.getKey(keyId[0]);
+            return (sharedKey != null) ? sharedKey : impl.nGetKey(peer);
+        });
+    }
 
     @NonNull
     public FLValue getValue() {
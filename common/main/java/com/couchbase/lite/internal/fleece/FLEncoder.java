@@ -15,9 +15,14 @@
 //
 package com.couchbase.lite.internal.fleece;
 
+import androidx.annotation.GuardedBy;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Deque;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -42,20 +47,11 @@ public abstract class FLEncoder extends C4NativePeer {
     public interface NativeImpl {
         long nCreateFleeceEncoder();
         long nCreateJSONEncoder();
-        boolean nWriteNull(long peer);
-        boolean nWriteBool(long peer, boolean value);
-        boolean nWriteInt(long peer, long value); // 64bit
-        boolean nWriteFloat(long peer, float value);
-        boolean nWriteDouble(long peer, double value);
-        boolean nWriteString(long peer, @NonNull String value);
+        void nSetSharedKeys(long peer, long sharedKeys);
         boolean nWriteStringChars(long peer, @NonNull char[] value);
-        boolean nWriteData(long peer, @NonNull byte[] value);
-        boolean nWriteValue(long peer, long value /*FLValue*/);
-        boolean nBeginArray(long peer, long reserve);
-        boolean nEndArray(long peer);
-        boolean nBeginDict(long peer, long reserve);
-        boolean nEndDict(long peer);
-        boolean nWriteKey(long peer, @NonNull String slice);
+        boolean nWriteDictEntriesExcept(long peer, long dict /*FLDict*/, @NonNull String[] excludedKeys);
+        boolean nWriteCommands(long peer, @NonNull byte[] commands, int len);
+        boolean nWriteEncoded(long peer, long body, long size, long sharedKeys);
         void nReset(long peer);
         @NonNull
         byte[] nFinish(long peer) throws LiteCoreException;
@@ -76,6 +72,7 @@ public abstract class FLEncoder extends C4NativePeer {
                 null,
                 peer -> {
                     synchronized (arguments) { arguments.clear(); }
+                    commands.clear();
                     impl.nReset(peer);
                 });
         }
@@ -99,18 +96,107 @@ public abstract class FLEncoder extends C4NativePeer {
             releasePeer(
                 domain,
                 (peer) -> {
+                    commands.clear();
                     final NativeImpl nativeImpl = impl;
                     if (nativeImpl != null) { nativeImpl.nFree(peer); }
                 });
         }
     }
 
+    // pooled: when closed, the native encoder is reset and returned to its pool
+    static final class PooledFLEncoder extends ManagedFLEncoder {
+        @NonNull
+        private final Pool pool;
+
+        PooledFLEncoder(@NonNull NativeImpl impl, long peer, @NonNull Pool pool) {
+            super(impl, peer);
+            this.pool = pool;
+        }
+
+        @Override
+        public void close() {
+            releasePeer(
+                null,
+                peer -> {
+                    synchronized (arguments) { arguments.clear(); }
+                    commands.clear();
+                    impl.nReset(peer);
+                    pool.release(peer);
+                });
+        }
+    }
+
+    /**
+     * A pool of native Fleece encoders, for encoding documents without holding the database lock.
+     * The encoders use the database's shared keys but, outside a transaction, they cannot add to them:
+     * keys that are already shared are encoded as shared keys, other keys as strings.
+     * Closing the pool frees the idle encoders.
+     * Encoders that are in use when the pool is closed are freed when they are closed.
+     */
+    public static final class Pool implements AutoCloseable {
+        private static final int MAX_IDLE_ENCODERS = 8;
+
+        @NonNull
+        private final NativeImpl impl;
+
+        private final long sharedKeys; // hold pointer to FLSharedKeys
+
+        @GuardedBy("idle")
+        private final Deque<Long> idle = new ArrayDeque<>();
+        @GuardedBy("idle")
+        private boolean closed;
+
+        Pool(@NonNull NativeImpl impl, @NonNull FLSharedKeys sharedKeys) {
+            this.impl = impl;
+            this.sharedKeys = sharedKeys.getPeer();
+        }
+
+        // Returns null if the pool has been closed.
+        @Nullable
+        public FLEncoder getEncoder() {
+            final long peer;
+            synchronized (idle) {
+                if (closed) { return null; }
+                final Long idlePeer = idle.poll();
+                peer = (idlePeer != null) ? idlePeer : impl.nCreateFleeceEncoder();
+            }
+            impl.nSetSharedKeys(peer, sharedKeys);
+            return new PooledFLEncoder(impl, peer, this);
+        }
+
+        @Override
+        public void close() {
+            final List<Long> peers;
+            synchronized (idle) {
+                closed = true;
+                peers = new ArrayList<>(idle);
+                idle.clear();
+            }
+            for (long peer: peers) { impl.nFree(peer); }
+        }
+
+        void release(long peer) {
+            synchronized (idle) {
+                if ((!closed) && (idle.size() < MAX_IDLE_ENCODERS)) {
+                    idle.push(peer);
+                    return;
+                }
+            }
+            impl.nFree(peer);
+        }
+    }
+
     // special managed flencoder for JSON
     public static final class JSONEncoder extends ManagedFLEncoder {
         private JSONEncoder(@NonNull NativeImpl impl, long peer) { super(impl, peer); }
 
         @NonNull
-        public String finishJSON() throws LiteCoreException { return withPeerOrThrow(impl::nFinishJSON); }
+        public String finishJSON() throws LiteCoreException {
+            return withPeerOrThrow(peer -> {
+                flushCommands(peer);
+                return impl.nFinishJSON(peer);
+            });
+        }
 
         @Override
         @NonNull
@@ -136,6 +222,9 @@ public abstract class FLEncoder extends C4NativePeer {
         return new ManagedFLEncoder(NATIVE_IMPL, NATIVE_IMPL.nCreateFleeceEncoder());
     }
 
+    @NonNull
+    public static Pool createPool(@NonNull FLSharedKeys sharedKeys) { return new Pool(NATIVE_IMPL, sharedKeys); }
+
     @NonNull
     public static JSONEncoder getJSONEncoder() {
         return new JSONEncoder(NATIVE_IMPL, NATIVE_IMPL.nCreateJSONEncoder());
@@ -164,6 +253,13 @@ public abstract class FLEncoder extends C4NativePeer {
 
     protected final Map<String, Object> arguments = new HashMap<>();
 
+    // Writes are recorded here and replayed into the native encoder, with a single JNI call,
+    // when the encoding is finished.  An encoder is used by only one thread at a time: it is
+    // either owned by a single caller or, if it is a database's shared encoder, guarded by
+    // the database lock.
+    @NonNull
+    protected final FLCommandBuffer commands = new FLCommandBuffer();
+
     //-------------------------------------------------------------------------
     // Constructor
     //-------------------------------------------------------------------------
@@ -207,104 +303,106 @@ public abstract class FLEncoder extends C4NativePeer {
         synchronized (arguments) { return arguments.get(key); }
     }
 
-    public boolean writeNull() { return withPeerOrThrow(impl::nWriteNull); }
+    public boolean writeNull() { return commands.writeNull() && flushIfFull(); }
 
-    public boolean writeString(@NonNull String value) {
-        return this.<Boolean, CouchbaseLiteError>withPeerOrThrow(p -> impl.nWriteString(p, value));
-    }
+    public boolean writeBool(boolean value) { return commands.writeBool(value) && flushIfFull(); }
 
+    public boolean writeInt(long value) { return commands.writeInt(value) && flushIfFull(); }
+
+    public boolean writeFloat(float value) { return commands.writeFloat(value) && flushIfFull(); }
+
+    public boolean writeDouble(double value) { return commands.writeDouble(value) && flushIfFull(); }
+
+    public boolean writeString(@NonNull String value) { return commands.writeString(value) && flushIfFull(); }
+
+    // The chars are passed directly to native code: they are not copied into the command buffer.
     public boolean writeString(@NonNull char[] value) {
-        return this.<Boolean, CouchbaseLiteError>withPeerOrThrow(p -> impl.nWriteStringChars(p, value));
+        if (!commands.startValue()) { return false; }
+        return this.<Boolean, CouchbaseLiteError>withPeerOrThrow(
+            p -> flushCommands(p) && impl.nWriteStringChars(p, value));
     }
 
-    public boolean writeData(@NonNull byte[] value) {
-        return this.<Boolean, CouchbaseLiteError>withPeerOrThrow(p -> impl.nWriteData(p, value));
-    }
+    public boolean writeData(@NonNull byte[] value) { return commands.writeData(value) && flushIfFull(); }
 
-    public boolean beginDict(long reserve) {
-        return this.<Boolean, CouchbaseLiteError>withPeerOrThrow(p -> impl.nBeginDict(p, reserve));
-    }
+    public boolean beginDict(long reserve) { return commands.beginDict(reserve) && flushIfFull(); }
 
-    public boolean endDict() { return withPeerOrThrow(impl::nEndDict); }
+    public boolean endDict() { return commands.endDict() && flushIfFull(); }
 
-    public boolean beginArray(long reserve) {
-        return this.<Boolean, CouchbaseLiteError>withPeerOrThrow(p -> impl.nBeginArray(p, reserve));
-    }
+    public boolean beginArray(long reserve) { return commands.beginArray(reserve) && flushIfFull(); }
 
-    public boolean endArray() { return withPeerOrThrow(impl::nEndArray); }
+    public boolean endArray() { return commands.endArray() && flushIfFull(); }
 
     public boolean writeKey(String slice) {
-        return this.<Boolean, CouchbaseLiteError>withPeerOrThrow(p -> impl.nWriteKey(p, slice));
+        if (slice == null) { return false; }
+        return commands.writeKey(slice) && flushIfFull();
     }
 
     @SuppressWarnings({"unchecked", "PMD.NPathComplexity", "PMD.CognitiveComplexity"})
     public boolean writeValue(@Nullable Object value) {
-        return withPeerOrThrow(peer -> {
-            // null
-            if (value == null) { return impl.nWriteNull(peer); }
+        // null
+        if (value == null) { return writeNull(); }
 
-            // boolean
-            if (value instanceof Boolean) { return impl.nWriteBool(peer, (Boolean) value); }
+        // boolean
+        if (value instanceof Boolean) { return writeBool((Boolean) value); }
 
-            // Number
-            if (value instanceof Number) {
-                // Integer
-                if (value instanceof Integer) { return impl.nWriteInt(peer, ((Integer) value).longValue()); }
+        // Number
+        if (value instanceof Number) {
+            // Integer
+            if (value instanceof Integer) { return writeInt(((Integer) value).longValue()); }
 
-                // Long
-                if (value instanceof Long) { return impl.nWriteInt(peer, (Long) value); }
+            // Long
+            if (value instanceof Long) { return writeInt((Long) value); }
 
-                // Short
-                if (value instanceof Short) { return impl.nWriteInt(peer, ((Short) value).longValue()); }
+            // Short
+            if (value instanceof Short) { return writeInt(((Short) value).longValue()); }
 
-                // Double
-                if (value instanceof Double) { return impl.nWriteDouble(peer, (Double) value); }
+            // Double
+            if (value instanceof Double) { return writeDouble((Double) value); }
 
-                // Float
-                return impl.nWriteFloat(peer, (Float) value);
-            }
+            // Float
+            return writeFloat((Float) value);
+        }
 
-            // String
-            if (value instanceof String) { return impl.nWriteString(peer, (String) value); }
+        // String
+        if (value instanceof String) { return writeString((String) value); }
 
-            // String (represented as char[])
-            if (value instanceof char[]) { return writeString((char[]) value); }
+        // String (represented as char[])
+        if (value instanceof char[]) { return writeString((char[]) value); }
 
-            // byte[]
-            if (value instanceof byte[]) { return impl.nWriteData(peer, (byte[]) value); }
+        // byte[]
+        if (value instanceof byte[]) { return writeData((byte[]) value); }
 
-            // List
-            if (value instanceof List) { return write((List<?>) value); }
+        // List
+        if (value instanceof List) { return write((List<?>) value); }
 
-            // Map
-            if (value instanceof Map) { return write((Map<String, Object>) value); }
+        // Map
+        if (value instanceof Map) { return write((Map<String, Object>) value); }
 
-            // FLValue
-            if (value instanceof FLValue) {
-                final Boolean val = ((FLValue) value).withContent(hdl -> impl.nWriteValue(peer, hdl));
-                return (val != null) && val;
-            }
+        // FLValue
+        if (value instanceof FLValue) {
+            final Boolean val = ((FLValue) value).withContent(hdl -> write(hdl));
+            return (val != null) && val;
+        }
 
-            // FLDict
-            if (value instanceof FLDict) {
-                final Boolean val = ((FLDict) value).withContent(hdl -> impl.nWriteValue(peer, hdl));
-                return (val != null) && val;
-            }
+        // FLDict
+        if (value instanceof FLDict) {
+            final Boolean val = ((FLDict) value).withContent(hdl -> write(hdl));
+            return (val != null) && val;
+        }
 
-            // FLArray
-            if (value instanceof FLArray) {
-                final Boolean val = ((FLArray) value).withContent(hdl -> impl.nWriteValue(peer, hdl));
-                return (val != null) && val;
-            }
+        // FLArray
+        if (value instanceof FLArray) {
+            final Boolean val = ((FLArray) value).withContent(hdl -> write(hdl));
+            return (val != null) && val;
+        }
 
-            // Encodable
-            if (value instanceof FleeceEncodable) {
-                ((FleeceEncodable) value).encodeTo(this);
-                return true;
-            }
+        // Encodable
+        if (value instanceof FleeceEncodable) {
+            ((FleeceEncodable) value).encodeTo(this);
+            return true;
+        }
 
-            return false;
-        });
+        return false;
     }
 
     public boolean write(@Nullable Map<String, Object> map) {
@@ -330,14 +428,71 @@ public abstract class FLEncoder extends C4NativePeer {
         return ok && endArray();
     }
 
-    public boolean write(long hdl) { return withPeerOrThrow(peer -> impl.nWriteValue(peer, hdl)); }
+    // Write the entries of the dictionary, except those with the excluded keys, in a single native call.
+    // Must be called between beginDict and endDict.
+    public boolean writeEntriesExcept(@NonNull FLDict dict, @NonNull Collection<String> excludedKeys) {
+        if (!commands.isExpectingKey()) { return false; }
+        final String[] keys = excludedKeys.toArray(new String[0]);
+        return withPeerOrThrow(peer -> {
+            final Boolean val
+                = dict.withContent(hdl -> flushCommands(peer) && impl.nWriteDictEntriesExcept(peer, hdl, keys));
+            return (val != null) && val;
+        });
+    }
+
+    // Write the root of a Fleece document, encoded with the passed shared keys, in a single native call.
+    // Its integer keys are read with those shared keys; its string keys are added to the encoder's
+    // shared keys, if possible.
+    public boolean writeEncoded(@NonNull FLSliceResult body, @NonNull FLSharedKeys sharedKeys) {
+        if (!commands.startValue()) { return false; }
+        final long keys = sharedKeys.getPeer();
+        return withPeerOrThrow(
+            peer -> flushCommands(peer) && impl.nWriteEncoded(peer, body.getBase(), body.getSize(), keys));
+    }
+
+    // The handle is valid only for the duration of this call, so the buffered commands,
+    // including the write of this value, must be sent to native now.
+    public boolean write(long hdl) {
+        return commands.writeValue(hdl) && withPeerOrThrow(this::flushCommands);
+    }
 
-    public void reset() { impl.nReset(getPeer()); }
+    public void reset() {
+        voidWithPeerOrThrow(peer -> {
+            commands.clear();
+            impl.nReset(peer);
+        });
+    }
 
     @NonNull
-    public byte[] finish() throws LiteCoreException { return impl.nFinish(getPeer()); }
+    public byte[] finish() throws LiteCoreException {
+        return withPeerOrThrow(peer -> {
+            flushCommands(peer);
+            return impl.nFinish(peer);
+        });
+    }
 
     // NOTE: the FLSliceResult returned by this method must be released by the caller
     @NonNull
-    public FLSliceResult finish2() throws LiteCoreException { return impl.nFinish2(getPeer()); }
+    public FLSliceResult finish2() throws LiteCoreException {
+        return withPeerOrThrow(peer -> {
+            flushCommands(peer);
+            return impl.nFinish2(peer);
+        });
+    }
+
+    //-------------------------------------------------------------------------
+    // private methods
+    //-------------------------------------------------------------------------
+
+    // Very large documents are sent to native in pieces, to limit the size of the buffer.
+    private boolean flushIfFull() { return (!commands.isFull()) || withPeerOrThrow(this::flushCommands); }
+
+    // Replay the buffered commands into the native encoder.
+    // If a command fails, the native encoder records the error and finish will report it.
+    // Must be called while holding the peer lock.
+    boolean flushCommands(long peer) {
+        if (commands.isEmpty()) { return true; }
+        try { return impl.nWriteCommands(peer, commands.getBytes(), commands.size()); }
+        finally { commands.clearCommands(); }
+    }
 }
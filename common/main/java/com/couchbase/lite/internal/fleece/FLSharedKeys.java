@@ -15,13 +15,95 @@
 //
 package com.couchbase.lite.internal.fleece;
 
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.VisibleForTesting;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import com.couchbase.lite.internal.fleece.impl.NativeFLSharedKeys;
 import com.couchbase.lite.internal.utils.Preconditions;
 
 
+/**
+ * A database's Fleece shared keys.
+ * <p>
+ * In a document encoded with shared keys, common dictionary keys are stored as small integers.
+ * This object interns, by that integer ID, the Java String for each key that crosses into Java.
+ * Iterating over the keys of any number of dictionaries creates a key's String only once.
+ * Lookups are lock-free.
+ * <p>
+ * Aborting a transaction reverts any keys added during it: after an abort, an ID may be reassigned
+ * to a different key.  The database must call clearKeys when a transaction is aborted.
+ * Each call to clearKeys starts a new generation: anything encoded with the keys of an earlier
+ * generation may refer to keys that no longer exist.
+ */
 public class FLSharedKeys {
+    public interface NativeImpl {
+        @Nullable
+        String nDecode(long sharedKeys, int keyId);
+        boolean nHasShareableStringKeys(long body, long size);
+    }
+
+    // Fleece never creates more than this many shared keys.
+    @VisibleForTesting
+    static final int MAX_KEYS = 2048;
+
+    @NonNull
+    private static final NativeImpl NATIVE_IMPL = new NativeFLSharedKeys();
+
+
+    @NonNull
+    private final NativeImpl impl;
+
     private final long peer; // hold pointer to FLSharedKeys
 
-    public FLSharedKeys(long peer) { this.peer = Preconditions.assertNotZero(peer, "peer"); }
+    @NonNull
+    private volatile AtomicReferenceArray<String> keys = new AtomicReferenceArray<>(MAX_KEYS);
+
+    @NonNull
+    private final AtomicLong generation = new AtomicLong();
+
+    public FLSharedKeys(long peer) { this(NATIVE_IMPL, peer); }
+
+    @VisibleForTesting
+    FLSharedKeys(@NonNull NativeImpl impl, long peer) {
+        this.impl = impl;
+        this.peer = Preconditions.assertNotZero(peer, "peer");
+    }
 
     public long getPeer() { return peer; }
+
+    // Forget all interned keys: some of them may have been reverted.
+    public void clearKeys() {
+        keys = new AtomicReferenceArray<>(MAX_KEYS);
+        generation.incrementAndGet();
+    }
+
+    public long getGeneration() { return generation.get(); }
+
+    // True if the Fleece body contains a dictionary key that is stored as a string
+    // but that is eligible to be a shared key.
+    public boolean hasShareableStringKeys(@NonNull FLSliceResult body) {
+        return impl.nHasShareableStringKeys(body.getBase(), body.getSize());
+    }
+
+    // Get the canonical String for a shared key ID.
+    // Returns null if the ID is not a valid shared key.
+    @Nullable
+    public String getKey(int keyId) {
+        if (keyId < 0) { return null; }
+        if (keyId >= MAX_KEYS) { return impl.nDecode(peer, keyId); }
+
+        final AtomicReferenceArray<String> table = keys;
+        final String key = table.get(keyId);
+        if (key != null) { return key; }
+
+        final String decoded = impl.nDecode(peer, keyId);
+        if (decoded == null) { return null; }
+
+        // if another thread got here first, use its String
+        return table.compareAndSet(keyId, null, decoded) ? decoded : table.get(keyId);
+    }
 }
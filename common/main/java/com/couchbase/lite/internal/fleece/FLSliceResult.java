@@ -20,7 +20,10 @@ import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 import androidx.annotation.VisibleForTesting;
 
+import java.nio.ByteBuffer;
+
 import com.couchbase.lite.CouchbaseLiteError;
+import com.couchbase.lite.LiteCoreException;
 import com.couchbase.lite.internal.fleece.impl.NativeFLSliceResult;
 import com.couchbase.lite.internal.utils.ClassUtils;
 import com.couchbase.lite.internal.utils.Preconditions;
@@ -37,6 +40,12 @@ public final class FLSliceResult implements AutoCloseable {
         @Nullable
         byte[] nGetBuf(long base, long size);
         void nRelease(long base, long size);
+        @NonNull
+        FLSliceResult nCopyOf(@NonNull byte[] bytes);
+        @NonNull
+        ByteBuffer nGetByteBuffer(long base, long size);
+        @NonNull
+        FLSliceResult nCopyOfBuffer(@NonNull ByteBuffer buf, int offset, int length) throws LiteCoreException;
     }
 
     private static final FLSliceResult.NativeImpl NATIVE_IMPL = new NativeFLSliceResult();
@@ -45,6 +54,21 @@ public final class FLSliceResult implements AutoCloseable {
     @NonNull
     public static FLSliceResult create(long base, long size) { return new FLSliceResult(NATIVE_IMPL, base, size); }
 
+    // Copy the bytes into native memory
+    @NonNull
+    public static FLSliceResult copyOf(@NonNull byte[] bytes) { return NATIVE_IMPL.nCopyOf(bytes); }
+
+    // Copy the remaining bytes in the buffer into native memory.  The buffer's position is not changed.
+    // The contents of a direct buffer are copied natively, without passing through the Java heap.
+    @NonNull
+    public static FLSliceResult copyOf(@NonNull ByteBuffer buf) throws LiteCoreException {
+        if (buf.isDirect()) { return NATIVE_IMPL.nCopyOfBuffer(buf, buf.position(), buf.remaining()); }
+
+        final byte[] bytes = new byte[buf.remaining()];
+        buf.duplicate().get(bytes);
+        return copyOf(bytes);
+    }
+
     @VisibleForTesting
     @NonNull
     public static FLSliceResult createTestSlice() { return create(0, 0); }
@@ -94,6 +118,19 @@ public final class FLSliceResult implements AutoCloseable {
         synchronized (this) { return getValidImpl().nGetBuf(base, size); }
     }
 
+    // Returns a read-only, direct buffer over the native memory: nothing is copied.
+    // !!! The buffer is valid only until this object is closed (or finalized).  After that,
+    // any use of the buffer will read freed memory.  The caller must hold a reference
+    // to this object, and must not close it, for as long as it uses the buffer.
+    @NonNull
+    public ByteBuffer asReadOnlyByteBuffer() {
+        synchronized (this) {
+            final NativeImpl ni = getValidImpl();
+            if (size == 0) { return ByteBuffer.allocateDirect(0).asReadOnlyBuffer(); }
+            return ni.nGetByteBuffer(base, size).asReadOnlyBuffer();
+        }
+    }
+
     @NonNull
     @Override
     public String toString() {
@@ -0,0 +1,152 @@
+//
+// Copyright (c) 2020 Couchbase, Inc.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+package com.couchbase.lite.internal.fleece;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.couchbase.lite.CouchbaseLiteError;
+
+
+/**
+ * Decodes the compact encoding of a Fleece tree produced, in a single JNI call,
+ * by NativeFLValue.encodeTrees.  The result is exactly what FLValue.toJava would produce,
+ * without a JNI call for each node in the tree.
+ * <p>
+ * Each value is a one byte tag followed by its content.  Multi-byte quantities are little-endian.
+ * Strings and data are a 4 byte length followed by the bytes; arrays are a 4 byte count
+ * followed by the items; dictionaries are a 4 byte count followed by key/value pairs,
+ * in which the key is a string without a tag.  If the decoder has shared keys, a key that is
+ * a shared key is encoded as a negative length, -1 - the key's ID: its String comes from
+ * the shared keys' intern table.
+ */
+final class FLTreeDecoder {
+    // Tags: these must match the values in native_fleece.cc
+    private static final byte TAG_NULL = 0;
+    private static final byte TAG_FALSE = 1;
+    private static final byte TAG_TRUE = 2;
+    private static final byte TAG_LONG = 3;
+    private static final byte TAG_FLOAT = 4;
+    private static final byte TAG_DOUBLE = 5;
+    private static final byte TAG_STRING = 6;
+    private static final byte TAG_DATA = 7;
+    private static final byte TAG_ARRAY = 8;
+    private static final byte TAG_DICT = 9;
+
+    @NonNull
+    static List<Object> decode(@NonNull byte[] tree, int count, @Nullable FLSharedKeys sharedKeys) {
+        final FLTreeDecoder decoder = new FLTreeDecoder(tree, sharedKeys);
+        final List<Object> values = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) { values.add(decoder.readValue()); }
+        return values;
+    }
+
+
+    @NonNull
+    private final ByteBuffer buf;
+    @Nullable
+    private final FLSharedKeys sharedKeys;
+
+    private FLTreeDecoder(@NonNull byte[] tree, @Nullable FLSharedKeys sharedKeys) {
+        buf = ByteBuffer.wrap(tree).order(ByteOrder.LITTLE_ENDIAN);
+        this.sharedKeys = sharedKeys;
+    }
+
+    @Nullable
+    private Object readValue() {
+        final byte tag = buf.get();
+        switch (tag) {
+            case TAG_NULL:
+                return null;
+            case TAG_FALSE:
+                return Boolean.FALSE;
+            case TAG_TRUE:
+                return Boolean.TRUE;
+            case TAG_LONG:
+                return buf.getLong();
+            case TAG_FLOAT:
+                return buf.getFloat();
+            case TAG_DOUBLE:
+                return buf.getDouble();
+            case TAG_STRING:
+                return readString();
+            case TAG_DATA:
+                return readData();
+            case TAG_ARRAY:
+                return readArray();
+            case TAG_DICT:
+                return readDict();
+            default:
+                throw new CouchbaseLiteError("Unrecognized tag in Fleece tree: " + tag);
+        }
+    }
+
+    @NonNull
+    private String readString() { return readString(buf.getInt()); }
+
+    @NonNull
+    private String readString(int len) {
+        final int pos = buf.position();
+        buf.position(pos + len);
+        return new String(buf.array(), pos, len, StandardCharsets.UTF_8);
+    }
+
+    @NonNull
+    private byte[] readData() {
+        final byte[] data = new byte[buf.getInt()];
+        buf.get(data);
+        return data;
+    }
+
+    @NonNull
+    private List<Object> readArray() {
+        final int n = buf.getInt();
+        final List<Object> list = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) { list.add(readValue()); }
+        return list;
+    }
+
+    @NonNull
+    private Map<String, Object> readDict() {
+        final int n = buf.getInt();
+        final Map<String, Object> map = new HashMap<>();
+        for (int i = 0; i < n; i++) {
+            final String key = readKey();
+            map.put(key, readValue());
+        }
+        return map;
+    }
+
+    // A negative length is the encoding of a shared key ID
+    @NonNull
+    private String readKey() {
+        final int len = buf.getInt();
+        if (len >= 0) { return readString(len); }
+
+        final int keyId = -1 - len;
+        final String key = (sharedKeys == null) ? null : sharedKeys.getKey(keyId);
+        if (key == null) { throw new CouchbaseLiteError("Unrecognized shared key in Fleece tree: " + keyId); }
+        return key;
+    }
+}
@@ -79,6 +79,18 @@ public class FLValue {
         long nAsDict(long value);
         @Nullable
         String nJson5toJson(@Nullable String json5) throws LiteCoreException;
+        @NonNull
+        FLSliceResult nJsonToFleece(@NonNull String json) throws LiteCoreException;
+        @NonNull
+        byte[] nEncodeTrees(@NonNull long[] values, long sharedKeys);
+        int nIsEqual(long value1, long value2);
+        int nContentHash(long value);
+        @NonNull
+        String nDigest(long value) throws LiteCoreException;
+        @Nullable
+        String nCreateJSONDelta(long oldValue, long newValue);
+        @NonNull
+        FLSliceResult nApplyJSONDelta(long oldValue, @NonNull String delta) throws LiteCoreException;
     }
 
     @NonNull
@@ -115,6 +127,49 @@ public class FLValue {
         return impl.nJson5toJson(json5);
     }
 
+    /**
+     * Converts JSON directly to Fleece, without creating any Java objects for its content.
+     * The root value of the returned slice is available through fromData.
+     *
+     * @param json String
+     * @return the Fleece encoding of the JSON
+     * @throws LiteCoreException on parse failure
+     */
+    @NonNull
+    public static FLSliceResult fromJSON(@NonNull String json) throws LiteCoreException {
+        return NATIVE_IMPL.nJsonToFleece(json);
+    }
+
+    /**
+     * Converts several values to Java objects, as if by calling toJava on each,
+     * with a single JNI call.
+     *
+     * @param values the values to convert
+     * @return a list of the converted values, in the same order
+     */
+    @NonNull
+    public static List<Object> toJava(@NonNull List<FLValue> values) { return toJava(values, null); }
+
+    /**
+     * Converts several values to Java objects, with a single JNI call.  Dictionary keys
+     * that are shared keys are taken from the passed shared keys' intern table.
+     *
+     * @param values     the values to convert
+     * @param sharedKeys the shared keys with which the values were, probably, encoded
+     * @return a list of the converted values, in the same order
+     */
+    @NonNull
+    public static List<Object> toJava(@NonNull List<FLValue> values, @Nullable FLSharedKeys sharedKeys) {
+        final int n = values.size();
+        final long[] peers = new long[n];
+        for (int i = 0; i < n; i++) { peers[i] = values.get(i).peer; }
+        return FLTreeDecoder.decode(NATIVE_IMPL.nEncodeTrees(peers, getPeer(sharedKeys)), n, sharedKeys);
+    }
+
+    private static long getPeer(@Nullable FLSharedKeys sharedKeys) {
+        return (sharedKeys == null) ? 0L : sharedKeys.getPeer();
+    }
+
     @NonNull
     private static FLValue fromData(@NonNull NativeImpl impl, @NonNull byte[] data) {
         return FLValue.getFLValue(impl.nFromTrustedData(data));
@@ -219,6 +274,60 @@ public class FLValue {
     @Nullable
     public String toJSON5() { return impl.nToJSON5(peer); }
 
+    /**
+     * Compares the content of two values, deeply, exactly as Dictionary.equals and Array.equals
+     * would compare them in Java.  In particular, blobs are equal if their digests are equal.
+     * Blobs whose digests are not both known can be compared only by their content, in Java.
+     *
+     * @param other the value to which to compare this one
+     * @return true if the two values have the same content, null if they must be compared in Java
+     */
+    @Nullable
+    public Boolean isEqual(@NonNull FLValue other) {
+        final int eq = impl.nIsEqual(peer, other.peer);
+        return (eq < 0) ? null : (eq != 0);
+    }
+
+    /**
+     * Returns a hash of the content of this value.  It is the same value that
+     * Dictionary.hashCode and Array.hashCode compute for the same content in Java.
+     *
+     * @return int
+     */
+    public int contentHash() { return impl.nContentHash(peer); }
+
+    /**
+     * Returns the SHA-1 digest of the canonical encoding of this value: an encoding that
+     * does not use shared keys and so depends only on the content.  The format is that of a blob digest.
+     *
+     * @return the digest
+     * @throws LiteCoreException on encoding failure
+     */
+    @NonNull
+    public String digest() throws LiteCoreException { return impl.nDigest(peer); }
+
+    /**
+     * Creates a JSON delta that, applied to this value, produces the new value.
+     *
+     * @param newValue the value to which the delta leads
+     * @return the JSON delta, or null if the two values are equal
+     */
+    @Nullable
+    public String createJSONDelta(@NonNull FLValue newValue) { return impl.nCreateJSONDelta(peer, newValue.peer); }
+
+    /**
+     * Applies a JSON delta, created by createJSONDelta, to this value.
+     * The root of the returned slice is the new value.
+     *
+     * @param delta the JSON delta
+     * @return the encoded new value
+     * @throws LiteCoreException if the delta is invalid or does not apply to this value
+     */
+    @NonNull
+    public FLSliceResult applyJSONDelta(@NonNull String delta) throws LiteCoreException {
+        return impl.nApplyJSONDelta(peer, delta);
+    }
+
     /**
      * Returns the exact contents of a data value, or null for all other types.
      *
@@ -299,7 +408,17 @@ public class FLValue {
      * @return Object
      */
     @Nullable
-    public Object toJava() {
+    public Object toJava() { return toJava(null); }
+
+    /**
+     * Return a Java object of the appropriate type.  Dictionary keys that are shared keys
+     * are taken from the passed shared keys' intern table.
+     *
+     * @param sharedKeys the shared keys with which this value was, probably, encoded
+     * @return Object
+     */
+    @Nullable
+    public Object toJava(@Nullable FLSharedKeys sharedKeys) {
         switch (impl.nGetType(peer)) {
             case BOOLEAN:
                 return Boolean.valueOf(asBool());
@@ -311,10 +430,11 @@ public class FLValue {
                 return asString();
             case DATA:
                 return asByteArray();
+            // Convert collections with a single JNI call, instead of one or more per node
             case ARRAY:
-                return asList(Object.class);
             case DICT:
-                return asMap(String.class, Object.class);
+                return FLTreeDecoder.decode(impl.nEncodeTrees(new long[] {peer}, getPeer(sharedKeys)), 1, sharedKeys)
+                    .get(0);
             case NULL:
             default:
                 return null;
@@ -73,6 +73,18 @@ public final class MArray extends MCollection {
     // Public methods
     //---------------------------------------------
 
+    /**
+     * Get the base array, if it is exactly the content of this array:
+     * the array has not been changed and its base came from the context.
+     *
+     * @return the base array or null
+     */
+    @Nullable
+    public FLArray getUnmodifiedBase() {
+        assertOpen();
+        return (isMutated() || (getBackingStore() != null)) ? null : baseArray;
+    }
+
     /**
      * The number of items in the array.
      *
@@ -94,7 +106,7 @@ public final class MArray extends MCollection {
 
         MValue value = values.get(idx);
         if (value.isEmpty() && (baseArray != null)) {
-            value = new MValue(baseArray.get(index));
+            value = new MValue(baseArray.get(index), getBackingStore());
             values.set(idx, value);
         }
 
@@ -106,6 +118,15 @@ public final class MArray extends MCollection {
         return insert(count(), value);
     }
 
+    // Append a value that is already an MValue (e.g., one backed by Fleece)
+    public void appendMValue(@NonNull MValue value) {
+        if (!isMutable()) { throw new CouchbaseLiteError("Cannot append items to a non-mutable MArray"); }
+        assertOpen();
+
+        mutate();
+        values.add(value);
+    }
+
     public boolean set(long index, Object value) {
         if (!isMutable()) { throw new CouchbaseLiteError("Cannot set items in a non-mutable MArray"); }
         assertOpen();
@@ -210,7 +231,7 @@ public final class MArray extends MCollection {
 
         final int size = values.size();
         for (int i = 0; i < size; i++) {
-            if (values.get(i).isEmpty()) { values.set(i, new MValue(baseArray.get(i))); }
+            if (values.get(i).isEmpty()) { values.set(i, new MValue(baseArray.get(i), getBackingStore())); }
         }
     }
 
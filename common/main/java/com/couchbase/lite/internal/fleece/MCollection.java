@@ -34,6 +34,9 @@ public abstract class MCollection implements FleeceEncodable {
     private final MContext context;
     @Nullable
     private final MCollection parent;
+    // The owner of the native memory backing this collection, if it is not the context
+    @Nullable
+    private final Object backingStore;
     private final boolean mutable;
     private final boolean mutableChildren;
 
@@ -45,16 +48,23 @@ public abstract class MCollection implements FleeceEncodable {
     // Constructors
     //---------------------------------------------
 
-    protected MCollection(@Nullable MContext context, boolean isMutable) { this(null, null, context, isMutable); }
+    protected MCollection(@Nullable MContext context, boolean isMutable) {
+        this(null, null, context, null, isMutable);
+    }
 
     // Copy constructor
     protected MCollection(@NonNull MCollection original, boolean isMutable) {
-        this(null, null, original.getContext(), isMutable);
+        this(null, null, original.getContext(), original.getBackingStore(), isMutable);
     }
 
     // Slot constructor
     protected MCollection(@NonNull MValue slot, @Nullable MCollection parent, boolean isMutable) {
-        this(slot, parent, ((slot.getFLValue() == null) || (parent == null)) ? null : parent.getContext(), isMutable);
+        this(
+            slot,
+            parent,
+            ((slot.getFLValue() == null) || (parent == null)) ? null : parent.getContext(),
+            slot.getBackingStore(),
+            isMutable);
         if (slot.isMutated()) { mutated.set(true); }
     }
 
@@ -63,9 +73,19 @@ public abstract class MCollection implements FleeceEncodable {
         @Nullable MCollection parent,
         @Nullable MContext context,
         boolean isMutable) {
+        this(slot, parent, context, null, isMutable);
+    }
+
+    private MCollection(
+        @Nullable MValue slot,
+        @Nullable MCollection parent,
+        @Nullable MContext context,
+        @Nullable Object backingStore,
+        boolean isMutable) {
         this.slot = slot;
         this.context = context;
         this.parent = parent;
+        this.backingStore = backingStore;
         this.mutable = isMutable;
         mutableChildren = isMutable;
     }
@@ -97,6 +117,9 @@ public abstract class MCollection implements FleeceEncodable {
     @Nullable
     protected final MValue getSlot() { return slot; }
 
+    @Nullable
+    protected final Object getBackingStore() { return backingStore; }
+
     protected final void mutate() { mutate(true); }
 
     protected final void mutate(boolean isLocal) {
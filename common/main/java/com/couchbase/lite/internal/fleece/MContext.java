@@ -31,4 +31,12 @@ public class MContext {
     public BaseDatabase getDatabase() { return null; }
 
     public boolean isClosed() { return false; }
+
+    // The shared keys whose intern table supplies the Strings for dictionary keys, if any.
+    @Nullable
+    public FLSharedKeys getSharedKeys() { return null; }
+
+    // The lock that guards the collections in this context, if it is not the database's lock.
+    @Nullable
+    public Object getLock() { return null; }
 }
@@ -108,7 +108,7 @@ public final class MDict extends MCollection {
         }
 
         if ((baseDict != null) && (baseDict.count() > 0)) {
-            try (FLDictIterator itr = baseDict.iterator()) {
+            try (FLDictIterator itr = baseDict.iterator(getSharedKeys())) {
                 String key;
                 while ((key = itr.getKey()) != null) {
                     if (!values.containsKey(key)) { keys.add(key); }
@@ -120,20 +120,37 @@ public final class MDict extends MCollection {
         return keys;
     }
 
+    /**
+     * Get the base dictionary, if it is exactly the content of this dictionary:
+     * the dictionary has not been changed and its base came from the context.
+     *
+     * @return the base dictionary or null
+     */
+    @Nullable
+    public FLDict getUnmodifiedBase() {
+        assertOpen();
+        return (isMutated() || (getBackingStore() != null)) ? null : baseDict;
+    }
+
     @NonNull
     public MValue get(@NonNull String key) {
         assertOpen();
 
-        MValue mValue = values.get(key);
+        final MValue mValue = values.get(key);
         if (mValue != null) { return mValue; }
 
-        final FLValue flValue = (baseDict == null) ? null : baseDict.get(key);
-        if (flValue == null) { return MValue.EMPTY; }
+        return cacheValue(key, (baseDict == null) ? null : baseDict.get(key));
+    }
 
-        mValue = new MValue(flValue);
-        values.put(key, mValue);
+    // Get the value for a key whose UTF-8 encoding is already in native memory
+    @NonNull
+    public MValue get(@NonNull String key, @NonNull FLSliceResult encodedKey) {
+        assertOpen();
 
-        return mValue;
+        final MValue mValue = values.get(key);
+        if (mValue != null) { return mValue; }
+
+        return cacheValue(key, (baseDict == null) ? null : baseDict.get(encodedKey));
     }
 
     @SuppressWarnings("PMD.CognitiveComplexity")
@@ -186,7 +203,7 @@ public final class MDict extends MCollection {
         values.clear();
 
         if ((baseDict != null) && (baseDict.count() > 0)) {
-            try (FLDictIterator itr = baseDict.iterator()) {
+            try (FLDictIterator itr = baseDict.iterator(getSharedKeys())) {
                 String key;
                 while ((key = itr.getKey()) != null) {
                     values.put(key, MValue.EMPTY);
@@ -224,19 +241,30 @@ public final class MDict extends MCollection {
             }
         }
 
-        if ((baseDict != null) && (baseDict.count() > 0)) {
-            try (FLDictIterator itr = baseDict.iterator()) {
-                String key;
-                while ((key = itr.getKey()) != null) {
-                    if (!values.containsKey(key)) {
-                        enc.writeKey(key);
-                        enc.writeValue(itr.getValue());
-                    }
-                    itr.next();
-                }
-            }
-        }
+        // Copy the untouched entries from the base dictionary natively,
+        // rather than with several JNI calls per entry.
+        if ((baseDict != null) && (baseDict.count() > 0)) { enc.writeEntriesExcept(baseDict, values.keySet()); }
 
         enc.endDict();
     }
+
+    //---------------------------------------------
+    // Private methods
+    //---------------------------------------------
+
+    @NonNull
+    private MValue cacheValue(@NonNull String key, @Nullable FLValue flValue) {
+        if (flValue == null) { return MValue.EMPTY; }
+
+        final MValue mValue = new MValue(flValue, getBackingStore());
+        values.put(key, mValue);
+
+        return mValue;
+    }
+
+    @Nullable
+    private FLSharedKeys getSharedKeys() {
+        final MContext context = getContext();
+        return (context == null) ? null : context.getSharedKeys();
+    }
 }
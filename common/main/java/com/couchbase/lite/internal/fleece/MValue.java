@@ -67,6 +67,16 @@ public class MValue extends BaseMValue implements FleeceEncodable {
         public boolean isEmpty() { return true; }
     };
 
+    // The backing store for Fleece that was parsed from JSON, rather than read from a database:
+    // a dictionary in it that looks like a blob is just a dictionary until it is saved.
+    public static final class JSONBackingStore {
+        // held only to keep the Fleece alive
+        @NonNull
+        private final Object fleece;
+
+        public JSONBackingStore(@NonNull Object fleece) { this.fleece = fleece; }
+    }
+
     //-------------------------------------------------------------------------
     // Instance members
     //-------------------------------------------------------------------------
@@ -76,17 +86,28 @@ public class MValue extends BaseMValue implements FleeceEncodable {
     @Nullable
     private Object cachedValue;
 
+    // If not null, this is the object that owns the native memory in which flValue lives.
+    // Holding it here keeps that memory alive as long as this value, or any of its children, is reachable.
+    @Nullable
+    private final Object backingStore;
+
     //-------------------------------------------------------------------------
     // Constructors
     //-------------------------------------------------------------------------
 
     public MValue(@Nullable Object obj) { this(obj, null); }
 
-    MValue(@Nullable FLValue val) { this(null, val); }
+    MValue(@Nullable FLValue val) { this(null, val, null); }
 
-    private MValue(@Nullable Object obj, @Nullable FLValue val) {
+    // Create a value from Fleece that lives in memory owned by the backing store
+    public MValue(@Nullable FLValue val, @Nullable Object backingStore) { this(null, val, backingStore); }
+
+    private MValue(@Nullable Object obj, @Nullable FLValue val) { this(obj, val, null); }
+
+    private MValue(@Nullable Object obj, @Nullable FLValue val, @Nullable Object backingStore) {
         cachedValue = obj;
         flValue = val;
+        this.backingStore = backingStore;
     }
 
     //-------------------------------------------------------------------------
@@ -96,6 +117,9 @@ public class MValue extends BaseMValue implements FleeceEncodable {
     @Nullable
     public FLValue getFLValue() { return flValue; }
 
+    @Nullable
+    public Object getBackingStore() { return backingStore; }
+
     public boolean isEmpty() { return false; }
 
     public boolean isMutated() { return flValue == null; }
@@ -143,10 +167,14 @@ public class MValue extends BaseMValue implements FleeceEncodable {
         final FLValue flType = flDict.get(META_PROP_TYPE);
         final String type = (flType == null) ? null : flType.asString();
 
-        if (TYPE_BLOB.equals(type) || isOldAttachment(type, flDict)) {
+        if (!(backingStore instanceof JSONBackingStore) && (TYPE_BLOB.equals(type) || isOldAttachment(type, flDict))) {
             final MContext ctxt = Preconditions.assertNotNull(parent, "parent").getContext();
-            if (!(ctxt instanceof DbContext)) { throw new CouchbaseLiteError("Context is not DbContext: " + ctxt); }
-            return getBlob((DbContext) ctxt, flDict);
+            // Fleece with its own backing store (e.g., the result of applying a delta) may belong
+            // to a document that has no database: there is nothing from which to load the blob.
+            if ((backingStore == null) || (ctxt.getDatabase() != null)) {
+                if (!(ctxt instanceof DbContext)) { throw new CouchbaseLiteError("Context is not DbContext: " + ctxt); }
+                return getBlob((DbContext) ctxt, flDict);
+            }
         }
 
         return getDictionary(this, parent);
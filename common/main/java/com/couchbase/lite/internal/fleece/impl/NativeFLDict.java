@@ -13,6 +13,14 @@ public final class NativeFLDict implements FLDict.NativeImpl {
     @Override
     public long nGet(long dict, @NonNull byte[] keyString) { return get(dict, keyString); }
 
+    @Override
+    public long nGetWithKeySlice(long dict, long keyBase, long keySize) {
+        return getWithKeySlice(dict, keyBase, keySize);
+    }
+
+    @Override
+    public boolean nUsesSharedKeys(long dict, long sharedKeys) { return usesSharedKeys(dict, sharedKeys); }
+
     // Iterator
 
     @Override
@@ -28,6 +36,10 @@ public final class NativeFLDict implements FLDict.NativeImpl {
     @Nullable
     public String nGetKey(long itr) { return getKey(itr); }
 
+    @Override
+    @Nullable
+    public String nGetKeyOrId(long itr, @NonNull int[] keyId) { return getKeyOrId(itr, keyId); }
+
     @Override
     public long nGetValue(long itr) { return getValue(itr); }
 
@@ -43,6 +55,10 @@ public final class NativeFLDict implements FLDict.NativeImpl {
 
     private static native long get(long dict, @NonNull byte[] keyString);
 
+    private static native long getWithKeySlice(long dict, long keyBase, long keySize);
+
+    private static native boolean usesSharedKeys(long dict, long sharedKeys);
+
     // Iterator
 
     private static native long init(long dict);
@@ -54,6 +70,9 @@ public final class NativeFLDict implements FLDict.NativeImpl {
     @Nullable
     private static native String getKey(long itr);
 
+    @Nullable
+    private static native String getKeyOrId(long itr, @NonNull int[] keyId);
+
     private static native long getValue(long itr);
 
     private static native void free(long itr);
@@ -31,46 +31,25 @@ public final class NativeFLEncoder implements FLEncoder.NativeImpl {
     public long nCreateJSONEncoder() { return newJSONEncoder(); }
 
     @Override
-    public boolean nWriteNull(long peer) { return writeNull(peer); }
-
-    @Override
-    public boolean nWriteBool(long peer, boolean value) { return writeBool(peer, value); }
-
-    @Override
-    public boolean nWriteInt(long peer, long value) { return writeInt(peer, value); }
-
-    @Override
-    public boolean nWriteFloat(long peer, float value) { return writeFloat(peer, value); }
-
-    @Override
-    public boolean nWriteDouble(long peer, double value) { return writeDouble(peer, value); }
-
-    @Override
-    public boolean nWriteString(long peer, @NonNull String value) { return writeString(peer, value); }
+    public void nSetSharedKeys(long peer, long sharedKeys) { setSharedKeys(peer, sharedKeys); }
 
     @Override
     public boolean nWriteStringChars(long peer, @NonNull char[] value) { return writeStringChars(peer, value); }
 
     @Override
-    public boolean nWriteData(long peer, @NonNull byte[] value) { return writeData(peer, value); }
-
-    @Override
-    public boolean nWriteValue(long peer, long value) { return writeValue(peer, value); }
-
-    @Override
-    public boolean nBeginArray(long peer, long reserve) { return beginArray(peer, reserve); }
+    public boolean nWriteDictEntriesExcept(long peer, long dict, @NonNull String[] excludedKeys) {
+        return writeDictEntriesExcept(peer, dict, excludedKeys);
+    }
 
     @Override
-    public boolean nEndArray(long peer) { return endArray(peer); }
+    public boolean nWriteCommands(long peer, @NonNull byte[] commands, int len) {
+        return writeCommands(peer, commands, len);
+    }
 
     @Override
-    public boolean nBeginDict(long peer, long reserve) { return beginDict(peer, reserve); }
-
-    @Override
-    public boolean nWriteKey(long peer, @NonNull String slice) { return writeKey(peer, slice); }
-
-    @Override
-    public boolean nEndDict(long peer) { return endDict(peer); }
+    public boolean nWriteEncoded(long peer, long body, long size, long sharedKeys) {
+        return writeEncoded(peer, body, size, sharedKeys);
+    }
 
     @Override
     public void nReset(long peer) { reset(peer); }
@@ -107,33 +86,18 @@ public final class NativeFLEncoder implements FLEncoder.NativeImpl {
 
     private static native void reset(long peer);
 
-    private static native boolean writeNull(long peer);
-
-    private static native boolean writeBool(long peer, boolean value);
-
-    private static native boolean writeInt(long peer, long value); // 64bit
-
-    private static native boolean writeFloat(long peer, float value);
-
-    private static native boolean writeDouble(long peer, double value);
-
-    private static native boolean writeString(long peer, @NonNull String value);
+    private static native void setSharedKeys(long peer, long sharedKeys);
 
     private static native boolean writeStringChars(long peer, char[] value);
 
-    private static native boolean writeData(long peer, @NonNull byte[] value);
-
-    private static native boolean writeValue(long peer, long value /*FLValue*/);
-
-    private static native boolean beginArray(long peer, long reserve);
-
-    private static native boolean endArray(long peer);
-
-    private static native boolean beginDict(long peer, long reserve);
+    private static native boolean writeDictEntriesExcept(
+        long peer,
+        long dict /*FLDict*/,
+        @NonNull String[] excludedKeys);
 
-    private static native boolean endDict(long peer);
+    private static native boolean writeCommands(long peer, @NonNull byte[] commands, int len);
 
-    private static native boolean writeKey(long peer, @NonNull String slice);
+    private static native boolean writeEncoded(long peer, long body, long size, long sharedKeys);
 
     @NonNull
     private static native byte[] finish(long peer) throws LiteCoreException;
@@ -0,0 +1,40 @@
+//
+// Copyright (c) 2023 Couchbase, Inc All rights reserved.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+package com.couchbase.lite.internal.fleece.impl;
+
+import androidx.annotation.Nullable;
+
+import com.couchbase.lite.internal.fleece.FLSharedKeys;
+
+
+public final class NativeFLSharedKeys implements FLSharedKeys.NativeImpl {
+
+    @Override
+    @Nullable
+    public String nDecode(long sharedKeys, int keyId) { return decode(sharedKeys, keyId); }
+
+    @Override
+    public boolean nHasShareableStringKeys(long body, long size) { return hasShareableStringKeys(body, size); }
+
+    //-------------------------------------------------------------------------
+    // Native methods
+    //-------------------------------------------------------------------------
+
+    @Nullable
+    private static native String decode(long sharedKeys, int keyId);
+
+    private static native boolean hasShareableStringKeys(long body, long size);
+}
@@ -15,8 +15,12 @@
 //
 package com.couchbase.lite.internal.fleece.impl;
 
+import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 
+import java.nio.ByteBuffer;
+
+import com.couchbase.lite.LiteCoreException;
 import com.couchbase.lite.internal.fleece.FLSliceResult;
 
 
@@ -29,6 +33,20 @@ public final class NativeFLSliceResult implements FLSliceResult.NativeImpl {
     @Override
     public void nRelease(long base, long size) { release(base, size); }
 
+    @Override
+    @NonNull
+    public FLSliceResult nCopyOf(@NonNull byte[] bytes) { return copyOf(bytes); }
+
+    @Override
+    @NonNull
+    public ByteBuffer nGetByteBuffer(long base, long size) { return getByteBuffer(base, size); }
+
+    @Override
+    @NonNull
+    public FLSliceResult nCopyOfBuffer(@NonNull ByteBuffer buf, int offset, int length) throws LiteCoreException {
+        return copyOfBuffer(buf, offset, length);
+    }
+
     //-------------------------------------------------------------------------
     // Native methods
     //-------------------------------------------------------------------------
@@ -37,4 +55,14 @@ public final class NativeFLSliceResult implements FLSliceResult.NativeImpl {
     private static native byte[] getBuf(long base, long size);
 
     private static native void release(long base, long size);
+
+    @NonNull
+    private static native FLSliceResult copyOf(@NonNull byte[] bytes);
+
+    @NonNull
+    private static native ByteBuffer getByteBuffer(long base, long size);
+
+    @NonNull
+    private static native FLSliceResult copyOfBuffer(@NonNull ByteBuffer buf, int offset, int length)
+        throws LiteCoreException;
 }
@@ -19,6 +19,7 @@ import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 
 import com.couchbase.lite.LiteCoreException;
+import com.couchbase.lite.internal.fleece.FLSliceResult;
 import com.couchbase.lite.internal.fleece.FLValue;
 
 @SuppressWarnings("PMD.TooManyMethods")
@@ -85,6 +86,34 @@ public final class NativeFLValue implements FLValue.NativeImpl {
     @Nullable
     public String nJson5toJson(@Nullable String json) throws LiteCoreException { return json5toJson(json); }
 
+    @Override
+    @NonNull
+    public FLSliceResult nJsonToFleece(@NonNull String json) throws LiteCoreException { return jsonToFleece(json); }
+
+    @Override
+    @NonNull
+    public byte[] nEncodeTrees(@NonNull long[] values, long sharedKeys) { return encodeTrees(values, sharedKeys); }
+
+    @Override
+    public int nIsEqual(long value1, long value2) { return isEqual(value1, value2); }
+
+    @Override
+    public int nContentHash(long value) { return contentHash(value); }
+
+    @Override
+    @NonNull
+    public String nDigest(long value) throws LiteCoreException { return digest(value); }
+
+    @Override
+    @Nullable
+    public String nCreateJSONDelta(long oldValue, long newValue) { return createJSONDelta(oldValue, newValue); }
+
+    @Override
+    @NonNull
+    public FLSliceResult nApplyJSONDelta(long oldValue, @NonNull String delta) throws LiteCoreException {
+        return applyJSONDelta(oldValue, delta);
+    }
+
     //-------------------------------------------------------------------------
     // native methods
     //-------------------------------------------------------------------------
@@ -132,4 +161,24 @@ public final class NativeFLValue implements FLValue.NativeImpl {
 
     @Nullable
     private static native String json5toJson(@Nullable String json) throws LiteCoreException;
+
+    @NonNull
+    private static native byte[] encodeTrees(@NonNull long[] values, long sharedKeys);
+
+    private static native int isEqual(long value1, long value2);
+
+    private static native int contentHash(long value);
+
+    @NonNull
+    private static native String digest(long value) throws LiteCoreException;
+
+    @Nullable
+    private static native String createJSONDelta(long oldValue, long newValue);
+
+    @NonNull
+    private static native FLSliceResult applyJSONDelta(long oldValue, @NonNull String delta)
+        throws LiteCoreException;
+
+    @NonNull
+    private static native FLSliceResult jsonToFleece(@NonNull String json) throws LiteCoreException;
 }
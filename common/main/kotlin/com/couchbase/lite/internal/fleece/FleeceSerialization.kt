@@ -216,14 +216,14 @@ private class FleeceCollectionEncoder (private val parent: FleeceParentEncoder,
     //---- Encoder API:
 
     override fun encodeNull()                   {flEncoder.writeNull()}
-    override fun encodeBoolean(value: Boolean)  {flEncoder.writeValue(value)}
-    override fun encodeByte(value: Byte)        {flEncoder.writeValue(value.toInt())}
-    override fun encodeShort(value: Short)      {flEncoder.writeValue(value.toInt())}
-    override fun encodeChar(value: Char)        {flEncoder.writeValue(value.code)}
-    override fun encodeInt(value: Int)          {flEncoder.writeValue(value)}
-    override fun encodeLong(value: Long)        {flEncoder.writeValue(value)}
-    override fun encodeFloat(value: Float)      {flEncoder.writeValue(value)}
-    override fun encodeDouble(value: Double)    {flEncoder.writeValue(value)}
+    override fun encodeBoolean(value: Boolean)  {flEncoder.writeBool(value)}
+    override fun encodeByte(value: Byte)        {flEncoder.writeInt(value.toLong())}
+    override fun encodeShort(value: Short)      {flEncoder.writeInt(value.toLong())}
+    override fun encodeChar(value: Char)        {flEncoder.writeInt(value.code.toLong())}
+    override fun encodeInt(value: Int)          {flEncoder.writeInt(value.toLong())}
+    override fun encodeLong(value: Long)        {flEncoder.writeInt(value)}
+    override fun encodeFloat(value: Float)      {flEncoder.writeFloat(value)}
+    override fun encodeDouble(value: Double)    {flEncoder.writeDouble(value)}
 
     override fun encodeString(value: String) {
         if (valueIsKey)
@@ -233,7 +233,7 @@ private class FleeceCollectionEncoder (private val parent: FleeceParentEncoder,
     }
 
     override fun encodeEnum(enumDescriptor: SerialDescriptor, index: Int) {
-        flEncoder.writeValue(index)
+        flEncoder.writeInt(index.toLong())
     }
 
     override fun encodeInline(descriptor: SerialDescriptor): Encoder = this
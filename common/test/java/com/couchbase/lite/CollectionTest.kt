@@ -19,6 +19,11 @@ package com.couchbase.lite
 import com.couchbase.lite.internal.utils.SlowTest
 import org.junit.Assert
 import org.junit.Test
+import java.util.Date
+import java.util.concurrent.CancellationException
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.ExecutionException
+import java.util.concurrent.TimeUnit
 
 class CollectionTest : BaseDbTest() {
 
@@ -96,6 +101,119 @@ class CollectionTest : BaseDbTest() {
         assertThrowsCBLException(CBLError.Domain.CBLITE, CBLError.Code.NOT_OPEN) { testCollection.getDocument(doc.id) }
     }
 
+    // get several docs at once: missing and deleted docs are null
+    @Test
+    fun testGetDocsInCollection() {
+        val docs = createDocsInCollection(3)
+        testCollection.delete(docs[1])
+
+        val result = testCollection.getDocuments(listOf(docs[2].id, "doesnt-exist", docs[1].id, docs[0].id))
+        Assert.assertEquals(4, result.size)
+        assertSameContent(docs[2], result[0])
+        Assert.assertNull(result[1])
+        Assert.assertNull(result[2])
+        assertSameContent(docs[0], result[3])
+    }
+
+    @Test
+    fun testGetDocsFromCollectionInClosedDB() {
+        val doc = createDocInCollection()
+        closeDb(testDatabase)
+        assertThrowsCBLException(CBLError.Domain.CBLITE, CBLError.Code.NOT_OPEN) {
+            testCollection.getDocuments(listOf(doc.id))
+        }
+    }
+
+    @Test
+    fun testGetCachedDoc() {
+        val doc = createDocInCollection()
+        testCollection.setDocumentCacheSize(10)
+
+        val doc1 = testCollection.getDocument(doc.id)
+        assertSameContent(doc, doc1)
+        val doc1b = testCollection.getDocument(doc.id)
+        Assert.assertNotSame(doc1, doc1b)
+        assertSameContent(doc1, doc1b)
+        Assert.assertEquals(1L, testCollection.documentCacheHits)
+        Assert.assertEquals(1L, testCollection.documentCacheMisses)
+
+        val mDoc = testCollection.getNonNullDoc(doc.id).toMutable()
+        mDoc.setString("foo", "bar")
+        testCollection.save(mDoc)
+
+        val doc2 = testCollection.getDocument(doc.id)
+        Assert.assertNotSame(doc1, doc2)
+        Assert.assertEquals("bar", doc2?.getString("foo"))
+    }
+
+    @Test
+    fun testDeleteCachedDoc() {
+        val doc = createDocInCollection()
+        testCollection.setDocumentCacheSize(10)
+
+        val doc1 = testCollection.getNonNullDoc(doc.id)
+        val doc2 = testCollection.getNonNullDoc(doc.id)
+        Assert.assertEquals(1L, testCollection.documentCacheHits)
+        val revId = doc2.revisionID
+
+        testCollection.delete(doc1)
+        Assert.assertNotEquals(revId, doc1.revisionID)
+        Assert.assertEquals(revId, doc2.revisionID)
+        Assert.assertNull(testCollection.getDocument(doc.id))
+    }
+
+    @Test
+    fun testGetCachedDocAfterExternalSave() {
+        val doc = createDocInCollection()
+        testCollection.setDocumentCacheSize(10)
+        testCollection.getNonNullDoc(doc.id)
+
+        val (otherDb, otherCollection) = duplicateTestDb()
+        otherDb.use {
+            otherCollection.save(otherCollection.getNonNullDoc(doc.id).toMutable().setString("foo", "bar"))
+        }
+
+        Assert.assertEquals("bar", testCollection.getNonNullDoc(doc.id).getString("foo"))
+    }
+
+    // A cache hit does not wait for the db lock
+    @Test
+    fun testGetCachedDocWhileWriting() {
+        val doc = createDocInCollection()
+        testCollection.setDocumentCacheSize(10)
+        testCollection.getNonNullDoc(doc.id)
+
+        val inBatch = CountDownLatch(1)
+        val release = CountDownLatch(1)
+        var released = false
+        val writer = Thread {
+            testDatabase.inBatch<CouchbaseLiteException> {
+                inBatch.countDown()
+                released = release.await(STD_TIMEOUT_SEC, TimeUnit.SECONDS)
+            }
+        }
+        writer.start()
+
+        Assert.assertTrue(inBatch.await(STD_TIMEOUT_SEC, TimeUnit.SECONDS))
+        assertSameContent(doc, testCollection.getDocument(doc.id))
+        release.countDown()
+        writer.join()
+
+        Assert.assertTrue(released)
+        Assert.assertEquals(1L, testCollection.documentCacheHits)
+    }
+
+    @Test
+    fun testGetCachedDocFromCollectionInClosedDB() {
+        val doc = createDocInCollection()
+        testCollection.setDocumentCacheSize(10)
+        testCollection.getDocument(doc.id)
+        closeDb(testDatabase)
+        assertThrowsCBLException(CBLError.Domain.CBLITE, CBLError.Code.NOT_OPEN) {
+            testCollection.getDocument(doc.id)
+        }
+    }
+
     // getting doc count from deleted collection returns 0
     @Test
     fun testGetDocCountFromDeletedCollection() {
@@ -308,6 +426,493 @@ class CollectionTest : BaseDbTest() {
         Assert.assertEquals(1, col4.count)
     }
 
+    @Test
+    fun testSaveAllDocsInCollection() {
+        val mDocs = createTestDocs(1, 10)
+
+        Assert.assertEquals(
+            List(mDocs.size) { true },
+            testCollection.saveAll(mDocs, ConcurrencyControl.FAIL_ON_CONFLICT)
+        )
+        Assert.assertEquals(mDocs.size.toLong(), testCollection.count)
+
+        mDocs.forEach { assertSameContent(it, testCollection.getDocument(it.id)) }
+    }
+
+    // a conflict fails only the conflicting document
+    @Test
+    fun testSaveAllDocsWithConflict() {
+        val doc = createDocInCollection()
+
+        val doc1a = testCollection.getNonNullDoc(doc.id).toMutable()
+        val doc1b = testCollection.getNonNullDoc(doc.id).toMutable()
+
+        doc1a.setString("firstName", "Scott")
+        testCollection.save(doc1a)
+
+        doc1b.setString("firstName", "Daniel")
+        val mDoc2 = MutableDocument().setString("firstName", "Robert")
+
+        Assert.assertEquals(
+            listOf(false, true),
+            testCollection.saveAll(listOf(doc1b, mDoc2), ConcurrencyControl.FAIL_ON_CONFLICT)
+        )
+        Assert.assertEquals(2, testCollection.count)
+        Assert.assertEquals("Scott", testCollection.getNonNullDoc(doc.id).getString("firstName"))
+        Assert.assertEquals("Robert", testCollection.getNonNullDoc(mDoc2.id).getString("firstName"))
+
+        Assert.assertEquals(
+            listOf(true),
+            testCollection.saveAll(listOf(doc1b), ConcurrencyControl.LAST_WRITE_WINS)
+        )
+        Assert.assertEquals("Daniel", testCollection.getNonNullDoc(doc.id).getString("firstName"))
+    }
+
+    // keys added to the shared keys in an aborted transaction must not be used by later saves
+    @Test
+    fun testSaveDocWithKeyFromAbortedBatch() {
+        val key = getUniqueName("key")
+        try {
+            testDatabase.inBatch<CouchbaseLiteException> {
+                testCollection.save(MutableDocument().setString(key, "aborted"))
+                throw CouchbaseLiteException("abort")
+            }
+            Assert.fail("inBatch should have thrown")
+        } catch (ignore: CouchbaseLiteException) {
+        }
+        Assert.assertEquals(0, testCollection.count)
+
+        val mDoc = MutableDocument().setString(key, "saved")
+        testCollection.save(mDoc)
+
+        Assert.assertEquals("saved", testCollection.getNonNullDoc(mDoc.id).getString(key))
+    }
+
+    // a body encoded with some keys already shared and some new ones must be readable by all of its keys
+    @Test
+    fun testSaveDocWithSharedAndNewKeys() {
+        val sharedKey = getUniqueName("key")
+        testCollection.save(MutableDocument().setString(sharedKey, "first"))
+
+        val newKey = getUniqueName("key")
+        val mDoc = MutableDocument()
+            .setString(sharedKey, "second")
+            .setDictionary("nested", MutableDictionary().setString(newKey, "new"))
+            .setArray("list", MutableArray().addDictionary(MutableDictionary().setString(sharedKey, "item")))
+        testCollection.save(mDoc)
+
+        val doc = testCollection.getNonNullDoc(mDoc.id)
+        Assert.assertEquals("second", doc.getString(sharedKey))
+        Assert.assertEquals("new", doc.getDictionary("nested")?.getString(newKey))
+        Assert.assertEquals("item", doc.getArray("list")?.getDictionary(0)?.getString(sharedKey))
+    }
+
+    // a save that adds new keys while another thread has a batch open must not add them to that batch
+    @Test
+    fun testSaveDocWithNewKeyDuringAbortedBatch() {
+        val key = getUniqueName("key")
+        val batchOpen = CountDownLatch(1)
+        val saveStarted = CountDownLatch(1)
+        val batch = Thread {
+            try {
+                testDatabase.inBatch<CouchbaseLiteException> {
+                    batchOpen.countDown()
+                    saveStarted.await(STD_TIMEOUT_SEC, TimeUnit.SECONDS)
+                    throw CouchbaseLiteException("abort")
+                }
+            } catch (ignore: CouchbaseLiteException) {
+            }
+        }
+        batch.start()
+        Assert.assertTrue(batchOpen.await(STD_TIMEOUT_SEC, TimeUnit.SECONDS))
+
+        val mDoc = MutableDocument().setString(key, "saved")
+        saveStarted.countDown()
+        testCollection.save(mDoc)
+        batch.join(STD_TIMEOUT_SEC * 1000)
+
+        Assert.assertEquals("saved", testCollection.getNonNullDoc(mDoc.id).getString(key))
+    }
+
+    @Test
+    fun testSaveAllDocsToCollectionInClosedDB() {
+        closeDb(testDatabase)
+        assertThrowsCBLException(CBLError.Domain.CBLITE, CBLError.Code.NOT_OPEN) {
+            testCollection.saveAll(listOf(MutableDocument()), ConcurrencyControl.LAST_WRITE_WINS)
+        }
+    }
+
+    @Test
+    fun testSaveAsyncDocs() {
+        val mDocs = (1..20).map { MutableDocument().setInt("count", it) }
+        val futures = mDocs.map { testCollection.saveAsync(it) }
+        futures.forEach { Assert.assertTrue(it.get(STD_TIMEOUT_SEC, TimeUnit.SECONDS)) }
+
+        Assert.assertEquals(mDocs.size.toLong(), testCollection.count)
+        mDocs.forEach { assertSameContent(it, testCollection.getDocument(it.id)) }
+    }
+
+    @Test
+    fun testSaveAsyncDocWithConflict() {
+        val doc = createDocInCollection()
+
+        val doc1a = testCollection.getNonNullDoc(doc.id).toMutable()
+        val doc1b = testCollection.getNonNullDoc(doc.id).toMutable()
+
+        doc1a.setString("firstName", "Scott")
+        testCollection.save(doc1a)
+
+        doc1b.setString("firstName", "Daniel")
+        val mDoc2 = MutableDocument().setString("firstName", "Robert")
+
+        val f1 = testCollection.saveAsync(doc1b, ConcurrencyControl.FAIL_ON_CONFLICT)
+        val f2 = testCollection.saveAsync(mDoc2, ConcurrencyControl.FAIL_ON_CONFLICT)
+        Assert.assertFalse(f1.get(STD_TIMEOUT_SEC, TimeUnit.SECONDS))
+        Assert.assertTrue(f2.get(STD_TIMEOUT_SEC, TimeUnit.SECONDS))
+
+        Assert.assertEquals("Scott", testCollection.getNonNullDoc(doc.id).getString("firstName"))
+        Assert.assertEquals("Robert", testCollection.getNonNullDoc(mDoc2.id).getString("firstName"))
+    }
+
+    @Test
+    fun testCancelSaveAsync() {
+        val db = createDb(getUniqueName("async_cancel_db"), DatabaseConfiguration().setAsyncWriteMaxDelay(60_000L))
+        try {
+            val collection = db.defaultCollection
+            val future = collection.saveAsync(MutableDocument("doc1").setString("key", "value1"))
+            Assert.assertTrue(future.cancel(false))
+            Assert.assertTrue(future.isCancelled)
+            Assert.assertTrue(future.isDone)
+            Assert.assertFalse(future.cancel(false))
+            try {
+                future.get(STD_TIMEOUT_SEC, TimeUnit.SECONDS)
+                Assert.fail("getting the result of a cancelled save should fail")
+            } catch (_: CancellationException) {
+            }
+
+            Assert.assertTrue(collection.saveAsync(MutableDocument("doc2")).get(STD_TIMEOUT_SEC, TimeUnit.SECONDS))
+            Assert.assertNull(collection.getDocument("doc1"))
+            Assert.assertNotNull(collection.getDocument("doc2"))
+        } finally {
+            eraseDb(db)
+        }
+    }
+
+    @Test
+    fun testWaitForSaveAsyncInBatch() {
+        testDatabase.inBatch<CouchbaseLiteException> {
+            val future = testCollection.saveAsync(MutableDocument("doc1"))
+            Assert.assertThrows(IllegalStateException::class.java) { future.get() }
+        }
+    }
+
+    @Test
+    fun testDeleteAsyncUnsavedDoc() {
+        val future = testCollection.deleteAsync(MutableDocument())
+        try {
+            future.get(STD_TIMEOUT_SEC, TimeUnit.SECONDS)
+            Assert.fail("deleting an unsaved document should fail")
+        } catch (e: ExecutionException) {
+            val err = e.cause as CouchbaseLiteException
+            Assert.assertEquals(CBLError.Domain.CBLITE, err.domain)
+            Assert.assertEquals(CBLError.Code.NOT_FOUND, err.code)
+        }
+    }
+
+    @Test
+    fun testSaveDocReadOnReadConnection() {
+        val db = createDb(getUniqueName("read_conn_db"), DatabaseConfiguration().setReadConnectionCount(2))
+        try {
+            val collection = db.defaultCollection
+            collection.save(MutableDocument("doc1").setString("key", "value1"))
+            Assert.assertEquals(1, collection.count)
+
+            val mDoc = collection.getNonNullDoc("doc1").toMutable()
+            Assert.assertEquals("value1", mDoc.getString("key"))
+
+            mDoc.setString("key", "value2")
+            Assert.assertTrue(collection.save(mDoc, ConcurrencyControl.FAIL_ON_CONFLICT))
+            Assert.assertEquals("value2", collection.getNonNullDoc("doc1").getString("key"))
+            Assert.assertEquals(1, collection.count)
+        } finally {
+            eraseDb(db)
+        }
+    }
+
+    // neither reading a document from a read connection nor reading its properties waits for the db lock
+    @Test
+    fun testReadDocOnReadConnectionDuringBatch() {
+        val db = createDb(getUniqueName("read_conn_db"), DatabaseConfiguration().setReadConnectionCount(2))
+        try {
+            val collection = db.defaultCollection
+            collection.save(
+                MutableDocument("doc1")
+                    .setString("key", "value1")
+                    .setDictionary("dict", MutableDictionary().setInt("n", 1))
+            )
+
+            val locked = CountDownLatch(1)
+            val release = CountDownLatch(1)
+            val batch = Thread {
+                db.inBatch<CouchbaseLiteException> {
+                    locked.countDown()
+                    release.await(STD_TIMEOUT_SEC, TimeUnit.SECONDS)
+                }
+            }
+            batch.start()
+            try {
+                Assert.assertTrue(locked.await(STD_TIMEOUT_SEC, TimeUnit.SECONDS))
+
+                val doc = collection.getNonNullDoc("doc1")
+                Assert.assertEquals("value1", doc.getString("key"))
+                Assert.assertEquals(1, doc.getDictionary("dict")?.getInt("n"))
+                Assert.assertEquals(setOf("key", "dict"), doc.keys.toSet())
+
+                // the batch is still open
+                Assert.assertEquals(1L, release.count)
+            } finally {
+                release.countDown()
+                batch.join(STD_TIMEOUT_SEC * 1000)
+            }
+        } finally {
+            eraseDb(db)
+        }
+    }
+
+    // neither running a query on a read connection nor reading its results waits for the db lock
+    @Test
+    fun testQueryOnReadConnectionDuringBatch() {
+        val db = createDb(getUniqueName("read_conn_db"), DatabaseConfiguration().setReadConnectionCount(2))
+        try {
+            val collection = db.defaultCollection
+            for (i in 1..10) {
+                collection.save(
+                    MutableDocument("doc${i}").setInt("n", i).setDictionary("d", MutableDictionary().setInt("m", i))
+                )
+            }
+            val query = db.createQuery("SELECT n, d FROM _default WHERE n > 5 ORDER BY n")
+
+            val locked = CountDownLatch(1)
+            val release = CountDownLatch(1)
+            val batch = Thread {
+                db.inBatch<CouchbaseLiteException> {
+                    locked.countDown()
+                    release.await(STD_TIMEOUT_SEC, TimeUnit.SECONDS)
+                }
+            }
+            batch.start()
+            try {
+                Assert.assertTrue(locked.await(STD_TIMEOUT_SEC, TimeUnit.SECONDS))
+
+                query.execute().use { rs ->
+                    val results = rs.allResults()
+                    Assert.assertEquals(listOf(6, 7, 8, 9, 10), results.map { it.getInt("n") })
+                    Assert.assertEquals(listOf(6, 7, 8, 9, 10), results.map { it.getDictionary("d")?.getInt("m") })
+                }
+                Assert.assertNotNull(query.explain())
+
+                // the batch is still open
+                Assert.assertEquals(1L, release.count)
+            } finally {
+                release.countDown()
+                batch.join(STD_TIMEOUT_SEC * 1000)
+            }
+
+            // queries compiled on a read connection see indexes created later
+            collection.createIndex("nIndex", IndexBuilder.valueIndex(ValueIndexItem.property("n")))
+            Assert.assertTrue(query.explain().contains("USING INDEX nIndex"))
+            query.execute().use { rs -> Assert.assertEquals(5, rs.allResults().size) }
+        } finally {
+            eraseDb(db)
+        }
+    }
+
+    @Test
+    fun testSaveStaleDocReadOnReadConnection() {
+        val db = createDb(getUniqueName("read_conn_db"), DatabaseConfiguration().setReadConnectionCount(2))
+        try {
+            val collection = db.defaultCollection
+            collection.save(MutableDocument("doc1").setString("key", "value1"))
+
+            val staleDoc = collection.getNonNullDoc("doc1").toMutable()
+            collection.save(collection.getNonNullDoc("doc1").toMutable().setString("key", "value2"))
+
+            staleDoc.setString("key", "value3")
+            Assert.assertFalse(collection.save(staleDoc, ConcurrencyControl.FAIL_ON_CONFLICT))
+            Assert.assertEquals("value2", collection.getNonNullDoc("doc1").getString("key"))
+
+            Assert.assertTrue(collection.save(staleDoc, ConcurrencyControl.LAST_WRITE_WINS))
+            Assert.assertEquals("value3", collection.getNonNullDoc("doc1").getString("key"))
+        } finally {
+            eraseDb(db)
+        }
+    }
+
+    @Test
+    fun testUpdateDocWithPatch() {
+        val mDoc = MutableDocument("doc1")
+        mDoc.setInt("count", 1)
+        mDoc.setString("junk", "junk")
+        mDoc.setDictionary("address", MutableDictionary().setString("city", "Oakland"))
+        mDoc.setArray("tags", MutableArray().addString("a"))
+        testCollection.save(mDoc)
+
+        val doc = testCollection.update(
+            mDoc.id,
+            DocumentPatch()
+                .increment("count", 2)
+                .remove("junk")
+                .set("address.city", "Berkeley")
+                .set("address.geo.lat", 37.87)
+                .append("tags", "b")
+        )
+        Assert.assertNotEquals(mDoc.revisionID, doc.revisionID)
+
+        val savedDoc = testCollection.getNonNullDoc(mDoc.id)
+        Assert.assertEquals(doc.revisionID, savedDoc.revisionID)
+        Assert.assertEquals(3, savedDoc.getInt("count"))
+        Assert.assertFalse(savedDoc.contains("junk"))
+        val address = savedDoc.getDictionary("address")
+        Assert.assertEquals("Berkeley", address?.getString("city"))
+        Assert.assertEquals(37.87, address?.getDictionary("geo")?.getDouble("lat") ?: 0.0, 0.0)
+        Assert.assertEquals(listOf("a", "b"), savedDoc.getArray("tags")?.toList())
+    }
+
+    @Test
+    fun testUpdateNonExistentDocWithPatch() {
+        assertThrowsCBLException(CBLError.Domain.CBLITE, CBLError.Code.NOT_FOUND) {
+            testCollection.update("doesnt-exist", DocumentPatch().set("foo", "bar"))
+        }
+    }
+
+    @Test
+    fun testUpdateDocWithBadPatch() {
+        val mDoc = MutableDocument("doc1")
+        mDoc.setString("count", "one")
+        testCollection.save(mDoc)
+
+        assertThrowsCBLException(CBLError.Domain.CBLITE, CBLError.Code.INVALID_PARAMETER) {
+            testCollection.update(mDoc.id, DocumentPatch().increment("count", 1))
+        }
+        Assert.assertEquals("one", testCollection.getNonNullDoc(mDoc.id).getString("count"))
+    }
+
+    // an integer increment that overflows must fail, not wrap or lose precision
+    @Test
+    fun testUpdateDocWithOverflowingIncrement() {
+        val mDoc = MutableDocument("doc1")
+        mDoc.setLong("count", Long.MIN_VALUE)
+        testCollection.save(mDoc)
+
+        assertThrowsCBLException(CBLError.Domain.CBLITE, CBLError.Code.INVALID_PARAMETER) {
+            testCollection.update(mDoc.id, DocumentPatch().increment("count", Long.MIN_VALUE))
+        }
+        Assert.assertEquals(Long.MIN_VALUE, testCollection.getNonNullDoc(mDoc.id).getLong("count"))
+
+        testCollection.update(mDoc.id, DocumentPatch().increment("count", Long.MAX_VALUE))
+        Assert.assertEquals(-1L, testCollection.getNonNullDoc(mDoc.id).getLong("count"))
+    }
+
+    @Test
+    fun testImportJson() {
+        val json = """
+            {"_id": "doc1", "name": "one", "n": 1}
+            {"_id": "doc2", "name": "two", "tags": ["a", "b"]}
+
+            {"_id": "doc3", "nested": {"x": 3}}
+            not json
+            {"name": "no id"}
+            {"_id": "doc1", "name": "duplicate"}
+            """.trimIndent()
+
+        val result = testCollection.importJson(json.byteInputStream(), ImportOptions().setBatchSize(2))
+
+        Assert.assertEquals(6L, result.lineCount)
+        Assert.assertEquals(3L, result.importedCount)
+        Assert.assertEquals(3L, result.errorCount)
+        Assert.assertEquals(listOf(5L, 6L, 7L), result.errors.map { it.line })
+
+        Assert.assertEquals(3, testCollection.count)
+        val doc1 = testCollection.getNonNullDoc("doc1")
+        Assert.assertEquals("one", doc1.getString("name"))
+        Assert.assertEquals(1, doc1.getInt("n"))
+        Assert.assertFalse(doc1.contains("_id"))
+        Assert.assertEquals(listOf("a", "b"), testCollection.getNonNullDoc("doc2").getArray("tags")?.toList())
+        Assert.assertEquals(3, testCollection.getNonNullDoc("doc3").getDictionary("nested")?.getInt("x"))
+    }
+
+    @Test
+    fun testImportJsonWithIdField() {
+        val json = "{\"key\": \"doc1\", \"name\": \"one\"}\r\n{\"key\": \"doc2\", \"name\": \"two\"}"
+
+        val result = testCollection.importJson(json.byteInputStream(), ImportOptions().setIdField("key"))
+
+        Assert.assertEquals(2L, result.importedCount)
+        Assert.assertEquals(0L, result.errorCount)
+        Assert.assertEquals("two", testCollection.getNonNullDoc("doc2").getString("name"))
+    }
+
+    @Test
+    fun testImportJsonIntoCollectionInClosedDB() {
+        closeDb(testDatabase)
+        assertThrowsCBLException(CBLError.Domain.CBLITE, CBLError.Code.NOT_OPEN) {
+            testCollection.importJson("{\"_id\": \"doc1\"}".byteInputStream())
+        }
+    }
+
+    @Test
+    fun testSaveWithDocumentWriter() {
+        DocumentWriter().use { writer ->
+            writer.beginDict()
+                .key("name").value("reading")
+                .key("celsius").value(21.5)
+                .key("count").value(3L)
+                .key("valid").value(true)
+                .key("note").nullValue()
+                .key("location").beginDict().key("room").value("kitchen").endDict()
+                .key("samples").beginArray().value(1L).value(2L).endArray()
+                .endDict()
+            testCollection.save("reading-1", writer)
+
+            // the writer is reusable: saving again replaces the document's properties
+            writer.beginDict().key("name").value("second reading").endDict()
+            testCollection.save("reading-2", writer)
+            writer.beginDict().key("name").value("replaced").endDict()
+            testCollection.save("reading-2", writer)
+        }
+
+        val doc = testCollection.getNonNullDoc("reading-1")
+        Assert.assertEquals("reading", doc.getString("name"))
+        Assert.assertEquals(21.5, doc.getDouble("celsius"), 0.0)
+        Assert.assertEquals(3L, doc.getLong("count"))
+        Assert.assertTrue(doc.getBoolean("valid"))
+        Assert.assertTrue(doc.contains("note"))
+        Assert.assertNull(doc.getValue("note"))
+        Assert.assertEquals("kitchen", doc.getDictionary("location")?.getString("room"))
+        Assert.assertEquals(listOf(1L, 2L), doc.getArray("samples")?.toList())
+
+        val replaced = testCollection.getNonNullDoc("reading-2")
+        Assert.assertEquals("replaced", replaced.getString("name"))
+        Assert.assertEquals(1, replaced.count)
+    }
+
+    @Test
+    fun testSaveIncompleteDocumentWriter() {
+        DocumentWriter().use { writer ->
+            writer.beginDict().key("name").value("incomplete")
+            assertThrowsCBLException(CBLError.Domain.CBLITE, CBLError.Code.INVALID_PARAMETER) {
+                testCollection.save("doc1", writer)
+            }
+            Assert.assertNull(testCollection.getDocument("doc1"))
+
+            // the failed save reset the writer
+            writer.beginDict().key("name").value("complete").endDict()
+            testCollection.save("doc2", writer)
+        }
+        Assert.assertEquals("complete", testCollection.getNonNullDoc("doc2").getString("name"))
+        Assert.assertEquals(1, testCollection.getNonNullDoc("doc2").count)
+    }
+
     //---------------------------------------------
     //  Delete Document
     //---------------------------------------------
@@ -459,6 +1064,46 @@ class CollectionTest : BaseDbTest() {
         assertThrowsCBLException(CBLError.Domain.CBLITE, CBLError.Code.NOT_FOUND) { testCollection.delete(doc1b) }
     }
 
+    @Test
+    fun testDeleteAllDocsInCollection() {
+        val docs = createDocsInCollection(10).map { testCollection.getNonNullDoc(it.id) }
+        Assert.assertEquals(10, testCollection.count)
+
+        Assert.assertEquals(
+            List(docs.size) { true },
+            testCollection.deleteAll(docs, ConcurrencyControl.FAIL_ON_CONFLICT)
+        )
+        Assert.assertEquals(0, testCollection.count)
+
+        docs.forEach { Assert.assertNull(testCollection.getDocument(it.id)) }
+    }
+
+    // a document that has already been deleted through another instance is reported as not deleted
+    @Test
+    fun testDeleteAllDocsAlreadyDeleted() {
+        val doc1a = createDocInCollection()
+        val doc1b = testCollection.getNonNullDoc(doc1a.id)
+        val doc2 = createDocInCollection()
+        testCollection.delete(doc1a)
+
+        Assert.assertEquals(
+            listOf(false, true),
+            testCollection.deleteAll(listOf(doc1b, doc2), ConcurrencyControl.LAST_WRITE_WINS)
+        )
+        Assert.assertEquals(0, testCollection.count)
+    }
+
+    // deleting a batch containing an unsaved document fails before deleting anything
+    @Test
+    fun testDeleteAllDocsWithUnsavedDoc() {
+        val doc = createDocInCollection()
+
+        assertThrowsCBLException(CBLError.Domain.CBLITE, CBLError.Code.NOT_FOUND) {
+            testCollection.deleteAll(listOf(doc, MutableDocument()), ConcurrencyControl.LAST_WRITE_WINS)
+        }
+        Assert.assertEquals(1, testCollection.count)
+    }
+
     //---------------------------------------------
     //  Purge Document
     //---------------------------------------------
@@ -597,6 +1242,46 @@ class CollectionTest : BaseDbTest() {
         assertThrowsCBLException(CBLError.Domain.CBLITE, CBLError.Code.NOT_OPEN) { testCollection.purge(doc) }
     }
 
+    // Test purging several docs, more than a single chunk, reports the ones that don't exist
+    @Test
+    fun testPurgeDocsById() {
+        val mDocs = (1..Collection.BATCH_CHUNK_SIZE + 5).map { MutableDocument().setInt("count", it) }
+        testCollection.saveAll(mDocs, ConcurrencyControl.LAST_WRITE_WINS)
+        Assert.assertEquals(mDocs.size.toLong(), testCollection.count)
+
+        val missing = getUniqueName("missing")
+        val ids = mDocs.map { it.id } + missing
+
+        Assert.assertEquals(listOf(missing), testCollection.purge(ids))
+        Assert.assertEquals(0, testCollection.count)
+    }
+
+    @Test
+    fun testPurgeDocsByIdFromCollectionInClosedDB() {
+        val doc = createDocInCollection()
+        closeDb(testDatabase)
+        assertThrowsCBLException(CBLError.Domain.CBLITE, CBLError.Code.NOT_OPEN) {
+            testCollection.purge(listOf(doc.id))
+        }
+    }
+
+    @Test
+    fun testSetDocsExpiration() {
+        val doc1 = createDocInCollection()
+        val doc2 = createDocInCollection()
+        testCollection.setDocumentExpiration(doc2.id, Date(System.currentTimeMillis() + 60000))
+
+        val missing = getUniqueName("missing")
+        val expiration = Date(System.currentTimeMillis() + 30000)
+
+        Assert.assertEquals(
+            listOf(missing),
+            testCollection.setDocumentExpiration(mapOf(doc1.id to expiration, missing to expiration, doc2.id to null))
+        )
+        Assert.assertEquals(expiration, testCollection.getDocumentExpiration(doc1.id))
+        Assert.assertNull(testCollection.getDocumentExpiration(doc2.id))
+    }
+
     //---------------------------------------------
     //  Index functionalities
     //---------------------------------------------
@@ -698,6 +698,20 @@ public class DictionaryTest extends BaseDbTest {
     }
 
 
+    // Keys read from different documents are the same, interned, String
+    @Test
+    public void testDictKeysAreInterned() {
+        Document doc1 = saveDocInTestCollection(new MutableDocument().setString("interned", "a").setInt("count", 1));
+        Document doc2 = saveDocInTestCollection(new MutableDocument().setString("interned", "b").setInt("count", 2));
+
+        String key1 = findKey(doc1.getKeys(), "interned");
+        Assert.assertSame(key1, findKey(doc2.getKeys(), "interned"));
+
+        Map<String, Object> map = doc2.toMap();
+        Assert.assertEquals("b", map.get("interned"));
+        Assert.assertSame(key1, findKey(new ArrayList<>(map.keySet()), "interned"));
+    }
+
     /// ////////////  JSON tests
     // https://docs.google.com/document/d/1H0mnutn-XXIADvGT_EjINAOVwt0Ea8vwW70v0i_PO54
 
@@ -724,6 +738,33 @@ public class DictionaryTest extends BaseDbTest {
         verifyDict(new JSONObject(dbDict.toJSON()));
     }
 
+    @Test
+    public void testDictFromJSONReadBeforeSave() throws CouchbaseLiteException {
+        MutableDictionary mDict = new MutableDictionary(
+            "{\"name\": \"Scott\", \"age\": 42, \"address\": {\"city\": \"Oakland\", \"zip\": [9, 4, 6, 1, 0]},"
+                + " \"photo\": {\"@type\": \"blob\", \"digest\": \"sha1-xyz\"}}");
+
+        Assert.assertEquals(4, mDict.count());
+        Assert.assertEquals("Scott", mDict.getString("name"));
+        Assert.assertEquals(42, mDict.getInt("age"));
+
+        MutableDictionary address = mDict.getDictionary("address");
+        Assert.assertNotNull(address);
+        Assert.assertEquals("Oakland", address.getString("city"));
+        Assert.assertEquals(5, address.getArray("zip").count());
+
+        // not in a database: this is just a dictionary
+        Assert.assertNotNull(mDict.getDictionary("photo"));
+
+        mDict.remove("photo");
+        address.setString("city", "Berkeley");
+        MutableDocument mDoc = new MutableDocument().setDictionary("dict", mDict);
+        Dictionary dbDict = saveDocInTestCollection(mDoc).getDictionary("dict");
+        Assert.assertEquals("Scott", dbDict.getString("name"));
+        Assert.assertEquals("Berkeley", dbDict.getDictionary("address").getString("city"));
+        Assert.assertEquals(0, dbDict.getDictionary("address").getArray("zip").getInt(4));
+    }
+
     // JSON 3.6.c.1
     @Test
     public void testDictFromBadJSON1() {
@@ -749,6 +790,13 @@ public class DictionaryTest extends BaseDbTest {
     }
 
 
+    private String findKey(List<String> keys, String key) {
+        for (String k: keys) {
+            if (key.equals(k)) { return k; }
+        }
+        throw new AssertionError("key not found: " + key);
+    }
+
     // Kotlin shim functions
 
     private Document saveDocInTestCollection(MutableDocument mDoc) {
@@ -1550,6 +1550,258 @@ public class DocumentTest extends BaseDbTest {
         Assert.assertEquals(newProps, existingDoc.toMap());
     }
 
+    // Saving a small edit to a big document must preserve all of the entries that were not touched
+    @Test
+    public void testSaveSmallEditToLargeDoc() throws CouchbaseLiteException {
+        Map<String, Object> props = new HashMap<>();
+        for (int i = 0; i < 500; i++) { props.put("key" + i, "value" + i); }
+        saveDocInTestCollection(new MutableDocument("doc1", props));
+
+        MutableDocument mDoc = getTestCollection().getDocument("doc1").toMutable();
+        Assert.assertEquals("value7", mDoc.getString("key7"));
+        mDoc.setString("key3", "changed");
+        mDoc.remove("key5");
+        mDoc.setString("newKey", "new");
+        saveDocInTestCollection(mDoc);
+
+        props.put("key3", "changed");
+        props.remove("key5");
+        props.put("newKey", "new");
+        Assert.assertEquals(props, getTestCollection().getDocument("doc1").toMap());
+    }
+
+    // toMap on a stored document converts the whole tree at once: it must still produce Blobs and nested Maps
+    @Test
+    public void testToMapOfStoredDoc() throws CouchbaseLiteException {
+        MutableDocument mDoc = new MutableDocument("doc1");
+        mDoc.setString("name", "Scott");
+        mDoc.setLong("big", Long.MAX_VALUE);
+        mDoc.setDouble("pi", 3.14159);
+        mDoc.setBoolean("ok", true);
+        mDoc.setValue("nothing", null);
+        mDoc.setDictionary("address", new MutableDictionary().setString("city", "Oakland").setInt("zip", 94610));
+        mDoc.setArray("tags", new MutableArray().addString("a").addInt(2).addDictionary(new MutableDictionary()));
+        mDoc.setBlob("photo", new Blob("text/plain", "hello".getBytes(StandardCharsets.UTF_8)));
+        saveDocInTestCollection(mDoc);
+
+        Map<String, Object> map = getTestCollection().getDocument("doc1").toMap();
+        Assert.assertEquals(8, map.size());
+        Assert.assertEquals("Scott", map.get("name"));
+        Assert.assertEquals(Long.MAX_VALUE, map.get("big"));
+        Assert.assertEquals(3.14159, ((Number) map.get("pi")).doubleValue(), 0.000001);
+        Assert.assertEquals(Boolean.TRUE, map.get("ok"));
+        Assert.assertTrue(map.containsKey("nothing"));
+        Assert.assertNull(map.get("nothing"));
+
+        Map<?, ?> address = (Map<?, ?>) map.get("address");
+        Assert.assertEquals("Oakland", address.get("city"));
+        Assert.assertEquals(94610L, ((Number) address.get("zip")).longValue());
+
+        List<?> tags = (List<?>) map.get("tags");
+        Assert.assertEquals(3, tags.size());
+        Assert.assertEquals("a", tags.get(0));
+        Assert.assertTrue(tags.get(2) instanceof Map);
+
+        Blob blob = (Blob) map.get("photo");
+        Assert.assertEquals("hello", new String(blob.getContent(), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void testGetWithDictKey() throws CouchbaseLiteException {
+        final DictKey name = new DictKey("name");
+        final DictKey age = new DictKey("age");
+        final DictKey city = new DictKey("city");
+        final DictKey missing = new DictKey("missing");
+
+        for (int i = 0; i < 3; i++) {
+            MutableDocument mDoc = new MutableDocument("doc" + i);
+            mDoc.setString("name", "user" + i);
+            mDoc.setInt("age", 20 + i);
+            mDoc.setDictionary("address", new MutableDictionary().setString("city", "city" + i));
+            saveDocInTestCollection(mDoc);
+        }
+
+        for (int i = 0; i < 3; i++) {
+            Document doc = getTestCollection().getDocument("doc" + i);
+            Assert.assertTrue(doc.contains(name));
+            Assert.assertEquals("user" + i, doc.getString(name));
+            Assert.assertEquals(20 + i, doc.getInt(age));
+            Assert.assertEquals(20L + i, doc.getValue(age));
+            Assert.assertEquals("city" + i, doc.getDictionary("address").getString(city));
+            Assert.assertFalse(doc.contains(missing));
+            Assert.assertNull(doc.getValue(missing));
+        }
+
+        // works on unsaved, mutable content too
+        MutableDocument mDoc = getTestCollection().getDocument("doc1").toMutable();
+        mDoc.setString("name", "changed");
+        Assert.assertEquals("changed", mDoc.getString(name));
+    }
+
+    @Test
+    public void testFreezeDocument() throws CouchbaseLiteException {
+        MutableDocument mDoc = new MutableDocument("doc1");
+        mDoc.setString("name", "Scott");
+        mDoc.setInt("age", 42);
+        mDoc.setDouble("score", 97.5);
+        mDoc.setBoolean("active", true);
+        mDoc.setDictionary("address", new MutableDictionary().setString("city", "Berkeley"));
+        mDoc.setArray("tags", new MutableArray().addString("a").addValue(new MutableDictionary().setInt("n", 3)));
+        Document doc = saveDocInTestCollection(mDoc);
+
+        FrozenDocument frozen = doc.freeze();
+        Assert.assertEquals(doc.getId(), frozen.getId());
+        Assert.assertEquals(doc.getRevisionID(), frozen.getRevisionID());
+        Assert.assertEquals(doc.getSequence(), frozen.getSequence());
+        Assert.assertEquals(doc.toMap(), frozen.toMap());
+
+        Assert.assertEquals("Scott", frozen.getString("name"));
+        Assert.assertEquals(42, frozen.getInt("age"));
+        Assert.assertEquals(97.5, frozen.getDouble("score"), 0.0);
+        Assert.assertTrue(frozen.getBoolean("active"));
+        Assert.assertEquals("Berkeley", frozen.getDictionary("address").getString("city"));
+        FrozenArray tags = frozen.getArray("tags");
+        Assert.assertNotNull(tags);
+        Assert.assertEquals("a", tags.getString(0));
+        Assert.assertEquals(3, tags.getDictionary(1).getInt("n"));
+        Assert.assertNull(frozen.getValue("missing"));
+
+        // the snapshot does not see later changes...
+        saveDocInTestCollection(doc.toMutable().setString("name", "Daniel"));
+        Assert.assertEquals("Scott", frozen.getString("name"));
+
+        // ... but a new one does
+        FrozenDocument current = getTestCollection().getFrozenDocument("doc1");
+        Assert.assertNotNull(current);
+        Assert.assertEquals("Daniel", current.getString("name"));
+        Assert.assertNotEquals(frozen, current);
+        Assert.assertNull(getTestCollection().getFrozenDocument("doc2"));
+
+        // and toMap returns a copy that may be modified freely
+        Map<String, Object> map = frozen.toMap();
+        map.put("name", "Hobbs");
+        Assert.assertEquals("Scott", frozen.getString("name"));
+    }
+
+    @Test
+    public void testContentEqualityAndDigest() throws CouchbaseLiteException {
+        Document doc1 = saveDocInTestCollection(makeContentDoc("doc1"));
+        Document doc2 = saveDocInTestCollection(makeContentDoc("doc2"));
+
+        // saved content is compared and hashed natively...
+        Dictionary address1 = doc1.getDictionary("address");
+        Dictionary address2 = doc2.getDictionary("address");
+        Assert.assertEquals(address1, address2);
+        Assert.assertEquals(address1.hashCode(), address2.hashCode());
+        Assert.assertEquals(doc1.getArray("scores"), doc2.getArray("scores"));
+        Assert.assertEquals(doc1.getArray("scores").hashCode(), doc2.getArray("scores").hashCode());
+
+        // ... consistently with the same content in Java
+        MutableDictionary mAddress = new MutableDictionary().setString("city", "Berkeley").setInt("zip", 94703);
+        Assert.assertEquals(mAddress, address1);
+        Assert.assertEquals(mAddress.hashCode(), address1.hashCode());
+        MutableArray mScores = new MutableArray().addInt(1).addDouble(2.5).addString("three");
+        Assert.assertEquals(mScores.hashCode(), doc1.getArray("scores").hashCode());
+
+        // the digest depends only on the content
+        String digest = doc1.contentDigest();
+        Assert.assertTrue(digest.startsWith("sha1-"));
+        Assert.assertEquals(digest, doc2.contentDigest());
+        Assert.assertEquals(digest, makeContentDoc("doc3").contentDigest());
+
+        Document doc3 = saveDocInTestCollection(doc2.toMutable().setString("name", "Daniel"));
+        Assert.assertNotEquals(digest, doc3.contentDigest());
+        Assert.assertNotEquals(doc1.getContent(), doc3.getContent());
+    }
+
+    @Test
+    public void testDocumentDelta() throws CouchbaseLiteException {
+        Document rev1 = saveDocInTestCollection(makeContentDoc("doc1"));
+        MutableDocument mDoc = rev1.toMutable();
+        mDoc.setString("name", "Daniel");
+        mDoc.remove("scores");
+        mDoc.getDictionary("address").setInt("zip", 94704);
+        Document rev2 = saveDocInTestCollection(mDoc);
+
+        String delta = rev2.createDelta(rev1);
+        Assert.assertNotNull(delta);
+        // unchanged values are not part of the delta
+        Assert.assertFalse(delta.contains("Berkeley"));
+
+        MutableDocument replica = rev1.toMutable().applyDelta(delta);
+        Assert.assertEquals(rev2.toMap(), replica.toMap());
+        Assert.assertEquals(rev2.contentDigest(), replica.contentDigest());
+
+        // unsaved documents are encoded first
+        String delta2 = rev2.createDelta(makeContentDoc("doc2"));
+        Assert.assertNotNull(delta2);
+        Assert.assertEquals(rev2.toMap(), makeContentDoc("doc3").applyDelta(delta2).toMap());
+
+        Assert.assertThrows(IllegalArgumentException.class, () -> rev1.toMutable().applyDelta("not a delta"));
+    }
+
+    @Test
+    public void testDeltaWithBlob() throws CouchbaseLiteException {
+        final byte[] content = BLOB_CONTENT.getBytes(StandardCharsets.UTF_8);
+
+        Document rev1 = saveDocInTestCollection(new MutableDocument("doc1").setString("name", "rev1"));
+
+        // creating a delta does not save an unsaved blob
+        Blob blob = new Blob("text/plain", content);
+        MutableDocument mDoc = rev1.toMutable().setBlob("blob", blob);
+        Assert.assertNotNull(mDoc.createDelta(rev1));
+        Assert.assertNull(blob.digest());
+
+        Document rev2 = saveDocInTestCollection(mDoc);
+        String delta = rev2.createDelta(rev1);
+        Assert.assertNotNull(delta);
+
+        // a blob in the result of a delta is a blob
+        Blob replicaBlob = rev1.toMutable().applyDelta(delta).getBlob("blob");
+        Assert.assertNotNull(replicaBlob);
+        Assert.assertEquals(rev2.getBlob("blob"), replicaBlob);
+        Assert.assertArrayEquals(content, replicaBlob.getContent());
+
+        // a document with no database has nowhere from which to load the blob
+        Assert.assertNotNull(new MutableDocument("doc2").applyDelta(delta).getDictionary("blob"));
+    }
+
+    @Test
+    public void testContentEqualityAndDigestWithBlob() throws CouchbaseLiteException {
+        final byte[] content = BLOB_CONTENT.getBytes(StandardCharsets.UTF_8);
+
+        // computing the digest of an unsaved blob does not save it...
+        MutableDocument mDoc1 = new MutableDocument("doc1").setBlob("blob", new Blob("text/plain", content));
+        String digest = mDoc1.contentDigest();
+        // ... and is the digest that the content will have once it is saved
+        Document doc1 = saveDocInTestCollection(mDoc1);
+        Assert.assertEquals(digest, doc1.contentDigest());
+
+        // blobs are equal if their digests are equal, natively as in Java
+        Document doc2 = saveDocInTestCollection(
+            new MutableDocument("doc2").setBlob("blob", new Blob("application/octet-stream", content)));
+        Assert.assertEquals(doc1.getBlob("blob"), doc2.getBlob("blob"));
+        Assert.assertEquals(doc1.getContent(), doc2.getContent());
+        Assert.assertEquals(doc1.getContent().hashCode(), doc2.getContent().hashCode());
+        Assert.assertEquals(doc1.getContent().toMutable().hashCode(), doc2.getContent().hashCode());
+    }
+
+    @Test
+    public void testContentEqualityWithData() throws CouchbaseLiteException {
+        final byte[] content = BLOB_CONTENT.getBytes(StandardCharsets.UTF_8);
+
+        // a patch writes a byte[] as Fleece data: Java sees it as a Blob
+        saveDocInTestCollection(new MutableDocument("doc1").setString("name", "Scott"));
+        Document doc = getTestCollection().update("doc1", new DocumentPatch().set("data", content));
+        Assert.assertNotNull(doc.getBlob("data"));
+
+        MutableDictionary mContent = new MutableDictionary()
+            .setString("name", "Scott")
+            .setBlob("data", new Blob("application/octet-stream", content));
+        Assert.assertEquals(mContent, doc.getContent());
+        Assert.assertEquals(mContent.hashCode(), doc.getContent().hashCode());
+    }
+
     @Test
     public void testContainsKey() {
         MutableDocument doc = new MutableDocument("doc1");
@@ -2800,6 +3052,14 @@ public class DocumentTest extends BaseDbTest {
         doc.setValue("blob", new Blob("text/plain", BLOB_CONTENT.getBytes(StandardCharsets.UTF_8)));
     }
 
+    private MutableDocument makeContentDoc(String id) {
+        MutableDocument mDoc = new MutableDocument(id);
+        mDoc.setString("name", "Scott");
+        mDoc.setDictionary("address", new MutableDictionary().setString("city", "Berkeley").setInt("zip", 94703));
+        mDoc.setArray("scores", new MutableArray().addInt(1).addDouble(2.5).addString("three"));
+        return mDoc;
+    }
+
     // Kotlin shim functions
 
     private Document saveDocInTestCollection(MutableDocument mDoc) {
@@ -19,21 +19,26 @@ import androidx.annotation.NonNull;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.BitSet;
 import java.util.Calendar;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.Date;
 import java.util.GregorianCalendar;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
+import java.util.NoSuchElementException;
 import java.util.TimeZone;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import org.junit.Assert;
 import org.junit.Assume;
@@ -42,6 +47,7 @@ import org.junit.Test;
 import com.couchbase.lite.internal.utils.FlakyTest;
 import com.couchbase.lite.internal.utils.Fn;
 import com.couchbase.lite.internal.utils.MathUtils;
+import com.couchbase.lite.internal.utils.Preconditions;
 import com.couchbase.lite.internal.utils.Report;
 import com.couchbase.lite.internal.utils.SlowTest;
 
@@ -2178,6 +2184,189 @@ public class QueryTest extends BaseQueryTest {
         }
     }
 
+    // Throws clause prevents Windows compiler error
+    @Test
+    public void testResultSetLazyIteration() throws Exception {
+        List<String> docIds = Fn.mapToList(loadDocuments(5), Document::getId);
+
+        Query query = QueryBuilder.select(SelectResult.expression(Meta.id))
+            .from(DataSource.collection(getTestCollection()))
+            .orderBy(Ordering.property(TEST_DOC_SORT_KEY));
+
+        // The iterator fetches rows only as they are needed
+        try (ResultSet rs = query.execute()) {
+            Iterator<Result> itr = rs.iterator();
+            Assert.assertTrue(itr.hasNext());
+            Assert.assertEquals(docIds.get(0), itr.next().getString(0));
+            Assert.assertEquals(docIds.get(1), Preconditions.assertNotNull(rs.next(), "result").getString(0));
+            Assert.assertEquals(docIds.get(2), itr.next().getString(0));
+            Assert.assertEquals(docIds.size() - 3, rs.allResults().size());
+            Assert.assertFalse(itr.hasNext());
+            Assert.assertThrows(NoSuchElementException.class, itr::next);
+        }
+
+        // Closing the stream closes the ResultSet
+        ResultSet rs = query.execute();
+        try (Stream<Result> results = rs.stream()) {
+            Assert.assertEquals(docIds, results.map(r -> r.getString(0)).collect(Collectors.toList()));
+        }
+        Assert.assertTrue(rs.isClosed());
+    }
+
+    @Test
+    public void testResultSetPrefetch() throws Exception {
+        List<String> docIds = Fn.mapToList(loadDocuments(5), Document::getId);
+
+        Query query = QueryBuilder.select(SelectResult.expression(Meta.id), SelectResult.property("nosuch"))
+            .from(DataSource.collection(getTestCollection()))
+            .orderBy(Ordering.property(TEST_DOC_SORT_KEY));
+
+        // Rows fetched in blocks that do not evenly divide the result set
+        try (ResultSet rs = query.execute()) {
+            rs.setPrefetchRows(2);
+            List<String> ids = new ArrayList<>();
+            for (Result r: rs) {
+                Assert.assertFalse(r.contains("nosuch"));
+                Assert.assertNull(r.getValue(1));
+                ids.add(r.getString(0));
+            }
+            Assert.assertEquals(docIds, ids);
+            Assert.assertNull(rs.next());
+        }
+    }
+
+    @Test
+    public void testResultSetToColumns() throws CouchbaseLiteException {
+        for (int i = 0; i < 10; i++) {
+            MutableDocument doc = new MutableDocument(String.format(Locale.ROOT, "doc-%02d", i));
+            doc.setInt("n", i);
+            doc.setDouble("x", i + 0.5);
+            if (i % 2 == 0) { doc.setString("s", "str" + i); }
+            else { doc.setValue("s", null); }
+            saveDocInTestCollection(doc);
+        }
+
+        Query query = QueryBuilder.select(
+                SelectResult.property("n"),
+                SelectResult.property("x"),
+                SelectResult.property("s"),
+                SelectResult.property("nosuch"))
+            .from(DataSource.collection(getTestCollection()))
+            .orderBy(Ordering.property("n"));
+
+        // Read one row with next(), then the rest as columns, in blocks that do not evenly divide the rows
+        ColumnarResult cols;
+        try (ResultSet rs = query.execute()) {
+            rs.setPrefetchRows(3);
+            Assert.assertEquals(0, Preconditions.assertNotNull(rs.next(), "result").getInt(0));
+            cols = rs.toColumns();
+            Assert.assertNull(rs.next());
+        }
+
+        Assert.assertEquals(Arrays.asList("n", "x", "s", "nosuch"), cols.getColumnNames());
+        Assert.assertEquals(9, cols.getRowCount());
+        Assert.assertEquals(1, cols.getColumnIndex("x"));
+
+        long[] ns = cols.getLongs(0);
+        double[] xs = cols.getDoubles(1);
+        String[] ss = cols.getStrings(2);
+        BitSet nulls = cols.getNulls(2);
+        for (int i = 0; i < 9; i++) {
+            int n = i + 1;
+            Assert.assertEquals(n, ns[i]);
+            Assert.assertEquals(n + 0.5, xs[i], 0.0);
+            Assert.assertEquals((n % 2 == 0) ? "str" + n : null, ss[i]);
+            Assert.assertEquals(n % 2 != 0, nulls.get(i));
+        }
+
+        Assert.assertTrue(cols.getMissing(2).isEmpty());
+        Assert.assertEquals(9, cols.getMissing(3).cardinality());
+        Assert.assertArrayEquals(new long[9], cols.getLongs(3));
+    }
+
+    @Test
+    public void testQueryCache() throws CouchbaseLiteException {
+        loadDocuments(10);
+        Database db = getTestDatabase();
+        db.setQueryCacheSize(10);
+
+        String n1ql = "SELECT " + TEST_DOC_SORT_KEY + " FROM " + BaseDbTestKt.getQualifiedName(getTestCollection())
+            + " WHERE " + TEST_DOC_SORT_KEY + " > $min";
+
+        // The second query, with the same text, uses the compiled query cached for the first
+        Query query1 = db.createQuery(n1ql);
+        Parameters params = new Parameters();
+        params.setInt("min", 0);
+        query1.setParameters(params);
+        Assert.assertEquals(10, query1.execute().allResults().size());
+        long misses = db.getQueryCacheMisses();
+        Assert.assertTrue(db.getQueryCompileTimeNs() > 0);
+
+        Query query2 = db.createQuery("  " + n1ql + "\n");
+        params = new Parameters();
+        params.setInt("min", 5);
+        query2.setParameters(params);
+        Assert.assertEquals(5, query2.execute().allResults().size());
+        Assert.assertEquals(1, db.getQueryCacheHits());
+        Assert.assertEquals(misses, db.getQueryCacheMisses());
+
+        // Parameters set on one query do not affect another that shares its compiled query
+        Assert.assertEquals(10, query1.execute().allResults().size());
+
+        // Creating an index invalidates the cache
+        getTestCollection().createIndex("sortKey", IndexBuilder.valueIndex(ValueIndexItem.property(TEST_DOC_SORT_KEY)));
+        Assert.assertEquals(10, query1.execute().allResults().size());
+        Assert.assertEquals(misses + 1, db.getQueryCacheMisses());
+
+        // A disabled cache is not consulted at all
+        db.setQueryCacheSize(0);
+        long hits = db.getQueryCacheHits();
+        Query query3 = db.createQuery(n1ql);
+        query3.setParameters(params);
+        Assert.assertEquals(5, query3.execute().allResults().size());
+        Assert.assertEquals(hits, db.getQueryCacheHits());
+        Assert.assertEquals(misses + 1, db.getQueryCacheMisses());
+    }
+
+    @Test
+    public void testPreparedQuery() throws CouchbaseLiteException {
+        loadDocuments(10);
+
+        PreparedQuery query = getTestDatabase().createQuery(
+                "SELECT " + TEST_DOC_SORT_KEY + " FROM " + BaseDbTestKt.getQualifiedName(getTestCollection())
+                    + " WHERE " + TEST_DOC_SORT_KEY + " > $min")
+            .prepare("min");
+        Assert.assertEquals(0, query.getSlot("min"));
+        Assert.assertEquals(-1, query.getSlot("max"));
+
+        try (Bindings bindings = query.newBindings()) {
+            try (ResultSet rs = query.execute(bindings.bind(0, 0L))) { Assert.assertEquals(10, rs.allResults().size()); }
+            try (ResultSet rs = query.execute(bindings.bind(0, 5L))) { Assert.assertEquals(5, rs.allResults().size()); }
+            // the same bindings, executed again
+            try (ResultSet rs = query.execute(bindings)) { Assert.assertEquals(5, rs.allResults().size()); }
+            try (ResultSet rs = query.execute(bindings.bind(0, 7.5))) { Assert.assertEquals(3, rs.allResults().size()); }
+
+            Assert.assertThrows(IndexOutOfBoundsException.class, () -> bindings.bind(1, 3L));
+        }
+
+        // Bindings from one query cannot be used with another
+        PreparedQuery query2 = getTestDatabase().createQuery(
+                "SELECT " + TEST_DOC_SORT_KEY + " FROM " + BaseDbTestKt.getQualifiedName(getTestCollection()))
+            .prepare();
+        try (Bindings bindings = query.newBindings()) {
+            Assert.assertThrows(IllegalArgumentException.class, () -> query2.execute(bindings));
+        }
+        try (ResultSet rs = query2.execute()) { Assert.assertEquals(10, rs.allResults().size()); }
+
+        // Each parameter has exactly one slot
+        Assert.assertThrows(
+            IllegalArgumentException.class,
+            () -> getTestDatabase().createQuery(
+                    "SELECT " + TEST_DOC_SORT_KEY + " FROM " + BaseDbTestKt.getQualifiedName(getTestCollection())
+                        + " WHERE " + TEST_DOC_SORT_KEY + " > $min")
+                .prepare("min", "min"));
+    }
+
     // Throws clause prevents Windows compiler error
     @Test
     public void testGetAllResults() throws Exception {
@@ -24,6 +24,15 @@ const val JSON_QUERY =
 
 val mockMockQueryEnumerator = object : C4QueryEnumerator.NativeImpl {
     override fun nNext(peer: Long) = false
+    override fun nNextRows(peer: Long, maxRows: Int, nCols: Int, rows: LongArray) = 0
+    override fun nNextColumns(
+        peer: Long,
+        maxRows: Int,
+        nCols: Int,
+        types: ByteArray,
+        values: LongArray,
+        strings: Array<String?>
+    ) = 0
     override fun nFree(peer: Long) = Unit
     override fun nGetColumns(peer: Long) = 0L
     override fun nGetMissingColumns(peer: Long) = 0L
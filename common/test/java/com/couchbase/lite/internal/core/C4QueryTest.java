@@ -16,6 +16,7 @@
 package com.couchbase.lite.internal.core;
 
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
@@ -288,6 +289,30 @@ public class C4QueryTest extends C4QueryBaseTest {
         e.close();
     }
 
+    // - Rows fetched in blocks
+    @Test
+    public void testNextRows() throws LiteCoreException {
+        compileSelect("'WHAT': [['.name.first'], ['.XX']], 'ORDER_BY': [['.name.first']], 'LIMIT': 5");
+        List<String> expected = new ArrayList<>();
+        try (C4QueryEnumerator e = runQuery(query)) {
+            while (e.next()) { expected.add(e.getColumns().getValueAt(0).asString()); }
+        }
+        Assert.assertEquals(5, expected.size());
+
+        List<String> actual = new ArrayList<>();
+        long[] rows = new long[2 * 3];
+        try (C4QueryEnumerator e = runQuery(query)) {
+            int n;
+            while ((n = e.nextRows(2, 2, rows)) > 0) {
+                for (int i = 0; i < n; i++) {
+                    Assert.assertEquals(0x02, rows[3 * i]);
+                    actual.add(FLValue.getFLValue(rows[(3 * i) + 1]).asString());
+                }
+            }
+        }
+        Assert.assertEquals(expected, actual);
+    }
+
     // ----- FTS:
 
     // - Full-text query
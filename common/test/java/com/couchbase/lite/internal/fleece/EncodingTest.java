@@ -18,8 +18,11 @@ package com.couchbase.lite.internal.fleece;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 
+import java.nio.ByteBuffer;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 import org.junit.Assert;
@@ -140,6 +143,102 @@ public class EncodingTest extends BaseTest {
             null);
     }
 
+    @Test
+    public void testSliceAsByteBuffer() throws LiteCoreException {
+        Map<String, Object> map = new HashMap<>();
+        map.put("foo", "bar");
+        map.put("answer", 42L);
+
+        try (FLEncoder encoder = FLEncoder.getManagedEncoder()) {
+            Assert.assertTrue(encoder.writeValue(map));
+            try (FLSliceResult slice = encoder.finish2()) {
+                final byte[] expected = slice.getContent();
+                Assert.assertNotNull(expected);
+
+                final ByteBuffer buf = slice.asReadOnlyByteBuffer();
+                Assert.assertTrue(buf.isDirect());
+                Assert.assertTrue(buf.isReadOnly());
+                Assert.assertEquals(expected.length, buf.remaining());
+                final byte[] actual = new byte[buf.remaining()];
+                buf.duplicate().get(actual);
+                Assert.assertArrayEquals(expected, actual);
+
+                // ... and back into native memory, without a copy on the Java heap
+                try (FLSliceResult copy = FLSliceResult.copyOf(buf)) {
+                    Assert.assertArrayEquals(expected, copy.getContent());
+                    Assert.assertEquals(map, toObject(FLValue.fromData(copy)));
+                }
+            }
+        }
+    }
+
+    // Writes are buffered: exercise values written by handle, multi-byte strings and a buffer
+    // big enough to be sent to native before the encoding is finished.
+    // writes that are out of place are refused when they are made
+    @Test
+    public void testMisplacedWrites() throws LiteCoreException {
+        try (FLEncoder encoder = FLEncoder.getManagedEncoder()) {
+            Assert.assertFalse(encoder.writeKey("key"));
+            Assert.assertFalse(encoder.endDict());
+            Assert.assertFalse(encoder.endArray());
+
+            Assert.assertTrue(encoder.beginDict(2));
+            Assert.assertFalse(encoder.writeString("no key"));
+            Assert.assertFalse(encoder.endArray());
+            Assert.assertTrue(encoder.writeKey("list"));
+            Assert.assertFalse(encoder.endDict());
+            Assert.assertTrue(encoder.beginArray(1));
+            Assert.assertFalse(encoder.writeKey("key"));
+            Assert.assertTrue(encoder.writeInt(1));
+            Assert.assertFalse(encoder.endDict());
+            Assert.assertTrue(encoder.endArray());
+            Assert.assertFalse(encoder.writeInt(2));
+            Assert.assertTrue(encoder.endDict());
+
+            try (FLSliceResult slice = encoder.finish2()) {
+                Assert.assertEquals(
+                    Collections.singletonMap("list", Collections.singletonList(1L)),
+                    toObject(FLValue.fromData(slice)));
+            }
+        }
+    }
+
+    @Test
+    public void testBufferedWrites() throws LiteCoreException {
+        final List<Object> nested = Arrays.asList(1L, "two", 3.5);
+        final StringBuilder big = new StringBuilder();
+        for (int i = 0; i < FLCommandBuffer.FLUSH_SIZE; i++) { big.append((char) ('a' + (i % 26))); }
+
+        try (FLEncoder nestedEncoder = FLEncoder.getManagedEncoder()) {
+            Assert.assertTrue(nestedEncoder.writeValue(nested));
+            try (FLSliceResult nestedSlice = nestedEncoder.finish2();
+                 FLEncoder encoder = FLEncoder.getManagedEncoder()) {
+                Assert.assertTrue(encoder.beginDict(5));
+                Assert.assertTrue(encoder.writeKey("unicode"));
+                Assert.assertTrue(encoder.writeString("caf\u00e9 \u4e2d\u6587 \uD83D\uDE00"));
+                Assert.assertTrue(encoder.writeKey("nested"));
+                Assert.assertTrue(encoder.writeValue(FLValue.fromData(nestedSlice)));
+                Assert.assertTrue(encoder.writeKey("big"));
+                Assert.assertTrue(encoder.writeString(big.toString()));
+                Assert.assertTrue(encoder.writeKey("float"));
+                Assert.assertTrue(encoder.writeFloat(1.5F));
+                Assert.assertTrue(encoder.writeKey("data"));
+                Assert.assertTrue(encoder.writeData(new byte[] {1, 2, 3}));
+                Assert.assertTrue(encoder.endDict());
+
+                try (FLSliceResult slice = encoder.finish2()) {
+                    final Map<?, ?> map = (Map<?, ?>) toObject(FLValue.fromData(slice));
+                    Assert.assertNotNull(map);
+                    Assert.assertEquals("caf\u00e9 \u4e2d\u6587 \uD83D\uDE00", map.get("unicode"));
+                    Assert.assertEquals(nested, map.get("nested"));
+                    Assert.assertEquals(big.toString(), map.get("big"));
+                    Assert.assertEquals(1.5, ((Number) map.get("float")).doubleValue(), 0.0);
+                    Assert.assertArrayEquals(new byte[] {1, 2, 3}, (byte[]) map.get("data"));
+                }
+            }
+        }
+    }
+
     private void testRoundTrip(Object item) throws LiteCoreException { testRoundTrip(item, item); }
 
     private void testRoundTrip(Object item, Object expected) throws LiteCoreException {